@@ -0,0 +1,523 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The permutations, k-permutations or combinations of the elements of a
+ * collection, addressable by rank.
+ * <p>
+ * An arrangement is a list of {@code k} elements picked at distinct positions
+ * of the source collection. Arrangements are ordered lexicographically by these
+ * positions, and the rank of an arrangement is its index in that order:
+ * </p>
+ * <ul>
+ *   <li>{@link #permutations(Collection)} are the {@code n!} orderings of all elements,
+ *       ranked by their Lehmer code</li>
+ *   <li>{@link #permutations(Collection, int)} are the {@code n! / (n - k)!} orderings of
+ *       {@code k} elements, ranked in the falling factorial number system</li>
+ *   <li>{@link #combinations(Collection, int)} are the {@code n! / (k! (n - k)!)} selections of
+ *       {@code k} elements in source order, ranked in the combinatorial number system</li>
+ * </ul>
+ * <p>
+ * Nothing is generated up front. {@link #get(long)} computes any arrangement from
+ * its rank and {@link #rank(int[])} does the reverse. The {@link #spliterator()} covers a
+ * range of ranks and splits it in halves, so that {@link #parallelStream()} or
+ * other workers can each take a range of the space. Each spliterator unranks its
+ * first arrangement and then steps to the next one in amortized constant time.
+ * </p>
+ * <p>
+ * Each returned list is a new modifiable {@code ArrayList}. Equal elements at
+ * different positions are treated as distinct, as in {@link CollectionUtils#permutations(Collection)}.
+ * Unlike that method and {@link org.apache.commons.collections4.iterators.PermutationIterator},
+ * which use the Steinhaus-Johnson-Trotter order, the order here is lexicographic.
+ * </p>
+ * <p>
+ * This class is immutable and thread-safe; it copies the source collection.
+ * </p>
+ *
+ * @param <E> the type of the elements
+ * @since 4.5
+ */
+public final class Arrangements<E> implements Iterable<List<E>> {
+
+    /**
+     * Creates the permutations of all elements of a collection.
+     *
+     * @param <E> the type of the elements
+     * @param collection  the collection to permute, must not be null
+     * @return the permutations
+     * @throws NullPointerException if the collection is null
+     * @throws IllegalArgumentException if there are more than {@code Long.MAX_VALUE} permutations
+     */
+    public static <E> Arrangements<E> permutations(final Collection<? extends E> collection) {
+        Objects.requireNonNull(collection, "collection");
+        return new Arrangements<>(collection, collection.size(), true);
+    }
+
+    /**
+     * Creates the k-permutations of a collection, the ordered selections of {@code k} elements.
+     *
+     * @param <E> the type of the elements
+     * @param collection  the collection to permute, must not be null
+     * @param k  the number of elements in each permutation
+     * @return the k-permutations
+     * @throws NullPointerException if the collection is null
+     * @throws IllegalArgumentException if k is negative or greater than the size of the collection,
+     *   or if there are more than {@code Long.MAX_VALUE} k-permutations
+     */
+    public static <E> Arrangements<E> permutations(final Collection<? extends E> collection, final int k) {
+        Objects.requireNonNull(collection, "collection");
+        return new Arrangements<>(collection, k, true);
+    }
+
+    /**
+     * Creates the combinations of a collection, the selections of {@code k} elements
+     * in the iteration order of the collection.
+     *
+     * @param <E> the type of the elements
+     * @param collection  the collection to choose from, must not be null
+     * @param k  the number of elements in each combination
+     * @return the combinations
+     * @throws NullPointerException if the collection is null
+     * @throws IllegalArgumentException if k is negative or greater than the size of the collection,
+     *   or if there are more than {@code Long.MAX_VALUE} combinations
+     */
+    public static <E> Arrangements<E> combinations(final Collection<? extends E> collection, final int k) {
+        Objects.requireNonNull(collection, "collection");
+        return new Arrangements<>(collection, k, false);
+    }
+
+    /**
+     * Computes the number of ordered selections of {@code r} out of {@code m} elements.
+     *
+     * @param m  the number of elements
+     * @param r  the number to select
+     * @return {@code m! / (m - r)!}
+     * @throws ArithmeticException if the result overflows a long
+     */
+    private static long fallingFactorial(final int m, final int r) {
+        long result = 1;
+        for (int i = 0; i < r; i++) {
+            result = Math.multiplyExact(result, m - i);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the number of selections of {@code r} out of {@code m} elements.
+     *
+     * @param m  the number of elements
+     * @param r  the number to select
+     * @return {@code m! / (r! (m - r)!)}, zero if {@code r > m}
+     * @throws ArithmeticException if the result overflows a long
+     */
+    private static long binomial(final int m, final int r) {
+        if (r > m) {
+            return 0;
+        }
+        final int s = Math.min(r, m - r);
+        long result = 1;
+        for (int i = 0; i < s; i++) {
+            // result * (m - i) is divisible by i + 1, divide out the common factor first
+            final long factor = m - i;
+            final long divisor = i + 1;
+            final long gcd = gcd(result, divisor);
+            result = Math.multiplyExact(result / gcd, factor / (divisor / gcd));
+        }
+        return result;
+    }
+
+    /**
+     * Computes the greatest common divisor of two positive numbers.
+     *
+     * @param a  the first number
+     * @param b  the second number
+     * @return the greatest common divisor
+     */
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            final long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /** The source elements */
+    private final Object[] elements;
+
+    /** The number of elements of each arrangement */
+    private final int k;
+
+    /** Whether the order of the picked elements matters */
+    private final boolean ordered;
+
+    /** The number of arrangements */
+    private final long size;
+
+    /**
+     * Constructor that copies the elements.
+     *
+     * @param collection  the source elements
+     * @param k  the number of elements of each arrangement
+     * @param ordered  true for permutations, false for combinations
+     */
+    private Arrangements(final Collection<? extends E> collection, final int k, final boolean ordered) {
+        this.elements = collection.toArray();
+        if (k < 0 || k > elements.length) {
+            throw new IllegalArgumentException("k must be in the range [0, " + elements.length + "]: " + k);
+        }
+        this.k = k;
+        this.ordered = ordered;
+        try {
+            this.size = ordered ? fallingFactorial(elements.length, k) : binomial(elements.length, k);
+        } catch (final ArithmeticException e) {
+            throw new IllegalArgumentException("Too many arrangements of " + k + " out of " + elements.length, e);
+        }
+    }
+
+    /**
+     * Gets the number of arrangements.
+     *
+     * @return the number of arrangements
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of elements of each arrangement.
+     *
+     * @return the number of elements picked
+     */
+    public int getK() {
+        return k;
+    }
+
+    /**
+     * Checks whether the order of the picked elements matters.
+     *
+     * @return true for permutations, false for combinations
+     */
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * Gets the arrangement with the given rank.
+     *
+     * @param rank  the rank, from zero to {@code size() - 1}
+     * @return a new list with the elements of the arrangement
+     * @throws IndexOutOfBoundsException if the rank is out of range
+     */
+    public List<E> get(final long rank) {
+        return toList(unrank(rank));
+    }
+
+    /**
+     * Computes the positions of the source elements picked by the arrangement with the given rank.
+     *
+     * @param rank  the rank, from zero to {@code size() - 1}
+     * @return the positions in the source collection, in arrangement order
+     * @throws IndexOutOfBoundsException if the rank is out of range
+     */
+    public int[] unrank(final long rank) {
+        if (rank < 0 || rank >= size) {
+            throw new IndexOutOfBoundsException("Rank: " + rank + ", Size: " + size);
+        }
+        final int n = elements.length;
+        final int[] positions = new int[k];
+        long remainder = rank;
+        if (ordered) {
+            // digit i of the falling factorial number picks among the positions not used yet
+            final boolean[] used = new boolean[n];
+            for (int i = 0; i < k; i++) {
+                final long weight = fallingFactorial(n - 1 - i, k - 1 - i);
+                int digit = (int) (remainder / weight);
+                remainder %= weight;
+                int position = 0;
+                while (used[position] || digit-- > 0) {
+                    position++;
+                }
+                used[position] = true;
+                positions[i] = position;
+            }
+        } else {
+            int position = 0;
+            for (int i = 0; i < k; i++) {
+                long skipped = binomial(n - 1 - position, k - 1 - i);
+                while (remainder >= skipped) {
+                    remainder -= skipped;
+                    position++;
+                    skipped = binomial(n - 1 - position, k - 1 - i);
+                }
+                positions[i] = position++;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Computes the rank of the arrangement that picks the given source positions.
+     *
+     * @param positions  the positions in the source collection, in arrangement order
+     * @return the rank
+     * @throws NullPointerException if positions is null
+     * @throws IllegalArgumentException if the positions are not an arrangement of this space:
+     *   wrong length, out of range, repeated, or not ascending for combinations
+     */
+    public long rank(final int[] positions) {
+        Objects.requireNonNull(positions, "positions");
+        final int n = elements.length;
+        if (positions.length != k) {
+            throw new IllegalArgumentException("Expected " + k + " positions: " + positions.length);
+        }
+        long rank = 0;
+        for (int i = 0; i < k; i++) {
+            final int position = positions[i];
+            if (position < 0 || position >= n) {
+                throw new IllegalArgumentException("Position out of range: " + position);
+            }
+            if (ordered) {
+                // the Lehmer digit counts the smaller positions not used yet
+                int digit = position;
+                for (int j = 0; j < i; j++) {
+                    if (positions[j] == position) {
+                        throw new IllegalArgumentException("Repeated position: " + position);
+                    }
+                    if (positions[j] < position) {
+                        digit--;
+                    }
+                }
+                rank += digit * fallingFactorial(n - 1 - i, k - 1 - i);
+            } else {
+                final int first = i == 0 ? 0 : positions[i - 1] + 1;
+                if (position < first) {
+                    throw new IllegalArgumentException("Positions must be ascending: " + position);
+                }
+                for (int j = first; j < position; j++) {
+                    rank += binomial(n - 1 - j, k - 1 - i);
+                }
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Steps positions to the next arrangement in rank order.
+     *
+     * @param positions  the positions, updated in place
+     * @param used  the positions in use, updated in place, only for permutations
+     * @return false if the positions were the last arrangement
+     */
+    private boolean advance(final int[] positions, final boolean[] used) {
+        final int n = elements.length;
+        if (!ordered) {
+            int i = k - 1;
+            while (i >= 0 && positions[i] == n - k + i) {
+                i--;
+            }
+            if (i < 0) {
+                return false;
+            }
+            positions[i]++;
+            for (int j = i + 1; j < k; j++) {
+                positions[j] = positions[j - 1] + 1;
+            }
+            return true;
+        }
+        // release positions from the right until one can be replaced by a larger free position
+        for (int i = k - 1; i >= 0; i--) {
+            used[positions[i]] = false;
+            int next = positions[i] + 1;
+            while (next < n && used[next]) {
+                next++;
+            }
+            if (next < n) {
+                used[next] = true;
+                positions[i] = next;
+                int free = 0;
+                for (int j = i + 1; j < k; j++) {
+                    while (used[free]) {
+                        free++;
+                    }
+                    used[free] = true;
+                    positions[j] = free;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Creates the list of elements at the given positions.
+     *
+     * @param positions  the positions
+     * @return a new list
+     */
+    @SuppressWarnings("unchecked")
+    private List<E> toList(final int[] positions) {
+        final List<E> list = new ArrayList<>(positions.length);
+        for (final int position : positions) {
+            list.add((E) elements[position]);
+        }
+        return list;
+    }
+
+    /**
+     * Creates an iterator over all arrangements in rank order.
+     *
+     * @return a new iterator
+     */
+    @Override
+    public Iterator<List<E>> iterator() {
+        return Spliterators.iterator(spliterator());
+    }
+
+    /**
+     * Creates a spliterator over all arrangements in rank order.
+     * <p>
+     * The spliterator is {@code SIZED} and {@code SUBSIZED}, and splits its range of
+     * ranks in halves.
+     * </p>
+     *
+     * @return a new spliterator
+     */
+    @Override
+    public Spliterator<List<E>> spliterator() {
+        return spliterator(0, size);
+    }
+
+    /**
+     * Creates a spliterator over a range of ranks.
+     *
+     * @param fromRank  the first rank, inclusive
+     * @param toRank  the last rank, exclusive
+     * @return a new spliterator
+     * @throws IndexOutOfBoundsException if the range is out of bounds
+     */
+    public Spliterator<List<E>> spliterator(final long fromRank, final long toRank) {
+        if (fromRank < 0 || toRank > size || fromRank > toRank) {
+            throw new IndexOutOfBoundsException("From: " + fromRank + ", To: " + toRank + ", Size: " + size);
+        }
+        return new RankSpliterator(fromRank, toRank);
+    }
+
+    /**
+     * Returns a sequential stream of all arrangements in rank order.
+     *
+     * @return a sequential stream
+     */
+    public Stream<List<E>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a possibly parallel stream of all arrangements.
+     *
+     * @return a possibly parallel stream
+     */
+    public Stream<List<E>> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    @Override
+    public String toString() {
+        return (ordered ? "Permutations" : "Combinations") + "[k=" + k + ", n=" + elements.length + "]";
+    }
+
+    /**
+     * A spliterator over a range of ranks.
+     */
+    private final class RankSpliterator implements Spliterator<List<E>> {
+
+        /** The rank of the next arrangement */
+        private long from;
+        /** The end of the range, exclusive */
+        private final long to;
+        /** The positions of the next arrangement, null until the first advance */
+        private int[] positions;
+        /** The positions in use, for permutations */
+        private boolean[] used;
+
+        RankSpliterator(final long from, final long to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super List<E>> action) {
+            Objects.requireNonNull(action, "action");
+            if (from >= to) {
+                return false;
+            }
+            if (positions == null) {
+                positions = unrank(from);
+                if (ordered) {
+                    used = new boolean[elements.length];
+                    for (final int position : positions) {
+                        used[position] = true;
+                    }
+                }
+            } else {
+                advance(positions, used);
+            }
+            from++;
+            action.accept(toList(positions));
+            return true;
+        }
+
+        @Override
+        public Spliterator<List<E>> trySplit() {
+            final long mid = from + (to - from) / 2;
+            if (mid == from) {
+                return null;
+            }
+            final RankSpliterator prefix = new RankSpliterator(from, mid);
+            // the prefix continues from the current state
+            prefix.positions = positions;
+            prefix.used = used;
+            positions = null;
+            used = null;
+            from = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+
+}
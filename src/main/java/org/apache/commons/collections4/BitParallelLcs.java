@@ -0,0 +1,426 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Computes longest common subsequences of primitive token sequences with the
+ * bit-parallel algorithm of Allison-Dix and Hyyr&ouml;.
+ * </p>
+ * <p>
+ * One sequence, the pattern, is encoded as a bit vector with one bit per
+ * token. Each token of the other sequence, the text, updates that vector
+ * with a few word operations, so the length of the LCS costs
+ * {@code O(m * ceil(n / 64))} time and {@code O(n)} space. The subsequence
+ * itself is recovered with Hirschberg's divide and conquer scheme, which
+ * reruns the length computation on halves of the input and stays in linear
+ * space.
+ * </p>
+ * <p>
+ * Tokens are compared as {@code long} values, which covers {@code char},
+ * {@code int} and {@code long} sequences.
+ * </p>
+ * <p>
+ * Package private, used by {@link ListUtils}.
+ * </p>
+ *
+ * @since 4.5
+ */
+final class BitParallelLcs {
+
+    /** The golden ratio multiplier used to spread token hashes */
+    private static final long GOLDEN = 0x9e3779b97f4a7c15L;
+
+    /**
+     * A pattern encoded as per-token match masks.
+     */
+    private static final class Pattern {
+
+        /** The number of tokens */
+        private final int length;
+        /** The number of 64 bit words of the bit vector */
+        private final int words;
+        /** The shift that reduces a spread hash to a table slot */
+        private final int shift;
+        /** The distinct tokens of the hash table */
+        private final long[] keys;
+        /** The token ids plus one of the hash table, zero for an empty slot */
+        private final int[] ids;
+        /** The match mask of each token id, when the pattern fits in one word */
+        private final long[] masks;
+        /** The first entry of each token id, when the pattern spans several words */
+        private final int[] start;
+        /** The word index of each entry */
+        private final int[] entryWords;
+        /** The match bits of each entry */
+        private final long[] entryBits;
+
+        /**
+         * Encodes a range of tokens.
+         *
+         * @param tokens  the tokens
+         * @param from  the first index, inclusive
+         * @param to  the last index, exclusive
+         * @param reverse  whether to encode the range back to front
+         */
+        Pattern(final long[] tokens, final int from, final int to, final boolean reverse) {
+            length = to - from;
+            words = length + 63 >>> 6;
+            final int capacity = Math.max(2, Integer.highestOneBit(Math.max(1, length)) << 2);
+            shift = 64 - Integer.numberOfTrailingZeros(capacity);
+            keys = new long[capacity];
+            ids = new int[capacity];
+            final int[] positionIds = new int[length];
+            int count = 0;
+            for (int j = 0; j < length; j++) {
+                final long token = tokens[reverse ? to - 1 - j : from + j];
+                int slot = slot(token);
+                while (ids[slot] != 0 && keys[slot] != token) {
+                    slot = slot + 1 & capacity - 1;
+                }
+                if (ids[slot] == 0) {
+                    keys[slot] = token;
+                    ids[slot] = ++count;
+                }
+                positionIds[j] = ids[slot] - 1;
+            }
+            if (words <= 1) {
+                masks = new long[count];
+                for (int j = 0; j < length; j++) {
+                    masks[positionIds[j]] |= 1L << j;
+                }
+                start = null;
+                entryWords = null;
+                entryBits = null;
+                return;
+            }
+            masks = null;
+            // one entry per token id and word in which the token occurs, grouped by token id
+            start = new int[count + 1];
+            final int[] lastWord = new int[count];
+            Arrays.fill(lastWord, -1);
+            for (int j = 0; j < length; j++) {
+                final int id = positionIds[j];
+                if (lastWord[id] != j >>> 6) {
+                    lastWord[id] = j >>> 6;
+                    start[id + 1]++;
+                }
+            }
+            for (int id = 0; id < count; id++) {
+                start[id + 1] += start[id];
+            }
+            entryWords = new int[start[count]];
+            entryBits = new long[start[count]];
+            final int[] next = Arrays.copyOf(start, count);
+            Arrays.fill(lastWord, -1);
+            for (int j = 0; j < length; j++) {
+                final int id = positionIds[j];
+                if (lastWord[id] != j >>> 6) {
+                    lastWord[id] = j >>> 6;
+                    entryWords[next[id]++] = j >>> 6;
+                }
+                entryBits[next[id] - 1] |= 1L << j;
+            }
+        }
+
+        /**
+         * Gets the hash table slot at which to start looking for a token.
+         *
+         * @param token  the token
+         * @return the slot
+         */
+        private int slot(final long token) {
+            return (int) ((token ^ token >>> 32) * GOLDEN >>> shift);
+        }
+
+        /**
+         * Gets the id of a token.
+         *
+         * @param token  the token
+         * @return the id, or -1 if the token does not occur in the pattern
+         */
+        int id(final long token) {
+            int slot = slot(token);
+            while (ids[slot] != 0) {
+                if (keys[slot] == token) {
+                    return ids[slot] - 1;
+                }
+                slot = slot + 1 & keys.length - 1;
+            }
+            return -1;
+        }
+
+        /**
+         * Creates the bit vector before the first text token, in which no
+         * pattern token is matched.
+         *
+         * @return a new bit vector
+         */
+        long[] newVector() {
+            final long[] vector = new long[Math.max(1, words)];
+            Arrays.fill(vector, -1L);
+            return vector;
+        }
+
+        /**
+         * Updates the bit vector for the next text token, computing
+         * {@code V = (V + (V & M)) | (V & ~M)} where {@code M} is the match mask
+         * of the token.
+         *
+         * @param vector  the bit vector
+         * @param token  the text token
+         */
+        void step(final long[] vector, final long token) {
+            final int id = id(token);
+            if (id < 0) {
+                return;
+            }
+            if (masks != null) {
+                final long v = vector[0];
+                final long u = v & masks[id];
+                vector[0] = v + u | v & ~u;
+                return;
+            }
+            // words without matches only pass the carry on
+            long carry = 0;
+            int w = 0;
+            for (int e = start[id]; e < start[id + 1]; e++) {
+                final int target = entryWords[e];
+                while (carry != 0 && w < target) {
+                    final long v = vector[w];
+                    vector[w++] = v + 1 | v;
+                    carry = v == -1L ? 1 : 0;
+                }
+                w = target;
+                final long v = vector[w];
+                final long u = v & entryBits[e];
+                final long sum = v + u + carry;
+                carry = (v & u | (v | u) & ~sum) >>> 63;
+                vector[w++] = sum | v & ~u;
+            }
+            while (carry != 0 && w < words) {
+                final long v = vector[w];
+                vector[w++] = v + 1 | v;
+                carry = v == -1L ? 1 : 0;
+            }
+        }
+
+        /**
+         * Counts the matched pattern tokens of a bit vector.
+         *
+         * @param vector  the bit vector
+         * @return the length of the LCS of the text seen so far and the pattern
+         */
+        int count(final long[] vector) {
+            int zeros = 0;
+            for (int w = 0; w < words; w++) {
+                long matched = ~vector[w];
+                if (w == words - 1 && (length & 63) != 0) {
+                    matched &= (1L << length) - 1;
+                }
+                zeros += Long.bitCount(matched);
+            }
+            return zeros;
+        }
+
+        /**
+         * Counts the matched tokens in every prefix of the pattern.
+         *
+         * @param vector  the bit vector
+         * @return the LCS length of the text seen so far and each pattern prefix, indexed by prefix length
+         */
+        int[] prefixCounts(final long[] vector) {
+            final int[] counts = new int[length + 1];
+            for (int j = 0; j < length; j++) {
+                counts[j + 1] = counts[j] + (int) (~vector[j >>> 6] >>> j & 1);
+            }
+            return counts;
+        }
+    }
+
+    /**
+     * Converts characters to tokens.
+     *
+     * @param sequence  the characters
+     * @return the tokens
+     */
+    static long[] tokens(final CharSequence sequence) {
+        final long[] tokens = new long[sequence.length()];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = sequence.charAt(i);
+        }
+        return tokens;
+    }
+
+    /**
+     * Converts integers to tokens.
+     *
+     * @param sequence  the integers
+     * @return the tokens
+     */
+    static long[] tokens(final int[] sequence) {
+        final long[] tokens = new long[sequence.length];
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = sequence[i];
+        }
+        return tokens;
+    }
+
+    /**
+     * Computes the length of the longest common subsequence.
+     *
+     * @param a  the first sequence
+     * @param b  the second sequence
+     * @return the length of the LCS
+     */
+    static int length(final long[] a, final long[] b) {
+        int aFrom = 0;
+        int bFrom = 0;
+        int aTo = a.length;
+        int bTo = b.length;
+        while (aFrom < aTo && bFrom < bTo && a[aFrom] == b[bFrom]) {
+            aFrom++;
+            bFrom++;
+        }
+        while (aFrom < aTo && bFrom < bTo && a[aTo - 1] == b[bTo - 1]) {
+            aTo--;
+            bTo--;
+        }
+        final int common = aFrom + a.length - aTo;
+        if (aFrom == aTo || bFrom == bTo) {
+            return common;
+        }
+        // the shorter sequence makes the shorter bit vector
+        if (aTo - aFrom < bTo - bFrom) {
+            return common + length(b, bFrom, bTo, a, aFrom, aTo);
+        }
+        return common + length(a, aFrom, aTo, b, bFrom, bTo);
+    }
+
+    /**
+     * Computes the length of the longest common subsequence of two ranges.
+     *
+     * @param text  the text tokens
+     * @param textFrom  the first text index, inclusive
+     * @param textTo  the last text index, exclusive
+     * @param pattern  the pattern tokens
+     * @param patternFrom  the first pattern index, inclusive
+     * @param patternTo  the last pattern index, exclusive
+     * @return the length of the LCS
+     */
+    private static int length(final long[] text, final int textFrom, final int textTo,
+                              final long[] pattern, final int patternFrom, final int patternTo) {
+        final Pattern encoded = new Pattern(pattern, patternFrom, patternTo, false);
+        final long[] vector = encoded.newVector();
+        for (int i = textFrom; i < textTo; i++) {
+            encoded.step(vector, text[i]);
+        }
+        return encoded.count(vector);
+    }
+
+    /**
+     * Computes a longest common subsequence.
+     *
+     * @param a  the first sequence
+     * @param b  the second sequence
+     * @return the ascending indices in {@code a} of the elements of the LCS
+     */
+    static int[] indices(final long[] a, final long[] b) {
+        final BitParallelLcs lcs = new BitParallelLcs(a, b);
+        lcs.reconstruct(0, a.length, 0, b.length);
+        return Arrays.copyOf(lcs.indices, lcs.count);
+    }
+
+    /** The first sequence */
+    private final long[] a;
+    /** The second sequence */
+    private final long[] b;
+    /** The indices in the first sequence found so far */
+    private final int[] indices;
+    /** The number of indices found so far */
+    private int count;
+
+    /**
+     * Constructs a reconstruction of the LCS.
+     *
+     * @param a  the first sequence
+     * @param b  the second sequence
+     */
+    private BitParallelLcs(final long[] a, final long[] b) {
+        this.a = a;
+        this.b = b;
+        this.indices = new int[Math.min(a.length, b.length)];
+    }
+
+    /**
+     * Appends the indices of a longest common subsequence of two ranges.
+     *
+     * @param aFrom  the first index of {@code a}, inclusive
+     * @param aTo  the last index of {@code a}, exclusive
+     * @param bFrom  the first index of {@code b}, inclusive
+     * @param bTo  the last index of {@code b}, exclusive
+     */
+    private void reconstruct(int aFrom, int aTo, int bFrom, int bTo) {
+        while (aFrom < aTo && bFrom < bTo && a[aFrom] == b[bFrom]) {
+            indices[count++] = aFrom++;
+            bFrom++;
+        }
+        int suffix = 0;
+        while (aFrom < aTo && bFrom < bTo && a[aTo - 1] == b[bTo - 1]) {
+            aTo--;
+            bTo--;
+            suffix++;
+        }
+        if (aTo - aFrom == 1) {
+            for (int j = bFrom; j < bTo; j++) {
+                if (a[aFrom] == b[j]) {
+                    indices[count++] = aFrom;
+                    break;
+                }
+            }
+        } else if (aFrom < aTo && bFrom < bTo) {
+            final int mid = aFrom + aTo >>> 1;
+            final Pattern forward = new Pattern(b, bFrom, bTo, false);
+            final long[] forwardVector = forward.newVector();
+            for (int i = aFrom; i < mid; i++) {
+                forward.step(forwardVector, a[i]);
+            }
+            final int[] head = forward.prefixCounts(forwardVector);
+            final Pattern backward = new Pattern(b, bFrom, bTo, true);
+            final long[] backwardVector = backward.newVector();
+            for (int i = aTo - 1; i >= mid; i--) {
+                backward.step(backwardVector, a[i]);
+            }
+            final int[] tail = backward.prefixCounts(backwardVector);
+            final int length = bTo - bFrom;
+            int split = 0;
+            for (int k = 1; k <= length; k++) {
+                if (head[k] + tail[length - k] > head[split] + tail[length - split]) {
+                    split = k;
+                }
+            }
+            reconstruct(aFrom, mid, bFrom, bFrom + split);
+            reconstruct(mid, aTo, bFrom + split, bTo);
+        }
+        for (int i = 0; i < suffix; i++) {
+            indices[count++] = aTo + i;
+        }
+    }
+
+}
@@ -18,6 +18,7 @@ package org.apache.commons.collections4;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -30,8 +31,8 @@ import java.util.ListIterator;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.IntBinaryOperator;
 
-import org.apache.commons.collections4.bag.HashBag;
 import org.apache.commons.collections4.collection.PredicatedCollection;
 import org.apache.commons.collections4.collection.SynchronizedCollection;
 import org.apache.commons.collections4.collection.TransformedCollection;
@@ -92,15 +93,46 @@ public class CollectionUtils {
 
     /**
      * Helper class to easily access cardinality properties of two collections.
+     * <p>
+     * Each distinct element is stored once, in order of first occurrence, with its
+     * counts in both collections held in primitive arrays. Elements are found through
+     * an open-addressed table of positions, so no entry or boxed count objects
+     * are allocated per element.
+     * </p>
      * @param <O>  the element type
      */
     private static class CardinalityHelper<O> {
 
-        /** Contains the cardinality for each object in collection A. */
-        final Map<O, Integer> cardinalityA;
+        /** The distinct elements, in order of first occurrence. */
+        private Object[] elements;
+
+        /** The hash codes of the elements. */
+        private int[] hashes;
+
+        /** Contains the cardinality of each element in collection A. */
+        int[] countA;
 
-        /** Contains the cardinality for each object in collection B. */
-        final Map<O, Integer> cardinalityB;
+        /** Contains the cardinality of each element in collection B. */
+        int[] countB;
+
+        /** The number of distinct elements. */
+        int distinct;
+
+        /** Open-addressed table of element positions plus one, zero when empty. */
+        private int[] table;
+
+        /**
+         * Create a new empty CardinalityHelper.
+         * @param expected  the expected number of distinct elements
+         */
+        CardinalityHelper(final int expected) {
+            final int capacity = Math.max(8, expected);
+            elements = new Object[capacity];
+            hashes = new int[capacity];
+            countA = new int[capacity];
+            countB = new int[capacity];
+            table = new int[tableSizeFor(capacity)];
+        }
 
         /**
          * Create a new CardinalityHelper for two collections.
@@ -108,52 +140,116 @@ public class CollectionUtils {
          * @param b  the second collection
          */
         CardinalityHelper(final Iterable<? extends O> a, final Iterable<? extends O> b) {
-            cardinalityA = CollectionUtils.<O>getCardinalityMap(a);
-            cardinalityB = CollectionUtils.<O>getCardinalityMap(b);
+            this(sizeHint(a) + sizeHint(b));
+            for (final O obj : a) {
+                countA[add(obj)]++;
+            }
+            for (final O obj : b) {
+                countB[add(obj)]++;
+            }
         }
 
         /**
-         * Returns the maximum frequency of an object.
-         * @param obj  the object
-         * @return the maximum frequency of the object
+         * Returns a table size that keeps the load factor at or below one half.
+         * @param capacity  the number of elements
+         * @return a power of two
          */
-        public final int max(final Object obj) {
-            return Math.max(freqA(obj), freqB(obj));
+        private static int tableSizeFor(final int capacity) {
+            return Integer.highestOneBit(Math.max(4, Math.min(capacity, 1 << 29)) - 1) << 2;
         }
 
         /**
-         * Returns the minimum frequency of an object.
-         * @param obj  the object
-         * @return the minimum frequency of the object
+         * Returns the size of an iterable if it is cheap to get.
+         * @param iterable  the iterable
+         * @return the size, or a small default
          */
-        public final int min(final Object obj) {
-            return Math.min(freqA(obj), freqB(obj));
+        private static int sizeHint(final Iterable<?> iterable) {
+            return iterable instanceof Collection<?> ? ((Collection<?>) iterable).size() : 16;
         }
 
         /**
-         * Returns the frequency of this object in collection A.
-         * @param obj  the object
-         * @return the frequency of the object in collection A
+         * Spreads the bits of a hash code for use as a table index.
+         * @param obj  the object, may be null
+         * @return the hash code
          */
-        public int freqA(final Object obj) {
-            return getFreq(obj, cardinalityA);
+        private static int hash(final Object obj) {
+            final int h = obj == null ? 0 : obj.hashCode();
+            return (h ^ h >>> 16) * 0x9E3779B9;
         }
 
         /**
-         * Returns the frequency of this object in collection B.
-         * @param obj  the object
-         * @return the frequency of the object in collection B
+         * Returns the position of an element, or -1 if it has not been counted.
+         * @param obj  the element
+         * @return the position of the element
          */
-        public int freqB(final Object obj) {
-            return getFreq(obj, cardinalityB);
+        final int indexOf(final Object obj) {
+            final int h = hash(obj);
+            final int mask = table.length - 1;
+            for (int slot = h & mask;; slot = slot + 1 & mask) {
+                final int index = table[slot] - 1;
+                if (index < 0) {
+                    return -1;
+                }
+                if (hashes[index] == h && Objects.equals(elements[index], obj)) {
+                    return index;
+                }
+            }
         }
 
-        private int getFreq(final Object obj, final Map<?, Integer> freqMap) {
-            final Integer count = freqMap.get(obj);
-            if (count != null) {
-                return count.intValue();
+        /**
+         * Returns the position of an element, adding it with zero counts if absent.
+         * @param obj  the element
+         * @return the position of the element
+         */
+        final int add(final Object obj) {
+            final int h = hash(obj);
+            int mask = table.length - 1;
+            int slot = h & mask;
+            for (;; slot = slot + 1 & mask) {
+                final int index = table[slot] - 1;
+                if (index < 0) {
+                    break;
+                }
+                if (hashes[index] == h && Objects.equals(elements[index], obj)) {
+                    return index;
+                }
             }
-            return 0;
+            if (distinct == elements.length) {
+                final int capacity = distinct + (distinct >> 1);
+                elements = Arrays.copyOf(elements, capacity);
+                hashes = Arrays.copyOf(hashes, capacity);
+                countA = Arrays.copyOf(countA, capacity);
+                countB = Arrays.copyOf(countB, capacity);
+                if (tableSizeFor(capacity) > table.length) {
+                    table = new int[tableSizeFor(capacity)];
+                    mask = table.length - 1;
+                    for (int i = 0; i < distinct; i++) {
+                        int free = hashes[i] & mask;
+                        while (table[free] != 0) {
+                            free = free + 1 & mask;
+                        }
+                        table[free] = i + 1;
+                    }
+                    slot = h & mask;
+                    while (table[slot] != 0) {
+                        slot = slot + 1 & mask;
+                    }
+                }
+            }
+            elements[distinct] = obj;
+            hashes[distinct] = h;
+            table[slot] = ++distinct;
+            return distinct - 1;
+        }
+
+        /**
+         * Returns the element at a position.
+         * @param index  the position
+         * @return the element
+         */
+        @SuppressWarnings("unchecked")
+        final O get(final int index) {
+            return (O) elements[index];
         }
     }
 
@@ -161,13 +257,7 @@ public class CollectionUtils {
      * Helper class for set-related operations, e.g. union, subtract, intersection.
      * @param <O>  the element type
      */
-    private static final class SetOperationCardinalityHelper<O> extends CardinalityHelper<O> implements Iterable<O> {
-
-        /** Contains the unique elements of the two collections. */
-        private final Set<O> elements;
-
-        /** Output collection. */
-        private final List<O> newList;
+    private static final class SetOperationCardinalityHelper<O> extends CardinalityHelper<O> {
 
         /**
          * Create a new set operation helper from the two collections.
@@ -176,34 +266,26 @@ public class CollectionUtils {
          */
         SetOperationCardinalityHelper(final Iterable<? extends O> a, final Iterable<? extends O> b) {
             super(a, b);
-            elements = new HashSet<>();
-            addAll(elements, a);
-            addAll(elements, b);
-            // the resulting list must contain at least each unique element, but may grow
-            newList = new ArrayList<>(elements.size());
-        }
-
-        @Override
-        public Iterator<O> iterator() {
-            return elements.iterator();
         }
 
         /**
-         * Add the object {@code count} times to the result collection.
-         * @param obj  the object to add
-         * @param count  the count
+         * Returns a list holding each element as many times as the function of its
+         * two counts returns, in order of first occurrence.
+         * @param cardinality  computes the resulting count from the counts in A and B
+         * @return the result, presized to its final length
          */
-        public void setCardinality(final O obj, final int count) {
-            for (int i = 0; i < count; i++) {
-                newList.add(obj);
+        public Collection<O> list(final IntBinaryOperator cardinality) {
+            long total = 0;
+            for (int i = 0; i < distinct; i++) {
+                total += cardinality.applyAsInt(countA[i], countB[i]);
+            }
+            final List<O> newList = new ArrayList<>((int) Math.min(total, Integer.MAX_VALUE - 8));
+            for (int i = 0; i < distinct; i++) {
+                final O obj = get(i);
+                for (int count = cardinality.applyAsInt(countA[i], countB[i]); count > 0; count--) {
+                    newList.add(obj);
+                }
             }
-        }
-
-        /**
-         * Returns the resulting collection.
-         * @return the result
-         */
-        public Collection<O> list() {
             return newList;
         }
 
@@ -269,10 +351,7 @@ public class CollectionUtils {
         Objects.requireNonNull(a, "a");
         Objects.requireNonNull(b, "b");
         final SetOperationCardinalityHelper<O> helper = new SetOperationCardinalityHelper<>(a, b);
-        for (final O obj : helper) {
-            helper.setCardinality(obj, helper.max(obj));
-        }
-        return helper.list();
+        return helper.list(Math::max);
     }
 
     /**
@@ -297,10 +376,7 @@ public class CollectionUtils {
         Objects.requireNonNull(a, "a");
         Objects.requireNonNull(b, "b");
         final SetOperationCardinalityHelper<O> helper = new SetOperationCardinalityHelper<>(a, b);
-        for (final O obj : helper) {
-            helper.setCardinality(obj, helper.min(obj));
-        }
-        return helper.list();
+        return helper.list(Math::min);
     }
 
     /**
@@ -330,10 +406,7 @@ public class CollectionUtils {
         Objects.requireNonNull(a, "a");
         Objects.requireNonNull(b, "b");
         final SetOperationCardinalityHelper<O> helper = new SetOperationCardinalityHelper<>(a, b);
-        for (final O obj : helper) {
-            helper.setCardinality(obj, helper.max(obj) - helper.min(obj));
-        }
-        return helper.list();
+        return helper.list((countA, countB) -> Math.abs(countA - countB));
     }
 
     /**
@@ -386,15 +459,18 @@ public class CollectionUtils {
         Objects.requireNonNull(a, "a");
         Objects.requireNonNull(b, "b");
         Objects.requireNonNull(p, "p");
-        final ArrayList<O> list = new ArrayList<>();
-        final HashBag<O> bag = new HashBag<>();
+        final CardinalityHelper<O> helper = new CardinalityHelper<>(CardinalityHelper.sizeHint(b));
         for (final O element : b) {
             if (p.evaluate(element)) {
-                bag.add(element);
+                helper.countB[helper.add(element)]++;
             }
         }
+        final ArrayList<O> list = new ArrayList<>();
         for (final O element : a) {
-            if (!bag.remove(element, 1)) {
+            final int index = helper.indexOf(element);
+            if (index >= 0 && helper.countB[index] > 0) {
+                helper.countB[index]--;
+            } else {
                 list.add(element);
             }
         }
@@ -565,13 +641,23 @@ public class CollectionUtils {
     public static boolean isSubCollection(final Collection<?> a, final Collection<?> b) {
         Objects.requireNonNull(a, "a");
         Objects.requireNonNull(b, "b");
-        final CardinalityHelper<Object> helper = new CardinalityHelper<>(a, b);
+        if (a.size() > b.size()) {
+            return false;
+        }
+        final CardinalityHelper<Object> helper = new CardinalityHelper<>(a.size());
         for (final Object obj : a) {
-            if (helper.freqA(obj) > helper.freqB(obj)) {
-                return false;
+            helper.countA[helper.add(obj)]++;
+        }
+        // count the occurrences of b still needed to cover a, stopping once none are
+        int missing = a.size();
+        for (final Iterator<?> it = b.iterator(); missing > 0 && it.hasNext();) {
+            final int index = helper.indexOf(it.next());
+            if (index >= 0 && helper.countB[index] < helper.countA[index]) {
+                helper.countB[index]++;
+                missing--;
             }
         }
-        return true;
+        return missing == 0;
     }
 
     /**
@@ -623,12 +709,14 @@ public class CollectionUtils {
         if (a.size() != b.size()) {
             return false;
         }
-        final CardinalityHelper<Object> helper = new CardinalityHelper<>(a, b);
-        if (helper.cardinalityA.size() != helper.cardinalityB.size()) {
-            return false;
+        final CardinalityHelper<Object> helper = new CardinalityHelper<>(a.size());
+        for (final Object obj : a) {
+            helper.countA[helper.add(obj)]++;
         }
-        for (final Object obj : helper.cardinalityA.keySet()) {
-            if (helper.freqA(obj) != helper.freqB(obj)) {
+        // with equal sizes, b matches a unless some element of b occurs too often
+        for (final Object obj : b) {
+            final int index = helper.indexOf(obj);
+            if (index < 0 || ++helper.countB[index] > helper.countA[index]) {
                 return false;
             }
         }
@@ -1805,10 +1893,12 @@ public class CollectionUtils {
      * </p>
      * <p>
      * For larger collections it is advised to use a {@link PermutationIterator} to
-     * iterate over all permutations.
+     * iterate over all permutations, or {@link Arrangements#permutations(Collection)}
+     * to address them by rank and split them across threads.
      * </p>
      *
      * @see PermutationIterator
+     * @see Arrangements
      *
      * @param <E>  the element type
      * @param collection  the collection to create permutations for, must not be null
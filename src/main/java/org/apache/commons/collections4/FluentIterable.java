@@ -16,6 +16,7 @@
  */
 package org.apache.commons.collections4;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
@@ -23,6 +24,10 @@ import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.commons.collections4.iterators.SingletonIterator;
 
@@ -61,6 +66,13 @@ import org.apache.commons.collections4.iterators.SingletonIterator;
  * </pre>
  * The resulting list will contain the following elements:
  * <pre>[2, 4, 6]</pre>
+ * <p>
+ * The terminal methods {@code forEach}, {@code copyInto}, {@code toList},
+ * {@code size}, {@code anyMatch} and {@code allMatch} do not stack iterators.
+ * They push the elements through the {@link #spliterator()} of the chain, in
+ * which each filter, transformation, skip and limit step hands elements
+ * straight to the next one.
+ * </p>
  *
  * @param <E>  the element type
  * @since 4.1
@@ -354,6 +366,47 @@ public class FluentIterable<E> implements Iterable<E> {
         return iterable.iterator();
     }
 
+    /**
+     * Creates a spliterator over the elements of this iterable.
+     * <p>
+     * The spliterator is sized and splittable where the view allows it: views of
+     * collections use the spliterator of the collection, chained iterables split
+     * at the boundaries between the chained iterables, and filtered or transformed
+     * views split through the spliterator of their source.
+     *
+     * @return a spliterator over the elements of this iterable
+     * @since 4.5
+     */
+    @Override
+    public Spliterator<E> spliterator() {
+        if (iterable == this) {
+            return Iterable.super.spliterator();
+        }
+        return iterable.spliterator();
+    }
+
+    /**
+     * Returns a sequential stream of the elements of this iterable.
+     *
+     * @return a sequential stream
+     * @since 4.5
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Returns a possibly parallel stream of the elements of this iterable.
+     * How well it parallelizes depends on how the spliterator of this iterable splits,
+     * see {@link #spliterator()}.
+     *
+     * @return a possibly parallel stream
+     * @since 4.5
+     */
+    public Stream<E> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
     /**
      * Returns an Enumeration that will enumerate all elements contained
      * in this iterable.
@@ -376,7 +429,7 @@ public class FluentIterable<E> implements Iterable<E> {
      * @throws NullPointerException if predicate is null
      */
     public boolean allMatch(final Predicate<? super E> predicate) {
-        return IterableUtils.matchesAll(iterable, predicate);
+        return !match(predicate, false);
     }
 
     /**
@@ -390,7 +443,28 @@ public class FluentIterable<E> implements Iterable<E> {
      * @throws NullPointerException if predicate is null
      */
     public boolean anyMatch(final Predicate<? super E> predicate) {
-        return IterableUtils.matchesAny(iterable, predicate);
+        return match(predicate, true);
+    }
+
+    /**
+     * Pulls elements one at a time until the predicate evaluates to the given result.
+     *
+     * @param predicate  the predicate to use, may not be null
+     * @param result  the result to look for
+     * @return true if an element was found for which the predicate returns the result
+     * @throws NullPointerException if predicate is null
+     */
+    private boolean match(final Predicate<? super E> predicate, final boolean result) {
+        Objects.requireNonNull(predicate, "predicate");
+        final Spliterator<E> spliterator = spliterator();
+        final boolean[] found = new boolean[1];
+        final Consumer<E> test = e -> found[0] = predicate.evaluate(e) == result;
+        while (spliterator.tryAdvance(test)) {
+            if (found[0]) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -419,7 +493,8 @@ public class FluentIterable<E> implements Iterable<E> {
      * @throws NullPointerException if closure is null
      */
     public void forEach(final Closure<? super E> closure) {
-        IterableUtils.forEach(iterable, closure);
+        Objects.requireNonNull(closure, "closure");
+        spliterator().forEachRemaining(closure::execute);
     }
 
     /**
@@ -443,7 +518,14 @@ public class FluentIterable<E> implements Iterable<E> {
      * @return the size of this iterable
      */
     public int size() {
-        return IterableUtils.size(iterable);
+        final Spliterator<E> spliterator = spliterator();
+        final long exactSize = spliterator.getExactSizeIfKnown();
+        if (exactSize >= 0) {
+            return (int) exactSize;
+        }
+        final int[] size = new int[1];
+        spliterator.forEachRemaining(e -> size[0]++);
+        return size[0];
     }
 
     /**
@@ -455,7 +537,7 @@ public class FluentIterable<E> implements Iterable<E> {
      */
     public void copyInto(final Collection<? super E> collection) {
         Objects.requireNonNull(collection, "collection");
-        CollectionUtils.addAll(collection, iterable);
+        spliterator().forEachRemaining(collection::add);
     }
 
     /**
@@ -479,7 +561,10 @@ public class FluentIterable<E> implements Iterable<E> {
      * @return a list of the iterable contents
      */
     public List<E> toList() {
-        return IterableUtils.toList(iterable);
+        final Spliterator<E> spliterator = spliterator();
+        final List<E> list = new ArrayList<>((int) Math.max(10, Math.min(spliterator.getExactSizeIfKnown(), 1 << 20)));
+        spliterator.forEachRemaining(list::add);
+        return list;
     }
 
     /** {@inheritDoc} */
@@ -24,6 +24,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 
 import org.apache.commons.collections4.functors.EqualPredicate;
 import org.apache.commons.collections4.iterators.LazyIteratorChain;
@@ -61,6 +64,409 @@ public class IterableUtils {
         }
     };
 
+    /**
+     * A spliterator over a sequence of iterables that splits at the boundaries
+     * between them, and through the spliterator of the last one left.
+     *
+     * @param <E> the element type
+     */
+    private static final class ChainedSpliterator<E> implements Spliterator<E> {
+
+        /** The iterables to traverse */
+        private final Iterable<? extends E>[] iterables;
+        /** The spliterators of the iterables not yet started, created on demand and shared with splits */
+        private final Spliterator<? extends E>[] parts;
+        /** The index of the next iterable not yet started */
+        private int from;
+        /** The index after the last iterable to traverse */
+        private final int to;
+        /** The spliterator of the iterable being traversed, may be null */
+        private Spliterator<? extends E> current;
+        /** The estimated size of the iterables not yet started, negative if not yet computed */
+        private long pendingSize = -1;
+        /** The characteristics common to the iterables not yet started, valid with pendingSize */
+        private int pendingCharacteristics;
+
+        @SuppressWarnings("unchecked")
+        ChainedSpliterator(final Iterable<? extends E>[] iterables, final int from, final int to) {
+            this(iterables, new Spliterator[iterables.length], from, to);
+        }
+
+        private ChainedSpliterator(final Iterable<? extends E>[] iterables, final Spliterator<? extends E>[] parts,
+                final int from, final int to) {
+            this.iterables = iterables;
+            this.parts = parts;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Gets the spliterator of an iterable not yet started, creating it once.
+         *
+         * @param index  the index of the iterable
+         * @return the spliterator
+         */
+        private Spliterator<? extends E> part(final int index) {
+            Spliterator<? extends E> part = parts[index];
+            if (part == null) {
+                part = iterables[index].spliterator();
+                parts[index] = part;
+            }
+            return part;
+        }
+
+        /**
+         * Starts the next iterable.
+         *
+         * @return its spliterator
+         */
+        private Spliterator<? extends E> next() {
+            final Spliterator<? extends E> part = part(from);
+            parts[from++] = null;
+            pendingSize = -1;
+            return part;
+        }
+
+        /**
+         * Computes the size and characteristics of the iterables not yet started, once
+         * for each range.
+         */
+        private void computePending() {
+            if (pendingSize >= 0) {
+                return;
+            }
+            long size = 0;
+            int characteristics = ORDERED | SIZED | SUBSIZED;
+            for (int i = from; i < to; i++) {
+                final Spliterator<? extends E> part = part(i);
+                final long partSize = part.estimateSize();
+                size = size + partSize < 0 ? Long.MAX_VALUE : size + partSize;
+                characteristics &= part.characteristics();
+            }
+            pendingSize = size;
+            pendingCharacteristics = characteristics;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super E> action) {
+            while (true) {
+                if (current == null) {
+                    if (from >= to) {
+                        return false;
+                    }
+                    current = next();
+                }
+                if (current.tryAdvance(action)) {
+                    return true;
+                }
+                current = null;
+            }
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super E> action) {
+            if (current != null) {
+                current.forEachRemaining(action);
+                current = null;
+            }
+            while (from < to) {
+                next().forEachRemaining(action);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked") // spliterators only produce elements, so widening is safe
+        public Spliterator<E> trySplit() {
+            if (current == null) {
+                if (to - from >= 2) {
+                    final int mid = from + to >>> 1;
+                    final Spliterator<E> prefix = new ChainedSpliterator<>(iterables, parts, from, mid);
+                    from = mid;
+                    pendingSize = -1;
+                    return prefix;
+                }
+                if (from == to) {
+                    return null;
+                }
+                current = next();
+            }
+            if (from < to) {
+                final Spliterator<E> prefix = (Spliterator<E>) current;
+                current = null;
+                return prefix;
+            }
+            return (Spliterator<E>) current.trySplit();
+        }
+
+        @Override
+        public long estimateSize() {
+            computePending();
+            final long size = current == null ? pendingSize : current.estimateSize() + pendingSize;
+            return size < 0 ? Long.MAX_VALUE : size;
+        }
+
+        @Override
+        public int characteristics() {
+            computePending();
+            int characteristics = pendingCharacteristics;
+            if (current != null) {
+                characteristics &= current.characteristics();
+            }
+            return characteristics & (ORDERED | SIZED | SUBSIZED) | ORDERED;
+        }
+    }
+
+    /**
+     * A spliterator that only passes on the elements of another spliterator
+     * that match a predicate, and splits wherever that spliterator does.
+     *
+     * @param <E> the element type
+     */
+    private static final class FilterSpliterator<E> implements Spliterator<E>, Consumer<E> {
+
+        /** The source spliterator */
+        private final Spliterator<E> source;
+        /** The predicate to match */
+        private final Predicate<? super E> predicate;
+        /** The last element taken from the source */
+        private E element;
+
+        FilterSpliterator(final Spliterator<E> source, final Predicate<? super E> predicate) {
+            this.source = source;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public void accept(final E e) {
+            element = e;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super E> action) {
+            while (source.tryAdvance(this)) {
+                final E e = element;
+                element = null;
+                if (predicate.evaluate(e)) {
+                    action.accept(e);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super E> action) {
+            source.forEachRemaining(e -> {
+                if (predicate.evaluate(e)) {
+                    action.accept(e);
+                }
+            });
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            final Spliterator<E> prefix = source.trySplit();
+            return prefix == null ? null : new FilterSpliterator<>(prefix, predicate);
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics() & ~(SIZED | SUBSIZED);
+        }
+
+        @Override
+        public Comparator<? super E> getComparator() {
+            return source.getComparator();
+        }
+    }
+
+    /**
+     * A spliterator that transforms the elements of another spliterator,
+     * and splits wherever that spliterator does.
+     *
+     * @param <I> the input element type
+     * @param <O> the output element type
+     */
+    private static final class TransformSpliterator<I, O> implements Spliterator<O> {
+
+        /** The source spliterator */
+        private final Spliterator<I> source;
+        /** The transformer to apply */
+        private final Transformer<? super I, ? extends O> transformer;
+
+        TransformSpliterator(final Spliterator<I> source, final Transformer<? super I, ? extends O> transformer) {
+            this.source = source;
+            this.transformer = transformer;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super O> action) {
+            return source.tryAdvance(e -> action.accept(transformer.transform(e)));
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super O> action) {
+            source.forEachRemaining(e -> action.accept(transformer.transform(e)));
+        }
+
+        @Override
+        public Spliterator<O> trySplit() {
+            final Spliterator<I> prefix = source.trySplit();
+            return prefix == null ? null : new TransformSpliterator<>(prefix, transformer);
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics() & (ORDERED | SIZED | SUBSIZED | IMMUTABLE | CONCURRENT);
+        }
+    }
+
+    /**
+     * A spliterator that stops after a maximum number of elements of another spliterator.
+     *
+     * @param <E> the element type
+     */
+    private static final class BoundedSpliterator<E> implements Spliterator<E> {
+
+        /** The source spliterator */
+        private final Spliterator<E> source;
+        /** The number of elements still to return */
+        private long remaining;
+
+        BoundedSpliterator(final Spliterator<E> source, final long maxSize) {
+            this.source = source;
+            this.remaining = maxSize;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super E> action) {
+            if (remaining > 0 && source.tryAdvance(action)) {
+                remaining--;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super E> action) {
+            while (remaining > 0 && source.tryAdvance(action)) {
+                remaining--;
+            }
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return Math.min(remaining, source.estimateSize());
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics() & ~CONCURRENT;
+        }
+
+        @Override
+        public Comparator<? super E> getComparator() {
+            return source.getComparator();
+        }
+    }
+
+    /**
+     * A spliterator that skips a number of leading elements of another spliterator.
+     *
+     * @param <E> the element type
+     */
+    private static final class SkippingSpliterator<E> implements Spliterator<E> {
+
+        /** The source spliterator */
+        private final Spliterator<E> source;
+        /** The number of elements still to skip */
+        private long toSkip;
+
+        SkippingSpliterator(final Spliterator<E> source, final long elementsToSkip) {
+            this.source = source;
+            this.toSkip = elementsToSkip;
+        }
+
+        /**
+         * Skips the leading elements if that has not been done yet.
+         */
+        private void skip() {
+            while (toSkip > 0 && source.tryAdvance(e -> { })) {
+                toSkip--;
+            }
+            toSkip = 0;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super E> action) {
+            skip();
+            return source.tryAdvance(action);
+        }
+
+        @Override
+        public void forEachRemaining(final Consumer<? super E> action) {
+            skip();
+            source.forEachRemaining(action);
+        }
+
+        @Override
+        public Spliterator<E> trySplit() {
+            return toSkip > 0 ? null : source.trySplit();
+        }
+
+        @Override
+        public long estimateSize() {
+            return Math.max(0, source.estimateSize() - toSkip);
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics();
+        }
+
+        @Override
+        public Comparator<? super E> getComparator() {
+            return source.getComparator();
+        }
+    }
+
+    /**
+     * Creates a spliterator over an iterator that merges the provided sources,
+     * reporting the combined size of the sources if all of them know their size.
+     * A sized spliterator splits off batches of elements copied into arrays.
+     *
+     * @param <E> the element type
+     * @param iterator  the iterator over the merged elements
+     * @param sources  the iterables merged by the iterator
+     * @return a new spliterator
+     */
+    static <E> Spliterator<E> sizedSpliterator(final Iterator<E> iterator, final Iterable<?>... sources) {
+        long size = 0;
+        for (final Iterable<?> source : sources) {
+            final long part = source.spliterator().getExactSizeIfKnown();
+            if (part < 0 || size + part < 0) {
+                return Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED);
+            }
+            size += part;
+        }
+        return Spliterators.spliterator(iterator, size, Spliterator.ORDERED);
+    }
+
     /**
      * Gets an empty iterable.
      * <p>
@@ -176,6 +582,11 @@ public class IterableUtils {
                     }
                 };
             }
+
+            @Override
+            public Spliterator<E> spliterator() {
+                return new ChainedSpliterator<>(iterables, 0, iterables.length);
+            }
         };
     }
 
@@ -200,6 +611,11 @@ public class IterableUtils {
             public Iterator<E> iterator() {
                 return IteratorUtils.collatedIterator(null, a.iterator(), b.iterator());
             }
+
+            @Override
+            public Spliterator<E> spliterator() {
+                return sizedSpliterator(iterator(), a, b);
+            }
         };
     }
 
@@ -228,6 +644,11 @@ public class IterableUtils {
             public Iterator<E> iterator() {
                 return IteratorUtils.collatedIterator(comparator, a.iterator(), b.iterator());
             }
+
+            @Override
+            public Spliterator<E> spliterator() {
+                return sizedSpliterator(iterator(), a, b);
+            }
         };
     }
 
@@ -253,6 +674,11 @@ public class IterableUtils {
             public Iterator<E> iterator() {
                 return IteratorUtils.filteredIterator(emptyIteratorIfNull(iterable), predicate);
             }
+
+            @Override
+            public Spliterator<E> spliterator() {
+                return new FilterSpliterator<>(iterable.spliterator(), predicate);
+            }
         };
     }
 
@@ -281,6 +707,11 @@ public class IterableUtils {
             public Iterator<E> iterator() {
                 return IteratorUtils.boundedIterator(iterable.iterator(), maxSize);
             }
+
+            @Override
+            public Spliterator<E> spliterator() {
+                return new BoundedSpliterator<>(iterable.spliterator(), maxSize);
+            }
         };
     }
 
@@ -370,6 +801,11 @@ public class IterableUtils {
             public Iterator<E> iterator() {
                 return IteratorUtils.skippingIterator(iterable.iterator(), elementsToSkip);
             }
+
+            @Override
+            public Spliterator<E> spliterator() {
+                return new SkippingSpliterator<>(iterable.spliterator(), elementsToSkip);
+            }
         };
     }
 
@@ -396,6 +832,11 @@ public class IterableUtils {
             public Iterator<O> iterator() {
                 return IteratorUtils.transformedIterator(iterable.iterator(), transformer);
             }
+
+            @Override
+            public Spliterator<O> spliterator() {
+                return new TransformSpliterator<>(iterable.spliterator(), transformer);
+            }
         };
     }
 
@@ -453,6 +894,12 @@ public class IterableUtils {
         public Iterator<E> iterator() {
             return IteratorUtils.unmodifiableIterator(unmodifiable.iterator());
         }
+
+        @Override
+        public Spliterator<E> spliterator() {
+            // spliterators cannot remove elements
+            return unmodifiable.spliterator();
+        }
     }
 
     /**
@@ -480,6 +927,11 @@ public class IterableUtils {
             public Iterator<E> iterator() {
                 return IteratorUtils.zippingIterator(a.iterator(), b.iterator());
             }
+
+            @Override
+            public Spliterator<E> spliterator() {
+                return sizedSpliterator(iterator(), a, b);
+            }
         };
     }
 
@@ -515,6 +967,14 @@ public class IterableUtils {
                 }
                 return IteratorUtils.zippingIterator(iterators);
             }
+
+            @Override
+            public Spliterator<E> spliterator() {
+                final Iterable<?>[] sources = new Iterable<?>[others.length + 1];
+                sources[0] = first;
+                System.arraycopy(others, 0, sources, 1, others.length);
+                return sizedSpliterator(iterator(), sources);
+            }
         };
     }
 
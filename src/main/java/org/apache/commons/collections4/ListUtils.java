@@ -42,28 +42,6 @@ import org.apache.commons.collections4.sequence.SequencesComparator;
  * @since 1.0
  */
 public class ListUtils {
-    /**
-     * A simple wrapper to use a CharSequence as List.
-     */
-    private static final class CharSequenceAsList extends AbstractList<Character> {
-        private final CharSequence sequence;
-
-        CharSequenceAsList(final CharSequence sequence) {
-            this.sequence = sequence;
-        }
-
-        @Override
-        public Character get(final int index) {
-            return Character.valueOf(sequence.charAt(index));
-        }
-
-        @Override
-        public int size() {
-            return sequence.length();
-        }
-    }
-
-
     /**
      * A helper class used to construct the longest common subsequence.
      */
@@ -402,8 +380,10 @@ public class ListUtils {
     /**
      * Returns the longest common subsequence (LCS) of two {@link CharSequence} objects.
      * <p>
-     * This is a convenience method for using {@link #longestCommonSubsequence(List, List)}
-     * with {@link CharSequence} instances.
+     * The characters are compared as {@code char} values, without boxing them, by
+     * a bit-parallel algorithm that uses {@code O(m * n / 64)} time and linear space.
+     * It returns the same kind of result as {@link #longestCommonSubsequence(List, List)},
+     * although the two may pick different subsequences when several are equally long.
      *
      * @param charSequenceA  the first sequence
      * @param charSequenceB  the second sequence
@@ -414,15 +394,115 @@ public class ListUtils {
     public static String longestCommonSubsequence(final CharSequence charSequenceA, final CharSequence charSequenceB) {
         Objects.requireNonNull(charSequenceA, "charSequenceA");
         Objects.requireNonNull(charSequenceB, "charSequenceB");
-        final List<Character> lcs = longestCommonSubsequence(new CharSequenceAsList(charSequenceA),
-                new CharSequenceAsList(charSequenceB));
-        final StringBuilder sb = new StringBuilder();
-        for (final Character ch : lcs) {
-            sb.append(ch);
+        final int[] indices = BitParallelLcs.indices(BitParallelLcs.tokens(charSequenceA),
+                BitParallelLcs.tokens(charSequenceB));
+        final StringBuilder sb = new StringBuilder(indices.length);
+        for (final int index : indices) {
+            sb.append(charSequenceA.charAt(index));
         }
         return sb.toString();
     }
 
+    /**
+     * Returns the longest common subsequence (LCS) of two {@code int} arrays.
+     * <p>
+     * This suits sequences of tokens, such as interned words or line hashes.
+     * The elements are compared without boxing by a bit-parallel algorithm that
+     * uses {@code O(m * n / 64)} time and linear space.
+     *
+     * @param arrayA  the first sequence
+     * @param arrayB  the second sequence
+     * @return the longest common subsequence
+     * @throws NullPointerException if either array is {@code null}
+     * @since 4.5
+     */
+    public static int[] longestCommonSubsequence(final int[] arrayA, final int[] arrayB) {
+        Objects.requireNonNull(arrayA, "arrayA");
+        Objects.requireNonNull(arrayB, "arrayB");
+        final int[] indices = BitParallelLcs.indices(BitParallelLcs.tokens(arrayA), BitParallelLcs.tokens(arrayB));
+        final int[] lcs = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            lcs[i] = arrayA[indices[i]];
+        }
+        return lcs;
+    }
+
+    /**
+     * Returns the longest common subsequence (LCS) of two {@code long} arrays.
+     * <p>
+     * This suits sequences of tokens, such as 64 bit hashes.
+     * The elements are compared without boxing by a bit-parallel algorithm that
+     * uses {@code O(m * n / 64)} time and linear space.
+     *
+     * @param arrayA  the first sequence
+     * @param arrayB  the second sequence
+     * @return the longest common subsequence
+     * @throws NullPointerException if either array is {@code null}
+     * @since 4.5
+     */
+    public static long[] longestCommonSubsequence(final long[] arrayA, final long[] arrayB) {
+        Objects.requireNonNull(arrayA, "arrayA");
+        Objects.requireNonNull(arrayB, "arrayB");
+        final int[] indices = BitParallelLcs.indices(arrayA, arrayB);
+        final long[] lcs = new long[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            lcs[i] = arrayA[indices[i]];
+        }
+        return lcs;
+    }
+
+    /**
+     * Returns the length of the longest common subsequence (LCS) of two {@link CharSequence} objects.
+     * <p>
+     * This is cheaper than computing the subsequence itself: it takes a single
+     * bit-parallel pass, which is one word operation per character of the
+     * longer sequence when the shorter one has at most 64 characters.
+     *
+     * @param charSequenceA  the first sequence
+     * @param charSequenceB  the second sequence
+     * @return the length of the longest common subsequence
+     * @throws NullPointerException if either sequence is {@code null}
+     * @since 4.5
+     */
+    public static int longestCommonSubsequenceLength(final CharSequence charSequenceA,
+                                                     final CharSequence charSequenceB) {
+        Objects.requireNonNull(charSequenceA, "charSequenceA");
+        Objects.requireNonNull(charSequenceB, "charSequenceB");
+        return BitParallelLcs.length(BitParallelLcs.tokens(charSequenceA), BitParallelLcs.tokens(charSequenceB));
+    }
+
+    /**
+     * Returns the length of the longest common subsequence (LCS) of two {@code int} arrays.
+     *
+     * @param arrayA  the first sequence
+     * @param arrayB  the second sequence
+     * @return the length of the longest common subsequence
+     * @throws NullPointerException if either array is {@code null}
+     * @see #longestCommonSubsequenceLength(CharSequence, CharSequence)
+     * @since 4.5
+     */
+    public static int longestCommonSubsequenceLength(final int[] arrayA, final int[] arrayB) {
+        Objects.requireNonNull(arrayA, "arrayA");
+        Objects.requireNonNull(arrayB, "arrayB");
+        return BitParallelLcs.length(BitParallelLcs.tokens(arrayA), BitParallelLcs.tokens(arrayB));
+    }
+
+    /**
+     * Returns the length of the longest common subsequence (LCS) of two {@code long} arrays.
+     *
+     * @param arrayA  the first sequence
+     * @param arrayB  the second sequence
+     * @return the length of the longest common subsequence
+     * @throws NullPointerException if either array is {@code null}
+     * @see #longestCommonSubsequenceLength(CharSequence, CharSequence)
+     * @since 4.5
+     */
+    public static int longestCommonSubsequenceLength(final long[] arrayA, final long[] arrayB) {
+        Objects.requireNonNull(arrayA, "arrayA");
+        Objects.requireNonNull(arrayB, "arrayB");
+        return BitParallelLcs.length(arrayA, arrayB);
+    }
+
     /**
      * Returns the longest common subsequence (LCS) of two sequences (lists).
      *
@@ -20,10 +20,13 @@ import java.util.AbstractSet;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.NavigableSet;
+import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
@@ -54,6 +57,11 @@ public class SetUtils {
      * If the decorated sets change, this view will change as well. The contents
      * of this view can be transferred to another instance via the {@link #copyInto(Set)}
      * and {@link #toSet()} methods.
+     * <p>
+     * Every query of a view re-evaluates it against the backing sets. When a view
+     * is queried repeatedly while the backing sets do not change, {@link #memoize()}
+     * returns a view that evaluates once and answers from the stored result until
+     * {@link #invalidate()} is called.
      *
      * @param <E> the element type
      * @since 4.1
@@ -77,11 +85,47 @@ public class SetUtils {
          */
         protected abstract Iterator<E> createIterator();
 
+        /**
+         * Discards the result stored by a view returned from {@link #memoize()},
+         * so that its next query re-evaluates the backing sets.
+         * <p>
+         * Views that do not memoize have nothing to discard themselves. The views
+         * returned by {@link SetUtils#union}, {@link SetUtils#intersection},
+         * {@link SetUtils#difference} and {@link SetUtils#disjunction} pass the call
+         * on to those of their arguments that are views, so that invalidating the
+         * outermost view of a composition reaches every memoized view within it.
+         *
+         * @since 4.5
+         */
+        public void invalidate() {
+            // nothing stored
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !createIterator().hasNext();
+        }
+
         @Override
         public Iterator<E> iterator() {
             return IteratorUtils.unmodifiableIterator(createIterator());
         }
 
+        /**
+         * Returns a view with the same contents that evaluates this view on first
+         * use and answers every later query from the stored result, in constant
+         * time for {@code size()} and a hash lookup for {@code contains()}.
+         * <p>
+         * The returned view does not see changes to the backing sets until its
+         * {@link #invalidate()} method is called. It is not thread-safe.
+         *
+         * @return a memoizing view of this view
+         * @since 4.5
+         */
+        public SetView<E> memoize() {
+            return new MemoizedSetView<>(this);
+        }
+
         @Override
         public int size() {
             return IteratorUtils.size(iterator());
@@ -93,12 +137,191 @@ public class SetUtils {
          * @return a new set containing all elements of this view
          */
         public Set<E> toSet() {
-            final Set<E> set = new HashSet<>(size());
+            final Set<E> set = new HashSet<>();
             copyInto(set);
             return set;
         }
     }
 
+    /**
+     * A view that stores the contents of another view on first use.
+     *
+     * @param <E> the element type
+     */
+    private static final class MemoizedSetView<E> extends SetView<E> {
+
+        /** The view evaluated on demand */
+        private final SetView<E> source;
+
+        /** The stored contents, null until evaluated */
+        private Set<E> contents;
+
+        MemoizedSetView(final SetView<E> source) {
+            this.source = source;
+        }
+
+        private Set<E> contents() {
+            if (contents == null) {
+                contents = new LinkedHashSet<>();
+                source.copyInto(contents);
+            }
+            return contents;
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            return contents().contains(o);
+        }
+
+        @Override
+        protected Iterator<E> createIterator() {
+            return contents().iterator();
+        }
+
+        @Override
+        public void invalidate() {
+            contents = null;
+            source.invalidate();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return contents().isEmpty();
+        }
+
+        @Override
+        public SetView<E> memoize() {
+            return this;
+        }
+
+        @Override
+        public int size() {
+            return contents().size();
+        }
+
+        @Override
+        public Set<E> toSet() {
+            return new HashSet<>(contents());
+        }
+    }
+
+    /**
+     * Merges two sets sorted by the same comparator in a single pass, returning
+     * the elements found only in the first, only in the second or in both, as selected.
+     *
+     * @param <E> the element type
+     */
+    private static final class SortedMergeIterator<E> implements Iterator<E> {
+
+        private final Iterator<? extends E> iteratorA;
+        private final Iterator<? extends E> iteratorB;
+        private final Comparator<? super E> comparator;
+        private final boolean onlyA;
+        private final boolean onlyB;
+        private final boolean both;
+        private E nextA;
+        private E nextB;
+        private boolean hasA;
+        private boolean hasB;
+        private E next;
+        private boolean hasNext;
+
+        SortedMergeIterator(final SortedSet<? extends E> setA, final SortedSet<? extends E> setB,
+                final boolean onlyA, final boolean onlyB, final boolean both) {
+            @SuppressWarnings("unchecked") // both sets share this comparator, or both use natural ordering
+            final Comparator<? super E> setComparator = setA.comparator() != null
+                    ? (Comparator<? super E>) setA.comparator() : ComparatorUtils.NATURAL_COMPARATOR;
+            this.comparator = setComparator;
+            this.iteratorA = setA.iterator();
+            this.iteratorB = setB.iterator();
+            this.onlyA = onlyA;
+            this.onlyB = onlyB;
+            this.both = both;
+            advanceA();
+            advanceB();
+            findNext();
+        }
+
+        private void advanceA() {
+            hasA = iteratorA.hasNext();
+            nextA = hasA ? iteratorA.next() : null;
+        }
+
+        private void advanceB() {
+            hasB = iteratorB.hasNext();
+            nextB = hasB ? iteratorB.next() : null;
+        }
+
+        private void findNext() {
+            while ((hasA || onlyB) && (hasB || onlyA) && (hasA || hasB)) {
+                final int cmp = !hasA ? 1 : !hasB ? -1 : comparator.compare(nextA, nextB);
+                final E candidate;
+                final boolean emit;
+                if (cmp < 0) {
+                    candidate = nextA;
+                    emit = onlyA;
+                    advanceA();
+                } else if (cmp > 0) {
+                    candidate = nextB;
+                    emit = onlyB;
+                    advanceB();
+                } else {
+                    candidate = nextA;
+                    emit = both;
+                    advanceA();
+                    advanceB();
+                }
+                if (emit) {
+                    next = candidate;
+                    hasNext = true;
+                    return;
+                }
+            }
+            next = null;
+            hasNext = false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext;
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext) {
+                throw new NoSuchElementException();
+            }
+            final E result = next;
+            findNext();
+            return result;
+        }
+    }
+
+    /**
+     * Tests whether two sets are sorted by the same comparator and can be merged.
+     *
+     * @param setA  the first set
+     * @param setB  the second set
+     * @return true if both sets are sorted sets with equal comparators
+     */
+    private static boolean isMergeable(final Set<?> setA, final Set<?> setB) {
+        return setA instanceof SortedSet && setB instanceof SortedSet
+                && Objects.equals(((SortedSet<?>) setA).comparator(), ((SortedSet<?>) setB).comparator());
+    }
+
+    /**
+     * Tests whether a single merge pass over two sorted sets costs less than
+     * probing one of them once for each element of the other.
+     *
+     * @param probes  the number of lookups probing would make
+     * @param probed  the size of the sorted set that would be probed
+     * @param total  the combined size of both sets
+     * @return true if merging is cheaper
+     */
+    private static boolean isMergeCheaper(final int probes, final int probed, final int total) {
+        return (long) probes * (32 - Integer.numberOfLeadingZeros(probed)) > total;
+    }
+
     /**
      * An empty unmodifiable sorted set.
      * This is not provided in the JDK.
@@ -113,6 +336,10 @@ public class SetUtils {
      * <p>
      * The returned view contains all elements of {@code a} that are not a member
      * of {@code b}.
+     * <p>
+     * If both sets are {@link SortedSet}s with the same comparator and {@code b}
+     * is large, the view walks both sets in a single merge pass instead of looking
+     * up each element of {@code a} in {@code b}.
      *
      * @param <E> the generic type that is able to represent the types contained
      *   in both input sets.
@@ -126,6 +353,7 @@ public class SetUtils {
         Objects.requireNonNull(setB, "setB");
 
         final Predicate<E> notContainedInB = object -> !setB.contains(object);
+        final boolean mergeable = isMergeable(setA, setB);
 
         return new SetView<E>() {
             @Override
@@ -133,8 +361,19 @@ public class SetUtils {
                 return setA.contains(o) && !setB.contains(o);
             }
 
+            @Override
+            public void invalidate() {
+                invalidateViews(setA, setB);
+            }
+
             @Override
             public Iterator<E> createIterator() {
+                final int sizeA = setA.size();
+                final int sizeB = setB.size();
+                if (mergeable && isMergeCheaper(sizeA, sizeB, sizeA + sizeB)) {
+                    return new SortedMergeIterator<>((SortedSet<? extends E>) setA, (SortedSet<? extends E>) setB,
+                            true, false, false);
+                }
                 return IteratorUtils.filteredIterator(setA.iterator(), notContainedInB);
             }
         };
@@ -148,6 +387,9 @@ public class SetUtils {
      * not a member of the other set.
      * <p>
      * This is equivalent to {@code union(difference(a, b), difference(b, a))}.
+     * <p>
+     * If both sets are {@link SortedSet}s with the same comparator, the view
+     * merges them in a single pass and iterates in sorted order.
      *
      * @param <E> the generic type that is able to represent the types contained
      *   in both input sets.
@@ -162,6 +404,7 @@ public class SetUtils {
 
         final SetView<E> aMinusB = difference(setA, setB);
         final SetView<E> bMinusA = difference(setB, setA);
+        final boolean mergeable = isMergeable(setA, setB);
 
         return new SetView<E>() {
             @Override
@@ -169,8 +412,17 @@ public class SetUtils {
                 return setA.contains(o) ^ setB.contains(o);
             }
 
+            @Override
+            public void invalidate() {
+                invalidateViews(setA, setB);
+            }
+
             @Override
             public Iterator<E> createIterator() {
+                if (mergeable) {
+                    return new SortedMergeIterator<>((SortedSet<? extends E>) setA, (SortedSet<? extends E>) setB,
+                            true, true, false);
+                }
                 return IteratorUtils.chainedIterator(aMinusB.iterator(), bMinusA.iterator());
             }
 
@@ -265,6 +517,11 @@ public class SetUtils {
      * <p>
      * The returned view contains all elements that are members of both input sets
      * ({@code a} and {@code b}).
+     * <p>
+     * The view iterates the smaller of the two sets and looks its elements up in
+     * the other, so the iteration order and the element instances returned come
+     * from the smaller set. If both sets are {@link SortedSet}s with the same
+     * comparator and are of similar size, the view merges them in a single pass.
      *
      * @param <E> the generic type that is able to represent the types contained
      *   in both input sets.
@@ -277,7 +534,9 @@ public class SetUtils {
         Objects.requireNonNull(setA, "setA");
         Objects.requireNonNull(setB, "setB");
 
+        final Predicate<E> containedInA = setA::contains;
         final Predicate<E> containedInB = setB::contains;
+        final boolean mergeable = isMergeable(setA, setB);
 
         return new SetView<E>() {
             @Override
@@ -285,13 +544,42 @@ public class SetUtils {
                 return setA.contains(o) && setB.contains(o);
             }
 
+            @Override
+            public void invalidate() {
+                invalidateViews(setA, setB);
+            }
+
             @Override
             public Iterator<E> createIterator() {
+                final int sizeA = setA.size();
+                final int sizeB = setB.size();
+                if (mergeable && isMergeCheaper(Math.min(sizeA, sizeB), Math.max(sizeA, sizeB), sizeA + sizeB)) {
+                    return new SortedMergeIterator<>((SortedSet<? extends E>) setA, (SortedSet<? extends E>) setB,
+                            false, false, true);
+                }
+                if (sizeB < sizeA) {
+                    return IteratorUtils.filteredIterator(setB.iterator(), containedInA);
+                }
                 return IteratorUtils.filteredIterator(setA.iterator(), containedInB);
             }
         };
     }
 
+    /**
+     * Invalidates those of the arguments of a view that are views themselves.
+     *
+     * @param setA  the first argument
+     * @param setB  the second argument
+     */
+    private static void invalidateViews(final Set<?> setA, final Set<?> setB) {
+        if (setA instanceof SetView) {
+            ((SetView<?>) setA).invalidate();
+        }
+        if (setB instanceof SetView) {
+            ((SetView<?>) setB).invalidate();
+        }
+    }
+
     /**
      * Tests two sets for equality as per the {@code equals()} contract
      * in {@link java.util.Set#equals(java.lang.Object)}.
@@ -553,6 +841,9 @@ public class SetUtils {
      * Returns an unmodifiable <b>view</b> of the union of the given {@link Set}s.
      * <p>
      * The returned view contains all elements of {@code a} and {@code b}.
+     * <p>
+     * If both sets are {@link SortedSet}s with the same comparator, the view
+     * merges them in a single pass and iterates in sorted order.
      *
      * @param <E> the generic type that is able to represent the types contained
      *   in both input sets.
@@ -567,6 +858,7 @@ public class SetUtils {
         Objects.requireNonNull(setB, "setB");
 
         final SetView<E> bMinusA = difference(setB, setA);
+        final boolean mergeable = isMergeable(setA, setB);
 
         return new SetView<E>() {
             @Override
@@ -574,8 +866,17 @@ public class SetUtils {
                 return setA.contains(o) || setB.contains(o);
             }
 
+            @Override
+            public void invalidate() {
+                invalidateViews(setA, setB);
+            }
+
             @Override
             public Iterator<E> createIterator() {
+                if (mergeable) {
+                    return new SortedMergeIterator<>((SortedSet<? extends E>) setA, (SortedSet<? extends E>) setB,
+                            true, true, true);
+                }
                 return IteratorUtils.chainedIterator(setA.iterator(), bMinusA.iterator());
             }
 
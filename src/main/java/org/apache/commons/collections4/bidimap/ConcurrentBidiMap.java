@@ -0,0 +1,664 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bidimap;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+import org.apache.commons.collections4.BidiMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.ResettableIterator;
+
+/**
+ * Thread-safe implementation of {@link BidiMap} that uses two
+ * {@link ConcurrentHashMap} instances.
+ * <p>
+ * Every update, including a {@code put} that evicts the previous mapping of
+ * its value, changes both directions atomically: no thread ever observes a
+ * key mapped in one direction but not the other. Updates are serialized by a
+ * single {@link StampedLock}.
+ * </p>
+ * <p>
+ * Lookups such as {@code get} and {@code getKey} take no lock. They read the
+ * underlying map under an optimistic stamp and only fall back to a read lock
+ * if an update completed or was in progress meanwhile, so readers in a
+ * read-mostly workload never block one another.
+ * </p>
+ * <p>
+ * Iteration over the views is weakly consistent, as for
+ * {@link ConcurrentHashMap}; removal through the views and their iterators is
+ * supported. Neither keys nor values may be null.
+ * </p>
+ *
+ * @param <K> the type of the keys in the map
+ * @param <V> the type of the values in the map
+ * @since 4.5
+ */
+public class ConcurrentBidiMap<K, V> implements BidiMap<K, V>, ConcurrentMap<K, V>, Serializable {
+
+    /** Serialization version */
+    private static final long serialVersionUID = 3563127412950734298L;
+
+    /** Normal delegate map. */
+    private transient ConcurrentHashMap<K, V> normalMap;
+
+    /** Reverse delegate map. */
+    private transient ConcurrentHashMap<V, K> reverseMap;
+
+    /** The lock shared with the inverse map. */
+    private transient StampedLock lock;
+
+    /** Inverse view of this map. */
+    private transient ConcurrentBidiMap<V, K> inverseBidiMap;
+
+    /** View of the keys. */
+    private transient Set<K> keySet;
+
+    /** View of the values. */
+    private transient Set<V> values;
+
+    /** View of the entries. */
+    private transient Set<Map.Entry<K, V>> entrySet;
+
+    /**
+     * Creates an empty {@code ConcurrentBidiMap}.
+     */
+    public ConcurrentBidiMap() {
+        init();
+    }
+
+    /**
+     * Constructs a {@code ConcurrentBidiMap} and copies the mappings from
+     * specified {@code Map}.
+     *
+     * @param map  the map whose mappings are to be placed in this map
+     * @throws NullPointerException if the map, or any key or value in it, is null
+     */
+    public ConcurrentBidiMap(final Map<? extends K, ? extends V> map) {
+        init();
+        putAll(map);
+    }
+
+    /**
+     * Constructs the inverse of a map, sharing its storage and lock.
+     *
+     * @param inverseBidiMap  the map to invert
+     */
+    private ConcurrentBidiMap(final ConcurrentBidiMap<V, K> inverseBidiMap) {
+        this.normalMap = inverseBidiMap.reverseMap;
+        this.reverseMap = inverseBidiMap.normalMap;
+        this.lock = inverseBidiMap.lock;
+        this.inverseBidiMap = inverseBidiMap;
+    }
+
+    /**
+     * Creates the storage, the lock and the inverse view.
+     */
+    private void init() {
+        normalMap = new ConcurrentHashMap<>();
+        reverseMap = new ConcurrentHashMap<>();
+        lock = new StampedLock();
+        inverseBidiMap = new ConcurrentBidiMap<>(this);
+    }
+
+    /**
+     * Repeats a read under the read lock, after its optimistic attempt failed validation.
+     *
+     * @param <T> the result type
+     * @param read  the read to repeat
+     * @return the result of the read
+     */
+    private <T> T lockedRead(final Supplier<T> read) {
+        final long stamp = lock.readLock();
+        try {
+            return read.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public V get(final Object key) {
+        final long stamp = lock.tryOptimisticRead();
+        final V value = normalMap.get(key);
+        return lock.validate(stamp) ? value : lockedRead(() -> normalMap.get(key));
+    }
+
+    @Override
+    public K getKey(final Object value) {
+        final long stamp = lock.tryOptimisticRead();
+        final K key = reverseMap.get(value);
+        return lock.validate(stamp) ? key : lockedRead(() -> reverseMap.get(value));
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        return getKey(value) != null;
+    }
+
+    @Override
+    public int size() {
+        final long stamp = lock.tryOptimisticRead();
+        final int size = normalMap.size();
+        return lock.validate(stamp) ? size : lockedRead(normalMap::size);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Puts the key-value pair into the map, replacing any previous pair.
+     * <p>
+     * If the value is already mapped from another key, that mapping is
+     * removed in the same atomic step.
+     * </p>
+     *
+     * @param key  the key to store
+     * @param value  the value to store
+     * @return the previous value mapped to this key
+     * @throws NullPointerException if the key or value is null
+     */
+    @Override
+    public V put(final K key, final V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        final long stamp = lock.writeLock();
+        try {
+            return doPut(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Puts a pair into both maps, holding the write lock.
+     *
+     * @param key  the key to store
+     * @param value  the value to store
+     * @return the previous value mapped to this key
+     */
+    private V doPut(final K key, final V value) {
+        final V oldValue = normalMap.put(key, value);
+        if (oldValue != null && !oldValue.equals(value)) {
+            reverseMap.remove(oldValue);
+        }
+        final K oldKey = reverseMap.put(value, key);
+        if (oldKey != null && !oldKey.equals(key)) {
+            normalMap.remove(oldKey);
+        }
+        return oldValue;
+    }
+
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> map) {
+        for (final Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public V putIfAbsent(final K key, final V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        final long stamp = lock.writeLock();
+        try {
+            final V current = normalMap.get(key);
+            return current != null ? current : doPut(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public V replace(final K key, final V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        final long stamp = lock.writeLock();
+        try {
+            return normalMap.containsKey(key) ? doPut(key, value) : null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean replace(final K key, final V oldValue, final V newValue) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(oldValue, "oldValue");
+        Objects.requireNonNull(newValue, "newValue");
+        final long stamp = lock.writeLock();
+        try {
+            if (!oldValue.equals(normalMap.get(key))) {
+                return false;
+            }
+            doPut(key, newValue);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public V remove(final Object key) {
+        final long stamp = lock.writeLock();
+        try {
+            final V value = normalMap.remove(key);
+            if (value != null) {
+                reverseMap.remove(value);
+            }
+            return value;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean remove(final Object key, final Object value) {
+        if (key == null || value == null) {
+            return false;
+        }
+        final long stamp = lock.writeLock();
+        try {
+            if (!normalMap.remove(key, value)) {
+                return false;
+            }
+            reverseMap.remove(value);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public K removeValue(final Object value) {
+        return inverseBidiMap.remove(value);
+    }
+
+    @Override
+    public void clear() {
+        final long stamp = lock.writeLock();
+        try {
+            normalMap.clear();
+            reverseMap.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public BidiMap<V, K> inverseBidiMap() {
+        return inverseBidiMap;
+    }
+
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        return new BidiMapIterator();
+    }
+
+    /**
+     * Gets a keySet view of the map.
+     * Changes made on the view are reflected in the map.
+     * The set supports remove and clear but not add.
+     *
+     * @return the keySet view
+     */
+    @Override
+    public Set<K> keySet() {
+        if (keySet == null) {
+            keySet = new KeySet();
+        }
+        return keySet;
+    }
+
+    /**
+     * Gets a values view of the map.
+     * Changes made on the view are reflected in the map.
+     * The set supports remove and clear but not add.
+     *
+     * @return the values view
+     */
+    @Override
+    public Set<V> values() {
+        if (values == null) {
+            values = inverseBidiMap.new KeySet();
+        }
+        return values;
+    }
+
+    /**
+     * Gets an entrySet view of the map.
+     * Changes made on the set are reflected in the map.
+     * The set supports remove and clear but not add.
+     * <p>
+     * The Map Entry setValue() method only allow a new value to be set.
+     * If the value being set is already in the map, an IllegalArgumentException
+     * is thrown (as setValue cannot change the size of the map).
+     * </p>
+     *
+     * @return the entrySet view
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj == this || normalMap.equals(obj);
+    }
+
+    @Override
+    public int hashCode() {
+        return normalMap.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return normalMap.toString();
+    }
+
+    /**
+     * The keys, and through the inverse map the values.
+     */
+    private final class KeySet extends AbstractSet<K> {
+
+        @Override
+        public Iterator<K> iterator() {
+            final Iterator<K> iterator = normalMap.keySet().iterator();
+            return new Iterator<K>() {
+                private K last;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public K next() {
+                    last = iterator.next();
+                    return last;
+                }
+
+                @Override
+                public void remove() {
+                    if (last == null) {
+                        throw new IllegalStateException("Iterator remove() can only be called once after next()");
+                    }
+                    ConcurrentBidiMap.this.remove(last);
+                    last = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return ConcurrentBidiMap.this.size();
+        }
+
+        @Override
+        public boolean contains(final Object key) {
+            return key != null && containsKey(key);
+        }
+
+        @Override
+        public boolean remove(final Object key) {
+            return key != null && ConcurrentBidiMap.this.remove(key) != null;
+        }
+
+        @Override
+        public void clear() {
+            ConcurrentBidiMap.this.clear();
+        }
+    }
+
+    /**
+     * The entries, whose removal and setValue go through the map.
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            final Iterator<Map.Entry<K, V>> iterator = normalMap.entrySet().iterator();
+            return new Iterator<Map.Entry<K, V>>() {
+                private Entry last;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Map.Entry<K, V> next() {
+                    final Map.Entry<K, V> entry = iterator.next();
+                    last = new Entry(entry.getKey(), entry.getValue());
+                    return last;
+                }
+
+                @Override
+                public void remove() {
+                    if (last == null) {
+                        throw new IllegalStateException("Iterator remove() can only be called once after next()");
+                    }
+                    ConcurrentBidiMap.this.remove(last.getKey(), last.getValue());
+                    last = null;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return ConcurrentBidiMap.this.size();
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            final Object value = entry.getKey() == null ? null : get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            return ConcurrentBidiMap.this.remove(entry.getKey(), entry.getValue());
+        }
+
+        @Override
+        public void clear() {
+            ConcurrentBidiMap.this.clear();
+        }
+    }
+
+    /**
+     * An entry snapshot whose setValue writes through to the map.
+     */
+    private final class Entry implements Map.Entry<K, V> {
+        private final K key;
+        private V value;
+
+        Entry(final K key, final V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(final V value) {
+            Objects.requireNonNull(value, "value");
+            final long stamp = lock.writeLock();
+            try {
+                final K current = reverseMap.get(value);
+                if (current != null && !current.equals(key)) {
+                    throw new IllegalArgumentException(
+                            "Cannot use setValue() when the object being set is already in the map");
+                }
+                doPut(key, value);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+            final V old = this.value;
+            this.value = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            return key.equals(other.getKey()) && value.equals(other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    /**
+     * A map iterator over the entry set.
+     */
+    private final class BidiMapIterator implements MapIterator<K, V>, ResettableIterator<K> {
+        private Iterator<Map.Entry<K, V>> iterator = entrySet().iterator();
+        private Map.Entry<K, V> last;
+        private boolean canRemove;
+
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public K next() {
+            last = iterator.next();
+            canRemove = true;
+            return last.getKey();
+        }
+
+        @Override
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException("Iterator remove() can only be called once after next()");
+            }
+            iterator.remove();
+            last = null;
+            canRemove = false;
+        }
+
+        @Override
+        public K getKey() {
+            if (last == null) {
+                throw new IllegalStateException(
+                        "Iterator getKey() can only be called after next() and before remove()");
+            }
+            return last.getKey();
+        }
+
+        @Override
+        public V getValue() {
+            if (last == null) {
+                throw new IllegalStateException(
+                        "Iterator getValue() can only be called after next() and before remove()");
+            }
+            return last.getValue();
+        }
+
+        @Override
+        public V setValue(final V value) {
+            if (last == null) {
+                throw new IllegalStateException(
+                        "Iterator setValue() can only be called after next() and before remove()");
+            }
+            return last.setValue(value);
+        }
+
+        @Override
+        public void reset() {
+            iterator = entrySet().iterator();
+            last = null;
+            canRemove = false;
+        }
+
+        @Override
+        public String toString() {
+            if (last != null) {
+                return "MapIterator[" + getKey() + "=" + getValue() + "]";
+            }
+            return "MapIterator[]";
+        }
+    }
+
+    // Serialization
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeObject(normalMap);
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        init();
+        @SuppressWarnings("unchecked") // will fail at runtime if stream is incorrect
+        final Map<K, V> map = (Map<K, V>) in.readObject();
+        putAll(map);
+    }
+
+}
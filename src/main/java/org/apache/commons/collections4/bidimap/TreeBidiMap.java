@@ -23,13 +23,17 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.AbstractMap;
 import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.SortedMap;
 
 import org.apache.commons.collections4.KeyValue;
 import org.apache.commons.collections4.MapIterator;
@@ -77,6 +81,14 @@ import org.apache.commons.collections4.keyvalue.UnmodifiableMapEntry;
  * not allow setValue() and will throw an
  * UnsupportedOperationException on attempts to call that method.
  * </p>
+ * <p>
+ * Every node is also threaded to its neighbors in both orders, so stepping
+ * an iterator takes constant time rather than a walk up the tree. Ranges of
+ * the map can be viewed by key with {@link #subMap(Comparable, Comparable)},
+ * {@link #headMap(Comparable)} and {@link #tailMap(Comparable)}, and by value
+ * with the corresponding {@code ByValue} methods. Copying a map into an empty
+ * TreeBidiMap builds both trees directly from the sorted mappings.
+ * </p>
  *
  * @param <K> the type of the keys in this map
  * @param <V> the type of the values in this map
@@ -126,6 +138,11 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
 
     /**
      * Constructs a new TreeBidiMap by copying an existing Map.
+     * <p>
+     * Unless two keys or two values compare equal, both trees are built
+     * directly from the sorted mappings, in linear time if the map is
+     * already sorted by key, such as a {@code SortedMap}.
+     * </p>
      *
      * @param map  the map to copy
      * @throws ClassCastException if the keys/values in the map are
@@ -243,16 +260,95 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
      * Puts all the mappings from the specified map into this map.
      * <p>
      * All keys and values must implement {@code Comparable}.
+     * If this map is empty, both trees are built in bulk from the sorted
+     * mappings rather than by repeated insertion.
      *
      * @param map  the map to copy from
      */
     @Override
     public void putAll(final Map<? extends K, ? extends V> map) {
+        if (nodeCount == 0 && map.size() > 1 && buildFrom(map)) {
+            return;
+        }
         for (final Map.Entry<? extends K, ? extends V> e : map.entrySet()) {
             put(e.getKey(), e.getValue());
         }
     }
 
+    /**
+     * Builds both trees of this empty map from the mappings of another map.
+     * <p>
+     * The mappings are sorted once by key and once by value, and each
+     * ordering is turned into a balanced tree whose deepest level is red,
+     * as {@link java.util.TreeMap} does for sorted input.
+     * </p>
+     *
+     * @param map  the map to copy from
+     * @return false, leaving this map empty, if two keys or two values compare equal
+     */
+    @SuppressWarnings("unchecked")
+    private boolean buildFrom(final Map<? extends K, ? extends V> map) {
+        final Node<K, V>[] byKey = new Node[map.size()];
+        int count = 0;
+        for (final Map.Entry<? extends K, ? extends V> e : map.entrySet()) {
+            if (count == byKey.length) {
+                return false;
+            }
+            checkKeyAndValue(e.getKey(), e.getValue());
+            byKey[count++] = new Node<>(e.getKey(), e.getValue());
+        }
+        if (count != byKey.length) {
+            return false;
+        }
+        // merge sort runs in linear time when the input is already in key order
+        Arrays.sort(byKey, Comparator.comparing(Node::getKey));
+        final Node<K, V>[] byValue = byKey.clone();
+        Arrays.sort(byValue, Comparator.comparing(Node::getValue));
+        for (int i = 1; i < count; i++) {
+            if (compare(byKey[i - 1].getKey(), byKey[i].getKey()) == 0
+                    || compare(byValue[i - 1].getValue(), byValue[i].getValue()) == 0) {
+                return false;
+            }
+        }
+        final int redLevel = 31 - Integer.numberOfLeadingZeros(count + 1);
+        rootNode[KEY.ordinal()] = buildTree(byKey, 0, count - 1, 0, redLevel, null, KEY);
+        rootNode[VALUE.ordinal()] = buildTree(byValue, 0, count - 1, 0, redLevel, null, VALUE);
+        nodeCount = count;
+        modify();
+        return true;
+    }
+
+    /**
+     * Builds a balanced subtree from a sorted range of nodes.
+     *
+     * @param nodes  the nodes in order
+     * @param lo  the first index of the range
+     * @param hi  the last index of the range
+     * @param depth  the depth of the subtree root
+     * @param redLevel  the depth at which nodes are colored red
+     * @param parent  the parent of the subtree root
+     * @param dataElement  either the {@link DataElement#KEY key}
+     *                     or the {@link DataElement#VALUE value}.
+     * @return the subtree root, or null if the range is empty
+     */
+    private Node<K, V> buildTree(final Node<K, V>[] nodes, final int lo, final int hi, final int depth,
+            final int redLevel, final Node<K, V> parent, final DataElement dataElement) {
+        if (lo > hi) {
+            return null;
+        }
+        final int mid = lo + hi >>> 1;
+        final Node<K, V> node = nodes[mid];
+        node.setParent(parent, dataElement);
+        node.setLeft(buildTree(nodes, lo, mid - 1, depth + 1, redLevel, node, dataElement), dataElement);
+        node.setRight(buildTree(nodes, mid + 1, hi, depth + 1, redLevel, node, dataElement), dataElement);
+        if (depth == redLevel) {
+            node.setRed(dataElement);
+        }
+        node.setPrevious(mid > 0 ? nodes[mid - 1] : null, dataElement);
+        node.setNext(mid < nodes.length - 1 ? nodes[mid + 1] : null, dataElement);
+        return node;
+    }
+
     /**
      * Removes the mapping for this key from this map if present.
      * <p>
@@ -458,6 +554,105 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
         return inverse;
     }
 
+    /**
+     * Gets a view of the mappings whose keys range from {@code fromKey},
+     * inclusive, to {@code toKey}, exclusive.
+     * <p>
+     * The view is backed by this map and supports removal, and {@code put}
+     * of keys within the range. As with {@link #put(Comparable, Comparable)},
+     * putting a value already present removes its existing mapping.
+     * </p>
+     *
+     * @param fromKey  the low endpoint, inclusive
+     * @param toKey  the high endpoint, exclusive
+     * @return a view of the range
+     * @throws NullPointerException if either key is null
+     * @throws IllegalArgumentException if {@code fromKey} is greater than {@code toKey}
+     * @since 4.5
+     */
+    public SortedMap<K, V> subMap(final K fromKey, final K toKey) {
+        checkKey(fromKey);
+        checkKey(toKey);
+        return new RangeView<>(KEY, fromKey, toKey);
+    }
+
+    /**
+     * Gets a view of the mappings whose keys are less than {@code toKey}.
+     *
+     * @param toKey  the high endpoint, exclusive
+     * @return a view of the range
+     * @throws NullPointerException if the key is null
+     * @see #subMap(Comparable, Comparable)
+     * @since 4.5
+     */
+    public SortedMap<K, V> headMap(final K toKey) {
+        checkKey(toKey);
+        return new RangeView<>(KEY, null, toKey);
+    }
+
+    /**
+     * Gets a view of the mappings whose keys are greater than or equal to {@code fromKey}.
+     *
+     * @param fromKey  the low endpoint, inclusive
+     * @return a view of the range
+     * @throws NullPointerException if the key is null
+     * @see #subMap(Comparable, Comparable)
+     * @since 4.5
+     */
+    public SortedMap<K, V> tailMap(final K fromKey) {
+        checkKey(fromKey);
+        return new RangeView<>(KEY, fromKey, null);
+    }
+
+    /**
+     * Gets an inverse view, from value to key, of the mappings whose values
+     * range from {@code fromValue}, inclusive, to {@code toValue}, exclusive.
+     * <p>
+     * The view is backed by this map and supports removal, and {@code put}
+     * of values within the range.
+     * </p>
+     *
+     * @param fromValue  the low endpoint, inclusive
+     * @param toValue  the high endpoint, exclusive
+     * @return a view of the range
+     * @throws NullPointerException if either value is null
+     * @throws IllegalArgumentException if {@code fromValue} is greater than {@code toValue}
+     * @since 4.5
+     */
+    public SortedMap<V, K> subMapByValue(final V fromValue, final V toValue) {
+        checkValue(fromValue);
+        checkValue(toValue);
+        return new RangeView<>(VALUE, fromValue, toValue);
+    }
+
+    /**
+     * Gets an inverse view of the mappings whose values are less than {@code toValue}.
+     *
+     * @param toValue  the high endpoint, exclusive
+     * @return a view of the range
+     * @throws NullPointerException if the value is null
+     * @see #subMapByValue(Comparable, Comparable)
+     * @since 4.5
+     */
+    public SortedMap<V, K> headMapByValue(final V toValue) {
+        checkValue(toValue);
+        return new RangeView<>(VALUE, null, toValue);
+    }
+
+    /**
+     * Gets an inverse view of the mappings whose values are greater than or equal to {@code fromValue}.
+     *
+     * @param fromValue  the low endpoint, inclusive
+     * @return a view of the range
+     * @throws NullPointerException if the value is null
+     * @see #subMapByValue(Comparable, Comparable)
+     * @since 4.5
+     */
+    public SortedMap<V, K> tailMapByValue(final V fromValue) {
+        checkValue(fromValue);
+        return new RangeView<>(VALUE, fromValue, null);
+    }
+
     /**
      * Compares for equals as per the API.
      *
@@ -526,6 +721,7 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
                         insertValue(newNode);
                         node.setLeft(newNode, KEY);
                         newNode.setParent(node, KEY);
+                        linkBefore(newNode, node, KEY);
                         doRedBlackInsert(newNode, KEY);
                         grow();
 
@@ -539,6 +735,7 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
                         insertValue(newNode);
                         node.setRight(newNode, KEY);
                         newNode.setParent(node, KEY);
+                        linkAfter(newNode, node, KEY);
                         doRedBlackInsert(newNode, KEY);
                         grow();
 
@@ -604,6 +801,10 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
 
     /**
      * Gets the next larger node from the specified node.
+     * <p>
+     * Each node is threaded to its successor and predecessor in both orders,
+     * so this takes constant time.
+     * </p>
      *
      * @param node the node to be searched from
      * @param dataElement  either the {@link DataElement#KEY key}
@@ -611,30 +812,7 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
      * @return the specified node
      */
     private Node<K, V> nextGreater(final Node<K, V> node, final DataElement dataElement) {
-        final Node<K, V> rval;
-        if (node == null) {
-            rval = null;
-        } else if (node.getRight(dataElement) != null) {
-            // everything to the node's right is larger. The least of
-            // the right node's descendants is the next larger node
-            rval = leastNode(node.getRight(dataElement), dataElement);
-        } else {
-            // traverse up our ancestry until we find an ancestor that
-            // is null or one whose left child is our ancestor. If we
-            // find a null, then this node IS the largest node in the
-            // tree, and there is no greater node. Otherwise, we are
-            // the largest node in the subtree on that ancestor's left
-            // ... and that ancestor is the next greatest node
-            Node<K, V> parent = node.getParent(dataElement);
-            Node<K, V> child = node;
-
-            while (parent != null && child == parent.getRight(dataElement)) {
-                child = parent;
-                parent = parent.getParent(dataElement);
-            }
-            rval = parent;
-        }
-        return rval;
+        return node == null ? null : node.getNext(dataElement);
     }
 
     /**
@@ -646,32 +824,127 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
      * @return the specified node
      */
     private Node<K, V> nextSmaller(final Node<K, V> node, final DataElement dataElement) {
-        final Node<K, V> rval;
-        if (node == null) {
-            rval = null;
-        } else if (node.getLeft(dataElement) != null) {
-            // everything to the node's left is smaller. The greatest of
-            // the left node's descendants is the next smaller node
-            rval = greatestNode(node.getLeft(dataElement), dataElement);
-        } else {
-            // traverse up our ancestry until we find an ancestor that
-            // is null or one whose right child is our ancestor. If we
-            // find a null, then this node IS the largest node in the
-            // tree, and there is no greater node. Otherwise, we are
-            // the largest node in the subtree on that ancestor's right
-            // ... and that ancestor is the next greatest node
-            Node<K, V> parent = node.getParent(dataElement);
-            Node<K, V> child = node;
+        return node == null ? null : node.getPrevious(dataElement);
+    }
 
-            while (parent != null && child == parent.getLeft(dataElement)) {
-                child = parent;
-                parent = parent.getParent(dataElement);
+    /**
+     * Threads a new node into the ordering just before another node.
+     *
+     * @param newNode  the node to insert
+     * @param successor  the node that follows it
+     * @param dataElement  either the {@link DataElement#KEY key}
+     *                     or the {@link DataElement#VALUE value}.
+     */
+    private static <K extends Comparable<K>, V extends Comparable<V>> void linkBefore(final Node<K, V> newNode,
+            final Node<K, V> successor, final DataElement dataElement) {
+        final Node<K, V> predecessor = successor.getPrevious(dataElement);
+        newNode.setPrevious(predecessor, dataElement);
+        newNode.setNext(successor, dataElement);
+        successor.setPrevious(newNode, dataElement);
+        if (predecessor != null) {
+            predecessor.setNext(newNode, dataElement);
+        }
+    }
+
+    /**
+     * Threads a new node into the ordering just after another node.
+     *
+     * @param newNode  the node to insert
+     * @param predecessor  the node that precedes it
+     * @param dataElement  either the {@link DataElement#KEY key}
+     *                     or the {@link DataElement#VALUE value}.
+     */
+    private static <K extends Comparable<K>, V extends Comparable<V>> void linkAfter(final Node<K, V> newNode,
+            final Node<K, V> predecessor, final DataElement dataElement) {
+        final Node<K, V> successor = predecessor.getNext(dataElement);
+        newNode.setNext(successor, dataElement);
+        newNode.setPrevious(predecessor, dataElement);
+        predecessor.setNext(newNode, dataElement);
+        if (successor != null) {
+            successor.setPrevious(newNode, dataElement);
+        }
+    }
+
+    /**
+     * Removes a node from the ordering threads.
+     *
+     * @param node  the node to remove
+     * @param dataElement  either the {@link DataElement#KEY key}
+     *                     or the {@link DataElement#VALUE value}.
+     */
+    private static <K extends Comparable<K>, V extends Comparable<V>> void unlink(final Node<K, V> node,
+            final DataElement dataElement) {
+        final Node<K, V> predecessor = node.getPrevious(dataElement);
+        final Node<K, V> successor = node.getNext(dataElement);
+        if (predecessor != null) {
+            predecessor.setNext(successor, dataElement);
+        }
+        if (successor != null) {
+            successor.setPrevious(predecessor, dataElement);
+        }
+        node.setPrevious(null, dataElement);
+        node.setNext(null, dataElement);
+    }
+
+    /**
+     * Finds the least node whose data is greater than or equal to the given data.
+     *
+     * @param data  the key or value to search for
+     * @param dataElement  either the {@link DataElement#KEY key}
+     *                     or the {@link DataElement#VALUE value}.
+     * @return the node, or null if there is none
+     */
+    private Node<K, V> ceilingNode(final Object data, final DataElement dataElement) {
+        Node<K, V> result = null;
+        Node<K, V> node = rootNode[dataElement.ordinal()];
+        while (node != null) {
+            final int cmp = compareData(data, node.getData(dataElement));
+            if (cmp == 0) {
+                return node;
+            }
+            if (cmp < 0) {
+                result = node;
+                node = node.getLeft(dataElement);
+            } else {
+                node = node.getRight(dataElement);
             }
-            rval = parent;
         }
-        return rval;
+        return result;
+    }
+
+    /**
+     * Finds the greatest node whose data is strictly less than the given data.
+     *
+     * @param data  the key or value to search for
+     * @param dataElement  either the {@link DataElement#KEY key}
+     *                     or the {@link DataElement#VALUE value}.
+     * @return the node, or null if there is none
+     */
+    private Node<K, V> lowerNode(final Object data, final DataElement dataElement) {
+        Node<K, V> result = null;
+        Node<K, V> node = rootNode[dataElement.ordinal()];
+        while (node != null) {
+            if (compareData(data, node.getData(dataElement)) > 0) {
+                result = node;
+                node = node.getRight(dataElement);
+            } else {
+                node = node.getLeft(dataElement);
+            }
+        }
+        return result;
     }
 
+    /**
+     * Compares a key or value with the data of a node.
+     *
+     * @param data  the key or value, must be comparable with the node data
+     * @param nodeData  the data of a node
+     * @return the comparison result
+     */
+    @SuppressWarnings("unchecked")
+    private static int compareData(final Object data, final Object nodeData) {
+        return ((Comparable<Object>) data).compareTo(nodeData);
+    }
 
     /**
      * Compares two objects.
@@ -1028,6 +1301,7 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
                     }
                 }
             }
+            unlink(deletedNode, dataElement);
         }
         shrink();
     }
@@ -1319,6 +1593,7 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
                 if (node.getLeft(VALUE) == null) {
                     node.setLeft(newNode, VALUE);
                     newNode.setParent(node, VALUE);
+                    linkBefore(newNode, node, VALUE);
                     doRedBlackInsert(newNode, VALUE);
 
                     break;
@@ -1328,6 +1603,7 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
                 if (node.getRight(VALUE) == null) {
                     node.setRight(newNode, VALUE);
                     newNode.setParent(node, VALUE);
+                    linkAfter(newNode, node, VALUE);
                     doRedBlackInsert(newNode, VALUE);
 
                     break;
@@ -1867,6 +2143,8 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
         private final Node<K, V>[] leftNode;
         private final Node<K, V>[] rightNode;
         private final Node<K, V>[] parentNode;
+        private final Node<K, V>[] nextNode;
+        private final Node<K, V>[] previousNode;
         private final boolean[] blackColor;
         private int hashCodeValue;
         private boolean calculatedHashCode;
@@ -1885,6 +2163,8 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
             leftNode = new Node[2];
             rightNode = new Node[2];
             parentNode = new Node[2];
+            nextNode = new Node[2];
+            previousNode = new Node[2];
             blackColor = new boolean[] { true, true };
             calculatedHashCode = false;
         }
@@ -1938,6 +2218,50 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
             return parentNode[dataElement.ordinal()];
         }
 
+        /**
+         * Sets the next greater node, the successor thread.
+         *
+         * @param node  the next node, may be null
+         * @param dataElement  either the {@link DataElement#KEY key}
+         *                     or the {@link DataElement#VALUE value}.
+         */
+        private void setNext(final Node<K, V> node, final DataElement dataElement) {
+            nextNode[dataElement.ordinal()] = node;
+        }
+
+        /**
+         * Gets the next greater node.
+         *
+         * @param dataElement  either the {@link DataElement#KEY key}
+         *                     or the {@link DataElement#VALUE value}.
+         * @return the next node, may be null
+         */
+        private Node<K, V> getNext(final DataElement dataElement) {
+            return nextNode[dataElement.ordinal()];
+        }
+
+        /**
+         * Sets the next smaller node, the predecessor thread.
+         *
+         * @param node  the previous node, may be null
+         * @param dataElement  either the {@link DataElement#KEY key}
+         *                     or the {@link DataElement#VALUE value}.
+         */
+        private void setPrevious(final Node<K, V> node, final DataElement dataElement) {
+            previousNode[dataElement.ordinal()] = node;
+        }
+
+        /**
+         * Gets the next smaller node.
+         *
+         * @param dataElement  either the {@link DataElement#KEY key}
+         *                     or the {@link DataElement#VALUE value}.
+         * @return the previous node, may be null
+         */
+        private Node<K, V> getPrevious(final DataElement dataElement) {
+            return previousNode[dataElement.ordinal()];
+        }
+
         /**
          * Exchanges colors with another node.
          *
@@ -2080,6 +2404,246 @@ public class TreeBidiMap<K extends Comparable<K>, V extends Comparable<V>>
         }
     }
 
+    /**
+     * A view of the mappings whose keys, or whose values, lie within a range.
+     *
+     * @param <A> the type of the view keys
+     * @param <B> the type of the view values
+     */
+    class RangeView<A, B> extends AbstractMap<A, B> implements SortedMap<A, B> {
+
+        /** Whether the view is ordered by key or by value. */
+        private final DataElement orderType;
+        /** The low endpoint, inclusive, or null if unbounded. */
+        private final Object fromData;
+        /** The high endpoint, exclusive, or null if unbounded. */
+        private final Object toData;
+
+        /**
+         * Constructs a new range view.
+         *
+         * @param orderType  the KEY or VALUE int for the order
+         * @param fromData  the low endpoint, or null
+         * @param toData  the high endpoint, or null
+         */
+        RangeView(final DataElement orderType, final Object fromData, final Object toData) {
+            if (fromData != null && toData != null && compareData(fromData, toData) > 0) {
+                throw new IllegalArgumentException("from " + orderType + " is greater than to " + orderType);
+            }
+            this.orderType = orderType;
+            this.fromData = fromData;
+            this.toData = toData;
+        }
+
+        private boolean tooLow(final Object data) {
+            return fromData != null && compareData(data, fromData) < 0;
+        }
+
+        private boolean tooHigh(final Object data) {
+            return toData != null && compareData(data, toData) >= 0;
+        }
+
+        private boolean inRange(final Object data) {
+            return !tooLow(data) && !tooHigh(data);
+        }
+
+        /**
+         * Checks that an endpoint of a nested view lies within this range,
+         * where the exclusive high endpoint itself is allowed.
+         */
+        private void checkEndpoint(final Object data) {
+            checkNonNullComparable(data, orderType);
+            if (tooLow(data) || toData != null && compareData(data, toData) > 0) {
+                throw new IllegalArgumentException(orderType + " out of range");
+            }
+        }
+
+        private Node<K, V> firstNode() {
+            final Node<K, V> node = fromData == null
+                    ? leastNode(rootNode[orderType.ordinal()], orderType) : ceilingNode(fromData, orderType);
+            return node == null || tooHigh(node.getData(orderType)) ? null : node;
+        }
+
+        private Node<K, V> lastNode() {
+            final Node<K, V> node = toData == null
+                    ? greatestNode(rootNode[orderType.ordinal()], orderType) : lowerNode(toData, orderType);
+            return node == null || tooLow(node.getData(orderType)) ? null : node;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Map.Entry<A, B> entry(final Node<K, V> node) {
+            if (orderType == KEY) {
+                return (Map.Entry<A, B>) node;
+            }
+            return (Map.Entry<A, B>) new UnmodifiableMapEntry<>(node.getValue(), node.getKey());
+        }
+
+        @Override
+        public Comparator<? super A> comparator() {
+            return null;
+        }
+
+        @Override
+        public SortedMap<A, B> subMap(final A fromKey, final A toKey) {
+            checkEndpoint(fromKey);
+            checkEndpoint(toKey);
+            return new RangeView<>(orderType, fromKey, toKey);
+        }
+
+        @Override
+        public SortedMap<A, B> headMap(final A toKey) {
+            checkEndpoint(toKey);
+            return new RangeView<>(orderType, fromData, toKey);
+        }
+
+        @Override
+        public SortedMap<A, B> tailMap(final A fromKey) {
+            checkEndpoint(fromKey);
+            return new RangeView<>(orderType, fromKey, toData);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public A firstKey() {
+            final Node<K, V> node = firstNode();
+            if (node == null) {
+                throw new NoSuchElementException("Map is empty");
+            }
+            return (A) node.getData(orderType);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public A lastKey() {
+            final Node<K, V> node = lastNode();
+            if (node == null) {
+                throw new NoSuchElementException("Map is empty");
+            }
+            return (A) node.getData(orderType);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            checkNonNullComparable(key, orderType);
+            return inRange(key) && (orderType == KEY ? lookupKey(key) : lookupValue(key)) != null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public B get(final Object key) {
+            checkNonNullComparable(key, orderType);
+            if (!inRange(key)) {
+                return null;
+            }
+            final Node<K, V> node = orderType == KEY ? lookupKey(key) : lookupValue(key);
+            return node == null ? null : (B) node.getData(orderType == KEY ? VALUE : KEY);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public B put(final A key, final B value) {
+            checkNonNullComparable(key, orderType);
+            if (!inRange(key)) {
+                throw new IllegalArgumentException(orderType + " out of range");
+            }
+            final B result = get(key);
+            if (orderType == KEY) {
+                doPut((K) key, (V) value);
+            } else {
+                doPut((K) value, (V) key);
+            }
+            return result;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public B remove(final Object key) {
+            checkNonNullComparable(key, orderType);
+            if (!inRange(key)) {
+                return null;
+            }
+            final Node<K, V> node = orderType == KEY ? lookupKey(key) : lookupValue(key);
+            if (node == null) {
+                return null;
+            }
+            doRedBlackDelete(node);
+            return (B) node.getData(orderType == KEY ? VALUE : KEY);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return firstNode() == null;
+        }
+
+        @Override
+        public int size() {
+            int count = 0;
+            for (Node<K, V> node = firstNode(); node != null && !tooHigh(node.getData(orderType));
+                    node = node.getNext(orderType)) {
+                count++;
+            }
+            return count;
+        }
+
+        @Override
+        public Set<Map.Entry<A, B>> entrySet() {
+            return new AbstractSet<Map.Entry<A, B>>() {
+                @Override
+                public Iterator<Map.Entry<A, B>> iterator() {
+                    return new RangeIterator();
+                }
+
+                @Override
+                public int size() {
+                    return RangeView.this.size();
+                }
+            };
+        }
+
+        /**
+         * An iterator over the entries of the range, following the node threads.
+         */
+        class RangeIterator implements Iterator<Map.Entry<A, B>> {
+            private Node<K, V> lastReturnedNode;
+            private Node<K, V> nextNode = firstNode();
+            private int expectedModifications = modifications;
+
+            @Override
+            public boolean hasNext() {
+                return nextNode != null;
+            }
+
+            @Override
+            public Map.Entry<A, B> next() {
+                if (nextNode == null) {
+                    throw new NoSuchElementException();
+                }
+                if (modifications != expectedModifications) {
+                    throw new ConcurrentModificationException();
+                }
+                lastReturnedNode = nextNode;
+                nextNode = nextNode.getNext(orderType);
+                if (nextNode != null && tooHigh(nextNode.getData(orderType))) {
+                    nextNode = null;
+                }
+                return entry(lastReturnedNode);
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturnedNode == null) {
+                    throw new IllegalStateException();
+                }
+                if (modifications != expectedModifications) {
+                    throw new ConcurrentModificationException();
+                }
+                doRedBlackDelete(lastReturnedNode);
+                expectedModifications++;
+                lastReturnedNode = null;
+            }
+        }
+    }
+
     /**
      * The inverse map implementation.
      */
@@ -29,6 +29,7 @@
  *   <li>DualLinkedHashBidiMap - uses two LinkedHashMaps to implement BidiMap
  *   <li>DualTreeBidiMap - uses two TreeMaps to implement SortedBidiMap
  *   <li>TreeBidiMap - red-black tree implementation of OrderedBidiMap
+ *   <li>ConcurrentBidiMap - uses two ConcurrentHashMaps to implement a thread-safe BidiMap
  * </ul>
  * <p>
  * The following decorators are provided in the package:
@@ -0,0 +1,434 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bloomfilter;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+
+/**
+ * A blocked Bloom filter, which places all the bits of an item in one 512-bit block so that
+ * merging or testing an item touches a single 64-byte cache line.
+ *
+ * <p>The filter is an array of bit maps like {@link SimpleBloomFilter}, divided into blocks of
+ * {@value #BLOCK_BITS} bits, so the number of bits of the shape must be a multiple of
+ * {@value #BLOCK_BITS}. When a {@link Hasher} is merged or tested the first index it produces
+ * selects the block, and every index is scrambled to a bit within that block. All other
+ * operations treat the filter as a plain bit vector, so {@link SetOperations} and the
+ * {@code BitMapProducer} and {@code IndexProducer} methods work as for any filter. Because of the
+ * different placement, items must be merged into and tested against blocked filters only.</p>
+ *
+ * <p>Concentrating the bits raises the false positive rate a little over a standard filter of the
+ * same shape, because blocks fill unevenly. {@link #getProbability(Shape, int)} computes the rate
+ * and {@link #fromNP(int, double)} chooses a shape that meets a target rate.</p>
+ *
+ * @since 4.5
+ */
+public final class BlockedBloomFilter implements BloomFilter {
+
+    /**
+     * The number of bits in a block, one 64-byte cache line.
+     */
+    public static final int BLOCK_BITS = 512;
+
+    /**
+     * The mask of the bit offset within a block.
+     */
+    private static final int OFFSET_MASK = BLOCK_BITS - 1;
+
+    /**
+     * The golden ratio multiplier that scrambles an index into a block offset.
+     */
+    private static final int SCRAMBLE = 0x9e3779b9;
+
+    /**
+     * The shift that keeps the top nine bits of a scrambled index.
+     */
+    private static final int SCRAMBLE_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(BLOCK_BITS);
+
+    /**
+     * The largest number of hash functions {@link #fromNP(int, double)} considers.
+     */
+    private static final int MAX_HASH_FUNCTIONS = 32;
+
+    /**
+     * The array of bit map longs that defines this Bloom filter.
+     */
+    private final long[] bitMap;
+
+    /**
+     * The Shape of this Bloom filter.
+     */
+    private final Shape shape;
+
+    /**
+     * The cardinality of this Bloom filter, negative if it must be counted.
+     */
+    private int cardinality;
+
+    /**
+     * Creates an empty instance.
+     *
+     * @param shape The shape for the filter, its number of bits must be a multiple of {@value #BLOCK_BITS}.
+     * @throws IllegalArgumentException if the number of bits is not a multiple of {@value #BLOCK_BITS}.
+     */
+    public BlockedBloomFilter(final Shape shape) {
+        Objects.requireNonNull(shape, "shape");
+        if ((shape.getNumberOfBits() & OFFSET_MASK) != 0) {
+            throw new IllegalArgumentException(String.format("Number of bits (%s) must be a multiple of %s",
+                    shape.getNumberOfBits(), BLOCK_BITS));
+        }
+        this.shape = shape;
+        this.bitMap = new long[BitMap.numberOfBitMaps(shape.getNumberOfBits())];
+    }
+
+    /**
+     * Copy constructor for {@code copy()} use.
+     * @param source the filter to copy.
+     */
+    private BlockedBloomFilter(final BlockedBloomFilter source) {
+        this.shape = source.shape;
+        this.bitMap = source.bitMap.clone();
+        this.cardinality = source.cardinality;
+    }
+
+    /**
+     * Calculates the probability of false positives of a blocked filter with the shape holding
+     * the number of items.
+     *
+     * <p>The number of items in a block follows a Poisson distribution with mean
+     * {@code lambda = n * 512 / m}. A block holding {@code i} items is a standard filter of 512 bits,
+     * so the probability is</p>
+     * <pre>p = sum over i of Poisson(lambda, i) * (1 - (1 - 1/512)^(k * i))^k</pre>
+     *
+     * @param shape the shape, its number of bits should be a multiple of {@value #BLOCK_BITS}.
+     * @param numberOfItems the number of items in the filter.
+     * @return the probability of false positives.
+     * @throws IllegalArgumentException if the number of items is negative.
+     */
+    public static double getProbability(final Shape shape, final int numberOfItems) {
+        Objects.requireNonNull(shape, "shape");
+        if (numberOfItems < 0) {
+            throw new IllegalArgumentException("Number of items must be greater than or equal to 0: " + numberOfItems);
+        }
+        return probability(shape.getNumberOfHashFunctions(), shape.getNumberOfBits() / BLOCK_BITS, numberOfItems);
+    }
+
+    /**
+     * Calculates the probability of false positives.
+     *
+     * @param k the number of hash functions.
+     * @param blocks the number of blocks.
+     * @param n the number of items.
+     * @return the probability.
+     */
+    private static double probability(final int k, final long blocks, final int n) {
+        if (n == 0) {
+            return 0;
+        }
+        final double lambda = (double) n / blocks;
+        final double logLambda = Math.log(lambda);
+        final double logEmpty = Math.log1p(-1.0 / BLOCK_BITS);
+        // the Poisson terms outside this window are negligible
+        final double spread = 12 * Math.sqrt(lambda) + 32;
+        final int first = (int) Math.max(0, Math.floor(lambda - spread));
+        final int last = (int) Math.ceil(lambda + spread);
+        double sum = 0;
+        // the Poisson terms are computed in log space so large means do not underflow
+        double logPoisson = first * logLambda - lambda - logFactorial(first);
+        for (int i = first; i <= last; i++) {
+            if (i > first) {
+                logPoisson += logLambda - Math.log(i);
+            }
+            final double full = -Math.expm1(logEmpty * k * i);
+            sum += Math.exp(logPoisson + k * Math.log(full));
+        }
+        return Math.min(1.0, sum);
+    }
+
+    /**
+     * Calculates the natural logarithm of a factorial, exactly for small values and with
+     * Stirling's series otherwise.
+     *
+     * @param n the value.
+     * @return {@code ln(n!)}.
+     */
+    private static double logFactorial(final int n) {
+        if (n < 32) {
+            double result = 0;
+            for (int i = 2; i <= n; i++) {
+                result += Math.log(i);
+            }
+            return result;
+        }
+        final double x = n;
+        return x * Math.log(x) - x + 0.5 * Math.log(2 * Math.PI * x) + 1 / (12 * x) - 1 / (360 * x * x * x);
+    }
+
+    /**
+     * Constructs the smallest blocked filter shape for the number of items whose false positive
+     * probability, see {@link #getProbability(Shape, int)}, does not exceed the target.
+     *
+     * <p>Every number of hash functions up to 32 is tried with the least number of blocks that
+     * meets the probability, and the shape with the fewest bits is returned.</p>
+     *
+     * @param numberOfItems Number of items to be placed in the filter.
+     * @param probability The desired false-positive probability in the range {@code (0, 1)}.
+     * @return a shape whose number of bits is a multiple of {@value #BLOCK_BITS}.
+     * @throws IllegalArgumentException if {@code numberOfItems < 1}, if the desired probability
+     * is not in the range {@code (0, 1)} or if no shape of at most {@code Integer.MAX_VALUE} bits
+     * meets it.
+     */
+    public static Shape fromNP(final int numberOfItems, final double probability) {
+        if (numberOfItems < 1) {
+            throw new IllegalArgumentException("Number of items must be greater than 0: " + numberOfItems);
+        }
+        if (!(probability > 0.0 && probability < 1.0)) {
+            throw new IllegalArgumentException("Probability must be greater than 0 and less than 1: " + probability);
+        }
+        final int maxBlocks = Integer.MAX_VALUE / BLOCK_BITS;
+        final double standardBits = -numberOfItems * Math.log(probability) / (Math.log(2) * Math.log(2));
+        int bestK = 0;
+        int bestBlocks = Integer.MAX_VALUE;
+        for (int k = 1; k <= MAX_HASH_FUNCTIONS; k++) {
+            if (probability(k, maxBlocks, numberOfItems) > probability) {
+                continue;
+            }
+            // the probability falls as blocks are added, and a blocked filter needs at least
+            // half the bits of a standard one
+            int low = (int) Math.max(1, Math.min(maxBlocks, standardBits / 2 / BLOCK_BITS));
+            int high = Math.min(maxBlocks, bestBlocks);
+            if (probability(k, high, numberOfItems) > probability) {
+                continue;
+            }
+            while (low < high) {
+                final int mid = low + (high - low) / 2;
+                if (probability(k, mid, numberOfItems) <= probability) {
+                    high = mid;
+                } else {
+                    low = mid + 1;
+                }
+            }
+            if (low < bestBlocks) {
+                bestBlocks = low;
+                bestK = k;
+            }
+        }
+        if (bestK == 0) {
+            throw new IllegalArgumentException(String.format(
+                    "No blocked filter of at most %s bits holds %s items with probability %s",
+                    Integer.MAX_VALUE, numberOfItems, probability));
+        }
+        return Shape.fromKM(bestK, bestBlocks * BLOCK_BITS);
+    }
+
+    /**
+     * Gets the bit of the filter for an index of an item, within the block chosen for the item.
+     *
+     * @param block the first bit of the block.
+     * @param index the index produced for the item.
+     * @return the bit index.
+     */
+    private static int blockedIndex(final int block, final int index) {
+        return block | (index * SCRAMBLE) >>> SCRAMBLE_SHIFT;
+    }
+
+    /**
+     * Replaces the indices of one item held in an array by the bits {@link #merge(Hasher)} sets
+     * for them, so the result can be merged or tested as a plain {@link IndexProducer}.
+     *
+     * @param shape the shape of the filter.
+     * @param indices the array of indices.
+     * @param from the position of the first index of the item.
+     * @param to the position after the last index of the item.
+     * @throws IllegalArgumentException if an index is outside the shape.
+     */
+    static void toBlockedIndices(final Shape shape, final int[] indices, final int from, final int to) {
+        if (from < to) {
+            for (int i = from; i < to; i++) {
+                if (indices[i] < 0 || indices[i] >= shape.getNumberOfBits()) {
+                    throw new IllegalArgumentException(String.format(
+                            "IndexProducer should only send values in the range[0,%s)", shape.getNumberOfBits()));
+                }
+            }
+            final int block = indices[from] & ~OFFSET_MASK;
+            for (int i = from; i < to; i++) {
+                indices[i] = blockedIndex(block, indices[i]);
+            }
+        }
+    }
+
+    /**
+     * Checks an index produced for an item is within the shape.
+     *
+     * @param index the index.
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= shape.getNumberOfBits()) {
+            throw new IllegalArgumentException(String.format(
+                    "IndexProducer should only send values in the range[0,%s)", shape.getNumberOfBits()));
+        }
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(bitMap, 0L);
+        cardinality = 0;
+    }
+
+    @Override
+    public long[] asBitMapArray() {
+        return Arrays.copyOf(bitMap, bitMap.length);
+    }
+
+    @Override
+    public boolean forEachBitMapPair(final BitMapProducer other, final LongBiPredicate func) {
+        final CountingLongPredicate p = new CountingLongPredicate(bitMap, func);
+        return other.forEachBitMap(p) && p.forEachRemaining();
+    }
+
+    @Override
+    public BlockedBloomFilter copy() {
+        return new BlockedBloomFilter(this);
+    }
+
+    /**
+     * Merges an item, setting the bits for its indices within the block chosen by its first index.
+     *
+     * @param hasher The hasher of the item.
+     * @return true if the merge was successful
+     * @throws IllegalArgumentException if the hasher produces an index outside the shape.
+     */
+    @Override
+    public boolean merge(final Hasher hasher) {
+        Objects.requireNonNull(hasher, "hasher");
+        final int[] block = {-1};
+        hasher.indices(shape).forEachIndex(idx -> {
+            checkIndex(idx);
+            if (block[0] < 0) {
+                block[0] = idx & ~OFFSET_MASK;
+            }
+            BitMap.set(bitMap, blockedIndex(block[0], idx));
+            return true;
+        });
+        cardinality = -1;
+        return true;
+    }
+
+    @Override
+    public boolean merge(final IndexProducer indexProducer) {
+        Objects.requireNonNull(indexProducer, "indexProducer");
+        indexProducer.forEachIndex(idx -> {
+            checkIndex(idx);
+            BitMap.set(bitMap, idx);
+            return true;
+        });
+        cardinality = -1;
+        return true;
+    }
+
+    @Override
+    public boolean merge(final BitMapProducer bitMapProducer) {
+        Objects.requireNonNull(bitMapProducer, "bitMapProducer");
+        try {
+            final int[] idx = new int[1];
+            bitMapProducer.forEachBitMap(value -> {
+                bitMap[idx[0]++] |= value;
+                return true;
+            });
+            cardinality = -1;
+        } catch (final IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(
+                    String.format("BitMapProducer should send at most %s maps", bitMap.length), e);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean merge(final BloomFilter other) {
+        Objects.requireNonNull(other, "other");
+        if ((other.characteristics() & SPARSE) != 0) {
+            merge((IndexProducer) other);
+        } else {
+            merge((BitMapProducer) other);
+        }
+        return true;
+    }
+
+    /**
+     * Tests whether an item may be in the filter, checking its bits within the block chosen by
+     * its first index.
+     *
+     * @param hasher The hasher of the item.
+     * @return true if the item may be in the filter.
+     */
+    @Override
+    public boolean contains(final Hasher hasher) {
+        Objects.requireNonNull(hasher, "Hasher");
+        final int[] block = {-1};
+        return hasher.indices(shape).forEachIndex(idx -> {
+            checkIndex(idx);
+            if (block[0] < 0) {
+                block[0] = idx & ~OFFSET_MASK;
+            }
+            return BitMap.contains(bitMap, blockedIndex(block[0], idx));
+        });
+    }
+
+    @Override
+    public boolean contains(final IndexProducer indexProducer) {
+        return indexProducer.forEachIndex(idx -> BitMap.contains(bitMap, idx));
+    }
+
+    @Override
+    public Shape getShape() {
+        return shape;
+    }
+
+    @Override
+    public int characteristics() {
+        return 0;
+    }
+
+    @Override
+    public int cardinality() {
+        // Lazy evaluation with caching
+        int c = cardinality;
+        if (c < 0) {
+            cardinality = c = SetOperations.cardinality(this);
+        }
+        return c;
+    }
+
+    @Override
+    public boolean forEachIndex(final IntPredicate consumer) {
+        Objects.requireNonNull(consumer, "consumer");
+        return IndexProducer.fromBitMapProducer(this).forEachIndex(consumer);
+    }
+
+    @Override
+    public boolean forEachBitMap(final LongPredicate consumer) {
+        Objects.requireNonNull(consumer, "consumer");
+        for (final long l : bitMap) {
+            if (!consumer.test(l)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,706 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bloomfilter;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Reads and writes Bloom filters in a compact, versioned binary format.
+ *
+ * <p>A filter is written as a fixed header followed by its payload, all numbers big-endian as
+ * for {@link DataOutput}:</p>
+ *
+ * <table>
+ * <caption>Header</caption>
+ * <tr><th>Field</th><th>Size</th><th>Content</th></tr>
+ * <tr><td>magic</td><td>4</td><td>{@code 0x424c4f4d}, "BLOM"</td></tr>
+ * <tr><td>version</td><td>1</td><td>the format version, {@value #VERSION}</td></tr>
+ * <tr><td>type</td><td>1</td><td>the implementation to decode to</td></tr>
+ * <tr><td>encoding</td><td>1</td><td>the payload encoding</td></tr>
+ * <tr><td>shape</td><td>8</td><td>the number of hash functions then the number of bits</td></tr>
+ * <tr><td>length</td><td>8</td><td>the length of the payload in bytes</td></tr>
+ * </table>
+ *
+ * <p>The payload is one of:</p>
+ * <ul>
+ * <li><em>dense</em>: every bit map of the filter as a long.</li>
+ * <li><em>sparse</em>: the number of enabled bits, then the gap before each enabled bit,
+ * as unsigned variable length integers of seven bits per byte.</li>
+ * <li><em>cells</em>: the number of non-zero cells, then the gap before each cell and its value,
+ * as variable length integers.</li>
+ * </ul>
+ *
+ * <p>Bit filters are written with whichever of the dense and sparse encodings is smaller, and
+ * counting filters with the cell encoding. {@link SimpleBloomFilter}, {@link SparseBloomFilter},
+ * {@link BlockedBloomFilter}, {@link ArrayCountingBloomFilter} and
+ * {@link PackedCountingBloomFilter} are read back as the same class. Other counting filters are
+ * read back as an {@code ArrayCountingBloomFilter}, and other filters as a
+ * {@code SparseBloomFilter} or {@code SimpleBloomFilter} according to their
+ * {@link BloomFilter#SPARSE} characteristic; a {@link LayeredBloomFilter} is written as its
+ * flattened bits.</p>
+ *
+ * <p>Filters are written and read as they are traversed, so no copy of a filter is made beyond
+ * a small buffer. The payload length in the header lets a reader of a channel stop exactly at
+ * the end of a filter, so filters can follow one another on the same channel. Channels must be
+ * in blocking mode.</p>
+ *
+ * @since 4.5
+ */
+public final class BloomFilterCodec {
+
+    /**
+     * Reads the payload of a filter, checking it does not run past its declared length.
+     */
+    private static final class PayloadReader {
+        private final DataInput in;
+        private long remaining;
+
+        PayloadReader(final DataInput in, final long length) {
+            this.in = in;
+            this.remaining = length;
+        }
+
+        private void consume(final int bytes) throws IOException {
+            remaining -= bytes;
+            if (remaining < 0) {
+                throw new IOException("Payload is longer than its declared length");
+            }
+        }
+
+        long readLong() throws IOException {
+            consume(Long.BYTES);
+            return in.readLong();
+        }
+
+        int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+                consume(1);
+                final int b = in.readByte();
+                // the fifth byte may only hold the top three bits of a non-negative int
+                if (shift == 28 && (b & 0xf8) != 0) {
+                    break;
+                }
+                value |= (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed variable length integer");
+        }
+
+        /**
+         * Reads the gap to the next index and checks the index lies within the shape.
+         */
+        int readIndex(final int previous, final Shape shape) throws IOException {
+            final long index = previous + 1L + readVarint();
+            if (index >= shape.getNumberOfBits()) {
+                throw new IOException(String.format("Index %s is not less than the number of bits %s",
+                        index, shape.getNumberOfBits()));
+            }
+            return (int) index;
+        }
+
+        void finish() throws IOException {
+            if (remaining != 0) {
+                throw new IOException(String.format("Payload is %s bytes shorter than its declared length",
+                        remaining));
+            }
+        }
+    }
+
+    /**
+     * An input stream over a channel that reads no further than a given number of bytes.
+     */
+    private static final class ChannelInputStream extends InputStream {
+        private final ReadableByteChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private long remaining;
+
+        ChannelInputStream(final ReadableByteChannel channel, final long length) {
+            this.channel = channel;
+            this.remaining = length;
+            buffer.flip();
+        }
+
+        private boolean fill() throws IOException {
+            if (!buffer.hasRemaining()) {
+                if (remaining == 0) {
+                    return false;
+                }
+                buffer.clear();
+                buffer.limit((int) Math.min(BUFFER_SIZE, remaining));
+                if (channel.read(buffer) < 0) {
+                    throw new EOFException("Channel ended within the payload");
+                }
+                buffer.flip();
+                remaining -= buffer.remaining();
+            }
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            while (fill()) {
+                if (buffer.hasRemaining()) {
+                    return buffer.get() & 0xff;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            while (fill()) {
+                if (buffer.hasRemaining()) {
+                    final int n = Math.min(len, buffer.remaining());
+                    buffer.get(b, off, n);
+                    return n;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * The current version of the format.
+     */
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x424c4f4d;
+    private static final int HEADER_SIZE = 23;
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final byte TYPE_SIMPLE = 0;
+    private static final byte TYPE_SPARSE = 1;
+    private static final byte TYPE_BLOCKED = 2;
+    private static final byte TYPE_ARRAY_COUNTING = 3;
+    private static final byte TYPE_PACKED_COUNTING_4 = 4;
+    private static final byte TYPE_PACKED_COUNTING_8 = 5;
+
+    private static final byte ENCODING_DENSE = 0;
+    private static final byte ENCODING_SPARSE = 1;
+    private static final byte ENCODING_CELLS = 2;
+
+    /**
+     * Writes a shape as its number of hash functions followed by its number of bits.
+     *
+     * @param shape the shape.
+     * @param out the output.
+     * @throws IOException if the output fails.
+     */
+    public static void writeShape(final Shape shape, final DataOutput out) throws IOException {
+        Objects.requireNonNull(shape, "shape");
+        Objects.requireNonNull(out, "out");
+        out.writeInt(shape.getNumberOfHashFunctions());
+        out.writeInt(shape.getNumberOfBits());
+    }
+
+    /**
+     * Reads a shape written by {@link #writeShape(Shape, DataOutput)}.
+     *
+     * @param in the input.
+     * @return the shape.
+     * @throws IOException if the input fails or does not hold a valid shape.
+     */
+    public static Shape readShape(final DataInput in) throws IOException {
+        Objects.requireNonNull(in, "in");
+        final int numberOfHashFunctions = in.readInt();
+        final int numberOfBits = in.readInt();
+        try {
+            return Shape.fromKM(numberOfHashFunctions, numberOfBits);
+        } catch (final IllegalArgumentException e) {
+            throw new IOException("Invalid shape", e);
+        }
+    }
+
+    /**
+     * Writes a filter.
+     *
+     * @param filter the filter.
+     * @param out the output.
+     * @throws IOException if the output fails.
+     * @throws IllegalArgumentException if the filter is a counting filter that is not valid.
+     */
+    public static void write(final BloomFilter filter, final DataOutput out) throws IOException {
+        Objects.requireNonNull(filter, "filter");
+        Objects.requireNonNull(out, "out");
+        final byte type = typeOf(filter);
+        final Shape shape = filter.getShape();
+        final byte encoding;
+        final long length;
+        final int[] count = {0};
+        final IndexProducer indices;
+        if (filter instanceof CountingBloomFilter) {
+            if (!((CountingBloomFilter) filter).isValid()) {
+                throw new IllegalArgumentException("Cannot write a counting Bloom filter that is not valid");
+            }
+            indices = orderedCells((CountingBloomFilter) filter);
+            encoding = ENCODING_CELLS;
+            length = cellsLength((CellProducer) indices, count);
+        } else {
+            indices = orderedIndices(filter);
+            final long dense = (long) BitMap.numberOfBitMaps(shape.getNumberOfBits()) * Long.BYTES;
+            final long sparse = sparseLength(indices, dense, count);
+            encoding = sparse < dense ? ENCODING_SPARSE : ENCODING_DENSE;
+            length = Math.min(sparse, dense);
+        }
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(type);
+        out.writeByte(encoding);
+        writeShape(shape, out);
+        out.writeLong(length);
+        try {
+            if (encoding == ENCODING_CELLS) {
+                writeCells((CellProducer) indices, count[0], out);
+            } else if (encoding == ENCODING_SPARSE) {
+                writeSparse(indices, count[0], out);
+            } else {
+                writeDense(filter, out);
+            }
+        } catch (final UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Writes a filter to a channel, through a buffer of a few kilobytes.
+     *
+     * @param filter the filter.
+     * @param channel the channel, in blocking mode. It is not closed.
+     * @throws IOException if the channel fails.
+     * @throws IllegalArgumentException if the filter is a counting filter that is not valid.
+     */
+    public static void write(final BloomFilter filter, final WritableByteChannel channel) throws IOException {
+        Objects.requireNonNull(channel, "channel");
+        final DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+        write(filter, out);
+        out.flush();
+    }
+
+    /**
+     * Reads a filter written by {@link #write(BloomFilter, DataOutput)}. Counting filters are
+     * read as {@link CountingBloomFilter} instances.
+     *
+     * @param in the input.
+     * @return the filter.
+     * @throws IOException if the input fails or does not hold a filter in a known version of the format.
+     */
+    public static BloomFilter read(final DataInput in) throws IOException {
+        Objects.requireNonNull(in, "in");
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a Bloom filter");
+        }
+        final int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported format version " + version);
+        }
+        final byte type = in.readByte();
+        final byte encoding = in.readByte();
+        final Shape shape = readShape(in);
+        final long length = in.readLong();
+        if (length < 0) {
+            throw new IOException("Negative payload length " + length);
+        }
+        return readPayload(type, encoding, shape, new PayloadReader(in, length));
+    }
+
+    /**
+     * Reads a filter from a channel. Exactly the bytes of the filter are read, so the channel is
+     * left at the start of whatever follows it.
+     *
+     * @param channel the channel, in blocking mode. It is not closed.
+     * @return the filter.
+     * @throws IOException if the channel fails or does not hold a filter in a known version of the format.
+     */
+    public static BloomFilter read(final ReadableByteChannel channel) throws IOException {
+        Objects.requireNonNull(channel, "channel");
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining()) {
+            if (channel.read(header) < 0) {
+                throw new EOFException("Channel ended within the header");
+            }
+        }
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("Not a Bloom filter");
+        }
+        final InputStream payload = new ChannelInputStream(channel, Math.max(0, header.getLong(HEADER_SIZE - Long.BYTES)));
+        final InputStream stream = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                return header.hasRemaining() ? header.get() & 0xff : payload.read();
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                if (header.hasRemaining()) {
+                    final int n = Math.min(len, header.remaining());
+                    header.get(b, off, n);
+                    return n;
+                }
+                return payload.read(b, off, len);
+            }
+        };
+        header.flip();
+        return read(new DataInputStream(stream));
+    }
+
+    /**
+     * Determines the type a filter is written as.
+     *
+     * @param filter the filter.
+     * @return the type.
+     */
+    private static byte typeOf(final BloomFilter filter) {
+        if (filter instanceof PackedCountingBloomFilter) {
+            return ((PackedCountingBloomFilter) filter).getBitsPerCell() == 4
+                    ? TYPE_PACKED_COUNTING_4 : TYPE_PACKED_COUNTING_8;
+        }
+        if (filter instanceof CountingBloomFilter) {
+            return TYPE_ARRAY_COUNTING;
+        }
+        if (filter instanceof BlockedBloomFilter) {
+            return TYPE_BLOCKED;
+        }
+        if (filter instanceof SimpleBloomFilter) {
+            return TYPE_SIMPLE;
+        }
+        return filter instanceof SparseBloomFilter || (filter.characteristics() & BloomFilter.SPARSE) != 0
+                ? TYPE_SPARSE : TYPE_SIMPLE;
+    }
+
+    /**
+     * Creates an empty filter of a type.
+     *
+     * @param type the type.
+     * @param shape the shape.
+     * @return the filter.
+     * @throws IOException if the type is not known.
+     */
+    private static BloomFilter create(final byte type, final Shape shape) throws IOException {
+        switch (type) {
+        case TYPE_SIMPLE:
+            return new SimpleBloomFilter(shape);
+        case TYPE_SPARSE:
+            return new SparseBloomFilter(shape);
+        case TYPE_BLOCKED:
+            try {
+                return new BlockedBloomFilter(shape);
+            } catch (final IllegalArgumentException e) {
+                throw new IOException("Invalid shape for a blocked Bloom filter", e);
+            }
+        case TYPE_ARRAY_COUNTING:
+            return new ArrayCountingBloomFilter(shape);
+        case TYPE_PACKED_COUNTING_4:
+            return new PackedCountingBloomFilter(shape, 4);
+        case TYPE_PACKED_COUNTING_8:
+            return new PackedCountingBloomFilter(shape, 8);
+        default:
+            throw new IOException("Unknown filter type " + type);
+        }
+    }
+
+    /**
+     * Reads the payload into a new filter.
+     *
+     * @param type the type of the filter.
+     * @param encoding the encoding of the payload.
+     * @param shape the shape of the filter.
+     * @param reader the reader of the payload.
+     * @return the filter.
+     * @throws IOException if the input fails or the payload is malformed.
+     */
+    private static BloomFilter readPayload(final byte type, final byte encoding, final Shape shape,
+            final PayloadReader reader) throws IOException {
+        final BloomFilter filter = create(type, shape);
+        final boolean counting = filter instanceof CountingBloomFilter;
+        if (counting != (encoding == ENCODING_CELLS)) {
+            throw new IOException(String.format("Encoding %s does not match filter type %s", encoding, type));
+        }
+        switch (encoding) {
+        case ENCODING_DENSE:
+            readDense(filter, reader);
+            break;
+        case ENCODING_SPARSE:
+            readSparse(filter, reader);
+            break;
+        case ENCODING_CELLS:
+            readCells((CountingBloomFilter) filter, reader);
+            break;
+        default:
+            throw new IOException("Unknown payload encoding " + encoding);
+        }
+        reader.finish();
+        return filter;
+    }
+
+    /**
+     * Reads a dense payload.
+     *
+     * @param filter the filter to merge into.
+     * @param reader the reader of the payload.
+     * @throws IOException if the input fails or the payload is malformed.
+     */
+    private static void readDense(final BloomFilter filter, final PayloadReader reader) throws IOException {
+        final int numberOfBits = filter.getShape().getNumberOfBits();
+        final long[] bitMaps = new long[BitMap.numberOfBitMaps(numberOfBits)];
+        for (int i = 0; i < bitMaps.length; i++) {
+            bitMaps[i] = reader.readLong();
+        }
+        final int excess = bitMaps.length * Long.SIZE - numberOfBits;
+        if (excess > 0 && bitMaps[bitMaps.length - 1] >>> Long.SIZE - excess != 0) {
+            throw new IOException("Bits set beyond the number of bits of the shape");
+        }
+        filter.merge(BitMapProducer.fromBitMapArray(bitMaps));
+    }
+
+    /**
+     * Reads a sparse payload, merging the indices a buffer at a time.
+     *
+     * @param filter the filter to merge into.
+     * @param reader the reader of the payload.
+     * @throws IOException if the input fails or the payload is malformed.
+     */
+    private static void readSparse(final BloomFilter filter, final PayloadReader reader) throws IOException {
+        final Shape shape = filter.getShape();
+        int remaining = readCount(reader, shape);
+        final int[] buffer = new int[Math.min(BUFFER_SIZE, remaining)];
+        int previous = -1;
+        while (remaining > 0) {
+            final int count = Math.min(buffer.length, remaining);
+            for (int i = 0; i < count; i++) {
+                previous = reader.readIndex(previous, shape);
+                buffer[i] = previous;
+            }
+            if (filter instanceof SimpleBloomFilter) {
+                ((SimpleBloomFilter) filter).merge(buffer, count);
+            } else if (filter instanceof SparseBloomFilter) {
+                ((SparseBloomFilter) filter).merge(buffer, count);
+            } else {
+                filter.merge(IndexProducer.fromIndexArray(Arrays.copyOf(buffer, count)));
+            }
+            remaining -= count;
+        }
+    }
+
+    /**
+     * Reads a cell payload, adding the cells a buffer at a time.
+     *
+     * @param filter the filter to add to.
+     * @param reader the reader of the payload.
+     * @throws IOException if the input fails or the payload is malformed.
+     */
+    private static void readCells(final CountingBloomFilter filter, final PayloadReader reader) throws IOException {
+        final Shape shape = filter.getShape();
+        int remaining = readCount(reader, shape);
+        final int[] indices = new int[Math.min(BUFFER_SIZE, remaining)];
+        final int[] values = new int[indices.length];
+        int previous = -1;
+        while (remaining > 0) {
+            final int count = Math.min(indices.length, remaining);
+            for (int i = 0; i < count; i++) {
+                previous = reader.readIndex(previous, shape);
+                indices[i] = previous;
+                values[i] = reader.readVarint();
+                if (values[i] == 0) {
+                    throw new IOException("Zero cell value at index " + previous);
+                }
+            }
+            filter.add(consumer -> {
+                for (int i = 0; i < count; i++) {
+                    if (!consumer.test(indices[i], values[i])) {
+                        return false;
+                    }
+                }
+                return true;
+            });
+            remaining -= count;
+        }
+    }
+
+    /**
+     * Reads the number of entries of a sparse or cell payload.
+     *
+     * @param reader the reader of the payload.
+     * @param shape the shape of the filter.
+     * @return the number of entries.
+     * @throws IOException if the input fails or the count exceeds the number of bits.
+     */
+    private static int readCount(final PayloadReader reader, final Shape shape) throws IOException {
+        final int count = reader.readVarint();
+        if (count > shape.getNumberOfBits()) {
+            throw new IOException(String.format("Count %s is greater than the number of bits %s",
+                    count, shape.getNumberOfBits()));
+        }
+        return count;
+    }
+
+    /**
+     * Gets the indices of a bit filter in ascending order without duplicates. The filters of this
+     * package produce them so; the indices of other filters are taken from their bit maps.
+     *
+     * @param filter the filter.
+     * @return the indices.
+     */
+    private static IndexProducer orderedIndices(final BloomFilter filter) {
+        if (filter instanceof SimpleBloomFilter || filter instanceof SparseBloomFilter
+                || filter instanceof BlockedBloomFilter) {
+            return filter;
+        }
+        return IndexProducer.fromBitMapProducer(filter);
+    }
+
+    /**
+     * Gets the cells of a counting filter in ascending order of index without duplicates. The
+     * filters of this package produce them so; the cells of other filters are summed into a copy.
+     *
+     * @param filter the filter.
+     * @return the cells.
+     */
+    private static CellProducer orderedCells(final CountingBloomFilter filter) {
+        if (filter instanceof ArrayCountingBloomFilter || filter instanceof PackedCountingBloomFilter) {
+            return filter;
+        }
+        final ArrayCountingBloomFilter copy = new ArrayCountingBloomFilter(filter.getShape());
+        copy.add(filter);
+        return copy;
+    }
+
+    /**
+     * Computes the length of the sparse payload of a filter, stopping once it reaches a limit.
+     *
+     * @param indices the ordered indices of the filter.
+     * @param limit the length beyond which the exact value is not needed.
+     * @param count receives the number of indices, exact only if the length is below the limit.
+     * @return the length, or a value of at least the limit.
+     */
+    private static long sparseLength(final IndexProducer indices, final long limit, final int[] count) {
+        final long[] length = {0};
+        final int[] previous = {-1};
+        indices.forEachIndex(idx -> {
+            count[0]++;
+            length[0] += varintLength(idx - previous[0] - 1);
+            previous[0] = idx;
+            return length[0] < limit;
+        });
+        return length[0] + varintLength(count[0]);
+    }
+
+    /**
+     * Computes the length of the cell payload of a counting filter.
+     *
+     * @param cells the ordered cells of the filter.
+     * @param count receives the number of cells.
+     * @return the length.
+     */
+    private static long cellsLength(final CellProducer cells, final int[] count) {
+        final long[] length = {0};
+        final int[] previous = {-1};
+        cells.forEachCell((idx, value) -> {
+            count[0]++;
+            length[0] += varintLength(idx - previous[0] - 1) + varintLength(value);
+            previous[0] = idx;
+            return true;
+        });
+        return length[0] + varintLength(count[0]);
+    }
+
+    private static void writeDense(final BloomFilter filter, final DataOutput out) {
+        filter.forEachBitMap(bitMap -> {
+            try {
+                out.writeLong(bitMap);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        });
+    }
+
+    private static void writeSparse(final IndexProducer indices, final int count, final DataOutput out)
+            throws IOException {
+        writeVarint(out, count);
+        final int[] previous = {-1};
+        indices.forEachIndex(idx -> {
+            try {
+                writeVarint(out, idx - previous[0] - 1);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            previous[0] = idx;
+            return true;
+        });
+    }
+
+    private static void writeCells(final CellProducer cells, final int count, final DataOutput out)
+            throws IOException {
+        writeVarint(out, count);
+        final int[] previous = {-1};
+        cells.forEachCell((idx, value) -> {
+            try {
+                writeVarint(out, idx - previous[0] - 1);
+                writeVarint(out, value);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            previous[0] = idx;
+            return true;
+        });
+    }
+
+    /**
+     * Writes a non-negative integer seven bits per byte, lowest first, the high bit of a byte
+     * marking that another follows.
+     *
+     * @param out the output.
+     * @param value the value.
+     * @throws IOException if the output fails.
+     */
+    private static void writeVarint(final DataOutput out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte(value & 0x7f | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int varintLength(final int value) {
+        return (Integer.SIZE - Integer.numberOfLeadingZeros(value | 1) + 6) / 7;
+    }
+
+    /** Do not instantiate. */
+    private BloomFilterCodec() {
+    }
+}
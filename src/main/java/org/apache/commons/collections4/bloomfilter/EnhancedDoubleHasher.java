@@ -113,6 +113,35 @@ public class EnhancedDoubleHasher implements Hasher {
         this.increment = increment;
     }
 
+    /**
+     * Constructs an EnhancedDoubleHasher for an object from its {@code hashCode}.
+     * <p>
+     * The 32-bit hash code is spread over the initial and increment values with the
+     * SplitMix64 finalizer, so equal objects produce equal indices. With only 32 bits
+     * of input this suits in-memory membership summaries of Java objects rather than
+     * filters shared between processes, which should hash a stable byte form instead.
+     * </p>
+     *
+     * @param obj the object to hash, may be null
+     * @return the hasher for the object.
+     */
+    public static EnhancedDoubleHasher fromHashCode(final Object obj) {
+        final long seed = Objects.hashCode(obj) + 0x9e3779b97f4a7c15L;
+        return new EnhancedDoubleHasher(mix64(seed), mix64(seed + 0x9e3779b97f4a7c15L));
+    }
+
+    /**
+     * Applies the SplitMix64 finalizer.
+     *
+     * @param z the value to mix.
+     * @return the mixed value.
+     */
+    private static long mix64(long z) {
+        z = (z ^ z >>> 30) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ z >>> 27) * 0x94d049bb133111ebL;
+        return z ^ z >>> 31;
+    }
+
     /**
      * Gets the initial value for the hash calculation.
      * @return the initial value for the hash calculation.
@@ -129,6 +158,34 @@ public class EnhancedDoubleHasher implements Hasher {
         return increment;
     }
 
+    /**
+     * Writes the indices of a hasher into an array, in the order {@link #indices(Shape)} produces them.
+     *
+     * @param initial the initial value of the hasher.
+     * @param increment the increment value of the hasher.
+     * @param shape the shape of the filter.
+     * @param output the array to write the indices to.
+     * @param offset the position of the first index in the array.
+     */
+    static void fillIndices(final long initial, final long increment, final Shape shape, final int[] output, final int offset) {
+        final int bits = shape.getNumberOfBits();
+        final int k = shape.getNumberOfHashFunctions();
+        int index = BitMap.mod(initial, bits);
+        int inc = BitMap.mod(increment, bits);
+        // the counter of the tetrahedral term restarts every block of bits indices when k > bits
+        int i = 0;
+        for (int j = offset; j < offset + k; j++) {
+            output[j] = index;
+            index -= inc;
+            index = index < 0 ? index + bits : index;
+            inc -= i;
+            inc = inc < 0 ? inc + bits : inc;
+            if (++i == bits) {
+                i = 0;
+            }
+        }
+    }
+
     @Override
     public IndexProducer indices(final Shape shape) {
         Objects.requireNonNull(shape, "shape");
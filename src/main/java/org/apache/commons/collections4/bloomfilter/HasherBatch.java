@@ -0,0 +1,412 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bloomfilter;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Merges and tests many items against Bloom filters of one shape, reusing its index buffer.
+ *
+ * <p>{@link BloomFilter#merge(Hasher)} and {@link BloomFilter#contains(Hasher)} create an
+ * {@link IndexProducer} for every item. A batch instead writes the indices of many items into
+ * a scratch array it keeps between calls, sorts them so the filter is visited in ascending
+ * order, and applies them in one pass. Items given as the initial and increment values of an
+ * {@link EnhancedDoubleHasher}, or as {@code EnhancedDoubleHasher} instances, are hashed
+ * without allocating. {@link SimpleBloomFilter} and {@link SparseBloomFilter} read the buffer
+ * directly. {@link BlockedBloomFilter}, {@link ArrayCountingBloomFilter} and
+ * {@link PackedCountingBloomFilter} are given a reused {@code IndexProducer} over it, the indices
+ * of a blocked filter first mapped to their block. Other filters are given each item as a
+ * {@code Hasher}.</p>
+ *
+ * <p>Items are processed in chunks, so the buffer stays small however many items are passed.
+ * A {@link CountingBloomFilter} is merged one item at a time, so that every item increments
+ * its cells as {@link CountingBloomFilter#merge(Hasher)} does.
+ * A batch is not thread safe; use one per thread.</p>
+ *
+ * @since 4.5
+ */
+public final class HasherBatch {
+
+    /**
+     * An IndexProducer over the indices in the buffer.
+     */
+    private final class BufferProducer implements IndexProducer {
+        @Override
+        public boolean forEachIndex(final IntPredicate consumer) {
+            Objects.requireNonNull(consumer, "consumer");
+            for (int i = 0; i < count; i++) {
+                if (!consumer.test(buffer[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * The number of indices collected before they are applied to a filter.
+     */
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * The shape of the filters.
+     */
+    private final Shape shape;
+
+    /**
+     * The scratch buffer of indices.
+     */
+    private int[] buffer;
+
+    /**
+     * The number of indices in the buffer.
+     */
+    private int count;
+
+    /**
+     * Whether the indices of each item are mapped to the block of a {@link BlockedBloomFilter}.
+     */
+    private boolean blocked;
+
+    /**
+     * The producer handed to filters without direct access to the buffer.
+     */
+    private final IndexProducer producer = new BufferProducer();
+
+    /**
+     * Adds an index produced by a general hasher to the buffer.
+     */
+    private final IntPredicate collector = index -> {
+        buffer = IndexUtils.ensureCapacityForAdd(buffer, count);
+        buffer[count++] = index;
+        return true;
+    };
+
+    /**
+     * Constructs a batch for filters of the specified shape.
+     *
+     * @param shape the shape of the filters.
+     */
+    public HasherBatch(final Shape shape) {
+        this.shape = Objects.requireNonNull(shape, "shape");
+        this.buffer = new int[Math.max(CHUNK_SIZE, shape.getNumberOfHashFunctions())];
+    }
+
+    /**
+     * Gets the shape of the filters this batch hashes for.
+     *
+     * @return the shape.
+     */
+    public Shape getShape() {
+        return shape;
+    }
+
+    /**
+     * Merges the indices of every hasher into a filter.
+     *
+     * @param filter the filter to merge into.
+     * @param hashers the hashers of the items.
+     * @return {@code true} as {@link BloomFilter#merge(Hasher)} does.
+     * @throws IllegalArgumentException if the filter does not have the shape of this batch.
+     */
+    public boolean mergeAll(final BloomFilter filter, final Iterable<? extends Hasher> hashers) {
+        checkShape(filter);
+        Objects.requireNonNull(hashers, "hashers");
+        if (!isSupported(filter)) {
+            hashers.forEach(filter::merge);
+            return true;
+        }
+        blocked = filter instanceof BlockedBloomFilter;
+        count = 0;
+        for (final Hasher hasher : hashers) {
+            add(hasher);
+            if (isMergeDue(filter)) {
+                mergeBuffer(filter);
+            }
+        }
+        mergeBuffer(filter);
+        return true;
+    }
+
+    /**
+     * Merges items given as the initial and increment values of an {@link EnhancedDoubleHasher}.
+     *
+     * @param filter the filter to merge into.
+     * @param initial the initial values of the items.
+     * @param increment the increment values of the items, as many as the initial values.
+     * @return {@code true} as {@link BloomFilter#merge(Hasher)} does.
+     * @throws IllegalArgumentException if the filter does not have the shape of this batch,
+     * or the arrays differ in length.
+     */
+    public boolean mergeAll(final BloomFilter filter, final long[] initial, final long[] increment) {
+        checkShape(filter);
+        checkLengths(initial, increment);
+        if (!isSupported(filter)) {
+            for (int i = 0; i < initial.length; i++) {
+                filter.merge(new EnhancedDoubleHasher(initial[i], increment[i]));
+            }
+            return true;
+        }
+        blocked = filter instanceof BlockedBloomFilter;
+        count = 0;
+        for (int i = 0; i < initial.length; i++) {
+            addHashes(initial[i], increment[i]);
+            if (isMergeDue(filter)) {
+                mergeBuffer(filter);
+            }
+        }
+        mergeBuffer(filter);
+        return true;
+    }
+
+    /**
+     * Tests whether a filter contains every hasher.
+     *
+     * @param filter the filter to test.
+     * @param hashers the hashers of the items.
+     * @return {@code true} if the filter may contain all the items.
+     * @throws IllegalArgumentException if the filter does not have the shape of this batch.
+     */
+    public boolean containsAll(final BloomFilter filter, final Iterable<? extends Hasher> hashers) {
+        checkShape(filter);
+        Objects.requireNonNull(hashers, "hashers");
+        if (!isSupported(filter)) {
+            for (final Hasher hasher : hashers) {
+                if (!filter.contains(hasher)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        blocked = filter instanceof BlockedBloomFilter;
+        count = 0;
+        for (final Hasher hasher : hashers) {
+            add(hasher);
+            if (count >= CHUNK_SIZE && !bufferContained(filter)) {
+                return false;
+            }
+        }
+        return bufferContained(filter);
+    }
+
+    /**
+     * Tests whether a filter contains every item given as the initial and increment values of an
+     * {@link EnhancedDoubleHasher}.
+     *
+     * @param filter the filter to test.
+     * @param initial the initial values of the items.
+     * @param increment the increment values of the items, as many as the initial values.
+     * @return {@code true} if the filter may contain all the items.
+     * @throws IllegalArgumentException if the filter does not have the shape of this batch,
+     * or the arrays differ in length.
+     */
+    public boolean containsAll(final BloomFilter filter, final long[] initial, final long[] increment) {
+        checkShape(filter);
+        checkLengths(initial, increment);
+        if (!isSupported(filter)) {
+            for (int i = 0; i < initial.length; i++) {
+                if (!filter.contains(new EnhancedDoubleHasher(initial[i], increment[i]))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        blocked = filter instanceof BlockedBloomFilter;
+        count = 0;
+        for (int i = 0; i < initial.length; i++) {
+            addHashes(initial[i], increment[i]);
+            if (count >= CHUNK_SIZE && !bufferContained(filter)) {
+                return false;
+            }
+        }
+        return bufferContained(filter);
+    }
+
+    /**
+     * Tests a filter for each item given as the initial and increment values of an
+     * {@link EnhancedDoubleHasher}, recording the answers in a bit set.
+     *
+     * <p>Bit {@code i} of the result is set if the filter may contain item {@code i}, and cleared
+     * otherwise. Bits beyond the number of items are left unchanged.</p>
+     *
+     * @param filter the filter to test.
+     * @param initial the initial values of the items.
+     * @param increment the increment values of the items, as many as the initial values.
+     * @param result the bit set to record the answers in, or {@code null} to create one.
+     * @return the bit set holding the answers.
+     * @throws IllegalArgumentException if the filter does not have the shape of this batch,
+     * or the arrays differ in length.
+     */
+    public BitSet contains(final BloomFilter filter, final long[] initial, final long[] increment, final BitSet result) {
+        checkShape(filter);
+        checkLengths(initial, increment);
+        final BitSet answers = result == null ? new BitSet(initial.length) : result;
+        if (!isSupported(filter)) {
+            for (int i = 0; i < initial.length; i++) {
+                answers.set(i, filter.contains(new EnhancedDoubleHasher(initial[i], increment[i])));
+            }
+            return answers;
+        }
+        blocked = filter instanceof BlockedBloomFilter;
+        for (int i = 0; i < initial.length; i++) {
+            count = 0;
+            addHashes(initial[i], increment[i]);
+            answers.set(i, bufferContained(filter));
+        }
+        count = 0;
+        return answers;
+    }
+
+    /**
+     * Adds the indices of a hasher to the buffer.
+     *
+     * @param hasher the hasher.
+     */
+    private void add(final Hasher hasher) {
+        Objects.requireNonNull(hasher, "hasher");
+        if (hasher instanceof EnhancedDoubleHasher) {
+            final EnhancedDoubleHasher enhanced = (EnhancedDoubleHasher) hasher;
+            addHashes(enhanced.getInitial(), enhanced.getIncrement());
+        } else {
+            final int start = count;
+            hasher.indices(shape).forEachIndex(collector);
+            if (blocked) {
+                BlockedBloomFilter.toBlockedIndices(shape, buffer, start, count);
+            }
+        }
+    }
+
+    /**
+     * Adds the indices of an enhanced double hash to the buffer.
+     *
+     * @param initial the initial value.
+     * @param increment the increment value.
+     */
+    private void addHashes(final long initial, final long increment) {
+        final int k = shape.getNumberOfHashFunctions();
+        if (count + k > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, count + k));
+        }
+        EnhancedDoubleHasher.fillIndices(initial, increment, shape, buffer, count);
+        if (blocked) {
+            BlockedBloomFilter.toBlockedIndices(shape, buffer, count, count + k);
+        }
+        count += k;
+    }
+
+    /**
+     * Tests whether the batch can apply buffered indices to a filter. Other filters are given
+     * each item as a hasher, since they may place the bits of a hasher differently from its indices.
+     *
+     * @param filter the filter.
+     * @return {@code true} if the buffer can be applied to the filter.
+     */
+    private static boolean isSupported(final BloomFilter filter) {
+        return filter instanceof SimpleBloomFilter || filter instanceof SparseBloomFilter
+                || filter instanceof BlockedBloomFilter || filter instanceof ArrayCountingBloomFilter
+                || filter instanceof PackedCountingBloomFilter;
+    }
+
+    /**
+     * Tests whether the buffer should be merged before another item is added. A counting filter
+     * removes duplicate indices within a merge, so it receives each item on its own; otherwise a
+     * cell shared by several items of a chunk would be counted once.
+     *
+     * @param filter the filter.
+     * @return {@code true} if the buffer should be merged now.
+     */
+    private boolean isMergeDue(final BloomFilter filter) {
+        return count >= CHUNK_SIZE || filter instanceof CountingBloomFilter;
+    }
+
+    /**
+     * Merges the buffer into a filter in ascending order and empties it.
+     *
+     * @param filter the filter.
+     */
+    private void mergeBuffer(final BloomFilter filter) {
+        if (count > 0) {
+            Arrays.sort(buffer, 0, count);
+            if (filter instanceof SimpleBloomFilter) {
+                ((SimpleBloomFilter) filter).merge(buffer, count);
+            } else if (filter instanceof SparseBloomFilter) {
+                ((SparseBloomFilter) filter).merge(buffer, count);
+            } else {
+                filter.merge(producer);
+            }
+        }
+        count = 0;
+    }
+
+    /**
+     * Tests whether a filter contains the indices of the buffer and empties it.
+     *
+     * @param filter the filter.
+     * @return {@code true} if all the indices are enabled in the filter.
+     */
+    private boolean bufferContained(final BloomFilter filter) {
+        if (count == 0) {
+            return true;
+        }
+        final boolean result;
+        if (filter instanceof SimpleBloomFilter) {
+            // bit map lookups are cheap enough that sorting a single item does not pay
+            if (count > shape.getNumberOfHashFunctions()) {
+                Arrays.sort(buffer, 0, count);
+            }
+            result = ((SimpleBloomFilter) filter).contains(buffer, count);
+        } else if (filter instanceof SparseBloomFilter) {
+            Arrays.sort(buffer, 0, count);
+            result = ((SparseBloomFilter) filter).containsSorted(buffer, count);
+        } else {
+            result = filter.contains(producer);
+        }
+        count = 0;
+        return result;
+    }
+
+    /**
+     * Checks a filter has the shape of this batch.
+     *
+     * @param filter the filter.
+     */
+    private void checkShape(final BloomFilter filter) {
+        Objects.requireNonNull(filter, "filter");
+        if (!shape.equals(filter.getShape())) {
+            throw new IllegalArgumentException(String.format("Filter shape %s does not match batch shape %s",
+                    filter.getShape(), shape));
+        }
+    }
+
+    /**
+     * Checks the initial and increment values pair up.
+     *
+     * @param initial the initial values.
+     * @param increment the increment values.
+     */
+    private static void checkLengths(final long[] initial, final long[] increment) {
+        Objects.requireNonNull(initial, "initial");
+        Objects.requireNonNull(increment, "increment");
+        if (initial.length != increment.length) {
+            throw new IllegalArgumentException(String.format("Initial and increment lengths differ: %s != %s",
+                    initial.length, increment.length));
+        }
+    }
+}
@@ -0,0 +1,438 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bloomfilter;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * A Bloom filter made of a list of layers, each a Bloom filter of the same shape, that grows as
+ * items arrive and can forget the oldest items.
+ *
+ * <p>Items are merged into the newest layer. Once that layer reaches the target fill, the fraction
+ * of its bits enabled, a new empty layer is started, so the false positive rate of each layer stays
+ * near the rate the shape was planned for however many items arrive. For {@link Hasher} merges the
+ * fill is tracked by counting items against the number the shape can hold at that fill,
+ * {@code n = -m / k * ln(1 - fill)}, which avoids counting bits on every merge; other merges count
+ * the bits of the layer.</p>
+ *
+ * <p>Layers can be expired to keep a sliding window:</p>
+ * <ul>
+ * <li>by count, dropping the oldest layer when starting a new one would exceed the maximum
+ * number of layers;</li>
+ * <li>by age, dropping a layer once the maximum age has passed since it stopped receiving items.
+ * The newest layer is closed when it reaches the maximum age, so an item is forgotten between one
+ * and two maximum ages after it was merged.</li>
+ * </ul>
+ *
+ * <p>A layered filter contains an item, index producer or filter if any single layer contains it,
+ * and the layers are tested from the newest with an early exit. The {@code BitMapProducer} and
+ * {@code IndexProducer} methods, and so {@link #cardinality()} and {@link SetOperations}, see the
+ * union of the layers, see {@link #flatten()}. {@link #estimateN()} sums the estimates of the
+ * layers.</p>
+ *
+ * <p>This class is not thread safe.</p>
+ *
+ * @since 4.5
+ */
+public class LayeredBloomFilter implements BloomFilter {
+
+    /**
+     * A layer and its bookkeeping.
+     */
+    private static final class Layer {
+        /** The filter of the layer */
+        final BloomFilter filter;
+        /** The time the layer was started, in milliseconds */
+        final long created;
+        /** The time the layer stopped receiving items, in milliseconds, or -1 while it is the newest */
+        long closed = -1;
+        /** The number of hashers merged */
+        int items;
+        /** Whether the layer has reached the target fill */
+        boolean full;
+
+        Layer(final BloomFilter filter, final long created) {
+            this.filter = filter;
+            this.created = created;
+        }
+
+        Layer copy() {
+            final Layer copy = new Layer(filter.copy(), created);
+            copy.closed = closed;
+            copy.items = items;
+            copy.full = full;
+            return copy;
+        }
+    }
+
+    /** The shape of every layer */
+    private final Shape shape;
+
+    /** The fraction of the bits of a layer enabled before a new layer is started */
+    private final double targetFill;
+
+    /** The number of hasher merges a layer receives before a new layer is started */
+    private final int itemsPerLayer;
+
+    /** The maximum number of layers */
+    private final int maxLayers;
+
+    /** The maximum age of a closed layer in milliseconds, or -1 for no limit */
+    private final long maxAgeMillis;
+
+    /** The clock that ages the layers */
+    private final Clock clock;
+
+    /** The creator of empty layers */
+    private final Function<Shape, ? extends BloomFilter> layerFactory;
+
+    /** The layers, oldest first */
+    private final Deque<Layer> layers = new ArrayDeque<>();
+
+    /**
+     * Constructs a filter of {@link SimpleBloomFilter} layers that grows without limit.
+     *
+     * @param shape the shape of every layer.
+     * @param targetFill the fraction of the bits of a layer enabled before a new layer is started.
+     * @throws IllegalArgumentException if the target fill is not in the range {@code (0, 1)}.
+     */
+    public LayeredBloomFilter(final Shape shape, final double targetFill) {
+        this(shape, targetFill, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Constructs a filter of {@link SimpleBloomFilter} layers that expires layers by count and age
+     * with the system clock.
+     *
+     * @param shape the shape of every layer.
+     * @param targetFill the fraction of the bits of a layer enabled before a new layer is started.
+     * @param maxLayers the maximum number of layers, {@code Integer.MAX_VALUE} for no limit.
+     * @param maxAge the time a layer is kept after it stops receiving items, or {@code null} for no limit.
+     * @throws IllegalArgumentException if the target fill is not in the range {@code (0, 1)}, if the
+     * maximum number of layers is less than 1 or the maximum age is not positive.
+     */
+    public LayeredBloomFilter(final Shape shape, final double targetFill, final int maxLayers, final Duration maxAge) {
+        this(shape, targetFill, maxLayers, maxAge, Clock.systemUTC(), SimpleBloomFilter::new);
+    }
+
+    /**
+     * Constructs a filter.
+     *
+     * @param shape the shape of every layer.
+     * @param targetFill the fraction of the bits of a layer enabled before a new layer is started.
+     * @param maxLayers the maximum number of layers, {@code Integer.MAX_VALUE} for no limit.
+     * @param maxAge the time a layer is kept after it stops receiving items, or {@code null} for no limit.
+     * @param clock the clock that ages the layers.
+     * @param layerFactory creates an empty layer of the shape, for example {@code BlockedBloomFilter::new}.
+     * @throws IllegalArgumentException if the target fill is not in the range {@code (0, 1)}, if the
+     * maximum number of layers is less than 1 or the maximum age is not positive.
+     */
+    public LayeredBloomFilter(final Shape shape, final double targetFill, final int maxLayers, final Duration maxAge,
+            final Clock clock, final Function<Shape, ? extends BloomFilter> layerFactory) {
+        this.shape = Objects.requireNonNull(shape, "shape");
+        if (!(targetFill > 0.0 && targetFill < 1.0)) {
+            throw new IllegalArgumentException("Target fill must be greater than 0 and less than 1: " + targetFill);
+        }
+        if (maxLayers < 1) {
+            throw new IllegalArgumentException("Maximum number of layers must be greater than 0: " + maxLayers);
+        }
+        if (maxAge != null && (maxAge.isNegative() || maxAge.isZero())) {
+            throw new IllegalArgumentException("Maximum age must be positive: " + maxAge);
+        }
+        this.targetFill = targetFill;
+        final double items = -(double) shape.getNumberOfBits() / shape.getNumberOfHashFunctions() * Math.log1p(-targetFill);
+        this.itemsPerLayer = (int) Math.max(1, Math.min(Integer.MAX_VALUE, Math.floor(items)));
+        this.maxLayers = maxLayers;
+        this.maxAgeMillis = maxAge == null ? -1 : maxAge.toMillis();
+        this.clock = Objects.requireNonNull(clock, "clock");
+        this.layerFactory = Objects.requireNonNull(layerFactory, "layerFactory");
+        addLayer(clock.millis());
+    }
+
+    /**
+     * Copy constructor for {@code copy()} use.
+     *
+     * @param source the filter to copy.
+     */
+    private LayeredBloomFilter(final LayeredBloomFilter source) {
+        this.shape = source.shape;
+        this.targetFill = source.targetFill;
+        this.itemsPerLayer = source.itemsPerLayer;
+        this.maxLayers = source.maxLayers;
+        this.maxAgeMillis = source.maxAgeMillis;
+        this.clock = source.clock;
+        this.layerFactory = source.layerFactory;
+        for (final Layer layer : source.layers) {
+            layers.add(layer.copy());
+        }
+    }
+
+    /**
+     * Starts a new layer, dropping the oldest if there would be too many.
+     *
+     * @param now the current time in milliseconds.
+     */
+    private void addLayer(final long now) {
+        final BloomFilter filter = Objects.requireNonNull(layerFactory.apply(shape), "layer");
+        if (!shape.equals(filter.getShape())) {
+            throw new IllegalArgumentException(String.format("Layer shape %s does not match filter shape %s",
+                    filter.getShape(), shape));
+        }
+        final Layer newest = layers.peekLast();
+        if (newest != null) {
+            newest.closed = now;
+        }
+        if (layers.size() == maxLayers) {
+            layers.removeFirst();
+        }
+        layers.addLast(new Layer(filter, now));
+    }
+
+    /**
+     * Drops the layers that have outlived the maximum age, closing the newest layer if it has
+     * reached it.
+     *
+     * @param now the current time in milliseconds.
+     */
+    private void expire(final long now) {
+        if (maxAgeMillis < 0) {
+            return;
+        }
+        while (!layers.isEmpty()) {
+            final Layer oldest = layers.peekFirst();
+            if (oldest.closed < 0 || now - oldest.closed < maxAgeMillis) {
+                break;
+            }
+            layers.removeFirst();
+        }
+        final Layer newest = layers.peekLast();
+        if (newest == null || now - newest.created >= maxAgeMillis) {
+            addLayer(now);
+        }
+    }
+
+    /**
+     * Gets the layer to merge into, starting a new one if the newest is full or too old.
+     *
+     * @return the newest layer.
+     */
+    private Layer target() {
+        final long now = clock.millis();
+        expire(now);
+        if (layers.peekLast().full) {
+            addLayer(now);
+        }
+        return layers.peekLast();
+    }
+
+    /**
+     * Records a merge that did not count items, checking the fill of the layer by its bits.
+     *
+     * @param layer the layer merged into.
+     */
+    private void checkFill(final Layer layer) {
+        if (layer.filter.cardinality() >= targetFill * shape.getNumberOfBits()) {
+            layer.full = true;
+        }
+    }
+
+    /**
+     * Forces a new layer to be started for the following merges.
+     */
+    public void next() {
+        addLayer(clock.millis());
+    }
+
+    /**
+     * Drops the layers that have outlived the maximum age. Merges and tests do this as well.
+     */
+    public void cleanup() {
+        expire(clock.millis());
+    }
+
+    /**
+     * Gets the number of layers.
+     *
+     * @return the number of layers.
+     */
+    public int getDepth() {
+        return layers.size();
+    }
+
+    /**
+     * Gets the number of hasher merges a layer receives before a new layer is started.
+     *
+     * @return the number of items per layer.
+     */
+    public int getItemsPerLayer() {
+        return itemsPerLayer;
+    }
+
+    /**
+     * Processes the layer filters from the newest to the oldest.
+     *
+     * @param predicate the predicate to apply to each filter, processing stops when it returns false.
+     * @return {@code false} if the predicate returned false for a filter.
+     */
+    public boolean forEachBloomFilter(final Predicate<BloomFilter> predicate) {
+        Objects.requireNonNull(predicate, "predicate");
+        for (final Iterator<Layer> it = layers.descendingIterator(); it.hasNext();) {
+            if (!predicate.test(it.next().filter)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Creates a filter holding the union of the layers.
+     *
+     * @return a new filter of the shape with every bit enabled in any layer.
+     */
+    public SimpleBloomFilter flatten() {
+        final SimpleBloomFilter result = new SimpleBloomFilter(shape);
+        for (final Layer layer : layers) {
+            result.merge(layer.filter);
+        }
+        return result;
+    }
+
+    @Override
+    public LayeredBloomFilter copy() {
+        return new LayeredBloomFilter(this);
+    }
+
+    @Override
+    public int characteristics() {
+        return 0;
+    }
+
+    @Override
+    public Shape getShape() {
+        return shape;
+    }
+
+    @Override
+    public void clear() {
+        layers.clear();
+        addLayer(clock.millis());
+    }
+
+    @Override
+    public boolean contains(final BloomFilter other) {
+        Objects.requireNonNull(other, "other");
+        expire(clock.millis());
+        return !forEachBloomFilter(filter -> !filter.contains(other));
+    }
+
+    @Override
+    public boolean contains(final Hasher hasher) {
+        Objects.requireNonNull(hasher, "hasher");
+        expire(clock.millis());
+        return !forEachBloomFilter(filter -> !filter.contains(hasher));
+    }
+
+    @Override
+    public boolean contains(final IndexProducer indexProducer) {
+        Objects.requireNonNull(indexProducer, "indexProducer");
+        expire(clock.millis());
+        return !forEachBloomFilter(filter -> !filter.contains(indexProducer));
+    }
+
+    @Override
+    public boolean contains(final BitMapProducer bitMapProducer) {
+        Objects.requireNonNull(bitMapProducer, "bitMapProducer");
+        expire(clock.millis());
+        return !forEachBloomFilter(filter -> !filter.contains(bitMapProducer));
+    }
+
+    @Override
+    public boolean merge(final Hasher hasher) {
+        Objects.requireNonNull(hasher, "hasher");
+        final Layer layer = target();
+        layer.filter.merge(hasher);
+        if (++layer.items >= itemsPerLayer) {
+            layer.full = true;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean merge(final BloomFilter other) {
+        Objects.requireNonNull(other, "other");
+        final Layer layer = target();
+        layer.filter.merge(other);
+        checkFill(layer);
+        return true;
+    }
+
+    @Override
+    public boolean merge(final IndexProducer indexProducer) {
+        Objects.requireNonNull(indexProducer, "indexProducer");
+        final Layer layer = target();
+        layer.filter.merge(indexProducer);
+        checkFill(layer);
+        return true;
+    }
+
+    @Override
+    public boolean merge(final BitMapProducer bitMapProducer) {
+        Objects.requireNonNull(bitMapProducer, "bitMapProducer");
+        final Layer layer = target();
+        layer.filter.merge(bitMapProducer);
+        checkFill(layer);
+        return true;
+    }
+
+    @Override
+    public int cardinality() {
+        return flatten().cardinality();
+    }
+
+    /**
+     * Estimates the number of items merged into the filter as the sum of the estimates of the layers.
+     *
+     * @return an estimate of the number of items in the filter.
+     */
+    @Override
+    public int estimateN() {
+        long sum = 0;
+        for (final Layer layer : layers) {
+            sum += layer.filter.estimateN();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, sum);
+    }
+
+    @Override
+    public boolean forEachIndex(final IntPredicate predicate) {
+        return flatten().forEachIndex(predicate);
+    }
+
+    @Override
+    public boolean forEachBitMap(final LongPredicate predicate) {
+        return flatten().forEachBitMap(predicate);
+    }
+}
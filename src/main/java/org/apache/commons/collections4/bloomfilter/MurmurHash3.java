@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bloomfilter;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * The 128-bit x64 variant of Austin Appleby's MurmurHash3, producing the two values of an
+ * {@link EnhancedDoubleHasher}.
+ *
+ * <p>The hash is well distributed in both halves, which is what enhanced double hashing needs from
+ * its initial and increment values, and is fast on 64-bit platforms. The values are those of the
+ * reference {@code MurmurHash3_x64_128} with a seed of zero: {@code h1} becomes the initial value and
+ * {@code h2} the increment.</p>
+ *
+ * <p>The data is read in place. Byte arrays and buffers, heap or direct, are read eight bytes at a
+ * time without copying, and character sequences are hashed as their UTF-16 code units in little-endian
+ * order without encoding them, so a {@code CharSequence} hashes to the same values as its
+ * {@link java.nio.charset.StandardCharsets#UTF_16LE UTF-16LE} bytes.</p>
+ *
+ * @see <a href="https://github.com/aappleby/smhasher/blob/master/src/MurmurHash3.cpp">MurmurHash3.cpp</a>
+ * @since 4.5
+ */
+public final class MurmurHash3 {
+
+    /**
+     * Receives the two halves of a hash.
+     *
+     * @param <T> the type of the result.
+     */
+    @FunctionalInterface
+    private interface HashConsumer<T> {
+        T accept(long h1, long h2);
+    }
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    /**
+     * Mixes the first key of a block.
+     *
+     * @param k1 the key.
+     * @return the mixed key.
+     */
+    private static long mixK1(final long k1) {
+        return Long.rotateLeft(k1 * C1, 31) * C2;
+    }
+
+    /**
+     * Mixes the second key of a block.
+     *
+     * @param k2 the key.
+     * @return the mixed key.
+     */
+    private static long mixK2(final long k2) {
+        return Long.rotateLeft(k2 * C2, 33) * C1;
+    }
+
+    /**
+     * Applies the 64-bit finalization mix.
+     *
+     * @param k the value.
+     * @return the mixed value.
+     */
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    /**
+     * Hashes the bytes of a little-endian buffer between two absolute positions.
+     *
+     * @param buffer the buffer, in little-endian order.
+     * @param start the first position.
+     * @param end the end position, exclusive.
+     * @param consumer the consumer of the hash.
+     * @param <T> the type of the result.
+     * @return the result of the consumer.
+     */
+    private static <T> T hash(final ByteBuffer buffer, final int start, final int end, final HashConsumer<T> consumer) {
+        final int length = end - start;
+        final int blockEnd = start + (length & ~15);
+        long h1 = 0;
+        long h2 = 0;
+        for (int i = start; i < blockEnd; i += 16) {
+            h1 ^= mixK1(buffer.getLong(i));
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(buffer.getLong(i + 8));
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+        long k1 = 0;
+        long k2 = 0;
+        for (int i = end - 1; i >= blockEnd; i--) {
+            final long b = buffer.get(i) & 0xffL;
+            if (i - blockEnd >= 8) {
+                k2 = k2 << 8 | b;
+            } else {
+                k1 = k1 << 8 | b;
+            }
+        }
+        return finish(h1, h2, k1, k2, length, consumer);
+    }
+
+    /**
+     * Hashes the UTF-16 code units of a character sequence in little-endian order.
+     *
+     * @param chars the characters.
+     * @param consumer the consumer of the hash.
+     * @param <T> the type of the result.
+     * @return the result of the consumer.
+     */
+    private static <T> T hash(final CharSequence chars, final HashConsumer<T> consumer) {
+        final int count = chars.length();
+        final int blockEnd = count & ~7;
+        long h1 = 0;
+        long h2 = 0;
+        for (int i = 0; i < blockEnd; i += 8) {
+            h1 ^= mixK1(fourChars(chars, i));
+            h1 = Long.rotateLeft(h1, 27) + h2;
+            h1 = h1 * 5 + 0x52dce729;
+            h2 ^= mixK2(fourChars(chars, i + 4));
+            h2 = Long.rotateLeft(h2, 31) + h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+        long k1 = 0;
+        long k2 = 0;
+        for (int i = count - 1; i >= blockEnd; i--) {
+            final long c = chars.charAt(i);
+            if (i - blockEnd >= 4) {
+                k2 = k2 << 16 | c;
+            } else {
+                k1 = k1 << 16 | c;
+            }
+        }
+        return finish(h1, h2, k1, k2, count * 2L, consumer);
+    }
+
+    /**
+     * Reads four characters as a little-endian long.
+     *
+     * @param chars the characters.
+     * @param index the index of the first character.
+     * @return the long.
+     */
+    private static long fourChars(final CharSequence chars, final int index) {
+        return chars.charAt(index) | (long) chars.charAt(index + 1) << 16
+                | (long) chars.charAt(index + 2) << 32 | (long) chars.charAt(index + 3) << 48;
+    }
+
+    /**
+     * Mixes in the tail keys and the length and finalizes the hash.
+     *
+     * @param h1 the first half of the state.
+     * @param h2 the second half of the state.
+     * @param k1 the first tail key, zero if absent.
+     * @param k2 the second tail key, zero if absent.
+     * @param length the number of bytes hashed.
+     * @param consumer the consumer of the hash.
+     * @param <T> the type of the result.
+     * @return the result of the consumer.
+     */
+    private static <T> T finish(long h1, long h2, final long k1, final long k2, final long length,
+            final HashConsumer<T> consumer) {
+        // a zero key contributes nothing, as in the reference tail switch
+        h2 ^= mixK2(k2);
+        h1 ^= mixK1(k1);
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+        return consumer.accept(h1, h2);
+    }
+
+    /**
+     * Gets a little-endian view of a buffer, which is the buffer itself if it is already little-endian.
+     *
+     * @param buffer the buffer.
+     * @return the little-endian buffer, sharing the content of the buffer.
+     */
+    private static ByteBuffer littleEndian(final ByteBuffer buffer) {
+        return buffer.order() == ByteOrder.LITTLE_ENDIAN ? buffer : buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Hashes a byte array.
+     *
+     * @param data the bytes.
+     * @return the two halves of the hash, {@code h1} then {@code h2}.
+     */
+    public static long[] hash128(final byte[] data) {
+        Objects.requireNonNull(data, "data");
+        return hash128(data, 0, data.length);
+    }
+
+    /**
+     * Hashes a range of a byte array.
+     *
+     * @param data the bytes.
+     * @param offset the index of the first byte.
+     * @param length the number of bytes.
+     * @return the two halves of the hash, {@code h1} then {@code h2}.
+     * @throws IndexOutOfBoundsException if the range is not within the array.
+     */
+    public static long[] hash128(final byte[] data, final int offset, final int length) {
+        final int end = checkRange(data, offset, length);
+        return hash(ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN), offset, end, (h1, h2) -> new long[] {h1, h2});
+    }
+
+    /**
+     * Hashes the remaining bytes of a buffer. The position of the buffer is not changed.
+     *
+     * @param buffer the buffer, heap or direct.
+     * @return the two halves of the hash, {@code h1} then {@code h2}.
+     */
+    public static long[] hash128(final ByteBuffer buffer) {
+        Objects.requireNonNull(buffer, "buffer");
+        return hash(littleEndian(buffer), buffer.position(), buffer.limit(), (h1, h2) -> new long[] {h1, h2});
+    }
+
+    /**
+     * Hashes the UTF-16 code units of a character sequence.
+     *
+     * @param chars the characters.
+     * @return the two halves of the hash, {@code h1} then {@code h2}.
+     */
+    public static long[] hash128(final CharSequence chars) {
+        Objects.requireNonNull(chars, "chars");
+        return hash(chars, (h1, h2) -> new long[] {h1, h2});
+    }
+
+    /**
+     * Creates a hasher for a byte array.
+     *
+     * @param data the bytes.
+     * @return the hasher.
+     */
+    public static EnhancedDoubleHasher hasher(final byte[] data) {
+        Objects.requireNonNull(data, "data");
+        return hasher(data, 0, data.length);
+    }
+
+    /**
+     * Creates a hasher for a range of a byte array.
+     *
+     * @param data the bytes.
+     * @param offset the index of the first byte.
+     * @param length the number of bytes.
+     * @return the hasher.
+     * @throws IndexOutOfBoundsException if the range is not within the array.
+     */
+    public static EnhancedDoubleHasher hasher(final byte[] data, final int offset, final int length) {
+        final int end = checkRange(data, offset, length);
+        return hash(ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN), offset, end, EnhancedDoubleHasher::new);
+    }
+
+    /**
+     * Creates a hasher for the remaining bytes of a buffer. The position of the buffer is not changed.
+     *
+     * @param buffer the buffer, heap or direct.
+     * @return the hasher.
+     */
+    public static EnhancedDoubleHasher hasher(final ByteBuffer buffer) {
+        Objects.requireNonNull(buffer, "buffer");
+        return hash(littleEndian(buffer), buffer.position(), buffer.limit(), EnhancedDoubleHasher::new);
+    }
+
+    /**
+     * Creates a hasher for the UTF-16 code units of a character sequence.
+     *
+     * @param chars the characters.
+     * @return the hasher.
+     */
+    public static EnhancedDoubleHasher hasher(final CharSequence chars) {
+        Objects.requireNonNull(chars, "chars");
+        return hash(chars, EnhancedDoubleHasher::new);
+    }
+
+    /**
+     * Checks a range lies within an array.
+     *
+     * @param data the array.
+     * @param offset the start of the range.
+     * @param length the length of the range.
+     * @return the end of the range, exclusive.
+     */
+    private static int checkRange(final byte[] data, final int offset, final int length) {
+        Objects.requireNonNull(data, "data");
+        if (offset < 0 || length < 0 || offset > data.length - length) {
+            throw new IndexOutOfBoundsException(String.format("Range [%s, %s + %s) out of bounds for length %s",
+                    offset, offset, length, data.length));
+        }
+        return offset + length;
+    }
+
+    /** Do not instantiate. */
+    private MurmurHash3() {
+    }
+}
@@ -102,6 +102,40 @@ public final class SimpleBloomFilter implements BloomFilter {
         return true;
     }
 
+    /**
+     * Merges indices held in an array.
+     *
+     * @param indices the array of indices.
+     * @param count the number of indices to merge from the start of the array.
+     */
+    void merge(final int[] indices, final int count) {
+        for (int i = 0; i < count; i++) {
+            final int idx = indices[i];
+            if (idx < 0 || idx >= shape.getNumberOfBits()) {
+                throw new IllegalArgumentException(String.format(
+                        "IndexProducer should only send values in the range[0,%s)", shape.getNumberOfBits()));
+            }
+            BitMap.set(bitMap, idx);
+        }
+        cardinality = -1;
+    }
+
+    /**
+     * Tests whether all the indices held in an array are enabled.
+     *
+     * @param indices the array of indices.
+     * @param count the number of indices to test from the start of the array.
+     * @return {@code true} if all the indices are enabled.
+     */
+    boolean contains(final int[] indices, final int count) {
+        for (int i = 0; i < count; i++) {
+            if (!BitMap.contains(bitMap, indices[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public boolean merge(final BitMapProducer bitMapProducer) {
         Objects.requireNonNull(bitMapProducer, "bitMapProducer");
@@ -16,22 +16,37 @@
  */
 package org.apache.commons.collections4.bloomfilter;
 
+import java.util.Arrays;
 import java.util.Objects;
-import java.util.TreeSet;
 import java.util.function.IntPredicate;
 import java.util.function.LongPredicate;
 
 /**
- * A bloom filter using a TreeSet of integers to track enabled bits. This is a standard
+ * A bloom filter using a sorted array of integers to track enabled bits. This is a standard
  * implementation and should work well for most low cardinality Bloom filters.
+ *
+ * <p>Each enabled bit costs four bytes. Merges combine the sorted runs by galloping
+ * through the longer one, and {@code contains} checks use binary search. Once the
+ * cardinality is no longer sparse for the shape, {@link #compact()} converts the
+ * filter to a {@link SimpleBloomFilter}.</p>
  * @since 4.5
  */
 public final class SparseBloomFilter implements BloomFilter {
 
     /**
-     * The bitSet that defines this BloomFilter.
+     * The empty indices shared by empty filters.
+     */
+    private static final int[] EMPTY = {};
+
+    /**
+     * The enabled bits in ascending order, with no spare capacity.
      */
-    private final TreeSet<Integer> indices;
+    private int[] indices;
+
+    /**
+     * The number of enabled bits.
+     */
+    private int cardinality;
 
     /**
      * The shape of this BloomFilter.
@@ -39,62 +54,177 @@ public final class SparseBloomFilter implements BloomFilter {
     private final Shape shape;
 
     /**
-     * Constructs an empty BitSetBloomFilter.
+     * Constructs an empty SparseBloomFilter.
      *
      * @param shape The shape of the filter.
      */
     public SparseBloomFilter(final Shape shape) {
         Objects.requireNonNull(shape, "shape");
         this.shape = shape;
-        this.indices = new TreeSet<>();
+        this.indices = EMPTY;
     }
 
     private SparseBloomFilter(final SparseBloomFilter source) {
         shape = source.shape;
-        indices = new TreeSet<>(source.indices);
+        indices = Arrays.copyOf(source.indices, source.cardinality);
+        cardinality = source.cardinality;
     }
 
     @Override
     public long[] asBitMapArray() {
         final long[] result = new long[BitMap.numberOfBitMaps(shape.getNumberOfBits())];
-        for (final int i : indices) {
-            BitMap.set(result, i);
+        for (int i = 0; i < cardinality; i++) {
+            BitMap.set(result, indices[i]);
         }
         return result;
     }
 
+    /**
+     * Returns the most compact filter holding the enabled bits of this filter.
+     *
+     * <p>While the cardinality is sparse for the shape, see {@link Shape#isSparse(int)},
+     * this returns this filter. Otherwise it returns a new {@link SimpleBloomFilter} with
+     * the same bits, which is smaller and faster than this filter at that cardinality.</p>
+     *
+     * @return this filter or an equivalent {@code SimpleBloomFilter}.
+     */
+    public BloomFilter compact() {
+        if (!shape.isSparse(cardinality)) {
+            final SimpleBloomFilter dense = new SimpleBloomFilter(shape);
+            dense.merge((IndexProducer) this);
+            return dense;
+        }
+        return this;
+    }
+
     @Override
     public SparseBloomFilter copy() {
         return new SparseBloomFilter(this);
     }
 
     /**
-     * Adds the index to the indices.
-     * @param idx the index to add.
-     * @return {@code true} always
+     * Gets the position of the first index at or after {@code from} that is not less than the key.
+     * The position is found by doubling the distance probed and then searching the last interval,
+     * so a run of {@code r} smaller values is skipped in O(log r) comparisons.
+     *
+     * @param values the sorted values.
+     * @param from the position to start at, the value there must be less than the key.
+     * @param to the end of the values, exclusive.
+     * @param key the value to find.
+     * @return the position of the first value not less than the key, or {@code to}.
      */
-    private boolean add(final int idx) {
-        indices.add(idx);
-        return true;
+    private static int gallop(final int[] values, final int from, final int to, final int key) {
+        int low = from;
+        int step = 1;
+        while (from + step < to && values[from + step] < key) {
+            low = from + step;
+            step <<= 1;
+        }
+        final int high = Math.min(from + step, to);
+        final int pos = Arrays.binarySearch(values, low + 1, high, key);
+        return pos < 0 ? -pos - 1 : pos;
     }
 
-    @Override
-    public boolean merge(final IndexProducer indexProducer) {
-        Objects.requireNonNull(indexProducer, "indexProducer");
-        indexProducer.forEachIndex(this::add);
-        if (!this.indices.isEmpty()) {
-            if (this.indices.last() >= shape.getNumberOfBits()) {
+    /**
+     * Merges sorted unique indices that are known to be within the shape into this filter.
+     *
+     * @param values the sorted unique indices.
+     * @param count the number of indices.
+     */
+    private void mergeSorted(final int[] values, final int count) {
+        if (count == 0) {
+            return;
+        }
+        if (cardinality == 0) {
+            indices = Arrays.copyOf(values, count);
+            cardinality = count;
+            return;
+        }
+        final int[] result = new int[cardinality + count];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < cardinality && j < count) {
+            if (indices[i] < values[j]) {
+                final int end = gallop(indices, i, cardinality, values[j]);
+                System.arraycopy(indices, i, result, k, end - i);
+                k += end - i;
+                i = end;
+            } else if (indices[i] > values[j]) {
+                final int end = gallop(values, j, count, indices[i]);
+                System.arraycopy(values, j, result, k, end - j);
+                k += end - j;
+                j = end;
+            } else {
+                result[k++] = indices[i++];
+                j++;
+            }
+        }
+        System.arraycopy(indices, i, result, k, cardinality - i);
+        k += cardinality - i;
+        System.arraycopy(values, j, result, k, count - j);
+        k += count - j;
+        indices = k == result.length ? result : Arrays.copyOf(result, k);
+        cardinality = k;
+    }
+
+    /**
+     * Merges indices held in an array, sorting and deduplicating them in place.
+     *
+     * @param values the array of indices, its first {@code count} entries are reordered.
+     * @param count the number of indices to merge from the start of the array.
+     */
+    void merge(final int[] values, final int count) {
+        Arrays.sort(values, 0, count);
+        int unique = 0;
+        for (int i = 0; i < count; i++) {
+            if (unique == 0 || values[unique - 1] != values[i]) {
+                values[unique++] = values[i];
+            }
+        }
+        if (unique > 0) {
+            if (values[unique - 1] >= shape.getNumberOfBits()) {
                 throw new IllegalArgumentException(String.format("Value in list %s is greater than maximum value (%s)",
-                        this.indices.last(), shape.getNumberOfBits() - 1));
+                        values[unique - 1], shape.getNumberOfBits() - 1));
             }
-            if (this.indices.first() < 0) {
+            if (values[0] < 0) {
                 throw new IllegalArgumentException(
-                        String.format("Value in list %s is less than 0", this.indices.first()));
+                        String.format("Value in list %s is less than 0", values[0]));
+            }
+        }
+        mergeSorted(values, unique);
+    }
+
+    /**
+     * Tests whether all the indices held in a sorted array are enabled, galloping through
+     * the enabled bits between them.
+     *
+     * @param values the sorted array of indices, duplicates are allowed.
+     * @param count the number of indices to test from the start of the array.
+     * @return {@code true} if all the indices are enabled.
+     */
+    boolean containsSorted(final int[] values, final int count) {
+        int i = 0;
+        for (int j = 0; j < count; j++) {
+            final int value = values[j];
+            if (i < cardinality && indices[i] < value) {
+                i = gallop(indices, i, cardinality, value);
+            }
+            if (i == cardinality || indices[i] != value) {
+                return false;
             }
         }
         return true;
     }
 
+    @Override
+    public boolean merge(final IndexProducer indexProducer) {
+        Objects.requireNonNull(indexProducer, "indexProducer");
+        final int[] values = indexProducer.asIndexArray();
+        merge(values, values.length);
+        return true;
+    }
+
     @Override
     public boolean merge(final BitMapProducer bitMapProducer) {
         Objects.requireNonNull(bitMapProducer, "bitMapProducer");
@@ -111,6 +241,15 @@ public final class SparseBloomFilter implements BloomFilter {
     @Override
     public boolean merge(final BloomFilter other) {
         Objects.requireNonNull(other, "other");
+        if (other instanceof SparseBloomFilter) {
+            final SparseBloomFilter sparse = (SparseBloomFilter) other;
+            if (sparse.cardinality > 0 && sparse.indices[sparse.cardinality - 1] >= shape.getNumberOfBits()) {
+                throw new IllegalArgumentException(String.format("Value in list %s is greater than maximum value (%s)",
+                        sparse.indices[sparse.cardinality - 1], shape.getNumberOfBits() - 1));
+            }
+            mergeSorted(sparse.indices, sparse.cardinality);
+            return true;
+        }
         final IndexProducer producer = (other.characteristics() & SPARSE) != 0 ? (IndexProducer) other : IndexProducer.fromBitMapProducer(other);
         merge(producer);
         return true;
@@ -118,7 +257,8 @@ public final class SparseBloomFilter implements BloomFilter {
 
     @Override
     public void clear() {
-        indices.clear();
+        indices = EMPTY;
+        cardinality = 0;
     }
 
     @Override
@@ -133,14 +273,14 @@ public final class SparseBloomFilter implements BloomFilter {
 
     @Override
     public int cardinality() {
-        return indices.size();
+        return cardinality;
     }
 
     @Override
     public boolean forEachIndex(final IntPredicate consumer) {
         Objects.requireNonNull(consumer, "consumer");
-        for (final int value : indices) {
-            if (!consumer.test(value)) {
+        for (int i = 0; i < cardinality; i++) {
+            if (!consumer.test(indices[i])) {
                 return false;
             }
         }
@@ -159,7 +299,8 @@ public final class SparseBloomFilter implements BloomFilter {
         long bitMap = 0;
         // the bitmap we are working on
         int idx = 0;
-        for (final int i : indices) {
+        for (int n = 0; n < cardinality; n++) {
+            final int i = indices[n];
             while (BitMap.getLongIndex(i) != idx) {
                 if (!consumer.test(bitMap)) {
                     return false;
@@ -185,9 +326,19 @@ public final class SparseBloomFilter implements BloomFilter {
         return true;
     }
 
+    @Override
+    public boolean contains(final BloomFilter other) {
+        Objects.requireNonNull(other, "other");
+        if (other instanceof SparseBloomFilter) {
+            final SparseBloomFilter sparse = (SparseBloomFilter) other;
+            return containsSorted(sparse.indices, sparse.cardinality);
+        }
+        return contains((IndexProducer) other);
+    }
+
     @Override
     public boolean contains(final IndexProducer indexProducer) {
-        return indexProducer.forEachIndex(indices::contains);
+        return indexProducer.forEachIndex(i -> Arrays.binarySearch(indices, 0, cardinality, i) >= 0);
     }
 
     @Override
@@ -76,10 +76,16 @@
  * enabled or disabled. This allows the removal (opposite of merge) of Bloom filters at the expense of additional
  * overhead.</p>
  *
+ * <p>The ArrayCountingBloomFilter keeps an {@code int} per bit. The PackedCountingBloomFilter keeps 4-bit or 8-bit
+ * saturating counters instead, for large filters where the counts stay small.</p>
+ *
  * <h3>Shape</h3>
  *
  * <p>The Shape describes the Bloom filter using the number of bits and the number of hash functions</p>
  *
+ * <p>{@code BloomFilterCodec} reads and writes shapes and filters in a compact, versioned binary format over
+ * {@code DataInput}/{@code DataOutput} and byte channels.</p>
+ *
  * <h3>Hasher</h3>
  *
  * <p>A Hasher converts bytes into a series of integers based on a Shape. Each hasher represents one item being added
@@ -89,6 +95,9 @@
  * initialized by using a byte array returned by the standard {@code MessageDigest} or other hash function to
  * initialize the Hasher. Alternatively a pair of a long values may also be used.</p>
  *
+ * <p>{@code MurmurHash3} provides a built-in 128-bit hash of byte arrays, byte buffers and character sequences that
+ * creates an EnhancedDoubleHasher directly, for callers that have no hash of their own.</p>
+ *
  * <p>Other implementations of the Hasher are easy to implement, and should make use of the {@code Hasher.Filter}
  * and/or {@code Hasher.FileredIntConsumer} classes to filter out duplicate indices when implementing
  * {@code Hasher.uniqueIndices(Shape)}.</p>
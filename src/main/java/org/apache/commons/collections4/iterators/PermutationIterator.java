@@ -36,6 +36,10 @@ import java.util.Objects;
  * <p>
  * NOTE: in case an empty collection is provided, the iterator will
  * return exactly one empty list as result, as 0! = 1.
+ * <p>
+ * To jump to a given permutation or to split the permutations across threads,
+ * use {@link org.apache.commons.collections4.Arrangements#permutations(Collection)},
+ * which orders them lexicographically instead.
  *
  * @param <E>  the type of the objects being permuted
  *
@@ -0,0 +1,1006 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.list;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import org.apache.commons.collections4.OrderedIterator;
+
+/**
+ * A {@code List} implementation that stores its elements in small arrays held
+ * by a balanced tree, giving O(log n) insertions and removals at any index
+ * with iteration and memory use close to an {@code ArrayList}.
+ * <p>
+ * The list is a B+-tree: leaves hold up to a fixed number of elements in an
+ * array and are linked to their neighbors, and each branch records the size of
+ * each child so an index can be located without visiting the leaves.
+ * Compared to {@link TreeList}, which uses one node object per element,
+ * {@code get(index)} touches a few arrays instead of about log n nodes,
+ * iteration walks each leaf array sequentially, and the per-element overhead
+ * is a single array slot.
+ * </p>
+ * <p>
+ * Constructing the list from a collection, and {@code addAll} of a collection
+ * at least as large as the list, build the tree bottom-up in O(n) time.
+ * </p>
+ * <p>
+ * This list is not synchronized and its iterators are fail-fast.
+ * </p>
+ *
+ * @param <E> the type of the elements in the list
+ * @since 4.5
+ */
+public class ChunkedTreeList<E> extends AbstractList<E> {
+
+    /** The default maximum number of elements in a leaf */
+    static final int DEFAULT_CHUNK_SIZE = 64;
+
+    /** The default maximum number of children of a branch */
+    static final int DEFAULT_FAN_OUT = 32;
+
+    /**
+     * A node of the tree.
+     */
+    abstract static class Node {
+        /** The number of elements held below this node */
+        int size;
+    }
+
+    /**
+     * A leaf holding a chunk of consecutive elements.
+     */
+    static final class Leaf extends Node {
+        /** The elements, valid from 0 to size - 1 */
+        final Object[] elements;
+        /** The previous leaf in list order, null for the first leaf */
+        Leaf previous;
+        /** The next leaf in list order, null for the last leaf */
+        Leaf next;
+
+        /**
+         * Constructs an empty leaf.
+         *
+         * @param capacity  the maximum number of elements
+         */
+        Leaf(final int capacity) {
+            elements = new Object[capacity];
+        }
+    }
+
+    /**
+     * A branch holding consecutive subtrees of equal height.
+     */
+    static final class Branch extends Node {
+        /** The children, valid from 0 to count - 1 */
+        final Node[] children;
+        /** The size of each child, kept next to each other for index lookup */
+        final int[] sizes;
+        /** The number of children */
+        int count;
+
+        /**
+         * Constructs an empty branch.
+         *
+         * @param capacity  the maximum number of children
+         */
+        Branch(final int capacity) {
+            children = new Node[capacity];
+            sizes = new int[capacity];
+        }
+    }
+
+    /** The maximum number of elements in a leaf */
+    private final int chunkSize;
+
+    /** The maximum number of children of a branch */
+    private final int fanOut;
+
+    /** The root of the tree, never null */
+    private Node root;
+
+    /** The first leaf, never null */
+    private Leaf head;
+
+    /** The last leaf, never null */
+    private Leaf tail;
+
+    /**
+     * Constructs a new empty list.
+     */
+    public ChunkedTreeList() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a new empty list with the specified chunk size.
+     *
+     * @param chunkSize  the maximum number of elements stored in each leaf array
+     * @throws IllegalArgumentException if the chunk size is less than 4
+     */
+    public ChunkedTreeList(final int chunkSize) {
+        this(chunkSize, DEFAULT_FAN_OUT);
+    }
+
+    /**
+     * Constructs a new list that copies the specified collection.
+     *
+     * @param coll  the collection to copy
+     * @throws NullPointerException if the collection is null
+     */
+    public ChunkedTreeList(final Collection<? extends E> coll) {
+        this(DEFAULT_CHUNK_SIZE);
+        build(coll.toArray(), coll.size());
+    }
+
+    /**
+     * Constructs a new empty list with the specified node capacities.
+     *
+     * @param chunkSize  the maximum number of elements in a leaf
+     * @param fanOut  the maximum number of children of a branch
+     * @throws IllegalArgumentException if either capacity is less than 4
+     */
+    ChunkedTreeList(final int chunkSize, final int fanOut) {
+        if (chunkSize < 4) {
+            throw new IllegalArgumentException("Chunk size must be at least 4: " + chunkSize);
+        }
+        if (fanOut < 4) {
+            throw new IllegalArgumentException("Fan out must be at least 4: " + fanOut);
+        }
+        this.chunkSize = chunkSize;
+        this.fanOut = fanOut;
+        reset();
+    }
+
+    /**
+     * Replaces the tree with a single empty leaf.
+     */
+    private void reset() {
+        head = new Leaf(chunkSize);
+        tail = head;
+        root = head;
+    }
+
+    /**
+     * Gets the current size of the list.
+     *
+     * @return the current size
+     */
+    @Override
+    public int size() {
+        return root.size;
+    }
+
+    /**
+     * Gets the element at the specified index.
+     *
+     * @param index  the index to retrieve
+     * @return the element at the specified index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    public E get(final int index) {
+        checkInterval(index, 0, size() - 1);
+        Node node = root;
+        int offset = index;
+        while (node instanceof Branch) {
+            final Branch branch = (Branch) node;
+            int i = 0;
+            while (offset >= branch.sizes[i]) {
+                offset -= branch.sizes[i++];
+            }
+            node = branch.children[i];
+        }
+        return element(((Leaf) node).elements[offset]);
+    }
+
+    /**
+     * Sets the element at the specified index.
+     *
+     * @param index  the index to set
+     * @param obj  the object to store at the specified index
+     * @return the previous object at that index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    public E set(final int index, final E obj) {
+        checkInterval(index, 0, size() - 1);
+        Node node = root;
+        int offset = index;
+        while (node instanceof Branch) {
+            final Branch branch = (Branch) node;
+            int i = 0;
+            while (offset >= branch.sizes[i]) {
+                offset -= branch.sizes[i++];
+            }
+            node = branch.children[i];
+        }
+        final Object[] elements = ((Leaf) node).elements;
+        final E result = element(elements[offset]);
+        elements[offset] = obj;
+        return result;
+    }
+
+    /**
+     * Adds a new element to the list.
+     *
+     * @param index  the index to add before
+     * @param obj  the element to add
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    public void add(final int index, final E obj) {
+        checkInterval(index, 0, size());
+        modCount++;
+        final Node sibling = insert(root, index, obj);
+        if (sibling != null) {
+            final Branch branch = new Branch(fanOut);
+            branch.children[0] = root;
+            branch.sizes[0] = root.size;
+            branch.children[1] = sibling;
+            branch.sizes[1] = sibling.size;
+            branch.count = 2;
+            branch.size = root.size + sibling.size;
+            root = branch;
+        }
+    }
+
+    /**
+     * Appends all the elements in the specified collection to the end of this list.
+     * <p>
+     * If the collection is at least as large as this list the tree is rebuilt
+     * bottom-up in O(n + m) time, otherwise the elements are added one by one.
+     * </p>
+     *
+     * @param coll  the collection to be added to this list
+     * @return {@code true} if this list changed as a result of the call
+     * @throws NullPointerException if the collection is null
+     */
+    @Override
+    public boolean addAll(final Collection<? extends E> coll) {
+        return addAll(size(), coll);
+    }
+
+    /**
+     * Inserts all the elements in the specified collection at the given index.
+     * <p>
+     * If the collection is at least as large as this list the tree is rebuilt
+     * bottom-up in O(n + m) time, otherwise the elements are added one by one.
+     * </p>
+     *
+     * @param index  the index to insert the first element at
+     * @param coll  the collection to be added to this list
+     * @return {@code true} if this list changed as a result of the call
+     * @throws IndexOutOfBoundsException if the index is invalid
+     * @throws NullPointerException if the collection is null
+     */
+    @Override
+    public boolean addAll(final int index, final Collection<? extends E> coll) {
+        checkInterval(index, 0, size());
+        final Object[] added = coll.toArray();
+        if (added.length == 0) {
+            return false;
+        }
+        if (added.length < size()) {
+            int i = index;
+            for (final Object obj : added) {
+                add(i++, element(obj));
+            }
+            return true;
+        }
+        modCount++;
+        final int oldSize = size();
+        final Object[] all = new Object[oldSize + added.length];
+        copyTo(all, 0, index, 0);
+        System.arraycopy(added, 0, all, index, added.length);
+        copyTo(all, index, oldSize - index, index + added.length);
+        build(all, all.length);
+        return true;
+    }
+
+    /**
+     * Removes the element at the specified index.
+     *
+     * @param index  the index to remove
+     * @return the previous object at that index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    public E remove(final int index) {
+        checkInterval(index, 0, size() - 1);
+        modCount++;
+        final E result = delete(root, index);
+        if (root instanceof Branch && ((Branch) root).count == 1) {
+            root = ((Branch) root).children[0];
+        }
+        return result;
+    }
+
+    /**
+     * Clears the list, removing all entries.
+     */
+    @Override
+    public void clear() {
+        modCount++;
+        reset();
+    }
+
+    /**
+     * Searches for the index of an object in the list.
+     *
+     * @param object  the object to search
+     * @return the index of the object, -1 if not found
+     */
+    @Override
+    public int indexOf(final Object object) {
+        int base = 0;
+        for (Leaf leaf = head; leaf != null; leaf = leaf.next) {
+            final Object[] elements = leaf.elements;
+            for (int i = 0; i < leaf.size; i++) {
+                if (Objects.equals(object, elements[i])) {
+                    return base + i;
+                }
+            }
+            base += leaf.size;
+        }
+        return -1;
+    }
+
+    /**
+     * Searches for the last index of an object in the list.
+     *
+     * @param object  the object to search
+     * @return the last index of the object, -1 if not found
+     */
+    @Override
+    public int lastIndexOf(final Object object) {
+        int base = size();
+        for (Leaf leaf = tail; leaf != null; leaf = leaf.previous) {
+            base -= leaf.size;
+            final Object[] elements = leaf.elements;
+            for (int i = leaf.size - 1; i >= 0; i--) {
+                if (Objects.equals(object, elements[i])) {
+                    return base + i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Searches for the presence of an object in the list.
+     *
+     * @param object  the object to check
+     * @return true if the object is found
+     */
+    @Override
+    public boolean contains(final Object object) {
+        return indexOf(object) >= 0;
+    }
+
+    /**
+     * Converts the list into an array.
+     *
+     * @return the list as an array
+     */
+    @Override
+    public Object[] toArray() {
+        final Object[] array = new Object[size()];
+        copyTo(array, 0, array.length, 0);
+        return array;
+    }
+
+    /**
+     * Performs the given action for each element, one leaf array at a time.
+     *
+     * @param action  the action to perform
+     * @throws NullPointerException if the action is null
+     */
+    @Override
+    public void forEach(final Consumer<? super E> action) {
+        Objects.requireNonNull(action, "action");
+        final int expectedModCount = modCount;
+        for (Leaf leaf = head; leaf != null; leaf = leaf.next) {
+            final Object[] elements = leaf.elements;
+            for (int i = 0; i < leaf.size; i++) {
+                action.accept(element(elements[i]));
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * Gets an iterator over the list.
+     *
+     * @return an iterator over the list
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return listIterator(0);
+    }
+
+    /**
+     * Gets a ListIterator over the list.
+     *
+     * @return the new iterator
+     */
+    @Override
+    public ListIterator<E> listIterator() {
+        return listIterator(0);
+    }
+
+    /**
+     * Gets a ListIterator over the list.
+     *
+     * @param fromIndex  the index to start from
+     * @return the new iterator
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    public ListIterator<E> listIterator(final int fromIndex) {
+        checkInterval(fromIndex, 0, size());
+        return new ChunkedTreeListIterator<>(this, fromIndex);
+    }
+
+    /**
+     * Casts a stored element.
+     *
+     * @param obj  the stored element
+     * @return the element
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> E element(final Object obj) {
+        return (E) obj;
+    }
+
+    /**
+     * Checks whether the index is valid.
+     *
+     * @param index  the index to check
+     * @param startIndex  the first allowed index
+     * @param endIndex  the last allowed index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    private void checkInterval(final int index, final int startIndex, final int endIndex) {
+        if (index < startIndex || index > endIndex) {
+            throw new IndexOutOfBoundsException("Invalid index:" + index + ", size=" + size());
+        }
+    }
+
+    /**
+     * Finds the leaf holding an index. An index equal to the size is located
+     * just past the last element of the last leaf.
+     *
+     * @param index  the index to find
+     * @param offset  receives the position of the index within the leaf
+     * @return the leaf
+     */
+    Leaf locate(final int index, final int[] offset) {
+        Node node = root;
+        int remaining = index;
+        while (node instanceof Branch) {
+            final Branch branch = (Branch) node;
+            int i = 0;
+            while (i < branch.count - 1 && remaining >= branch.sizes[i]) {
+                remaining -= branch.sizes[i++];
+            }
+            node = branch.children[i];
+        }
+        offset[0] = remaining;
+        return (Leaf) node;
+    }
+
+    /**
+     * Copies a range of the list into an array.
+     *
+     * @param array  the destination
+     * @param from  the first list index to copy
+     * @param length  the number of elements to copy
+     * @param destPos  the first destination index
+     */
+    private void copyTo(final Object[] array, final int from, final int length, final int destPos) {
+        if (length == 0) {
+            return;
+        }
+        final int[] offset = new int[1];
+        Leaf leaf = locate(from, offset);
+        int start = offset[0];
+        int copied = 0;
+        while (copied < length) {
+            if (start == leaf.size) {
+                leaf = leaf.next;
+                start = 0;
+                continue;
+            }
+            final int n = Math.min(leaf.size - start, length - copied);
+            System.arraycopy(leaf.elements, start, array, destPos + copied, n);
+            copied += n;
+            leaf = leaf.next;
+            start = 0;
+        }
+    }
+
+    /**
+     * Replaces the tree with one built bottom-up from an array.
+     * <p>
+     * Elements and children are spread evenly over the nodes of each level,
+     * so every node except a lone root is at least half full.
+     * </p>
+     *
+     * @param array  the elements
+     * @param length  the number of elements to use
+     */
+    private void build(final Object[] array, final int length) {
+        reset();
+        if (length == 0) {
+            return;
+        }
+        final int leafCount = (length + chunkSize - 1) / chunkSize;
+        Node[] level = new Node[leafCount];
+        Leaf previous = null;
+        int pos = 0;
+        for (int i = 0; i < leafCount; i++) {
+            final int n = (length - pos) / (leafCount - i);
+            final Leaf leaf = new Leaf(chunkSize);
+            System.arraycopy(array, pos, leaf.elements, 0, n);
+            leaf.size = n;
+            pos += n;
+            leaf.previous = previous;
+            if (previous == null) {
+                head = leaf;
+            } else {
+                previous.next = leaf;
+            }
+            previous = leaf;
+            level[i] = leaf;
+        }
+        tail = previous;
+        while (level.length > 1) {
+            final int branchCount = (level.length + fanOut - 1) / fanOut;
+            final Node[] parents = new Node[branchCount];
+            pos = 0;
+            for (int i = 0; i < branchCount; i++) {
+                final int n = (level.length - pos) / (branchCount - i);
+                final Branch branch = new Branch(fanOut);
+                for (int j = 0; j < n; j++) {
+                    final Node child = level[pos++];
+                    branch.children[j] = child;
+                    branch.sizes[j] = child.size;
+                    branch.size += child.size;
+                }
+                branch.count = n;
+                parents[i] = branch;
+            }
+            level = parents;
+        }
+        root = level[0];
+    }
+
+    /**
+     * Inserts an element below a node.
+     *
+     * @param node  the node to insert below
+     * @param index  the index relative to the node
+     * @param obj  the element to insert
+     * @return the new right sibling if the node was split, otherwise null
+     */
+    private Node insert(final Node node, final int index, final E obj) {
+        if (node instanceof Leaf) {
+            return insertIntoLeaf((Leaf) node, index, obj);
+        }
+        final Branch branch = (Branch) node;
+        int i = 0;
+        int remaining = index;
+        while (i < branch.count - 1 && remaining > branch.sizes[i]) {
+            remaining -= branch.sizes[i++];
+        }
+        final Node child = branch.children[i];
+        final Node sibling = insert(child, remaining, obj);
+        branch.size++;
+        branch.sizes[i] = child.size;
+        if (sibling == null) {
+            return null;
+        }
+        if (branch.count < fanOut) {
+            insertChild(branch, i + 1, sibling);
+            return null;
+        }
+        // split the full branch in half and place the new child in the correct half
+        final Branch right = new Branch(fanOut);
+        final int half = fanOut / 2;
+        final int moved = branch.count - half;
+        System.arraycopy(branch.children, half, right.children, 0, moved);
+        System.arraycopy(branch.sizes, half, right.sizes, 0, moved);
+        Arrays.fill(branch.children, half, branch.count, null);
+        right.count = moved;
+        branch.count = half;
+        branch.size = sum(branch.sizes, half);
+        right.size = sum(right.sizes, moved);
+        if (i + 1 <= half) {
+            insertChild(branch, i + 1, sibling);
+            branch.size += sibling.size;
+        } else {
+            insertChild(right, i + 1 - half, sibling);
+            right.size += sibling.size;
+        }
+        return right;
+    }
+
+    /**
+     * Inserts a child into a branch that has room, without changing the branch size.
+     *
+     * @param branch  the branch
+     * @param i  the child index
+     * @param child  the child to insert
+     */
+    private static void insertChild(final Branch branch, final int i, final Node child) {
+        System.arraycopy(branch.children, i, branch.children, i + 1, branch.count - i);
+        System.arraycopy(branch.sizes, i, branch.sizes, i + 1, branch.count - i);
+        branch.children[i] = child;
+        branch.sizes[i] = child.size;
+        branch.count++;
+    }
+
+    /**
+     * Sums the first entries of an array.
+     *
+     * @param sizes  the array
+     * @param count  the number of entries
+     * @return the sum
+     */
+    private static int sum(final int[] sizes, final int count) {
+        int total = 0;
+        for (int i = 0; i < count; i++) {
+            total += sizes[i];
+        }
+        return total;
+    }
+
+    /**
+     * Inserts an element into a leaf, splitting it if full.
+     *
+     * @param leaf  the leaf
+     * @param index  the index within the leaf
+     * @param obj  the element to insert
+     * @return the new right sibling if the leaf was split, otherwise null
+     */
+    private Leaf insertIntoLeaf(final Leaf leaf, final int index, final E obj) {
+        if (leaf.size < chunkSize) {
+            System.arraycopy(leaf.elements, index, leaf.elements, index + 1, leaf.size - index);
+            leaf.elements[index] = obj;
+            leaf.size++;
+            return null;
+        }
+        final Leaf right = new Leaf(chunkSize);
+        final int half = chunkSize / 2;
+        final int moved = leaf.size - half;
+        System.arraycopy(leaf.elements, half, right.elements, 0, moved);
+        Arrays.fill(leaf.elements, half, leaf.size, null);
+        right.size = moved;
+        leaf.size = half;
+        right.next = leaf.next;
+        right.previous = leaf;
+        if (leaf.next == null) {
+            tail = right;
+        } else {
+            leaf.next.previous = right;
+        }
+        leaf.next = right;
+        if (index <= half) {
+            insertIntoLeaf(leaf, index, obj);
+        } else {
+            insertIntoLeaf(right, index - half, obj);
+        }
+        return right;
+    }
+
+    /**
+     * Removes an element below a node, rebalancing children that fall below half full.
+     *
+     * @param node  the node to remove below
+     * @param index  the index relative to the node
+     * @return the removed element
+     */
+    private E delete(final Node node, final int index) {
+        if (node instanceof Leaf) {
+            final Leaf leaf = (Leaf) node;
+            final E result = element(leaf.elements[index]);
+            System.arraycopy(leaf.elements, index + 1, leaf.elements, index, leaf.size - index - 1);
+            leaf.elements[--leaf.size] = null;
+            return result;
+        }
+        final Branch branch = (Branch) node;
+        int i = 0;
+        int remaining = index;
+        while (remaining >= branch.sizes[i]) {
+            remaining -= branch.sizes[i++];
+        }
+        final Node child = branch.children[i];
+        final E result = delete(child, remaining);
+        branch.size--;
+        branch.sizes[i] = child.size;
+        if (branch.count > 1 && isUnderflow(child)) {
+            rebalance(branch, i == 0 ? 0 : i - 1);
+        }
+        return result;
+    }
+
+    /**
+     * Tests whether a node is less than half full.
+     *
+     * @param node  the node
+     * @return true if the node should be merged or refilled
+     */
+    private boolean isUnderflow(final Node node) {
+        if (node instanceof Leaf) {
+            return node.size < chunkSize / 2;
+        }
+        return ((Branch) node).count < fanOut / 2;
+    }
+
+    /**
+     * Merges two adjacent children of a branch if they fit in one node,
+     * otherwise spreads their contents evenly.
+     *
+     * @param branch  the parent branch
+     * @param i  the index of the left child of the pair
+     */
+    private void rebalance(final Branch branch, final int i) {
+        final Node left = branch.children[i];
+        final Node right = branch.children[i + 1];
+        if (left instanceof Leaf) {
+            final Leaf a = (Leaf) left;
+            final Leaf b = (Leaf) right;
+            if (a.size + b.size <= chunkSize) {
+                System.arraycopy(b.elements, 0, a.elements, a.size, b.size);
+                a.size += b.size;
+                a.next = b.next;
+                if (b.next == null) {
+                    tail = a;
+                } else {
+                    b.next.previous = a;
+                }
+                removeChild(branch, i + 1);
+            } else {
+                final int total = a.size + b.size;
+                final int target = total / 2;
+                if (a.size < target) {
+                    final int moved = target - a.size;
+                    System.arraycopy(b.elements, 0, a.elements, a.size, moved);
+                    System.arraycopy(b.elements, moved, b.elements, 0, b.size - moved);
+                    Arrays.fill(b.elements, b.size - moved, b.size, null);
+                } else {
+                    final int moved = a.size - target;
+                    System.arraycopy(b.elements, 0, b.elements, moved, b.size);
+                    System.arraycopy(a.elements, target, b.elements, 0, moved);
+                    Arrays.fill(a.elements, target, a.size, null);
+                }
+                a.size = target;
+                b.size = total - target;
+            }
+        } else {
+            final Branch a = (Branch) left;
+            final Branch b = (Branch) right;
+            if (a.count + b.count <= fanOut) {
+                System.arraycopy(b.children, 0, a.children, a.count, b.count);
+                System.arraycopy(b.sizes, 0, a.sizes, a.count, b.count);
+                a.count += b.count;
+                a.size += b.size;
+                removeChild(branch, i + 1);
+            } else {
+                final int total = a.count + b.count;
+                final int target = total / 2;
+                if (a.count < target) {
+                    final int moved = target - a.count;
+                    System.arraycopy(b.children, 0, a.children, a.count, moved);
+                    System.arraycopy(b.sizes, 0, a.sizes, a.count, moved);
+                    System.arraycopy(b.children, moved, b.children, 0, b.count - moved);
+                    System.arraycopy(b.sizes, moved, b.sizes, 0, b.count - moved);
+                    Arrays.fill(b.children, b.count - moved, b.count, null);
+                } else {
+                    final int moved = a.count - target;
+                    System.arraycopy(b.children, 0, b.children, moved, b.count);
+                    System.arraycopy(b.sizes, 0, b.sizes, moved, b.count);
+                    System.arraycopy(a.children, target, b.children, 0, moved);
+                    System.arraycopy(a.sizes, target, b.sizes, 0, moved);
+                    Arrays.fill(a.children, target, a.count, null);
+                }
+                a.count = target;
+                b.count = total - target;
+                a.size = sum(a.sizes, a.count);
+                b.size = sum(b.sizes, b.count);
+            }
+        }
+        branch.sizes[i] = left.size;
+        if (branch.children[i + 1] == right) {
+            branch.sizes[i + 1] = right.size;
+        }
+    }
+
+    /**
+     * Removes a child from a branch without changing the branch size.
+     *
+     * @param branch  the branch
+     * @param i  the child index
+     */
+    private static void removeChild(final Branch branch, final int i) {
+        System.arraycopy(branch.children, i + 1, branch.children, i, branch.count - i - 1);
+        System.arraycopy(branch.sizes, i + 1, branch.sizes, i, branch.count - i - 1);
+        branch.children[--branch.count] = null;
+    }
+
+    /**
+     * A list iterator that walks the leaf arrays in order.
+     */
+    static class ChunkedTreeListIterator<E> implements ListIterator<E>, OrderedIterator<E> {
+        /** The parent list */
+        private final ChunkedTreeList<E> parent;
+        /** The leaf holding the next element, null if it must be located again */
+        private Leaf leaf;
+        /** The position of the next element within the leaf */
+        private int offset;
+        /** The index of the next element to be returned */
+        private int nextIndex;
+        /** The index of the last element returned, -1 if there is none */
+        private int currentIndex;
+        /** The leaf holding the last element returned */
+        private Leaf currentLeaf;
+        /** The position of the last element returned within its leaf */
+        private int currentOffset;
+        /** The modification count that the list is expected to have */
+        private int expectedModCount;
+
+        /**
+         * Create a ListIterator for a list.
+         *
+         * @param parent  the parent list
+         * @param fromIndex  the index to start at
+         */
+        protected ChunkedTreeListIterator(final ChunkedTreeList<E> parent, final int fromIndex) {
+            this.parent = parent;
+            this.expectedModCount = parent.modCount;
+            this.nextIndex = fromIndex;
+            this.currentIndex = -1;
+        }
+
+        /**
+         * Checks the modification count of the list is the value that this
+         * object expects.
+         *
+         * @throws ConcurrentModificationException If the list's modification
+         * count isn't the value that was expected.
+         */
+        protected void checkModCount() {
+            if (parent.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        /**
+         * Locates the leaf for the next index after the tree changed.
+         */
+        private void relocate() {
+            final int[] position = new int[1];
+            leaf = parent.locate(nextIndex, position);
+            offset = position[0];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < parent.size();
+        }
+
+        @Override
+        public E next() {
+            checkModCount();
+            if (!hasNext()) {
+                throw new NoSuchElementException("No element at index " + nextIndex + ".");
+            }
+            if (leaf == null) {
+                relocate();
+            }
+            while (offset == leaf.size) {
+                leaf = leaf.next;
+                offset = 0;
+            }
+            currentLeaf = leaf;
+            currentOffset = offset;
+            currentIndex = nextIndex++;
+            return element(leaf.elements[offset++]);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public E previous() {
+            checkModCount();
+            if (!hasPrevious()) {
+                throw new NoSuchElementException("Already at start of list.");
+            }
+            if (leaf == null) {
+                relocate();
+            }
+            while (offset == 0) {
+                leaf = leaf.previous;
+                offset = leaf.size;
+            }
+            currentLeaf = leaf;
+            currentOffset = --offset;
+            currentIndex = --nextIndex;
+            return element(leaf.elements[offset]);
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            checkModCount();
+            if (currentIndex == -1) {
+                throw new IllegalStateException();
+            }
+            parent.remove(currentIndex);
+            if (nextIndex != currentIndex) {
+                // remove() following next()
+                nextIndex--;
+            }
+            leaf = null;
+            currentLeaf = null;
+            currentIndex = -1;
+            expectedModCount = parent.modCount;
+        }
+
+        @Override
+        public void set(final E obj) {
+            checkModCount();
+            if (currentIndex == -1) {
+                throw new IllegalStateException();
+            }
+            currentLeaf.elements[currentOffset] = obj;
+        }
+
+        @Override
+        public void add(final E obj) {
+            checkModCount();
+            parent.add(nextIndex++, obj);
+            leaf = null;
+            currentLeaf = null;
+            currentIndex = -1;
+            expectedModCount = parent.modCount;
+        }
+    }
+
+}
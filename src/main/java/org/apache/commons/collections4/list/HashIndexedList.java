@@ -0,0 +1,597 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.list;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.apache.commons.collections4.CollectionUtils;
+
+/**
+ * A {@code List} implementation with a hash index from element to position.
+ * <p>
+ * Every element is held in a cell that occupies a slot of an array in list
+ * order. A hash map finds the first cell holding an element, and the cells
+ * holding equal elements are chained in list order. A Fenwick tree (binary
+ * indexed tree) counts the occupied slots, so the position of a cell is a
+ * prefix count and the cell at a position is found by a descent of the tree.
+ * </p>
+ * <ul>
+ * <li>{@code contains} is O(1).</li>
+ * <li>{@code indexOf} and {@code lastIndexOf} are O(1) while no element
+ * before the match has been removed, O(log n) otherwise.</li>
+ * <li>{@code get} and {@code set} follow the same rule for the position.</li>
+ * <li>{@code remove}, by index or by element, is O(log n): the slot is
+ * emptied rather than the tail shifted. Empty slots are compacted once they
+ * outnumber the elements, so the cost is amortized.</li>
+ * <li>{@code add} at the end is amortized O(1). Adding anywhere else
+ * renumbers the slots and is O(n), as for {@code ArrayList}.</li>
+ * <li>{@code removeIf}, {@code removeAll} and {@code retainAll} are a single
+ * pass.</li>
+ * </ul>
+ * <p>
+ * This list is meant as the list decorated by {@link SetUniqueList} and
+ * {@link org.apache.commons.collections4.set.ListOrderedSet}, whose
+ * {@code remove(Object)} and {@code indexOf} otherwise scan and shift an
+ * {@code ArrayList}, for example
+ * {@code SetUniqueList.setUniqueList(new HashIndexedList<>())}. It permits
+ * duplicates and null like any other list. Elements must not be modified in a
+ * way that changes their hash code while they are in the list.
+ * </p>
+ * <p>
+ * <strong>Note that HashIndexedList is not synchronized and is not thread-safe.</strong>
+ * </p>
+ *
+ * @param <E> the type of the elements in the list.
+ * @since 4.5
+ */
+public class HashIndexedList<E> extends AbstractList<E> implements Serializable {
+
+    /**
+     * An element of the list in its slot.
+     *
+     * @param <E> the type of the element
+     */
+    private static final class Cell<E> {
+        /** The element */
+        E element;
+        /** The slot of the cell */
+        int slot;
+        /** The next cell holding an equal element, null at the tail of the chain */
+        Cell<E> nextSame;
+        /** The previous cell holding an equal element, the tail of the chain for the head */
+        Cell<E> previousSame;
+
+        Cell(final E element) {
+            this.element = element;
+        }
+    }
+
+    /**
+     * Iterator over the occupied slots.
+     */
+    private final class SlotIterator implements Iterator<E> {
+        /** The slot to look at next */
+        private int slot;
+        /** The cell last returned */
+        private Cell<E> last;
+        /** The modification count expected */
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            while (slot < nextSlot && slots[slot] == null) {
+                slot++;
+            }
+            return slot < nextSlot;
+        }
+
+        @Override
+        public E next() {
+            checkModCount();
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = slots[slot++];
+            return last.element;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            checkModCount();
+            // removal only empties the slot, so the iteration stays in place
+            removeCell(last, false);
+            last = null;
+            expectedModCount = modCount;
+        }
+
+        private void checkModCount() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /** Serialization version */
+    private static final long serialVersionUID = 2915427012815837456L;
+
+    /** The initial number of slots */
+    private static final int INITIAL_SLOTS = 16;
+
+    /** The cells by slot, null for removed elements */
+    private transient Cell<E>[] slots;
+
+    /** The Fenwick tree over the occupied slots, one based */
+    private transient int[] tree;
+
+    /** The next free slot */
+    private transient int nextSlot;
+
+    /** The lowest empty slot below nextSlot, or nextSlot if there is none */
+    private transient int firstHole;
+
+    /** The number of elements */
+    private transient int size;
+
+    /** The first cell holding each element */
+    private transient Map<Object, Cell<E>> index;
+
+    /**
+     * Constructs a new empty list.
+     */
+    public HashIndexedList() {
+        this(INITIAL_SLOTS);
+    }
+
+    /**
+     * Constructs a new empty list with the specified initial capacity.
+     *
+     * @param initialCapacity  the initial capacity
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public HashIndexedList(final int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Initial capacity must not be negative: " + initialCapacity);
+        }
+        init(Math.max(initialCapacity, 1));
+    }
+
+    /**
+     * Constructs a new list that copies the specified collection.
+     *
+     * @param coll  the collection to copy
+     * @throws NullPointerException if the collection is null
+     */
+    public HashIndexedList(final Collection<? extends E> coll) {
+        this(coll.size());
+        addAll(coll);
+    }
+
+    @Override
+    public boolean add(final E element) {
+        if (nextSlot == slots.length) {
+            reslot(-1, null);
+        }
+        final Cell<E> cell = new Cell<>(element);
+        cell.slot = nextSlot;
+        slots[nextSlot] = cell;
+        update(nextSlot, 1);
+        if (firstHole == nextSlot) {
+            firstHole++;
+        }
+        nextSlot++;
+        size++;
+        link(cell);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(final int index, final E element) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (index == size) {
+            add(element);
+            return;
+        }
+        final Cell<E> cell = new Cell<>(element);
+        reslot(index, cell);
+        size++;
+        link(cell);
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(slots, 0, nextSlot, null);
+        Arrays.fill(tree, 0);
+        nextSlot = 0;
+        firstHole = 0;
+        size = 0;
+        index.clear();
+        modCount++;
+    }
+
+    @Override
+    public boolean contains(final Object object) {
+        return index.containsKey(object);
+    }
+
+    @Override
+    public void forEach(final Consumer<? super E> action) {
+        Objects.requireNonNull(action, "action");
+        final int expectedModCount = modCount;
+        for (int i = 0; i < nextSlot; i++) {
+            final Cell<E> cell = slots[i];
+            if (cell != null) {
+                action.accept(cell.element);
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public E get(final int index) {
+        return cellAt(index).element;
+    }
+
+    @Override
+    public int indexOf(final Object object) {
+        final Cell<E> head = index.get(object);
+        return head == null ? CollectionUtils.INDEX_NOT_FOUND : position(head);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new SlotIterator();
+    }
+
+    @Override
+    public int lastIndexOf(final Object object) {
+        final Cell<E> head = index.get(object);
+        return head == null ? CollectionUtils.INDEX_NOT_FOUND : position(head.previousSame);
+    }
+
+    @Override
+    public E remove(final int index) {
+        final Cell<E> cell = cellAt(index);
+        removeCell(cell, true);
+        return cell.element;
+    }
+
+    @Override
+    public boolean remove(final Object object) {
+        final Cell<E> head = index.get(object);
+        if (head == null) {
+            return false;
+        }
+        removeCell(head, true);
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(final Collection<?> coll) {
+        Objects.requireNonNull(coll, "coll");
+        return removeIf(coll::contains);
+    }
+
+    @Override
+    public boolean removeIf(final Predicate<? super E> filter) {
+        Objects.requireNonNull(filter, "filter");
+        boolean changed = false;
+        for (int i = 0; i < nextSlot; i++) {
+            final Cell<E> cell = slots[i];
+            if (cell != null && filter.test(cell.element)) {
+                removeCell(cell, false);
+                changed = true;
+            }
+        }
+        compactIfSparse();
+        return changed;
+    }
+
+    @Override
+    public boolean retainAll(final Collection<?> coll) {
+        Objects.requireNonNull(coll, "coll");
+        return removeIf(element -> !coll.contains(element));
+    }
+
+    @Override
+    public E set(final int index, final E element) {
+        final Cell<E> cell = cellAt(index);
+        final E old = cell.element;
+        if (Objects.equals(old, element)) {
+            cell.element = element;
+        } else {
+            unlink(cell);
+            cell.element = element;
+            link(cell);
+        }
+        return old;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the cell at a position, directly while no slot before it is empty,
+     * otherwise by descending the Fenwick tree.
+     *
+     * @param index  the position
+     * @return the cell
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    private Cell<E> cellAt(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        if (index < firstHole) {
+            return slots[index];
+        }
+        // find the largest position whose prefix count is at most index
+        int position = 0;
+        int remaining = index;
+        for (int step = Integer.highestOneBit(slots.length); step > 0; step >>>= 1) {
+            final int next = position + step;
+            if (next <= slots.length && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        // the following slot is the occupied one holding the element
+        return slots[position];
+    }
+
+    /**
+     * Gets the position of a cell, which is its slot while no slot before it
+     * is empty, otherwise a prefix count of the Fenwick tree.
+     *
+     * @param cell  the cell
+     * @return its position in the list
+     */
+    private int position(final Cell<E> cell) {
+        if (cell.slot < firstHole) {
+            return cell.slot;
+        }
+        int count = 0;
+        for (int i = cell.slot; i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    /**
+     * Removes a cell from its slot and from the index.
+     *
+     * @param cell  the cell to remove
+     * @param compact  whether to compact the slots if they have become sparse
+     */
+    private void removeCell(final Cell<E> cell, final boolean compact) {
+        slots[cell.slot] = null;
+        update(cell.slot, -1);
+        firstHole = Math.min(firstHole, cell.slot);
+        size--;
+        unlink(cell);
+        modCount++;
+        if (compact) {
+            compactIfSparse();
+        }
+    }
+
+    /**
+     * Compacts the slots once the empty ones outnumber the elements.
+     */
+    private void compactIfSparse() {
+        if (nextSlot - size > size && nextSlot > INITIAL_SLOTS) {
+            reslot(-1, null);
+        }
+    }
+
+    /**
+     * Adds a cell to the chain of cells holding an equal element, keeping the
+     * chain in slot order.
+     *
+     * @param cell  the cell to add
+     */
+    private void link(final Cell<E> cell) {
+        final Cell<E> head = index.get(cell.element);
+        if (head == null) {
+            cell.nextSame = null;
+            cell.previousSame = cell;
+            index.put(cell.element, cell);
+            return;
+        }
+        final Cell<E> tail = head.previousSame;
+        if (cell.slot < head.slot) {
+            cell.nextSame = head;
+            cell.previousSame = tail;
+            head.previousSame = cell;
+            index.put(cell.element, cell);
+            return;
+        }
+        Cell<E> previous = tail;
+        if (cell.slot < tail.slot) {
+            previous = head;
+            while (previous.nextSame.slot < cell.slot) {
+                previous = previous.nextSame;
+            }
+        }
+        cell.nextSame = previous.nextSame;
+        cell.previousSame = previous;
+        if (previous.nextSame == null) {
+            head.previousSame = cell;
+        } else {
+            previous.nextSame.previousSame = cell;
+        }
+        previous.nextSame = cell;
+    }
+
+    /**
+     * Removes a cell from the chain of cells holding an equal element.
+     *
+     * @param cell  the cell to remove
+     */
+    private void unlink(final Cell<E> cell) {
+        final Cell<E> next = cell.nextSame;
+        final Cell<E> head = index.get(cell.element);
+        if (cell == head) {
+            if (next == null) {
+                index.remove(cell.element);
+            } else {
+                next.previousSame = cell.previousSame;
+                index.put(next.element, next);
+            }
+        } else {
+            final Cell<E> previous = cell.previousSame;
+            previous.nextSame = next;
+            if (next == null) {
+                head.previousSame = previous;
+            } else {
+                next.previousSame = previous;
+            }
+        }
+        cell.nextSame = null;
+        cell.previousSame = null;
+    }
+
+    /**
+     * Adds a delta to the count of a slot.
+     *
+     * @param slot  the slot, zero based
+     * @param delta  the change in its count
+     */
+    private void update(final int slot, final int delta) {
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Renumbers the cells into the first slots, growing the slots if more than
+     * half of them would be occupied, and rebuilds the tree in linear time.
+     * The relative order of the cells is unchanged, so the chains stay sorted.
+     *
+     * @param insertAt  the position to insert a cell at, or -1 for none
+     * @param inserted  the cell to insert, or null for none
+     */
+    @SuppressWarnings("unchecked")
+    private void reslot(final int insertAt, final Cell<E> inserted) {
+        final int count = inserted == null ? size : size + 1;
+        int capacity = Math.max(slots.length, INITIAL_SLOTS);
+        while (count > capacity / 2) {
+            capacity *= 2;
+        }
+        final Cell<E>[] newSlots = new Cell[capacity];
+        int slot = 0;
+        for (int i = 0; i < nextSlot; i++) {
+            if (slot == insertAt) {
+                inserted.slot = slot;
+                newSlots[slot++] = inserted;
+            }
+            final Cell<E> cell = slots[i];
+            if (cell != null) {
+                cell.slot = slot;
+                newSlots[slot++] = cell;
+            }
+        }
+        if (slot == insertAt) {
+            inserted.slot = slot;
+            newSlots[slot++] = inserted;
+        }
+        final int[] newTree = new int[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            if (i <= slot) {
+                newTree[i]++;
+            }
+            final int parent = i + (i & -i);
+            if (parent <= capacity) {
+                newTree[parent] += newTree[i];
+            }
+        }
+        slots = newSlots;
+        tree = newTree;
+        nextSlot = slot;
+        firstHole = slot;
+    }
+
+    /**
+     * Sets up empty storage.
+     *
+     * @param capacity  the number of slots
+     */
+    @SuppressWarnings("unchecked")
+    private void init(final int capacity) {
+        slots = new Cell[capacity];
+        tree = new int[capacity + 1];
+        nextSlot = 0;
+        firstHole = 0;
+        size = 0;
+        index = new HashMap<>();
+    }
+
+    /**
+     * Writes the list out using a custom routine.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (final E element : this) {
+            out.writeObject(element);
+        }
+    }
+
+    /**
+     * Reads the list in using a custom routine.
+     *
+     * @param in  the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream cannot be loaded
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int count = in.readInt();
+        init(Math.max(count, 1));
+        for (int i = 0; i < count; i++) {
+            add((E) in.readObject());
+        }
+    }
+}
@@ -48,6 +48,11 @@ import org.apache.commons.collections4.set.UnmodifiableSet;
  * retaining insertion order in the iterator.
  * </p>
  * <p>
+ * {@code remove(Object)}, {@code indexOf} and {@code set} cost as much as on
+ * the decorated list, which is linear for an {@code ArrayList}. Decorate a
+ * {@link HashIndexedList} to make them sublinear.
+ * </p>
+ * <p>
  * This class is Serializable from Commons Collections 3.1.
  * </p>
  *
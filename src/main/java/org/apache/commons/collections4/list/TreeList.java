@@ -58,6 +58,12 @@ import org.apache.commons.collections4.OrderedIterator;
  * {@code TreeList} is almost always a good replacement for it, although it
  * does use slightly more memory.
  * </p>
+ * <p>
+ * Ranges of elements can be cut and pasted without copying: {@link #splitAt(int)}
+ * and {@link #concat(TreeList)} cut and join the trees in O(log n) time, and
+ * {@link #addAll(int, Collection)} builds the inserted elements into a tree
+ * in linear time before joining it in.
+ * </p>
  *
  * @since 3.1
  */
@@ -232,6 +238,98 @@ public class TreeList<E> extends AbstractList<E> {
         return true;
     }
 
+    /**
+     * Inserts all the elements in the specified collection at the specified index,
+     * in the order that they are returned by the specified collection's Iterator.
+     * <p>
+     * The elements are built into a balanced tree which is then joined with
+     * the two halves of this list, so this method runs in O(n + log m) time,
+     * where m is the size of this list and n is the size of {@code c}.
+     *
+     * @param index  the index to insert the first element at
+     * @param c  the collection to be added to this list
+     * @return {@code true} if this list changed as a result of the call
+     * @throws IndexOutOfBoundsException if the index is invalid
+     * @throws NullPointerException if the collection is null
+     */
+    @Override
+    public boolean addAll(final int index, final Collection<? extends E> c) {
+        checkInterval(index, 0, size());
+        if (index == size) {
+            return addAll(c);
+        }
+        if (c.isEmpty()) {
+            return false;
+        }
+        modCount += c.size();
+        final AVLNode<E> cTree = new AVLNode<>(c);
+        if (index == 0) {
+            root = cTree.addAll(root, c.size());
+        } else {
+            final AVLNode<E>[] parts = AVLNode.split(root, size, index);
+            root = parts[0].addAll(cTree, index).addAll(parts[1], index + c.size());
+        }
+        size += c.size();
+        return true;
+    }
+
+    /**
+     * Splits this list in two at the specified index.
+     * <p>
+     * This list keeps the elements before the index, and the elements from the
+     * index onwards are moved to the returned list. No elements are copied:
+     * the tree is cut along the path to the index in O(log n) time.
+     *
+     * @param index  the index of the first element to move to the new list
+     * @return a new list holding the elements from the index to the end
+     * @throws IndexOutOfBoundsException if the index is invalid
+     * @since 4.5
+     */
+    public TreeList<E> splitAt(final int index) {
+        checkInterval(index, 0, size());
+        final TreeList<E> tail = new TreeList<>();
+        if (index == size) {
+            return tail;
+        }
+        modCount++;
+        if (index == 0) {
+            tail.root = root;
+            root = null;
+        } else {
+            final AVLNode<E>[] parts = AVLNode.split(root, size, index);
+            root = parts[0];
+            tail.root = parts[1];
+        }
+        tail.size = size - index;
+        size = index;
+        return tail;
+    }
+
+    /**
+     * Appends all the elements of another list to the end of this list, leaving
+     * the other list empty.
+     * <p>
+     * No elements are copied: the two trees are joined in O(log(m + n)) time.
+     *
+     * @param other  the list whose elements are moved to this list
+     * @throws NullPointerException if the other list is null
+     * @throws IllegalArgumentException if the other list is this list
+     * @since 4.5
+     */
+    public void concat(final TreeList<E> other) {
+        Objects.requireNonNull(other, "other");
+        if (other == this) {
+            throw new IllegalArgumentException("Cannot concatenate a list to itself");
+        }
+        if (other.isEmpty()) {
+            return;
+        }
+        modCount += other.size;
+        root = root == null ? other.root : root.addAll(other.root, size);
+        size += other.size;
+        other.clear();
+    }
+
     /**
      * Sets the element at the specified index.
      *
@@ -899,6 +997,155 @@ public class TreeList<E> extends AbstractList<E> {
             return s;
         }
 
+        /**
+         * Returns the height of the node or -1 if the node is null.
+         */
+        private static int heightOf(final AVLNode<?> node) {
+            return node == null ? -1 : node.height;
+        }
+
+        /**
+         * Detaches the left subtree of a root node, making its position absolute.
+         *
+         * @return the left subtree, or null
+         */
+        private AVLNode<E> detachLeft() {
+            final AVLNode<E> subTree = getLeftSubTree();
+            if (subTree != null) {
+                subTree.relativePosition += relativePosition;
+            }
+            return subTree;
+        }
+
+        /**
+         * Detaches the right subtree of a root node, making its position absolute.
+         *
+         * @return the right subtree, or null
+         */
+        private AVLNode<E> detachRight() {
+            final AVLNode<E> subTree = getRightSubTree();
+            if (subTree != null) {
+                subTree.relativePosition--;
+            }
+            return subTree;
+        }
+
+        /**
+         * Splits a tree into the elements before an index and the elements from
+         * the index onwards. This operation is destructive and runs in O(log n) time.
+         *
+         * @param tree  the root of the tree, its position must be absolute
+         * @param treeSize  the number of elements in the tree
+         * @param index  the index of the first element of the second tree,
+         *          greater than 0 and less than {@code treeSize}
+         * @return the roots of the two trees
+         */
+        static <E> AVLNode<E>[] split(final AVLNode<E> tree, final int treeSize, final int index) {
+            @SuppressWarnings("unchecked")
+            final AVLNode<E>[] parts = new AVLNode[2];
+            splitTree(tree, treeSize, index, parts);
+            // the elements either side of the cut no longer follow each other
+            parts[0].max().setRight(null, null);
+            parts[1].min().setLeft(null, null);
+            return parts;
+        }
+
+        /**
+         * Recursive helper for {@link #split(AVLNode, int, int)}.
+         *
+         * @param tree  the root of the tree, its position must be absolute
+         * @param treeSize  the number of elements in the tree
+         * @param index  the index of the first element of the second tree
+         * @param parts  receives the roots of the two trees
+         */
+        private static <E> void splitTree(final AVLNode<E> tree, final int treeSize, final int index,
+                                          final AVLNode<E>[] parts) {
+            if (tree == null) {
+                parts[0] = null;
+                parts[1] = null;
+                return;
+            }
+            final int leftSize = tree.relativePosition;
+            final int rightSize = treeSize - leftSize - 1;
+            final AVLNode<E> leftSubTree = tree.detachLeft();
+            final AVLNode<E> rightSubTree = tree.detachRight();
+            if (index <= leftSize) {
+                splitTree(leftSubTree, leftSize, index, parts);
+                parts[1] = join(parts[1], leftSize - index, tree, rightSubTree, rightSize);
+            } else {
+                splitTree(rightSubTree, rightSize, index - leftSize - 1, parts);
+                parts[0] = join(leftSubTree, leftSize, tree, parts[0], index - leftSize - 1);
+            }
+        }
+
+        /**
+         * Joins two trees with a node placed between them.
+         * This operation is destructive and runs in O(|height difference| + 1) time.
+         *
+         * @param left  the root of the left tree, its position must be absolute, may be null
+         * @param leftSize  the number of elements in the left tree
+         * @param node  the node to place between the trees
+         * @param right  the root of the right tree, its position must be absolute, may be null
+         * @param rightSize  the number of elements in the right tree
+         * @return the root of the joined tree, with an absolute position
+         */
+        private static <E> AVLNode<E> join(final AVLNode<E> left, final int leftSize, final AVLNode<E> node,
+                                           final AVLNode<E> right, final int rightSize) {
+            return join(left, leftSize, node, right, rightSize,
+                        left == null ? null : left.max(), right == null ? null : right.min());
+        }
+
+        /**
+         * Recursive helper for {@link #join(AVLNode, int, AVLNode, AVLNode, int)}
+         * that descends the spine of the taller tree.
+         *
+         * @param left  the root of the left tree, its position must be absolute, may be null
+         * @param leftSize  the number of elements in the left tree
+         * @param node  the node to place between the trees
+         * @param right  the root of the right tree, its position must be absolute, may be null
+         * @param rightSize  the number of elements in the right tree
+         * @param previous  the last node of the whole left tree, or null
+         * @param next  the first node of the whole right tree, or null
+         * @return the root of the joined tree, with an absolute position
+         */
+        private static <E> AVLNode<E> join(final AVLNode<E> left, final int leftSize, final AVLNode<E> node,
+                                           final AVLNode<E> right, final int rightSize,
+                                           final AVLNode<E> previous, final AVLNode<E> next) {
+            if (heightOf(left) > heightOf(right) + 1) {
+                final int leftLeftSize = left.relativePosition;
+                final AVLNode<E> joined = join(left.detachRight(), leftSize - leftLeftSize - 1, node,
+                                               right, rightSize, previous, next);
+                joined.relativePosition++;
+                left.setRight(joined, null);
+                return left.balance();
+            }
+            if (heightOf(right) > heightOf(left) + 1) {
+                final int rightLeftSize = right.relativePosition;
+                final AVLNode<E> joined = join(left, leftSize, node,
+                                               right.detachLeft(), rightLeftSize, previous, next);
+                right.relativePosition = rightLeftSize + leftSize + 1;
+                joined.relativePosition -= right.relativePosition;
+                right.setLeft(joined, null);
+                return right.balance();
+            }
+            if (previous != null) {
+                previous.setRight(null, node);
+            }
+            if (next != null) {
+                next.setLeft(null, node);
+            }
+            node.setLeft(left, previous);
+            node.setRight(right, next);
+            if (left != null) {
+                left.relativePosition -= leftSize;
+            }
+            if (right != null) {
+                right.relativePosition++;
+            }
+            node.relativePosition = leftSize;
+            return node;
+        }
+
 //      private void checkFaedelung() {
 //          AVLNode maxNode = left.max();
 //          if (!maxNode.rightIsFaedelung || maxNode.right != this) {
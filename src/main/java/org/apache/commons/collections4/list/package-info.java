@@ -20,6 +20,7 @@
  * The following implementations are provided in the package:
  * <ul>
  *   <li>TreeList - a list that is optimised for insertions and removals at any index in the list</li>
+ *   <li>ChunkedTreeList - a tree of small arrays, optimised like TreeList but with compact storage and fast iteration</li>
  *   <li>CursorableLinkedList - a list that can be modified while the listIterator (cursor) is being used</li>
  *   <li>NodeCachingLinkedList - a linked list that caches the storage nodes for a performance gain</li>
  * </ul>
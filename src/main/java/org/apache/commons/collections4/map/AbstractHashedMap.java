@@ -28,7 +28,13 @@ import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.collections4.IterableMap;
@@ -77,6 +83,8 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     protected static final int MAXIMUM_CAPACITY = 1 << 30;
     /** An object for masking null */
     protected static final Object NULL = new Object();
+    /** The minimum number of entries per stripe of a parallel bulk operation */
+    private static final int BULK_STRIPE_MIN_ENTRIES = 1 << 12;
 
     /** Load factor, normally 0.75 */
     transient float loadFactor;
@@ -290,15 +298,316 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
     /**
      * Puts all the values from the specified map into this map.
      * <p>
-     * This implementation iterates around the specified map and
-     * uses {@link #put(Object, Object)}.
+     * If {@link #isBulkBuildSupported()} returns true, this implementation sizes
+     * the table once and then links the new entries straight into their chains,
+     * without the per-entry capacity check of {@link #put(Object, Object)}.
+     * Otherwise it iterates around the specified map and uses {@code put}.
      *
      * @param map  the map to add
      * @throws NullPointerException if the map is null
      */
     @Override
     public void putAll(final Map<? extends K, ? extends V> map) {
-        _putAll(map);
+        if (isBulkBuildSupported()) {
+            bulkPut(map, null, null);
+        } else {
+            _putAll(map);
+        }
+    }
+
+    /**
+     * Puts all the values from the specified map into this map, using a
+     * fork-join pool to build the hash chains in parallel.
+     * <p>
+     * The keys are hashed in parallel, then partitioned by bucket range so that
+     * each task links entries into its own part of the table. Entries for equal
+     * keys are applied in the iteration order of the specified map, so the
+     * result is the same as for {@link #putAll(Map)}. The specified map is
+     * iterated once, from the calling thread.
+     * <p>
+     * If {@link #isBulkBuildSupported()} returns false, or the map is small, this
+     * behaves like {@link #putAll(Map)}. This map must not be accessed by other
+     * threads during the call.
+     *
+     * @param map  the map to add
+     * @param pool  the pool to run the build on
+     * @throws NullPointerException if the map or pool is null
+     * @since 4.5
+     */
+    public void putAll(final Map<? extends K, ? extends V> map, final ForkJoinPool pool) {
+        Objects.requireNonNull(pool, "pool");
+        if (isBulkBuildSupported()) {
+            bulkPut(map, null, pool);
+        } else {
+            _putAll(map);
+        }
+    }
+
+    /**
+     * Merges all the mappings of the specified map into this map.
+     * <p>
+     * For each mapping, if the key is absent or mapped to null, the value is put
+     * as is, otherwise the remapping function combines the old and the new value.
+     * If the function returns null the mapping is removed. This is the same as
+     * calling {@link Map#merge(Object, Object, BiFunction)} for every mapping,
+     * but in a single bulk pass when {@link #isBulkBuildSupported()} returns true.
+     *
+     * @param map  the map to merge
+     * @param remappingFunction  the function to combine an existing value with a new one
+     * @throws NullPointerException if the map or function is null, or the map contains a null value
+     * @since 4.5
+     */
+    public void merge(final Map<? extends K, ? extends V> map,
+                      final BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction, "remappingFunction");
+        if (isBulkBuildSupported()) {
+            bulkPut(map, remappingFunction, null);
+        } else {
+            for (final Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+                merge(entry.getKey(), entry.getValue(), remappingFunction);
+            }
+        }
+    }
+
+    /**
+     * Merges all the mappings of the specified map into this map, using a
+     * fork-join pool as in {@link #putAll(Map, ForkJoinPool)}.
+     * <p>
+     * The remapping function may be called concurrently from several threads,
+     * though never concurrently for the same key.
+     *
+     * @param map  the map to merge
+     * @param remappingFunction  the function to combine an existing value with a new one
+     * @param pool  the pool to run the merge on
+     * @throws NullPointerException if the map, function or pool is null, or the map contains a null value
+     * @see #merge(Map, BiFunction)
+     * @since 4.5
+     */
+    public void merge(final Map<? extends K, ? extends V> map,
+                      final BiFunction<? super V, ? super V, ? extends V> remappingFunction,
+                      final ForkJoinPool pool) {
+        Objects.requireNonNull(remappingFunction, "remappingFunction");
+        Objects.requireNonNull(pool, "pool");
+        if (isBulkBuildSupported()) {
+            bulkPut(map, remappingFunction, pool);
+        } else {
+            merge(map, remappingFunction);
+        }
+    }
+
+    /**
+     * Checks whether bulk operations may link entries directly into the table.
+     * <p>
+     * Bulk operations compute hashes and entries with {@link #convertKey(Object)},
+     * {@link #hash(Object)}, {@link #hashIndex(int, int)}, {@link #isEqualKey(Object, Object)}
+     * and {@link #createEntry(HashEntry, int, Object, Object)}, possibly from several
+     * threads, and then use {@link #addEntry(HashEntry, int)}, {@link #updateEntry(HashEntry, Object)}
+     * and {@link #removeEntry(HashEntry, int, HashEntry)} on disjoint buckets.
+     * They bypass {@link #addMapping(int, int, Object, Object)} and {@link #removeMapping}.
+     * <p>
+     * This implementation returns false, so the bulk operations use the per-entry
+     * methods, including any overridden {@link #put(Object, Object)}. Subclasses may
+     * return true when none of their overrides keep state beyond the bucket they
+     * are called for or change what a put stores.
+     *
+     * @return true if bulk operations may bypass the per-entry hooks
+     * @since 4.5
+     */
+    protected boolean isBulkBuildSupported() {
+        return false;
+    }
+
+    /**
+     * Puts or merges a map in bulk.
+     *
+     * @param map  the map to add
+     * @param remappingFunction  the function to merge values, null to put
+     * @param pool  the pool to use, null to run in the calling thread
+     */
+    private void bulkPut(final Map<? extends K, ? extends V> map,
+                         final BiFunction<? super V, ? super V, ? extends V> remappingFunction,
+                         final ForkJoinPool pool) {
+        final int mapSize = map.size();
+        if (mapSize == 0) {
+            return;
+        }
+        // copy the input first, the map may be this map or change while being iterated
+        Object[] keyBuffer = new Object[mapSize];
+        Object[] valueBuffer = new Object[mapSize];
+        int count = 0;
+        for (final Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            if (count == keyBuffer.length) {
+                keyBuffer = Arrays.copyOf(keyBuffer, count * 2);
+                valueBuffer = Arrays.copyOf(valueBuffer, count * 2);
+            }
+            keyBuffer[count] = entry.getKey();
+            valueBuffer[count] = entry.getValue();
+            if (remappingFunction != null && valueBuffer[count] == null) {
+                throw new NullPointerException("value");
+            }
+            count++;
+        }
+        final Object[] keys = keyBuffer;
+        final Object[] values = valueBuffer;
+        final int newSize = (int) Math.min(Integer.MAX_VALUE, (size + (long) count) / loadFactor + 1);
+        ensureCapacity(calculateNewCapacity(newSize));
+        modCount++;
+
+        final int n = count;
+        final Object[] convertedKeys = new Object[n];
+        final int[] hashCodes = new int[n];
+        final int stripes = pool == null ? 1
+                : Math.min(Math.min(pool.getParallelism() * 4, data.length), n / BULK_STRIPE_MIN_ENTRIES);
+        if (stripes <= 1) {
+            for (int i = 0; i < n; i++) {
+                convertedKeys[i] = convertKey(keys[i]);
+                hashCodes[i] = hash(convertedKeys[i]);
+            }
+            final int[] sizeChange = new int[1];
+            try {
+                bulkPutRange(keys, values, convertedKeys, hashCodes, null, 0, n, remappingFunction, sizeChange, 0);
+            } finally {
+                size += sizeChange[0];
+            }
+            return;
+        }
+
+        // hash in chunks, counting how many entries of each chunk fall in each stripe of buckets
+        final int tableLength = data.length;
+        final int chunkLength = (n + stripes - 1) / stripes;
+        final int[][] counts = new int[stripes][stripes];
+        pool.invoke(new RangeTask(0, stripes, chunk -> {
+            final int[] chunkCounts = counts[chunk];
+            for (int i = chunk * chunkLength, end = Math.min(n, i + chunkLength); i < end; i++) {
+                convertedKeys[i] = convertKey(keys[i]);
+                hashCodes[i] = hash(convertedKeys[i]);
+                chunkCounts[stripeOf(hashCodes[i], tableLength, stripes)]++;
+            }
+        }));
+        // turn the counts into the first output position of each chunk and stripe
+        final int[] stripeStarts = new int[stripes + 1];
+        int position = 0;
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            stripeStarts[stripe] = position;
+            for (int chunk = 0; chunk < stripes; chunk++) {
+                final int chunkCount = counts[chunk][stripe];
+                counts[chunk][stripe] = position;
+                position += chunkCount;
+            }
+        }
+        stripeStarts[stripes] = n;
+        // scatter the entry indices by stripe, keeping their order within each stripe
+        final int[] order = new int[n];
+        pool.invoke(new RangeTask(0, stripes, chunk -> {
+            final int[] next = counts[chunk];
+            for (int i = chunk * chunkLength, end = Math.min(n, i + chunkLength); i < end; i++) {
+                order[next[stripeOf(hashCodes[i], tableLength, stripes)]++] = i;
+            }
+        }));
+        // link each stripe, the stripes own disjoint buckets
+        final int[] sizeChanges = new int[stripes];
+        try {
+            pool.invoke(new RangeTask(0, stripes, stripe -> bulkPutRange(keys, values, convertedKeys, hashCodes,
+                    order, stripeStarts[stripe], stripeStarts[stripe + 1], remappingFunction, sizeChanges, stripe)));
+        } finally {
+            for (final int sizeChange : sizeChanges) {
+                size += sizeChange;
+            }
+        }
+    }
+
+    /**
+     * Gets the stripe of buckets a hash code belongs to in a bulk operation.
+     *
+     * @param hashCode  the hash code
+     * @param tableLength  the length of the table
+     * @param stripes  the number of stripes
+     * @return the stripe
+     */
+    private int stripeOf(final int hashCode, final int tableLength, final int stripes) {
+        return (int) ((long) hashIndex(hashCode, tableLength) * stripes / tableLength);
+    }
+
+    /**
+     * Puts or merges a range of prepared entries.
+     *
+     * @param keys  the keys
+     * @param values  the values
+     * @param convertedKeys  the converted keys
+     * @param hashCodes  the hash codes
+     * @param order  the entry indices to process, null for the identity
+     * @param from  the first position in the order, inclusive
+     * @param to  the last position in the order, exclusive
+     * @param remappingFunction  the function to merge values, null to put
+     * @param sizeChanges  the size changes, updated as entries are added and removed
+     * @param slot  the index of the size change to update
+     */
+    @SuppressWarnings("unchecked")
+    private void bulkPutRange(final Object[] keys, final Object[] values, final Object[] convertedKeys,
+                              final int[] hashCodes, final int[] order, final int from, final int to,
+                              final BiFunction<? super V, ? super V, ? extends V> remappingFunction,
+                              final int[] sizeChanges, final int slot) {
+        final HashEntry<K, V>[] data = this.data;
+        for (int p = from; p < to; p++) {
+            final int i = order == null ? p : order[p];
+            final Object convertedKey = convertedKeys[i];
+            final int hashCode = hashCodes[i];
+            final int index = hashIndex(hashCode, data.length);
+            final V value = (V) values[i];
+            HashEntry<K, V> previous = null;
+            HashEntry<K, V> entry = data[index];
+            while (entry != null && !(entry.hashCode == hashCode && isEqualKey(convertedKey, entry.key))) {
+                previous = entry;
+                entry = entry.next;
+            }
+            if (entry == null) {
+                addEntry(createEntry(data[index], hashCode, (K) keys[i], value), index);
+                sizeChanges[slot]++;
+            } else if (remappingFunction == null || entry.getValue() == null) {
+                updateEntry(entry, value);
+            } else {
+                final V newValue = remappingFunction.apply(entry.getValue(), value);
+                if (newValue == null) {
+                    removeEntry(entry, index, previous);
+                    destroyEntry(entry);
+                    sizeChanges[slot]--;
+                } else {
+                    updateEntry(entry, newValue);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs an action for each index of a range, splitting the range across a fork-join pool.
+     */
+    private static final class RangeTask extends RecursiveAction {
+
+        /** Serialization version */
+        private static final long serialVersionUID = 1L;
+
+        /** The first index, inclusive */
+        private final int from;
+        /** The last index, exclusive */
+        private final int to;
+        /** The action */
+        private final IntConsumer action;
+
+        RangeTask(final int from, final int to, final IntConsumer action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                action.accept(from);
+            } else {
+                final int mid = from + to >>> 1;
+                invokeAll(new RangeTask(from, mid, action), new RangeTask(mid, to, action));
+            }
+        }
     }
 
     /**
@@ -350,6 +659,264 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         return null;
     }
 
+    /**
+     * Gets the value mapped to the key specified, or a default value if there is none.
+     * <p>
+     * This implementation finds the entry in a single lookup and reports the
+     * access through {@link #accessEntry(HashEntry)}.
+     *
+     * @param key  the key
+     * @param defaultValue  the value to return if the key is not mapped
+     * @return the mapped value, which may be null, or the default value
+     * @since 4.5
+     */
+    @Override
+    public V getOrDefault(final Object key, final V defaultValue) {
+        final Object convertedKey = convertKey(key);
+        final int hashCode = hash(convertedKey);
+        HashEntry<K, V> entry = data[hashIndex(hashCode, data.length)];
+        while (entry != null) {
+            if (entry.hashCode == hashCode && isEqualKey(convertedKey, entry.key)) {
+                accessEntry(entry);
+                return entry.getValue();
+            }
+            entry = entry.next;
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Puts a key-value mapping into this map if the key is absent or mapped to null.
+     * <p>
+     * This implementation finds the entry in a single lookup, then uses
+     * {@link #updateEntry(HashEntry, Object)} or {@link #addMapping(int, int, Object, Object)}.
+     *
+     * @param key  the key
+     * @param value  the value to put
+     * @return the current value, or null if the value was put
+     * @since 4.5
+     */
+    @Override
+    public V putIfAbsent(final K key, final V value) {
+        final Object convertedKey = convertKey(key);
+        final int hashCode = hash(convertedKey);
+        final int index = hashIndex(hashCode, data.length);
+        HashEntry<K, V> entry = data[index];
+        while (entry != null) {
+            if (entry.hashCode == hashCode && isEqualKey(convertedKey, entry.key)) {
+                final V oldValue = entry.getValue();
+                if (oldValue == null) {
+                    updateEntry(entry, value);
+                } else {
+                    accessEntry(entry);
+                }
+                return oldValue;
+            }
+            entry = entry.next;
+        }
+        addMapping(index, hashCode, key, value);
+        return null;
+    }
+
+    /**
+     * Maps the key to a computed value if it is absent or mapped to null.
+     * <p>
+     * This implementation finds the entry in a single lookup. A new mapping is added
+     * through {@link #addMapping(int, int, Object, Object)}, so subclass behavior such as
+     * the eviction of {@link LRUMap} applies.
+     *
+     * @param key  the key
+     * @param mappingFunction  the function to compute a value
+     * @return the current or computed value, null if none
+     * @throws NullPointerException if the mapping function is null
+     * @throws ConcurrentModificationException if the mapping function modified this map
+     * @since 4.5
+     */
+    @Override
+    public V computeIfAbsent(final K key, final Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(mappingFunction, "mappingFunction");
+        final Object convertedKey = convertKey(key);
+        final int hashCode = hash(convertedKey);
+        final int index = hashIndex(hashCode, data.length);
+        HashEntry<K, V> entry = data[index];
+        while (entry != null && !(entry.hashCode == hashCode && isEqualKey(convertedKey, entry.key))) {
+            entry = entry.next;
+        }
+        if (entry != null) {
+            final V oldValue = entry.getValue();
+            if (oldValue != null) {
+                accessEntry(entry);
+                return oldValue;
+            }
+        }
+        final int expectedModCount = modCount;
+        final V newValue = mappingFunction.apply(key);
+        checkModCount(expectedModCount);
+        if (newValue != null) {
+            if (entry == null) {
+                addMapping(index, hashCode, key, newValue);
+            } else {
+                updateEntry(entry, newValue);
+            }
+        }
+        return newValue;
+    }
+
+    /**
+     * Remaps the value of a key if it is mapped to a non-null value.
+     * <p>
+     * This implementation finds the entry in a single lookup and then uses
+     * {@link #updateEntry(HashEntry, Object)} or {@link #removeMapping(HashEntry, int, HashEntry)}.
+     *
+     * @param key  the key
+     * @param remappingFunction  the function to compute a value
+     * @return the new value, null if none
+     * @throws NullPointerException if the remapping function is null
+     * @throws ConcurrentModificationException if the remapping function modified this map
+     * @since 4.5
+     */
+    @Override
+    public V computeIfPresent(final K key, final BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction, "remappingFunction");
+        final Object convertedKey = convertKey(key);
+        final int hashCode = hash(convertedKey);
+        final int index = hashIndex(hashCode, data.length);
+        HashEntry<K, V> previous = null;
+        HashEntry<K, V> entry = data[index];
+        while (entry != null) {
+            if (entry.hashCode == hashCode && isEqualKey(convertedKey, entry.key)) {
+                final V oldValue = entry.getValue();
+                if (oldValue == null) {
+                    return null;
+                }
+                final int expectedModCount = modCount;
+                final V newValue = remappingFunction.apply(key, oldValue);
+                checkModCount(expectedModCount);
+                return remap(entry, index, previous, newValue);
+            }
+            previous = entry;
+            entry = entry.next;
+        }
+        return null;
+    }
+
+    /**
+     * Computes a new value for a key from its current value, null if absent.
+     * <p>
+     * This implementation finds the entry in a single lookup and then uses
+     * {@link #updateEntry(HashEntry, Object)}, {@link #addMapping(int, int, Object, Object)}
+     * or {@link #removeMapping(HashEntry, int, HashEntry)}.
+     *
+     * @param key  the key
+     * @param remappingFunction  the function to compute a value
+     * @return the new value, null if none
+     * @throws NullPointerException if the remapping function is null
+     * @throws ConcurrentModificationException if the remapping function modified this map
+     * @since 4.5
+     */
+    @Override
+    public V compute(final K key, final BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(remappingFunction, "remappingFunction");
+        final Object convertedKey = convertKey(key);
+        final int hashCode = hash(convertedKey);
+        final int index = hashIndex(hashCode, data.length);
+        HashEntry<K, V> previous = null;
+        HashEntry<K, V> entry = data[index];
+        while (entry != null) {
+            if (entry.hashCode == hashCode && isEqualKey(convertedKey, entry.key)) {
+                final int expectedModCount = modCount;
+                final V newValue = remappingFunction.apply(key, entry.getValue());
+                checkModCount(expectedModCount);
+                return remap(entry, index, previous, newValue);
+            }
+            previous = entry;
+            entry = entry.next;
+        }
+        final int expectedModCount = modCount;
+        final V newValue = remappingFunction.apply(key, null);
+        checkModCount(expectedModCount);
+        if (newValue != null) {
+            addMapping(index, hashCode, key, newValue);
+        }
+        return newValue;
+    }
+
+    /**
+     * Puts a value for a key, or combines it with the current value if there is one.
+     * <p>
+     * This implementation finds the entry in a single lookup and then uses
+     * {@link #updateEntry(HashEntry, Object)}, {@link #addMapping(int, int, Object, Object)}
+     * or {@link #removeMapping(HashEntry, int, HashEntry)}.
+     *
+     * @param key  the key
+     * @param value  the value to put or combine, must not be null
+     * @param remappingFunction  the function to combine the current value with the given one
+     * @return the new value, null if the mapping was removed
+     * @throws NullPointerException if the value or the remapping function is null
+     * @throws ConcurrentModificationException if the remapping function modified this map
+     * @since 4.5
+     */
+    @Override
+    public V merge(final K key, final V value,
+                   final BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value, "value");
+        Objects.requireNonNull(remappingFunction, "remappingFunction");
+        final Object convertedKey = convertKey(key);
+        final int hashCode = hash(convertedKey);
+        final int index = hashIndex(hashCode, data.length);
+        HashEntry<K, V> previous = null;
+        HashEntry<K, V> entry = data[index];
+        while (entry != null) {
+            if (entry.hashCode == hashCode && isEqualKey(convertedKey, entry.key)) {
+                final V oldValue = entry.getValue();
+                if (oldValue == null) {
+                    updateEntry(entry, value);
+                    return value;
+                }
+                final int expectedModCount = modCount;
+                final V newValue = remappingFunction.apply(oldValue, value);
+                checkModCount(expectedModCount);
+                return remap(entry, index, previous, newValue);
+            }
+            previous = entry;
+            entry = entry.next;
+        }
+        addMapping(index, hashCode, key, value);
+        return value;
+    }
+
+    /**
+     * Stores the result of a remapping function in an existing entry.
+     *
+     * @param entry  the entry
+     * @param index  the index of the entry in the data array
+     * @param previous  the previous entry in the chain
+     * @param newValue  the new value, null to remove the entry
+     * @return the new value
+     */
+    private V remap(final HashEntry<K, V> entry, final int index, final HashEntry<K, V> previous,
+                    final V newValue) {
+        if (newValue == null) {
+            removeMapping(entry, index, previous);
+        } else {
+            updateEntry(entry, newValue);
+        }
+        return newValue;
+    }
+
+    /**
+     * Checks that a function passed to this map did not modify it.
+     * The lookup state of the caller is stale otherwise.
+     *
+     * @param expectedModCount  the modification count before calling the function
+     * @throws ConcurrentModificationException if the map was modified
+     */
+    private void checkModCount(final int expectedModCount) {
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
     /**
      * Clears the map, resetting the size to zero and nullifying references
      * to avoid garbage collection issues.
@@ -470,6 +1037,21 @@ public class AbstractHashedMap<K, V> extends AbstractMap<K, V> implements Iterab
         entry.setValue(newValue);
     }
 
+    /**
+     * Reports that an entry was read by a lookup that does not update it,
+     * such as {@link #getOrDefault(Object, Object)} or a hit of
+     * {@link #computeIfAbsent(Object, Function)}.
+     * <p>
+     * This implementation does nothing.
+     * Subclasses could override to track access order.
+     *
+     * @param entry  the entry that was read
+     * @since 4.5
+     */
+    protected void accessEntry(final HashEntry<K, V> entry) {
+        // noop
+    }
+
     /**
      * Reuses an existing key-value mapping, storing completely new data.
      * <p>
@@ -32,6 +32,8 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import org.apache.commons.collections4.MapIterator;
 import org.apache.commons.collections4.keyvalue.DefaultMapEntry;
@@ -273,6 +275,104 @@ public abstract class AbstractReferenceMap<K, V> extends AbstractHashedMap<K, V>
         return super.put(key, value);
     }
 
+    /**
+     * Gets the value mapped to the key specified, or a default value if there is none.
+     *
+     * @param key  the key
+     * @param defaultValue  the value to return if the key is not mapped
+     * @return the mapped value or the default value
+     * @since 4.5
+     */
+    @Override
+    public V getOrDefault(final Object key, final V defaultValue) {
+        final V value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Puts a key-value mapping into this map if the key is absent.
+     * Neither the key nor the value may be null.
+     *
+     * @param key  the key, must not be null
+     * @param value  the value to put, must not be null
+     * @return the current value, or null if the value was put
+     * @throws NullPointerException if either the key or value is null
+     * @since 4.5
+     */
+    @Override
+    public V putIfAbsent(final K key, final V value) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        purgeBeforeWrite();
+        return super.putIfAbsent(key, value);
+    }
+
+    /**
+     * Maps the key to a computed value if it is absent.
+     *
+     * @param key  the key, must not be null
+     * @param mappingFunction  the function to compute a value
+     * @return the current or computed value, null if none
+     * @throws NullPointerException if the key or mapping function is null
+     * @since 4.5
+     */
+    @Override
+    public V computeIfAbsent(final K key, final Function<? super K, ? extends V> mappingFunction) {
+        Objects.requireNonNull(key, "key");
+        purgeBeforeWrite();
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    /**
+     * Remaps the value of a key if it is present.
+     *
+     * @param key  the key, must not be null
+     * @param remappingFunction  the function to compute a value
+     * @return the new value, null if none
+     * @throws NullPointerException if the key or remapping function is null
+     * @since 4.5
+     */
+    @Override
+    public V computeIfPresent(final K key, final BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key, "key");
+        purgeBeforeWrite();
+        return super.computeIfPresent(key, remappingFunction);
+    }
+
+    /**
+     * Computes a new value for a key from its current value, null if absent.
+     *
+     * @param key  the key, must not be null
+     * @param remappingFunction  the function to compute a value
+     * @return the new value, null if none
+     * @throws NullPointerException if the key or remapping function is null
+     * @since 4.5
+     */
+    @Override
+    public V compute(final K key, final BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key, "key");
+        purgeBeforeWrite();
+        return super.compute(key, remappingFunction);
+    }
+
+    /**
+     * Puts a value for a key, or combines it with the current value if there is one.
+     *
+     * @param key  the key, must not be null
+     * @param value  the value to put or combine, must not be null
+     * @param remappingFunction  the function to combine the current value with the given one
+     * @return the new value, null if the mapping was removed
+     * @throws NullPointerException if the key, value or remapping function is null
+     * @since 4.5
+     */
+    @Override
+    public V merge(final K key, final V value,
+                   final BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(key, "key");
+        purgeBeforeWrite();
+        return super.merge(key, value, remappingFunction);
+    }
+
     /**
      * Removes the specified mapping from this map.
      *
@@ -141,6 +141,18 @@ public class CaseInsensitiveMap<K, V> extends AbstractHashedMap<K, V> implements
         return AbstractHashedMap.NULL;
     }
 
+    /**
+     * Returns true for this class, which does not override the per-entry methods,
+     * and false for subclasses, which may override {@code put}.
+     *
+     * @return true if this is exactly a CaseInsensitiveMap
+     * @since 4.5
+     */
+    @Override
+    protected boolean isBulkBuildSupported() {
+        return getClass() == CaseInsensitiveMap.class;
+    }
+
     /**
      * Clones the map without cloning the keys or values.
      *
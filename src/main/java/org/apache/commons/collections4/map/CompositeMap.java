@@ -19,10 +19,21 @@ package org.apache.commons.collections4.map;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.SortedMap;
 
+import org.apache.commons.collections4.BoundedMap;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.bloomfilter.BloomFilter;
+import org.apache.commons.collections4.bloomfilter.EnhancedDoubleHasher;
+import org.apache.commons.collections4.bloomfilter.Hasher;
+import org.apache.commons.collections4.bloomfilter.IndexProducer;
+import org.apache.commons.collections4.bloomfilter.Shape;
+import org.apache.commons.collections4.bloomfilter.SimpleBloomFilter;
 import org.apache.commons.collections4.collection.CompositeCollection;
 import org.apache.commons.collections4.set.CompositeSet;
 
@@ -34,6 +45,13 @@ import org.apache.commons.collections4.set.CompositeSet;
  * strategy is provided then add and remove are unsupported.
  * </p>
  * <p>
+ * Lookups probe each composited map in turn. When there are many maps, or
+ * probing them is expensive, {@link #enableMembershipSummaries(Shape)} keeps a
+ * Bloom filter of the keys of each map so that maps which cannot contain a key
+ * are skipped. The summaries follow changes made through this map, but not
+ * changes made to the composited maps directly.
+ * </p>
+ * <p>
  * <strong>Note that CompositeMap is not synchronized and is not thread-safe.</strong>
  * If you wish to use this map from multiple threads concurrently, you must use
  * appropriate synchronization. The simplest approach is to wrap this map
@@ -58,6 +76,12 @@ public class CompositeMap<K, V> extends AbstractIterableMap<K, V> implements Ser
     /** Handle mutation operations */
     private MapMutator<K, V> mutator;
 
+    /** Shape of the membership summaries, null if they are disabled */
+    private transient Shape summaryShape;
+
+    /** Bloom filters of the keys of each composited map, null if disabled */
+    private transient BloomFilter[] summaries;
+
     /**
      * Create a new, empty, CompositeMap.
      */
@@ -141,12 +165,19 @@ public class CompositeMap<K, V> extends AbstractIterableMap<K, V> implements Ser
                     if (this.mutator == null) {
                         throw new IllegalArgumentException("Key collision adding Map to CompositeMap");
                     }
+                    final int[] sizes = compositeSizes();
                     this.mutator.resolveCollision(this, this.composite[i], map, intersect);
+                    updateSummaries(intersect, sizes);
                 }
             }
             final Map<K, V>[] temp = Arrays.copyOf(this.composite, this.composite.length + 1);
             temp[temp.length - 1] = map;
             this.composite = temp;
+            if (summaries != null) {
+                final BloomFilter[] filters = Arrays.copyOf(summaries, summaries.length + 1);
+                filters[filters.length - 1] = summarize(map);
+                summaries = filters;
+            }
         }
     }
 
@@ -165,6 +196,12 @@ public class CompositeMap<K, V> extends AbstractIterableMap<K, V> implements Ser
                 System.arraycopy(this.composite, 0, temp, 0, i);
                 System.arraycopy(this.composite, i + 1, temp, i, size - i - 1);
                 this.composite = temp;
+                if (summaries != null) {
+                    final BloomFilter[] filters = new BloomFilter[size - 1];
+                    System.arraycopy(summaries, 0, filters, 0, i);
+                    System.arraycopy(summaries, i + 1, filters, i, size - i - 1);
+                    summaries = filters;
+                }
                 return map;
             }
         }
@@ -180,6 +217,157 @@ public class CompositeMap<K, V> extends AbstractIterableMap<K, V> implements Ser
     public void clear() {
         for (int i = this.composite.length - 1; i >= 0; --i) {
             this.composite[i].clear();
+            if (summaries != null && summaries[i] != null) {
+                summaries[i].clear();
+            }
+        }
+    }
+
+    /**
+     * Enables a Bloom filter summary of the keys of each composited map.
+     * <p>
+     * Once enabled, {@code get}, {@code containsKey} and {@code remove} only
+     * probe the maps whose summary may contain the key, so a key that is in
+     * none of them usually costs no probe at all. All summaries share the
+     * given shape, which should be sized for the largest composited map.
+     * </p>
+     * <p>
+     * The summaries are updated when keys are added through {@code put},
+     * {@code putAll} or collision resolution: the key is recorded in each map
+     * that contains it afterwards. Only maps whose size changed are asked, and
+     * every {@link BoundedMap}, since it may evict a key for each key it gains.
+     * Maps must therefore not gain keys other than through this CompositeMap,
+     * nor replace keys without changing size unless they are a {@code BoundedMap},
+     * otherwise {@link #rebuildMembershipSummaries()} must be called. Removed keys stay in the summaries until they are rebuilt, which
+     * only costs unnecessary probes. The summaries are not serialized.
+     * </p>
+     * <p>
+     * Summaries are keyed on {@code hashCode()}, so they are only correct for
+     * maps that compare keys with {@code equals} and {@code hashCode}. A
+     * {@link SortedMap} with a comparator and an {@link IdentityHashMap} are
+     * not summarized and are always probed. Maps with other notions of
+     * equality must not be composited while summaries are enabled.
+     * </p>
+     *
+     * @param shape  the shape of the summaries
+     * @throws NullPointerException if the shape is null
+     * @since 4.5
+     */
+    public void enableMembershipSummaries(final Shape shape) {
+        this.summaryShape = Objects.requireNonNull(shape, "shape");
+        rebuildMembershipSummaries();
+    }
+
+    /**
+     * Disables the key summaries, so that every composited map is probed again.
+     *
+     * @since 4.5
+     */
+    public void disableMembershipSummaries() {
+        summaryShape = null;
+        summaries = null;
+    }
+
+    /**
+     * Rebuilds the key summaries from the current keys of the composited maps.
+     * <p>
+     * This drops keys that have been removed and picks up changes made to the
+     * composited maps directly. It does nothing if the summaries are disabled.
+     * </p>
+     *
+     * @since 4.5
+     */
+    public void rebuildMembershipSummaries() {
+        if (summaryShape == null) {
+            return;
+        }
+        final BloomFilter[] filters = new BloomFilter[composite.length];
+        for (int i = 0; i < filters.length; i++) {
+            filters[i] = summarize(composite[i]);
+        }
+        summaries = filters;
+    }
+
+    /**
+     * Creates the summary of the keys of a map.
+     *
+     * @param map  the map to summarize
+     * @return the Bloom filter of its keys, or null if the map does not use hash codes for equality
+     */
+    private BloomFilter summarize(final Map<K, V> map) {
+        if (map instanceof IdentityHashMap || map instanceof SortedMap && ((SortedMap<K, V>) map).comparator() != null) {
+            return null;
+        }
+        final BloomFilter filter = new SimpleBloomFilter(summaryShape);
+        for (final K key : map.keySet()) {
+            filter.merge(EnhancedDoubleHasher.fromHashCode(key));
+        }
+        return filter;
+    }
+
+    /**
+     * Gets the summary indices of a key.
+     *
+     * @param key  the key
+     * @return the indices, or null if the summaries are disabled
+     */
+    private IndexProducer summaryIndices(final Object key) {
+        return summaries == null ? null : EnhancedDoubleHasher.fromHashCode(key).indices(summaryShape);
+    }
+
+    /**
+     * Tests whether a composited map may contain a key, according to its summary.
+     *
+     * @param index  the index of the composited map
+     * @param indices  the summary indices of the key, or null if the summaries are disabled
+     * @return false if the map certainly does not contain the key
+     */
+    private boolean mayContain(final int index, final IndexProducer indices) {
+        return indices == null || summaries[index] == null || summaries[index].contains(indices);
+    }
+
+    /**
+     * Gets the sizes of the composited maps before a mutation.
+     *
+     * @return the sizes, or null if the summaries are disabled
+     */
+    private int[] compositeSizes() {
+        if (summaries == null) {
+            return null;
+        }
+        final int[] sizes = new int[composite.length];
+        for (int i = 0; i < composite.length; i++) {
+            sizes[i] = composite[i].size();
+        }
+        return sizes;
+    }
+
+    /**
+     * Records keys in the summaries of the composited maps that contain them after a mutation.
+     * <p>
+     * Only the maps whose size changed, and bounded maps, which may evict a key
+     * for each key they gain, are asked, and only for keys not already in their summary.
+     * </p>
+     *
+     * @param keys  the keys that may have been added
+     * @param sizes  the sizes of the maps before the mutation, or null if the summaries were disabled
+     */
+    private void updateSummaries(final Collection<?> keys, final int[] sizes) {
+        if (summaries == null || sizes == null) {
+            return;
+        }
+        for (int i = 0; i < composite.length; i++) {
+            final Map<K, V> map = composite[i];
+            if (summaries[i] == null
+                    || i < sizes.length && sizes[i] == map.size() && !(map instanceof BoundedMap)) {
+                continue;
+            }
+            for (final Object key : keys) {
+                final Hasher hasher = EnhancedDoubleHasher.fromHashCode(key);
+                if (!summaries[i].contains(hasher) && map.containsKey(key)) {
+                    summaries[i].merge(hasher);
+                }
+            }
         }
     }
 
@@ -201,8 +389,9 @@ public class CompositeMap<K, V> extends AbstractIterableMap<K, V> implements Ser
      */
     @Override
     public boolean containsKey(final Object key) {
+        final IndexProducer indices = summaryIndices(key);
         for (int i = this.composite.length - 1; i >= 0; --i) {
-            if (this.composite[i].containsKey(key)) {
+            if (mayContain(i, indices) && this.composite[i].containsKey(key)) {
                 return true;
             }
         }
@@ -287,8 +476,9 @@ public class CompositeMap<K, V> extends AbstractIterableMap<K, V> implements Ser
      */
     @Override
     public V get(final Object key) {
+        final IndexProducer indices = summaryIndices(key);
         for (int i = this.composite.length - 1; i >= 0; --i) {
-            if (this.composite[i].containsKey(key)) {
+            if (mayContain(i, indices) && this.composite[i].containsKey(key)) {
                 return this.composite[i].get(key);
             }
         }
@@ -364,7 +554,10 @@ public class CompositeMap<K, V> extends AbstractIterableMap<K, V> implements Ser
         if (this.mutator == null) {
             throw new UnsupportedOperationException("No mutator specified");
         }
-        return this.mutator.put(this, this.composite, key, value);
+        final int[] sizes = compositeSizes();
+        final V result = this.mutator.put(this, this.composite, key, value);
+        updateSummaries(Collections.singleton(key), sizes);
+        return result;
     }
 
     /**
@@ -394,7 +587,11 @@ public class CompositeMap<K, V> extends AbstractIterableMap<K, V> implements Ser
         if (this.mutator == null) {
             throw new UnsupportedOperationException("No mutator specified");
         }
+        final int[] sizes = compositeSizes();
         this.mutator.putAll(this, this.composite, map);
+        if (sizes != null) {
+            updateSummaries(map.keySet(), sizes);
+        }
     }
 
     /**
@@ -424,8 +621,9 @@ public class CompositeMap<K, V> extends AbstractIterableMap<K, V> implements Ser
      */
     @Override
     public V remove(final Object key) {
+        final IndexProducer indices = summaryIndices(key);
         for (int i = this.composite.length - 1; i >= 0; --i) {
-            if (this.composite[i].containsKey(key)) {
+            if (mayContain(i, indices) && this.composite[i].containsKey(key)) {
                 return this.composite[i].remove(key);
             }
         }
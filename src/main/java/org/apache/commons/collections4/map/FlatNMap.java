@@ -0,0 +1,1077 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.IterableMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.ResettableIterator;
+import org.apache.commons.collections4.iterators.EmptyIterator;
+import org.apache.commons.collections4.iterators.EmptyMapIterator;
+
+/**
+ * A {@code Map} implementation that stores data in flat arrays until
+ * the size is greater than a configurable limit.
+ * <p>
+ * This map generalizes {@link Flat3Map} to maps that usually hold a handful
+ * to a dozen entries. It uses the same two modes of operation - flat and delegate.
+ * While the map is no larger than its flat size (8 by default, at most 64),
+ * keys, values and hash codes are held in parallel arrays and no Map Entry
+ * objects are created. Once the flat size is exceeded, the map switches to
+ * delegate mode and forwards all operations to a {@link HashedMap}, switching
+ * back only when cleared.
+ * </p>
+ * <p>
+ * Lookups in flat mode do not compare every key. Each entry also stores a
+ * one byte tag derived from its hash code, eight tags packed per {@code long}.
+ * A lookup compares all eight tags of a word at once with a few arithmetic
+ * operations, and only checks the hash code and calls {@code equals} for the
+ * entries whose tag matches. Removal moves the last entry into the freed slot,
+ * so the arrays stay dense and iteration order is not preserved. Like
+ * {@code Flat3Map}, the views are not fail-fast while in flat mode.
+ * </p>
+ * <p>
+ * For maps that are built once and then only read, see {@link UnmodifiableFlatMap}.
+ * </p>
+ * <p>
+ * <strong>Note that FlatNMap is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this map from multiple threads concurrently, you must use
+ * appropriate synchronization. The simplest approach is to wrap this map
+ * using {@link java.util.Collections#synchronizedMap(Map)}. This class may throw
+ * exceptions when accessed by concurrent threads without synchronization.
+ * </p>
+ *
+ * @param <K> the type of the keys in this map
+ * @param <V> the type of the values in this map
+ * @since 4.5
+ */
+public class FlatNMap<K, V> implements IterableMap<K, V>, Serializable, Cloneable {
+
+    /** Serialization version */
+    private static final long serialVersionUID = 1838407393286405283L;
+
+    /** The default flat size */
+    protected static final int DEFAULT_FLAT_SIZE = 8;
+
+    /** The largest supported flat size */
+    protected static final int MAXIMUM_FLAT_SIZE = 64;
+
+    /** A byte of ones in every position of a long */
+    private static final long LOW_BITS = 0x0101010101010101L;
+
+    /** The high bit of every byte of a long */
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    /**
+     * Gets the hash code of a key, zero for null.
+     *
+     * @param key  the key, may be null
+     * @return the hash code
+     */
+    static int hash(final Object key) {
+        return key == null ? 0 : key.hashCode();
+    }
+
+    /**
+     * Gets the tag of a hash code, a byte with its high bit always set.
+     *
+     * @param hash  the hash code
+     * @return the tag
+     */
+    static long tag(final int hash) {
+        return 0x80 | (hash * 0x9E3779B9) >>> 25;
+    }
+
+    /**
+     * Stores the tag of an entry.
+     *
+     * @param tags  the packed tags
+     * @param index  the index of the entry
+     * @param tag  the tag, zero to clear
+     */
+    static void setTag(final long[] tags, final int index, final long tag) {
+        final int shift = (index & 7) << 3;
+        tags[index >>> 3] = tags[index >>> 3] & ~(0xFFL << shift) | tag << shift;
+    }
+
+    /**
+     * Gets the tag of an entry.
+     *
+     * @param tags  the packed tags
+     * @param index  the index of the entry
+     * @return the tag
+     */
+    static long getTag(final long[] tags, final int index) {
+        return tags[index >>> 3] >>> ((index & 7) << 3) & 0xFF;
+    }
+
+    /**
+     * Finds the index of a key in flat arrays.
+     * <p>
+     * Each tag word is compared against the tag of the key eight bytes at a time:
+     * a byte of {@code word ^ pattern} is zero exactly where the tags match, and
+     * {@code (x - 0x01..01) & ~x & 0x80..80} sets the high bit of every zero byte.
+     * Borrows may also flag a byte above a match, so candidates are confirmed
+     * against the full hash code and key.
+     * </p>
+     *
+     * @param tags  the packed tags
+     * @param hashes  the hash codes
+     * @param keys  the keys
+     * @param size  the number of entries in use
+     * @param key  the key to find, may be null
+     * @param hash  the hash code of the key
+     * @return the index of the key, or -1 if not found
+     */
+    static int indexOf(final long[] tags, final int[] hashes, final Object[] keys, final int size,
+            final Object key, final int hash) {
+        final long pattern = tag(hash) * LOW_BITS;
+        for (int word = 0, base = 0; base < size; word++, base += 8) {
+            final long x = tags[word] ^ pattern;
+            long matches = x - LOW_BITS & ~x & HIGH_BITS;
+            if (size - base < 8) {
+                matches &= (1L << (size - base << 3)) - 1;
+            }
+            while (matches != 0) {
+                final int index = base + (Long.numberOfTrailingZeros(matches) >>> 3);
+                if (hashes[index] == hash) {
+                    final Object other = keys[index];
+                    if (other == key || key != null && key.equals(other)) {
+                        return index;
+                    }
+                }
+                matches &= matches - 1;
+            }
+        }
+        return -1;
+    }
+
+    /** The largest size held in flat mode */
+    private final int flatSize;
+    /** The size of the map, used while in flat mode */
+    private transient int size;
+    /** Packed hash tags, used while in flat mode */
+    private transient long[] tags;
+    /** Hash codes, used while in flat mode */
+    private transient int[] hashes;
+    /** Keys, used while in flat mode */
+    private transient Object[] keys;
+    /** Values, used while in flat mode */
+    private transient Object[] values;
+    /** Map, used while in delegate mode */
+    private transient AbstractHashedMap<K, V> delegateMap;
+
+    /**
+     * Constructor that stays flat up to the default size of 8.
+     */
+    public FlatNMap() {
+        this(DEFAULT_FLAT_SIZE);
+    }
+
+    /**
+     * Constructor that stays flat up to the specified size.
+     *
+     * @param flatSize  the largest size held in flat mode, from 1 to 64
+     * @throws IllegalArgumentException if the flat size is out of range
+     */
+    public FlatNMap(final int flatSize) {
+        if (flatSize < 1 || flatSize > MAXIMUM_FLAT_SIZE) {
+            throw new IllegalArgumentException("Flat size must be in the range [1, " + MAXIMUM_FLAT_SIZE + "]: "
+                    + flatSize);
+        }
+        this.flatSize = flatSize;
+        init();
+    }
+
+    /**
+     * Constructor copying elements from another map, staying flat up to the default size.
+     *
+     * @param map  the map to copy
+     * @throws NullPointerException if the map is null
+     */
+    public FlatNMap(final Map<? extends K, ? extends V> map) {
+        this(DEFAULT_FLAT_SIZE);
+        putAll(map);
+    }
+
+    /**
+     * Allocates the flat arrays.
+     */
+    private void init() {
+        tags = new long[flatSize + 7 >>> 3];
+        hashes = new int[flatSize];
+        keys = new Object[flatSize];
+        values = new Object[flatSize];
+    }
+
+    /**
+     * Gets the largest size this map holds in flat mode.
+     *
+     * @return the flat size
+     */
+    public int flatSize() {
+        return flatSize;
+    }
+
+    /**
+     * Gets the value mapped to the key specified.
+     *
+     * @param key  the key
+     * @return the mapped value, null if no match
+     */
+    @Override
+    public V get(final Object key) {
+        if (delegateMap != null) {
+            return delegateMap.get(key);
+        }
+        final int index = indexOf(tags, hashes, keys, size, key, hash(key));
+        return index < 0 ? null : valueAt(index);
+    }
+
+    /**
+     * Gets the size of the map.
+     *
+     * @return the size
+     */
+    @Override
+    public int size() {
+        if (delegateMap != null) {
+            return delegateMap.size();
+        }
+        return size;
+    }
+
+    /**
+     * Checks whether the map is currently empty.
+     *
+     * @return true if the map is currently size zero
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Checks whether the map contains the specified key.
+     *
+     * @param key  the key to search for
+     * @return true if the map contains the key
+     */
+    @Override
+    public boolean containsKey(final Object key) {
+        if (delegateMap != null) {
+            return delegateMap.containsKey(key);
+        }
+        return indexOf(tags, hashes, keys, size, key, hash(key)) >= 0;
+    }
+
+    /**
+     * Checks whether the map contains the specified value.
+     *
+     * @param value  the value to search for
+     * @return true if the map contains the key
+     */
+    @Override
+    public boolean containsValue(final Object value) {
+        if (delegateMap != null) {
+            return delegateMap.containsValue(value);
+        }
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(value, values[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Puts a key-value mapping into this map.
+     *
+     * @param key  the key to add
+     * @param value  the value to add
+     * @return the value previously mapped to this key, null if none
+     */
+    @Override
+    public V put(final K key, final V value) {
+        if (delegateMap != null) {
+            return delegateMap.put(key, value);
+        }
+        final int hash = hash(key);
+        final int index = indexOf(tags, hashes, keys, size, key, hash);
+        if (index >= 0) {
+            final V old = valueAt(index);
+            values[index] = value;
+            return old;
+        }
+        if (size == flatSize) {
+            convertToMap();
+            delegateMap.put(key, value);
+            return null;
+        }
+        setTag(tags, size, tag(hash));
+        hashes[size] = hash;
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        return null;
+    }
+
+    /**
+     * Puts all the values from the specified map into this map.
+     *
+     * @param map  the map to add
+     * @throws NullPointerException if the map is null
+     */
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> map) {
+        final int mapSize = map.size();
+        if (mapSize == 0) {
+            return;
+        }
+        if (delegateMap == null && mapSize > flatSize) {
+            convertToMap();
+        }
+        if (delegateMap != null) {
+            delegateMap.putAll(map);
+            return;
+        }
+        for (final Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Converts the flat map data to a map.
+     */
+    private void convertToMap() {
+        delegateMap = createDelegateMap();
+        for (int i = 0; i < size; i++) {
+            delegateMap.put(keyAt(i), valueAt(i));
+        }
+        clearFlat();
+    }
+
+    /**
+     * Create an instance of the map used for storage when in delegation mode.
+     * <p>
+     * This can be overridden by subclasses to provide a different map implementation.
+     * Not every AbstractHashedMap is suitable, identity and reference based maps
+     * would be poor choices.
+     *
+     * @return a new AbstractHashedMap or subclass
+     */
+    protected AbstractHashedMap<K, V> createDelegateMap() {
+        return new HashedMap<>();
+    }
+
+    /**
+     * Removes the specified mapping from this map.
+     *
+     * @param key  the mapping to remove
+     * @return the value mapped to the removed key, null if key not in map
+     */
+    @Override
+    public V remove(final Object key) {
+        if (delegateMap != null) {
+            return delegateMap.remove(key);
+        }
+        final int index = indexOf(tags, hashes, keys, size, key, hash(key));
+        if (index < 0) {
+            return null;
+        }
+        final V old = valueAt(index);
+        removeAt(index);
+        return old;
+    }
+
+    /**
+     * Removes the entry at an index by moving the last entry into its place.
+     *
+     * @param index  the index to remove
+     */
+    private void removeAt(final int index) {
+        final int last = --size;
+        if (index != last) {
+            setTag(tags, index, getTag(tags, last));
+            hashes[index] = hashes[last];
+            keys[index] = keys[last];
+            values[index] = values[last];
+        }
+        setTag(tags, last, 0);
+        hashes[last] = 0;
+        keys[last] = null;
+        values[last] = null;
+    }
+
+    /**
+     * Clears the map, resetting the size to zero and nullifying references
+     * to avoid garbage collection issues.
+     */
+    @Override
+    public void clear() {
+        if (delegateMap != null) {
+            delegateMap.clear();  // should aid gc
+            delegateMap = null;  // switch back to flat mode
+        } else {
+            clearFlat();
+        }
+    }
+
+    /**
+     * Empties the flat arrays.
+     */
+    private void clearFlat() {
+        Arrays.fill(tags, 0);
+        Arrays.fill(hashes, 0, size, 0);
+        Arrays.fill(keys, 0, size, null);
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Gets the key at an index in flat mode.
+     *
+     * @param index  the index
+     * @return the key
+     */
+    @SuppressWarnings("unchecked")
+    K keyAt(final int index) {
+        return (K) keys[index];
+    }
+
+    /**
+     * Gets the value at an index in flat mode.
+     *
+     * @param index  the index
+     * @return the value
+     */
+    @SuppressWarnings("unchecked")
+    V valueAt(final int index) {
+        return (V) values[index];
+    }
+
+    /**
+     * Gets an iterator over the map.
+     * Changes made to the iterator affect this map.
+     * <p>
+     * A MapIterator returns the keys in the map. It also provides convenient
+     * methods to get the key and value, and set the value.
+     * It avoids the need to create an entrySet/keySet/values object.
+     * It also avoids creating the Map Entry object.
+     *
+     * @return the map iterator
+     */
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        if (delegateMap != null) {
+            return delegateMap.mapIterator();
+        }
+        if (size == 0) {
+            return EmptyMapIterator.<K, V>emptyMapIterator();
+        }
+        return new FlatMapIterator<>(this);
+    }
+
+    /**
+     * FlatMapIterator
+     */
+    static class FlatMapIterator<K, V> implements MapIterator<K, V>, ResettableIterator<K> {
+        private final FlatNMap<K, V> parent;
+        private int nextIndex;
+        private boolean canRemove;
+
+        FlatMapIterator(final FlatNMap<K, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < parent.size;
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException(AbstractHashedMap.NO_NEXT_ENTRY);
+            }
+            canRemove = true;
+            nextIndex++;
+            return getKey();
+        }
+
+        @Override
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException(AbstractHashedMap.REMOVE_INVALID);
+            }
+            parent.removeAt(--nextIndex);
+            canRemove = false;
+        }
+
+        @Override
+        public K getKey() {
+            if (!canRemove) {
+                throw new IllegalStateException(AbstractHashedMap.GETKEY_INVALID);
+            }
+            return parent.keyAt(nextIndex - 1);
+        }
+
+        @Override
+        public V getValue() {
+            if (!canRemove) {
+                throw new IllegalStateException(AbstractHashedMap.GETVALUE_INVALID);
+            }
+            return parent.valueAt(nextIndex - 1);
+        }
+
+        @Override
+        public V setValue(final V value) {
+            if (!canRemove) {
+                throw new IllegalStateException(AbstractHashedMap.SETVALUE_INVALID);
+            }
+            final V old = getValue();
+            parent.values[nextIndex - 1] = value;
+            return old;
+        }
+
+        @Override
+        public void reset() {
+            nextIndex = 0;
+            canRemove = false;
+        }
+
+        @Override
+        public String toString() {
+            if (canRemove) {
+                return "Iterator[" + getKey() + "=" + getValue() + "]";
+            }
+            return "Iterator[]";
+        }
+    }
+
+    /**
+     * Gets the entrySet view of the map.
+     * Changes made to the view affect this map.
+     * <p>
+     * The returned Map Entry is an independent object that does not change as the
+     * iterator progresses. To avoid this additional object creation and simply
+     * iterate through the entries, use {@link #mapIterator()}.
+     *
+     * @return the entrySet view
+     */
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (delegateMap != null) {
+            return delegateMap.entrySet();
+        }
+        return new EntrySet<>(this);
+    }
+
+    /**
+     * EntrySet
+     */
+    static class EntrySet<K, V> extends AbstractSet<Map.Entry<K, V>> {
+        private final FlatNMap<K, V> parent;
+
+        EntrySet(final FlatNMap<K, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public boolean remove(final Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            if (!contains(obj)) {
+                return false;
+            }
+            parent.remove(((Map.Entry<?, ?>) obj).getKey());
+            return true;
+        }
+
+        @Override
+        public boolean contains(final Object obj) {
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            final Object key = entry.getKey();
+            return parent.containsKey(key) && Objects.equals(parent.get(key), entry.getValue());
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            if (parent.delegateMap != null) {
+                return parent.delegateMap.entrySet().iterator();
+            }
+            if (parent.isEmpty()) {
+                return EmptyIterator.<Map.Entry<K, V>>emptyIterator();
+            }
+            return new EntrySetIterator<>(parent);
+        }
+    }
+
+    /**
+     * An entry of a flat map. It remembers its key so that it keeps working when
+     * removals elsewhere move it to another index.
+     */
+    static class FlatMapEntry<K, V> implements Map.Entry<K, V> {
+        private final FlatNMap<K, V> parent;
+        private final K key;
+        private int index;
+        private boolean removed;
+
+        FlatMapEntry(final FlatNMap<K, V> parent, final int index) {
+            this.parent = parent;
+            this.key = parent.keyAt(index);
+            this.index = index;
+        }
+
+        /**
+         * Used by the iterator that created this entry to indicate that
+         * {@link java.util.Iterator#remove()} has been called.
+         * <p>
+         * As a consequence, all subsequent call to {@link #getKey()},
+         * {@link #setValue(Object)} and {@link #getValue()} will fail.
+         */
+        void setRemoved() {
+            this.removed = true;
+        }
+
+        /**
+         * Locates the entry in the parent, which must still be in flat mode.
+         *
+         * @return the current index of the key
+         */
+        private int locate() {
+            if (parent.delegateMap != null
+                    || index >= parent.size || parent.keys[index] != key) {
+                index = parent.delegateMap != null ? -1
+                        : indexOf(parent.tags, parent.hashes, parent.keys, parent.size, key, hash(key));
+            }
+            return index;
+        }
+
+        @Override
+        public K getKey() {
+            if (removed) {
+                throw new IllegalStateException(AbstractHashedMap.GETKEY_INVALID);
+            }
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            if (removed) {
+                throw new IllegalStateException(AbstractHashedMap.GETVALUE_INVALID);
+            }
+            final int current = locate();
+            return current < 0 ? parent.get(key) : parent.valueAt(current);
+        }
+
+        @Override
+        public V setValue(final V value) {
+            if (removed) {
+                throw new IllegalStateException(AbstractHashedMap.SETVALUE_INVALID);
+            }
+            final int current = locate();
+            if (current < 0) {
+                return parent.put(key, value);
+            }
+            final V old = parent.valueAt(current);
+            parent.values[current] = value;
+            return old;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (removed) {
+                return false;
+            }
+            if (!(obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> other = (Map.Entry<?, ?>) obj;
+            return Objects.equals(key, other.getKey()) && Objects.equals(getValue(), other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            if (removed) {
+                return 0;
+            }
+            return hash(key) ^ hash(getValue());
+        }
+
+        @Override
+        public String toString() {
+            if (!removed) {
+                return getKey() + "=" + getValue();
+            }
+            return "";
+        }
+
+    }
+
+    abstract static class EntryIterator<K, V> {
+        private final FlatNMap<K, V> parent;
+        private int nextIndex;
+        private FlatMapEntry<K, V> currentEntry;
+
+        /**
+         * Create a new FlatNMap.EntryIterator.
+         */
+        EntryIterator(final FlatNMap<K, V> parent) {
+            this.parent = parent;
+        }
+
+        public boolean hasNext() {
+            return nextIndex < parent.size;
+        }
+
+        public Map.Entry<K, V> nextEntry() {
+            if (!hasNext()) {
+                throw new NoSuchElementException(AbstractHashedMap.NO_NEXT_ENTRY);
+            }
+            currentEntry = new FlatMapEntry<>(parent, nextIndex++);
+            return currentEntry;
+        }
+
+        public void remove() {
+            if (currentEntry == null) {
+                throw new IllegalStateException(AbstractHashedMap.REMOVE_INVALID);
+            }
+            parent.removeAt(--nextIndex);
+            currentEntry.setRemoved();
+            currentEntry = null;
+        }
+
+    }
+
+    /**
+     * EntrySetIterator and MapEntry
+     */
+    static class EntrySetIterator<K, V> extends EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        EntrySetIterator(final FlatNMap<K, V> parent) {
+            super(parent);
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            return nextEntry();
+        }
+    }
+
+    /**
+     * Gets the keySet view of the map.
+     * Changes made to the view affect this map.
+     * To simply iterate through the keys, use {@link #mapIterator()}.
+     *
+     * @return the keySet view
+     */
+    @Override
+    public Set<K> keySet() {
+        if (delegateMap != null) {
+            return delegateMap.keySet();
+        }
+        return new KeySet<>(this);
+    }
+
+    /**
+     * KeySet
+     */
+    static class KeySet<K> extends AbstractSet<K> {
+        private final FlatNMap<K, ?> parent;
+
+        KeySet(final FlatNMap<K, ?> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public boolean contains(final Object key) {
+            return parent.containsKey(key);
+        }
+
+        @Override
+        public boolean remove(final Object key) {
+            final boolean result = parent.containsKey(key);
+            parent.remove(key);
+            return result;
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            if (parent.delegateMap != null) {
+                return parent.delegateMap.keySet().iterator();
+            }
+            if (parent.isEmpty()) {
+                return EmptyIterator.<K>emptyIterator();
+            }
+            return new KeySetIterator<>(parent);
+        }
+    }
+
+    /**
+     * KeySetIterator
+     */
+    static class KeySetIterator<K> extends EntryIterator<K, Object> implements Iterator<K> {
+
+        @SuppressWarnings("unchecked")
+        KeySetIterator(final FlatNMap<K, ?> parent) {
+            super((FlatNMap<K, Object>) parent);
+        }
+
+        @Override
+        public K next() {
+            return nextEntry().getKey();
+        }
+    }
+
+    /**
+     * Gets the values view of the map.
+     * Changes made to the view affect this map.
+     * To simply iterate through the values, use {@link #mapIterator()}.
+     *
+     * @return the values view
+     */
+    @Override
+    public Collection<V> values() {
+        if (delegateMap != null) {
+            return delegateMap.values();
+        }
+        return new Values<>(this);
+    }
+
+    /**
+     * Values
+     */
+    static class Values<V> extends AbstractCollection<V> {
+        private final FlatNMap<?, V> parent;
+
+        Values(final FlatNMap<?, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public int size() {
+            return parent.size();
+        }
+
+        @Override
+        public void clear() {
+            parent.clear();
+        }
+
+        @Override
+        public boolean contains(final Object value) {
+            return parent.containsValue(value);
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            if (parent.delegateMap != null) {
+                return parent.delegateMap.values().iterator();
+            }
+            if (parent.isEmpty()) {
+                return EmptyIterator.<V>emptyIterator();
+            }
+            return new ValuesIterator<>(parent);
+        }
+    }
+
+    /**
+     * ValuesIterator
+     */
+    static class ValuesIterator<V> extends EntryIterator<Object, V> implements Iterator<V> {
+
+        @SuppressWarnings("unchecked")
+        ValuesIterator(final FlatNMap<?, V> parent) {
+            super((FlatNMap<Object, V>) parent);
+        }
+
+        @Override
+        public V next() {
+            return nextEntry().getValue();
+        }
+    }
+
+    /**
+     * Write the map out using a custom routine.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size());
+        for (final MapIterator<?, ?> it = mapIterator(); it.hasNext();) {
+            out.writeObject(it.next());  // key
+            out.writeObject(it.getValue());  // value
+        }
+    }
+
+    /**
+     * Read the map in using a custom routine.
+     *
+     * @param in the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream can not be loaded
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        init();
+        final int count = in.readInt();
+        if (count > flatSize) {
+            delegateMap = createDelegateMap();
+        }
+        for (int i = count; i > 0; i--) {
+            put((K) in.readObject(), (V) in.readObject());
+        }
+    }
+
+    /**
+     * Clones the map without cloning the keys or values.
+     *
+     * @return a shallow clone
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public FlatNMap<K, V> clone() {
+        try {
+            final FlatNMap<K, V> cloned = (FlatNMap<K, V>) super.clone();
+            cloned.tags = tags.clone();
+            cloned.hashes = hashes.clone();
+            cloned.keys = keys.clone();
+            cloned.values = values.clone();
+            if (cloned.delegateMap != null) {
+                cloned.delegateMap = cloned.delegateMap.clone();
+            }
+            return cloned;
+        } catch (final CloneNotSupportedException ex) {
+            throw new UnsupportedOperationException(ex);
+        }
+    }
+
+    /**
+     * Compares this map with another.
+     *
+     * @param obj  the object to compare to
+     * @return true if equal
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (delegateMap != null) {
+            return delegateMap.equals(obj);
+        }
+        if (!(obj instanceof Map)) {
+            return false;
+        }
+        final Map<?, ?> other = (Map<?, ?>) obj;
+        if (size != other.size()) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!other.containsKey(keys[i]) || !Objects.equals(values[i], other.get(keys[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the standard Map hashCode.
+     *
+     * @return the hash code defined in the Map interface
+     */
+    @Override
+    public int hashCode() {
+        if (delegateMap != null) {
+            return delegateMap.hashCode();
+        }
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += hashes[i] ^ hash(values[i]);
+        }
+        return total;
+    }
+
+    /**
+     * Gets the map as a String.
+     *
+     * @return a string version of the map
+     */
+    @Override
+    public String toString() {
+        if (delegateMap != null) {
+            return delegateMap.toString();
+        }
+        if (size == 0) {
+            return "{}";
+        }
+        final StringBuilder buf = new StringBuilder(32 * size);
+        buf.append('{');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                buf.append(CollectionUtils.COMMA);
+            }
+            buf.append(keys[i] == this ? "(this Map)" : keys[i]);
+            buf.append('=');
+            buf.append(values[i] == this ? "(this Map)" : values[i]);
+        }
+        buf.append('}');
+        return buf.toString();
+    }
+
+}
@@ -88,6 +88,18 @@ public class HashedMap<K, V>
         super(map);
     }
 
+    /**
+     * Returns true for this class, which does not override the per-entry methods,
+     * and false for subclasses, which may override {@code put}.
+     *
+     * @return true if this is exactly a HashedMap
+     * @since 4.5
+     */
+    @Override
+    protected boolean isBulkBuildSupported() {
+        return getClass() == HashedMap.class;
+    }
+
     /**
      * Clones the map without cloning the keys or values.
      *
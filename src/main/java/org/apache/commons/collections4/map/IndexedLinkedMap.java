@@ -0,0 +1,304 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import org.apache.commons.collections4.CollectionUtils;
+
+/**
+ * A {@link LinkedMap} whose index based methods run in logarithmic time.
+ * <p>
+ * {@code LinkedMap} answers {@link #get(int)}, {@link #getValue(int)},
+ * {@link #indexOf(Object)} and {@link #remove(int)} by walking its linked
+ * list, which is linear in the size of the map. This map also gives every
+ * entry a slot in an array in insertion order and keeps a Fenwick tree
+ * (binary indexed tree) counting the occupied slots, so the index of an
+ * entry is a prefix count and the entry at an index is found by a descent of
+ * the tree. Both take O(log n). Removed entries leave empty slots, which are
+ * compacted when the array fills up, so insertion remains amortized O(1).
+ * {@code nextKey} and {@code previousKey} follow the links in O(1) as before.
+ * </p>
+ * <p>
+ * Order is maintained by original insertion, exactly as in {@code LinkedMap}.
+ * The extra cost is an array slot and a tree counter per entry.
+ * </p>
+ * <p>
+ * <strong>Note that IndexedLinkedMap is not synchronized and is not thread-safe.</strong>
+ * If you wish to use this map from multiple threads concurrently, you must use
+ * appropriate synchronization. The simplest approach is to wrap this map
+ * using {@link java.util.Collections#synchronizedMap(Map)}. This class may throw
+ * exceptions when accessed by concurrent threads without synchronization.
+ * </p>
+ *
+ * @param <K> the type of the keys in this map
+ * @param <V> the type of the values in this map
+ * @since 4.5
+ */
+public class IndexedLinkedMap<K, V> extends LinkedMap<K, V> {
+
+    /** Serialisation version */
+    private static final long serialVersionUID = -1735621880612743592L;
+
+    /** The initial number of slots */
+    private static final int INITIAL_SLOTS = 16;
+
+    /** The entries by slot, null for removed entries */
+    private transient IndexedEntry<K, V>[] slots;
+
+    /** The Fenwick tree over the occupied slots, one based */
+    private transient int[] tree;
+
+    /** The next free slot */
+    private transient int nextSlot;
+
+    /**
+     * Constructs a new empty map with default size and load factor.
+     */
+    public IndexedLinkedMap() {
+    }
+
+    /**
+     * Constructs a new, empty map with the specified initial capacity.
+     *
+     * @param initialCapacity  the initial capacity
+     * @throws IllegalArgumentException if the initial capacity is negative
+     */
+    public IndexedLinkedMap(final int initialCapacity) {
+        super(initialCapacity);
+    }
+
+    /**
+     * Constructs a new, empty map with the specified initial capacity and
+     * load factor.
+     *
+     * @param initialCapacity  the initial capacity
+     * @param loadFactor  the load factor
+     * @throws IllegalArgumentException if the initial capacity is negative
+     * @throws IllegalArgumentException if the load factor is less than zero
+     */
+    public IndexedLinkedMap(final int initialCapacity, final float loadFactor) {
+        super(initialCapacity, loadFactor);
+    }
+
+    /**
+     * Constructor copying elements from another map.
+     *
+     * @param map  the map to copy
+     * @throws NullPointerException if the map is null
+     */
+    public IndexedLinkedMap(final Map<? extends K, ? extends V> map) {
+        super(map);
+    }
+
+    /**
+     * Initialize this subclass during construction.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void init() {
+        super.init();
+        slots = new IndexedEntry[INITIAL_SLOTS];
+        tree = new int[INITIAL_SLOTS + 1];
+        nextSlot = 0;
+    }
+
+    /**
+     * Clears the map, resetting the size to zero and nullifying references
+     * to avoid garbage collection issues.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        Arrays.fill(slots, 0, nextSlot, null);
+        Arrays.fill(tree, 0);
+        nextSlot = 0;
+    }
+
+    /**
+     * Clones the map without cloning the keys or values.
+     *
+     * @return a shallow clone
+     */
+    @Override
+    public IndexedLinkedMap<K, V> clone() {
+        return (IndexedLinkedMap<K, V>) super.clone();
+    }
+
+    /**
+     * Creates an entry to store the data.
+     * <p>
+     * This implementation creates a new IndexedEntry instance.
+     *
+     * @param next  the next entry in sequence
+     * @param hashCode  the hash code to use
+     * @param key  the key to store
+     * @param value  the value to store
+     * @return the newly created entry
+     */
+    @Override
+    protected LinkEntry<K, V> createEntry(final HashEntry<K, V> next, final int hashCode, final K key, final V value) {
+        return new IndexedEntry<>(next, hashCode, convertKey(key), value);
+    }
+
+    /**
+     * Adds an entry into this map, at the end of the insertion order.
+     *
+     * @param entry  the entry to add
+     * @param hashIndex  the index into the data array to store at
+     */
+    @Override
+    protected void addEntry(final HashEntry<K, V> entry, final int hashIndex) {
+        if (nextSlot == slots.length) {
+            reslot();
+        }
+        final IndexedEntry<K, V> indexed = (IndexedEntry<K, V>) entry;
+        indexed.slot = nextSlot++;
+        slots[indexed.slot] = indexed;
+        update(indexed.slot, 1);
+        super.addEntry(entry, hashIndex);
+    }
+
+    /**
+     * Removes an entry from the map, the linked list and the slots.
+     *
+     * @param entry  the entry to remove
+     * @param hashIndex  the index into the data structure
+     * @param previous  the previous entry in the chain
+     */
+    @Override
+    protected void removeEntry(final HashEntry<K, V> entry, final int hashIndex, final HashEntry<K, V> previous) {
+        final IndexedEntry<K, V> indexed = (IndexedEntry<K, V>) entry;
+        slots[indexed.slot] = null;
+        update(indexed.slot, -1);
+        super.removeEntry(entry, hashIndex, previous);
+    }
+
+    /**
+     * Gets the entry at the specified index by descending the Fenwick tree.
+     *
+     * @param index  the index to retrieve
+     * @return the entry at the specified index
+     * @throws IndexOutOfBoundsException if the index is invalid
+     */
+    @Override
+    protected LinkEntry<K, V> getEntry(final int index) {
+        if (index < 0) {
+            throw new IndexOutOfBoundsException("Index " + index + " is less than zero");
+        }
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is invalid for size " + size);
+        }
+        // find the largest position whose prefix count is at most index
+        int position = 0;
+        int remaining = index;
+        for (int step = Integer.highestOneBit(slots.length); step > 0; step >>>= 1) {
+            final int next = position + step;
+            if (next <= slots.length && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        // the following slot is the occupied one holding the entry
+        return slots[position];
+    }
+
+    /**
+     * Gets the index of the specified key.
+     *
+     * @param key  the key to find the index of
+     * @return the index, or -1 if not found
+     */
+    @Override
+    public int indexOf(final Object key) {
+        final HashEntry<K, V> entry = getEntry(key);
+        if (entry == null) {
+            return CollectionUtils.INDEX_NOT_FOUND;
+        }
+        int count = 0;
+        for (int i = ((IndexedEntry<K, V>) entry).slot; i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    /**
+     * Adds a delta to the count of a slot.
+     *
+     * @param slot  the slot, zero based
+     * @param delta  the change in its count
+     */
+    private void update(final int slot, final int delta) {
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Renumbers the live entries into the first slots, growing the slots if
+     * more than half of them are live, and rebuilds the tree in linear time.
+     */
+    @SuppressWarnings("unchecked")
+    private void reslot() {
+        final int capacity = size > slots.length / 2 ? slots.length * 2 : slots.length;
+        final IndexedEntry<K, V>[] newSlots = new IndexedEntry[capacity];
+        final int[] newTree = new int[capacity + 1];
+        int slot = 0;
+        for (LinkEntry<K, V> entry = entryAfter(header); entry != header; entry = entryAfter(entry)) {
+            final IndexedEntry<K, V> indexed = (IndexedEntry<K, V>) entry;
+            indexed.slot = slot;
+            newSlots[slot++] = indexed;
+        }
+        for (int i = 1; i <= capacity; i++) {
+            if (i <= slot) {
+                newTree[i]++;
+            }
+            final int parent = i + (i & -i);
+            if (parent <= capacity) {
+                newTree[parent] += newTree[i];
+            }
+        }
+        slots = newSlots;
+        tree = newTree;
+        nextSlot = slot;
+    }
+
+    /**
+     * LinkEntry that records its slot.
+     *
+     * @param <K> the key type
+     * @param <V> the value type
+     */
+    protected static class IndexedEntry<K, V> extends LinkEntry<K, V> {
+        /** The slot of the entry */
+        int slot;
+
+        /**
+         * Constructs a new entry.
+         *
+         * @param next  the next entry in the hash bucket sequence
+         * @param hashCode  the hash code
+         * @param key  the key
+         * @param value  the value
+         */
+        protected IndexedEntry(final HashEntry<K, V> next, final int hashCode, final Object key, final V value) {
+            super(next, hashCode, key, value);
+        }
+    }
+
+}
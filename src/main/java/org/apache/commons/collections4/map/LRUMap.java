@@ -284,6 +284,20 @@ public class LRUMap<K, V>
         }
     }
 
+    /**
+     * Reports that an entry was read without being updated.
+     * <p>
+     * This implementation moves the entry to the end of the list
+     * using {@link #moveToMRU(AbstractLinkedMap.LinkEntry)}, as {@link #get(Object)} does.
+     *
+     * @param entry  the entry that was read
+     * @since 4.5
+     */
+    @Override
+    protected void accessEntry(final HashEntry<K, V> entry) {
+        moveToMRU((LinkEntry<K, V>) entry);
+    }
+
     /**
      * Updates an existing key-value mapping.
      * <p>
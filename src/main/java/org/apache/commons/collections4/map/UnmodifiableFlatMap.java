@@ -0,0 +1,440 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.IterableMap;
+import org.apache.commons.collections4.MapIterator;
+import org.apache.commons.collections4.ResettableIterator;
+import org.apache.commons.collections4.Unmodifiable;
+import org.apache.commons.collections4.collection.UnmodifiableCollection;
+import org.apache.commons.collections4.keyvalue.UnmodifiableMapEntry;
+import org.apache.commons.collections4.set.UnmodifiableSet;
+
+/**
+ * An unmodifiable {@code Map} that copies its mappings into flat arrays.
+ * <p>
+ * This is the read-only counterpart of {@link FlatNMap}, intended for small
+ * maps that are built once and then only queried, such as configuration or
+ * attribute maps. The arrays are sized exactly to the content and, as in
+ * {@code FlatNMap}, each lookup compares packed one byte hash tags eight at a
+ * time before calling {@code equals}. There is no delegate mode, so lookups
+ * remain linear in the size of the map; prefer a hashed map for more than a
+ * few dozen entries.
+ * </p>
+ * <p>
+ * Attempts to modify it will result in an UnsupportedOperationException.
+ * As it cannot change, it is safe to share between threads once published.
+ * </p>
+ *
+ * @param <K> the type of the keys in this map
+ * @param <V> the type of the values in this map
+ * @since 4.5
+ */
+public final class UnmodifiableFlatMap<K, V> implements IterableMap<K, V>, Unmodifiable, Serializable {
+
+    /** Serialization version */
+    private static final long serialVersionUID = -4327262187634117294L;
+
+    /** The number of mappings */
+    private transient int size;
+    /** Packed hash tags */
+    private transient long[] tags;
+    /** Hash codes */
+    private transient int[] hashes;
+    /** Keys */
+    private transient Object[] keys;
+    /** Values */
+    private transient Object[] values;
+
+    /**
+     * Constructor copying elements from another map.
+     *
+     * @param map  the map to copy, must not be null
+     * @throws NullPointerException if the map is null
+     */
+    public UnmodifiableFlatMap(final Map<? extends K, ? extends V> map) {
+        // a single snapshot, since a concurrent map may hold more entries than its size reported
+        final Object[] entries = map.entrySet().toArray();
+        init(entries.length);
+        for (final Object entry : entries) {
+            add(((Map.Entry<?, ?>) entry).getKey(), ((Map.Entry<?, ?>) entry).getValue());
+        }
+    }
+
+    /**
+     * Allocates the arrays.
+     *
+     * @param capacity  the number of mappings to hold
+     */
+    private void init(final int capacity) {
+        size = 0;
+        tags = new long[capacity + 7 >>> 3];
+        hashes = new int[capacity];
+        keys = new Object[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * Adds a mapping while constructing, replacing the value of an equal key.
+     *
+     * @param key  the key
+     * @param value  the value
+     */
+    private void add(final Object key, final Object value) {
+        final int hash = FlatNMap.hash(key);
+        final int index = FlatNMap.indexOf(tags, hashes, keys, size, key, hash);
+        if (index >= 0) {
+            values[index] = value;
+            return;
+        }
+        FlatNMap.setTag(tags, size, FlatNMap.tag(hash));
+        hashes[size] = hash;
+        keys[size] = key;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Gets the key at an index.
+     *
+     * @param index  the index
+     * @return the key
+     */
+    @SuppressWarnings("unchecked")
+    K keyAt(final int index) {
+        return (K) keys[index];
+    }
+
+    /**
+     * Gets the value at an index.
+     *
+     * @param index  the index
+     * @return the value
+     */
+    @SuppressWarnings("unchecked")
+    V valueAt(final int index) {
+        return (V) values[index];
+    }
+
+    @Override
+    public V get(final Object key) {
+        final int index = FlatNMap.indexOf(tags, hashes, keys, size, key, FlatNMap.hash(key));
+        return index < 0 ? null : valueAt(index);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return FlatNMap.indexOf(tags, hashes, keys, size, key, FlatNMap.hash(key)) >= 0;
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        for (int i = 0; i < size; i++) {
+            if (Objects.equals(value, values[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void putAll(final Map<? extends K, ? extends V> map) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public V remove(final Object key) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        return new FlatMapIterator<>(this);
+    }
+
+    /**
+     * A read-only iterator over the mappings.
+     */
+    static class FlatMapIterator<K, V> implements MapIterator<K, V>, ResettableIterator<K>, Unmodifiable {
+        private final UnmodifiableFlatMap<K, V> parent;
+        private int nextIndex;
+
+        FlatMapIterator(final UnmodifiableFlatMap<K, V> parent) {
+            this.parent = parent;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < parent.size;
+        }
+
+        @Override
+        public K next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException(AbstractHashedMap.NO_NEXT_ENTRY);
+            }
+            return parent.keyAt(nextIndex++);
+        }
+
+        @Override
+        public K getKey() {
+            if (nextIndex == 0) {
+                throw new IllegalStateException(AbstractHashedMap.GETKEY_INVALID);
+            }
+            return parent.keyAt(nextIndex - 1);
+        }
+
+        @Override
+        public V getValue() {
+            if (nextIndex == 0) {
+                throw new IllegalStateException(AbstractHashedMap.GETVALUE_INVALID);
+            }
+            return parent.valueAt(nextIndex - 1);
+        }
+
+        @Override
+        public V setValue(final V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void reset() {
+            nextIndex = 0;
+        }
+
+        @Override
+        public String toString() {
+            if (nextIndex > 0) {
+                return "Iterator[" + getKey() + "=" + getValue() + "]";
+            }
+            return "Iterator[]";
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return UnmodifiableEntrySet.unmodifiableEntrySet(new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                final FlatMapIterator<K, V> it = new FlatMapIterator<>(UnmodifiableFlatMap.this);
+                return new Iterator<Map.Entry<K, V>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<K, V> next() {
+                        return new UnmodifiableMapEntry<>(it.next(), it.getValue());
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        });
+    }
+
+    @Override
+    public Set<K> keySet() {
+        return UnmodifiableSet.unmodifiableSet(new AbstractSet<K>() {
+            @Override
+            public boolean contains(final Object key) {
+                return containsKey(key);
+            }
+
+            @Override
+            public Iterator<K> iterator() {
+                return new FlatMapIterator<>(UnmodifiableFlatMap.this);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        });
+    }
+
+    @Override
+    public Collection<V> values() {
+        return UnmodifiableCollection.unmodifiableCollection(new AbstractCollection<V>() {
+            @Override
+            public boolean contains(final Object value) {
+                return containsValue(value);
+            }
+
+            @Override
+            public Iterator<V> iterator() {
+                final FlatMapIterator<K, V> it = new FlatMapIterator<>(UnmodifiableFlatMap.this);
+                return new Iterator<V>() {
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public V next() {
+                        it.next();
+                        return it.getValue();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        });
+    }
+
+    /**
+     * Write the map out using a custom routine.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeObject(keys[i]);
+            out.writeObject(values[i]);
+        }
+    }
+
+    /**
+     * Read the map in using a custom routine.
+     *
+     * @param in the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream can not be loaded
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        final int count = in.readInt();
+        init(count);
+        for (int i = 0; i < count; i++) {
+            add(in.readObject(), in.readObject());
+        }
+    }
+
+    /**
+     * Compares this map with another.
+     *
+     * @param obj  the object to compare to
+     * @return true if equal
+     */
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof Map)) {
+            return false;
+        }
+        final Map<?, ?> other = (Map<?, ?>) obj;
+        if (size != other.size()) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            if (!other.containsKey(keys[i]) || !Objects.equals(values[i], other.get(keys[i]))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the standard Map hashCode.
+     *
+     * @return the hash code defined in the Map interface
+     */
+    @Override
+    public int hashCode() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += hashes[i] ^ FlatNMap.hash(values[i]);
+        }
+        return total;
+    }
+
+    /**
+     * Gets the map as a String.
+     *
+     * @return a string version of the map
+     */
+    @Override
+    public String toString() {
+        if (size == 0) {
+            return "{}";
+        }
+        final StringBuilder buf = new StringBuilder(32 * size);
+        buf.append('{');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                buf.append(CollectionUtils.COMMA);
+            }
+            buf.append(keys[i] == this ? "(this Map)" : keys[i]);
+            buf.append('=');
+            buf.append(values[i] == this ? "(this Map)" : values[i]);
+        }
+        buf.append('}');
+        return buf.toString();
+    }
+
+}
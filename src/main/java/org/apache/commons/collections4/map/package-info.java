@@ -29,7 +29,10 @@
  *   <li>CompositeMap - map that combines multiple maps into a single view
  *   <li>HashedMap - general purpose HashMap replacement supporting MapIterator
  *   <li>Flat3Map - designed for good performance at size 3 or less
+ *   <li>FlatNMap - designed for good performance at a configurable size of up to 64
+ *   <li>UnmodifiableFlatMap - a compact read-only copy of a small map
  *   <li>LinkedMap - a hash map that maintains insertion order, supporting OrderedMapIterator
+ *   <li>IndexedLinkedMap - a LinkedMap with logarithmic time access by index
  *   <li>LRUMap - a hash map that maintains a maximum size by removing the least recently used entries
  *   <li>MultiKeyMap - map that provides special methods for using more than one key to access the value
  *   <li>ReferenceMap - allows the garbage collector to collect keys and values using equals() for comparison
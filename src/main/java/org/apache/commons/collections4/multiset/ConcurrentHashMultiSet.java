@@ -0,0 +1,512 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.multiset;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.commons.collections4.MultiSet;
+
+/**
+ * Implements {@code MultiSet} for use by many threads at once, using a
+ * {@link ConcurrentHashMap} of striped counters to provide the data storage.
+ * <p>
+ * Each element is counted by its own {@link LongAdder}, so threads that add
+ * the same element concurrently update different cells instead of contending
+ * on a single monitor or field. Adding occurrences never takes a lock; removals
+ * and {@link #setCount(Object, int)} are serialized per element by the
+ * backing map.
+ * </p>
+ * <p>
+ * The {@link #uniqueSet()}, {@link #entrySet()} and {@link #iterator()} views
+ * are weakly consistent: they never throw {@link java.util.ConcurrentModificationException},
+ * and reflect some but not necessarily all updates made after they were created.
+ * Likewise {@link #size()} is exact only when there are no concurrent updates.
+ * </p>
+ * <p>
+ * This multiset does not permit {@code null} elements.
+ * </p>
+ * <p>
+ * When the number of distinct elements is unbounded and approximate counts are
+ * acceptable, {@link CountMinSketch} counts in a fixed amount of memory instead.
+ * </p>
+ *
+ * @param <E> the type held in the multiset
+ * @since 4.5
+ */
+public class ConcurrentHashMultiSet<E> extends AbstractMultiSet<E> implements Serializable {
+
+    /**
+     * Striped counter for one element.
+     * <p>
+     * A counter is retired while a removal inspects it. If the removal drops the
+     * count to zero the counter is unmapped and stays retired, and any thread that
+     * sees the flag after adding to it moves its occurrences to the live counter.
+     * </p>
+     */
+    private static final class Counter extends LongAdder {
+
+        /** Serialization version, never written by the multiset */
+        private static final long serialVersionUID = 20240101L;
+
+        /** Whether a removal may be unmapping this counter */
+        volatile boolean retired;
+
+        /**
+         * Gets the count clamped to the range of an {@code int}.
+         *
+         * @return the current count
+         */
+        int count() {
+            return (int) Math.min(Integer.MAX_VALUE, Math.max(0L, sum()));
+        }
+    }
+
+    /** Serial version lock */
+    private static final long serialVersionUID = 20240101L;
+
+    /** The map of elements to their counters */
+    private transient ConcurrentHashMap<E, Counter> map;
+
+    /** The total number of occurrences */
+    private transient LongAdder size;
+
+    /**
+     * Constructs an empty {@link ConcurrentHashMultiSet}.
+     */
+    public ConcurrentHashMultiSet() {
+        this.map = new ConcurrentHashMap<>();
+        this.size = new LongAdder();
+    }
+
+    /**
+     * Constructs a multiset containing all the members of the given collection.
+     *
+     * @param coll  a collection to copy into this multiset
+     * @throws NullPointerException if the collection or any of its elements is null
+     */
+    public ConcurrentHashMultiSet(final Collection<? extends E> coll) {
+        this();
+        addAll(coll);
+    }
+
+    /**
+     * Returns the number of elements in this multiset.
+     *
+     * @return current size of the multiset
+     */
+    @Override
+    public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0L, size.sum()));
+    }
+
+    /**
+     * Returns true if the multiset has no elements.
+     *
+     * @return true if multiset is empty
+     */
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    /**
+     * Returns the number of occurrence of the given element in this multiset by
+     * summing the cells of its counter.
+     *
+     * @param object the object to search for
+     * @return the number of occurrences of the object, zero if not found
+     */
+    @Override
+    public int getCount(final Object object) {
+        if (object == null) {
+            return 0;
+        }
+        final Counter counter = map.get(object);
+        return counter == null ? 0 : counter.count();
+    }
+
+    @Override
+    public boolean contains(final Object object) {
+        return getCount(object) > 0;
+    }
+
+    /**
+     * Adds one copy of the specified object without computing the previous count.
+     *
+     * @param object  the object to add, must not be null
+     * @return {@code true} always
+     * @throws NullPointerException if the object is null
+     */
+    @Override
+    public boolean add(final E object) {
+        increment(object, 1);
+        return true;
+    }
+
+    /**
+     * Adds a number of occurrences of the specified object.
+     * <p>
+     * The returned previous count is exact only when no other thread updates
+     * the same element at the same time.
+     * </p>
+     *
+     * @param object  the object to add, must not be null
+     * @param occurrences  the number of occurrences to add, may be zero
+     * @return the number of occurrences of the object before this operation
+     * @throws IllegalArgumentException if occurrences is negative
+     * @throws NullPointerException if the object is null
+     */
+    @Override
+    public int add(final E object, final int occurrences) {
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("Occurrences must not be negative.");
+        }
+        Objects.requireNonNull(object, "object");
+        if (occurrences == 0) {
+            return getCount(object);
+        }
+        increment(object, occurrences);
+        return Math.max(0, getCount(object) - occurrences);
+    }
+
+    /**
+     * Adds occurrences to the counter of an element, creating it if required.
+     *
+     * @param object  the object to add, must not be null
+     * @param occurrences  the positive number of occurrences to add
+     */
+    private void increment(final E object, final int occurrences) {
+        Objects.requireNonNull(object, "object");
+        Counter counter = map.get(object);
+        if (counter == null) {
+            counter = map.computeIfAbsent(object, k -> new Counter());
+        }
+        counter.add(occurrences);
+        size.add(occurrences);
+        if (counter.retired) {
+            reclaim(object, counter);
+        }
+    }
+
+    /**
+     * Moves occurrences added to a counter that a removal unmapped onto the
+     * live counter of the element.
+     *
+     * @param object  the element
+     * @param retired  the counter that was seen retired
+     */
+    private void reclaim(final E object, final Counter retired) {
+        map.compute(object, (k, current) -> {
+            if (current == retired) {
+                // the removal kept the counter, so the occurrences are already live
+                return current;
+            }
+            final long residual = retired.sum();
+            final Counter target = current == null ? new Counter() : current;
+            if (residual > 0) {
+                retired.add(-residual);
+                target.add(residual);
+            }
+            return current == null && residual <= 0 ? null : target;
+        });
+    }
+
+    /**
+     * Removes up to the given number of occurrences of an element, unmapping its
+     * counter if the count drops to zero.
+     *
+     * @param object  the element
+     * @param occurrences  the maximum number of occurrences to remove
+     * @return the number of occurrences before the removal
+     */
+    @SuppressWarnings("unchecked")
+    private int decrement(final Object object, final long occurrences) {
+        final long[] oldCount = new long[1];
+        map.computeIfPresent((E) object, (k, counter) -> {
+            counter.retired = true;
+            final long current = Math.max(0L, counter.sum());
+            final long removed = Math.min(current, occurrences);
+            counter.add(-removed);
+            size.add(-removed);
+            oldCount[0] = current;
+            if (current > removed) {
+                counter.retired = false;
+                return counter;
+            }
+            return null;
+        });
+        return (int) Math.min(Integer.MAX_VALUE, oldCount[0]);
+    }
+
+    @Override
+    public int remove(final Object object, final int occurrences) {
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("Occurrences must not be negative.");
+        }
+        if (object == null) {
+            return 0;
+        }
+        if (occurrences == 0) {
+            return getCount(object);
+        }
+        return decrement(object, occurrences);
+    }
+
+    /**
+     * Sets the number of occurrences of the specified object atomically with
+     * respect to other removals and {@code setCount} calls for that object.
+     *
+     * @param object  the object to update, must not be null
+     * @param count  the number of occurrences of the object
+     * @return the number of occurrences of the object before this operation
+     * @throws IllegalArgumentException if count is negative
+     * @throws NullPointerException if the object is null
+     */
+    @Override
+    public int setCount(final E object, final int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Count must not be negative.");
+        }
+        Objects.requireNonNull(object, "object");
+        if (count == 0) {
+            return decrement(object, Long.MAX_VALUE);
+        }
+        final long[] oldCount = new long[1];
+        map.compute(object, (k, counter) -> {
+            final Counter target = counter == null ? new Counter() : counter;
+            final long current = Math.max(0L, target.sum());
+            target.add(count - current);
+            size.add(count - current);
+            oldCount[0] = current;
+            return target;
+        });
+        return (int) Math.min(Integer.MAX_VALUE, oldCount[0]);
+    }
+
+    /**
+     * Clears the multiset by removing every element in turn.
+     * <p>
+     * Occurrences added by other threads during the call may survive it.
+     * </p>
+     */
+    @Override
+    public void clear() {
+        for (final E element : map.keySet()) {
+            decrement(element, Long.MAX_VALUE);
+        }
+    }
+
+    @Override
+    protected int uniqueElements() {
+        return map.size();
+    }
+
+    @Override
+    protected Iterator<E> createUniqueSetIterator() {
+        return new UniqueSetIterator<>(this);
+    }
+
+    @Override
+    protected Iterator<Entry<E>> createEntrySetIterator() {
+        return new EntrySetIterator<>(this);
+    }
+
+    /**
+     * Weakly consistent iterator over the unique elements.
+     */
+    private static final class UniqueSetIterator<E> implements Iterator<E> {
+
+        /** The parent multiset */
+        private final ConcurrentHashMultiSet<E> parent;
+
+        /** The iterator over the keys of the backing map */
+        private final Iterator<E> decorated;
+
+        /** The last returned element, null if remove is not allowed */
+        private E last;
+
+        /**
+         * Constructor.
+         * @param parent  the parent multiset
+         */
+        UniqueSetIterator(final ConcurrentHashMultiSet<E> parent) {
+            this.parent = parent;
+            this.decorated = parent.map.keySet().iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return decorated.hasNext();
+        }
+
+        @Override
+        public E next() {
+            last = decorated.next();
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException("Iterator remove() can only be called once after next()");
+            }
+            parent.decrement(last, Long.MAX_VALUE);
+            last = null;
+        }
+    }
+
+    /**
+     * Weakly consistent iterator over the entries.
+     */
+    private static final class EntrySetIterator<E> implements Iterator<Entry<E>> {
+
+        /** The parent multiset */
+        private final ConcurrentHashMultiSet<E> parent;
+
+        /** The iterator over the entries of the backing map */
+        private final Iterator<Map.Entry<E, Counter>> decorated;
+
+        /** The last returned entry, null if remove is not allowed */
+        private Entry<E> last;
+
+        /**
+         * Constructor.
+         * @param parent  the parent multiset
+         */
+        EntrySetIterator(final ConcurrentHashMultiSet<E> parent) {
+            this.parent = parent;
+            this.decorated = parent.map.entrySet().iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return decorated.hasNext();
+        }
+
+        @Override
+        public Entry<E> next() {
+            last = new MultiSetEntry<>(parent, decorated.next().getKey());
+            return last;
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException("Iterator remove() can only be called once after next()");
+            }
+            parent.decrement(last.getElement(), Long.MAX_VALUE);
+            last = null;
+        }
+    }
+
+    /**
+     * Entry whose count reads through to the parent multiset.
+     */
+    private static final class MultiSetEntry<E> extends AbstractEntry<E> {
+
+        /** The parent multiset */
+        private final ConcurrentHashMultiSet<E> parent;
+
+        /** The element */
+        private final E element;
+
+        /**
+         * Constructor.
+         * @param parent  the parent multiset
+         * @param element  the element
+         */
+        MultiSetEntry(final ConcurrentHashMultiSet<E> parent, final E element) {
+            this.parent = parent;
+            this.element = element;
+        }
+
+        @Override
+        public E getElement() {
+            return element;
+        }
+
+        @Override
+        public int getCount() {
+            return parent.getCount(element);
+        }
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        if (object == this) {
+            return true;
+        }
+        if (!(object instanceof MultiSet)) {
+            return false;
+        }
+        final MultiSet<?> other = (MultiSet<?>) object;
+        if (other.size() != size()) {
+            return false;
+        }
+        for (final Map.Entry<E, Counter> entry : map.entrySet()) {
+            if (other.getCount(entry.getKey()) != entry.getValue().count()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int total = 0;
+        for (final Map.Entry<E, Counter> entry : map.entrySet()) {
+            total += entry.getKey().hashCode() ^ entry.getValue().count();
+        }
+        return total;
+    }
+
+    /**
+     * Write the multiset out using a custom routine.
+     *
+     * @param out  the output stream
+     * @throws IOException if an error occurs while writing to the stream
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        // snapshot first so the written entry count matches the entries
+        new HashMultiSet<>(this).doWriteObject(out);
+    }
+
+    /**
+     * Read the multiset in using a custom routine.
+     *
+     * @param in the input stream
+     * @throws IOException if an error occurs while reading from the stream
+     * @throws ClassNotFoundException if an object read from the stream can not be loaded
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        map = new ConcurrentHashMap<>();
+        size = new LongAdder();
+        super.doReadObject(in);
+    }
+
+}
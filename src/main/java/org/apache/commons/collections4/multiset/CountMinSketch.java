@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.multiset;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe count-min sketch that estimates the number of occurrences of
+ * objects in a fixed amount of memory.
+ * <p>
+ * The sketch is the approximate counterpart of {@link ConcurrentHashMultiSet}:
+ * it keeps {@code depth} rows of {@code width} counters no matter how many
+ * distinct objects are added, but cannot enumerate the objects it has seen.
+ * An estimate is never lower than the true count, and with probability
+ * {@code 1 - delta} it exceeds the true count by at most {@code epsilon * size()},
+ * where {@code epsilon = e / width} and {@code delta = e^-depth}.
+ * </p>
+ * <p>
+ * Row indices are derived from the object hash code alone, by enhanced double
+ * hashing as in the {@code bloomfilter} package. Objects with equal hash codes
+ * therefore share a counter in every row and are counted as one: the bound above
+ * holds for the occurrences of objects with other hash codes only, and an object
+ * type with many colliding hash codes gets correspondingly worse estimates.
+ * Counters are updated with atomic adds, so the sketch needs no external
+ * synchronization.
+ * </p>
+ *
+ * @param <E> the type of object counted
+ * @since 4.5
+ */
+public class CountMinSketch<E> {
+
+    /** The golden ratio multiplier used to spread hash codes */
+    private static final long GOLDEN = 0x9e3779b97f4a7c15L;
+
+    /**
+     * Creates a sketch sized for the given error bounds.
+     *
+     * @param <E> the type of object counted
+     * @param epsilon  the relative error of an estimate, as a fraction of the total count
+     * @param delta  the probability that an estimate exceeds the error bound, given
+     *   distinct hash codes
+     * @return a new sketch
+     * @throws IllegalArgumentException if either argument is not in the range (0, 1)
+     */
+    public static <E> CountMinSketch<E> fromErrorBounds(final double epsilon, final double delta) {
+        if (!(epsilon > 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("Epsilon must be in the range (0, 1): " + epsilon);
+        }
+        if (!(delta > 0 && delta < 1)) {
+            throw new IllegalArgumentException("Delta must be in the range (0, 1): " + delta);
+        }
+        final int width = (int) Math.min(1 << 30, Math.ceil(Math.E / epsilon));
+        final int depth = (int) Math.ceil(Math.log(1 / delta));
+        return new CountMinSketch<>(depth, width);
+    }
+
+    /** The number of rows */
+    private final int depth;
+
+    /** The mask selecting a column, width is a power of two */
+    private final int mask;
+
+    /** The counters, row after row */
+    private final AtomicLongArray counters;
+
+    /** The total number of occurrences added */
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * Constructs an empty sketch.
+     *
+     * @param depth  the number of rows, each an independent estimate
+     * @param width  the number of counters per row, rounded up to a power of two
+     * @throws IllegalArgumentException if depth or width is not positive, or the
+     *   sketch would need more than {@code Integer.MAX_VALUE} counters
+     */
+    public CountMinSketch(final int depth, final int width) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Depth must be greater than 0: " + depth);
+        }
+        if (width <= 0 || width > 1 << 30) {
+            throw new IllegalArgumentException("Width must be in the range [1, 2^30]: " + width);
+        }
+        final int columns = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        if ((long) depth * columns > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many counters: " + depth + " x " + columns);
+        }
+        this.depth = depth;
+        this.mask = columns - 1;
+        this.counters = new AtomicLongArray(depth * columns);
+    }
+
+    /**
+     * Adds one occurrence of the specified object.
+     *
+     * @param object  the object to count, must not be null
+     * @throws NullPointerException if the object is null
+     */
+    public void add(final E object) {
+        add(object, 1);
+    }
+
+    /**
+     * Adds a number of occurrences of the specified object.
+     *
+     * @param object  the object to count, must not be null
+     * @param occurrences  the number of occurrences to add, may be zero
+     * @throws IllegalArgumentException if occurrences is negative
+     * @throws NullPointerException if the object is null
+     */
+    public void add(final E object, final long occurrences) {
+        if (occurrences < 0) {
+            throw new IllegalArgumentException("Occurrences must not be negative.");
+        }
+        final long hash = spread(Objects.requireNonNull(object, "object").hashCode());
+        if (occurrences == 0) {
+            return;
+        }
+        int index = (int) hash;
+        final int increment = (int) (hash >>> 32) | 1;
+        for (int row = 0; row < depth; row++) {
+            counters.getAndAdd(row * (mask + 1) + (index & mask), occurrences);
+            index += increment + row;
+        }
+        size.add(occurrences);
+    }
+
+    /**
+     * Estimates the number of occurrences of the given object.
+     * <p>
+     * The estimate is never less than the number of occurrences added. It includes
+     * the occurrences of every object with the same hash code.
+     * </p>
+     *
+     * @param object  the object to look up
+     * @return the estimated number of occurrences, zero if the object is null
+     */
+    public long getCount(final Object object) {
+        if (object == null) {
+            return 0;
+        }
+        final long hash = spread(object.hashCode());
+        int index = (int) hash;
+        final int increment = (int) (hash >>> 32) | 1;
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(row * (mask + 1) + (index & mask)));
+            index += increment + row;
+        }
+        return min;
+    }
+
+    /**
+     * Gets the total number of occurrences added to the sketch.
+     *
+     * @return the total count
+     */
+    public long size() {
+        return size.sum();
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return the depth
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Gets the number of counters per row.
+     *
+     * @return the width
+     */
+    public int getWidth() {
+        return mask + 1;
+    }
+
+    /**
+     * Resets every counter to zero.
+     * <p>
+     * Occurrences added by other threads during the call may survive it.
+     * </p>
+     */
+    public void clear() {
+        for (int i = 0; i < counters.length(); i++) {
+            counters.set(i, 0);
+        }
+        size.reset();
+    }
+
+    /**
+     * Mixes a hash code into 64 well distributed bits.
+     *
+     * @param hashCode  the hash code
+     * @return the mixed bits
+     */
+    private static long spread(final int hashCode) {
+        long h = hashCode * GOLDEN;
+        h ^= h >>> 32;
+        h *= GOLDEN;
+        return h ^ h >>> 29;
+    }
+
+}
@@ -22,8 +22,11 @@
  * The following implementations are provided in the package:
  * <ul>
  *   <li>HashMultiSet - implementation that uses a HashMap to store the data
+ *   <li>ConcurrentHashMultiSet - thread-safe implementation that counts with striped adders
  * </ul>
  * <p>
+ * CountMinSketch estimates occurrence counts in a fixed amount of memory.
+ * <p>
  * The following decorators are provided in the package:
  * <ul>
  *   <li>Predicated   - ensures that only elements that are valid according to a predicate can be added
@@ -0,0 +1,505 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.commons.collections4.BoundedCollection;
+
+/**
+ * A concurrent first-in first-out queue with a fixed size that replaces its
+ * oldest element if full, for use as a ring buffer shared between threads.
+ * <p>
+ * This is the concurrent counterpart of {@link CircularFifoQueue}. Producers
+ * claim a ticket from a sequence counter and publish the element into the slot
+ * for that ticket, overwriting whatever an earlier lap left there. The consumer
+ * takes elements in ticket order, and if producers have lapped it, skips ahead
+ * to the oldest element still held.
+ * </p>
+ * <p>
+ * Elements and their tickets are kept in two preallocated arrays, so adding an
+ * element allocates nothing. A thread marks a slot as busy for the two writes
+ * that publish or take its element; a producer only ever waits for such a write
+ * to the same slot, and the consumer never waits.
+ * </p>
+ * <p>
+ * Two modes are supported, chosen at construction:
+ * </p>
+ * <ul>
+ *   <li>multiple producers and a single consumer (the default), where producers
+ *       claim tickets with an atomic increment</li>
+ *   <li>a single producer and a single consumer, where the producer claims
+ *       tickets without an atomic increment</li>
+ * </ul>
+ * <p>
+ * In both modes the consuming methods ({@link #poll()}, {@link #peek()},
+ * {@link #remove()}, {@link #drainTo(Collection)} and {@link #clear()}) must
+ * only be called by one thread at a time. The producer and consumer counters
+ * are padded onto their own cache lines. {@link #offerAll(Collection)} and
+ * {@link #drainTo(Collection, int)} move a batch of elements while updating
+ * each counter once.
+ * </p>
+ * <p>
+ * {@link #size()} and the iterator are weakly consistent. An element whose
+ * producer has claimed a ticket but not yet published it is not visible, so
+ * {@link #poll()} may briefly return {@code null} while later elements are
+ * already published. The iterator does not support removal.
+ * </p>
+ * <p>
+ * This queue prevents null objects from being added.
+ * </p>
+ *
+ * @param <E> the type of elements in this collection
+ * @since 4.5
+ */
+public class ConcurrentCircularFifoQueue<E> extends AbstractQueue<E> implements BoundedCollection<E> {
+
+    /**
+     * Padding that keeps a sequence off the cache line of the fields before it.
+     */
+    abstract static class SequenceLeftPadding {
+        long p01, p02, p03, p04, p05, p06, p07;
+    }
+
+    /**
+     * The value of a sequence.
+     */
+    abstract static class SequenceValue extends SequenceLeftPadding {
+        /** Updater for the value */
+        static final AtomicLongFieldUpdater<SequenceValue> VALUE =
+                AtomicLongFieldUpdater.newUpdater(SequenceValue.class, "value");
+
+        /** The next ticket */
+        volatile long value;
+    }
+
+    /**
+     * A counter padded onto its own cache line.
+     */
+    static final class Sequence extends SequenceValue {
+        long p11, p12, p13, p14, p15, p16, p17;
+
+        long get() {
+            return value;
+        }
+
+        void lazySet(final long newValue) {
+            VALUE.lazySet(this, newValue);
+        }
+
+        long getAndAdd(final long delta) {
+            return VALUE.getAndAdd(this, delta);
+        }
+    }
+
+    /** The elements, indexed by ticket modulo capacity */
+    private final AtomicReferenceArray<E> elements;
+
+    /**
+     * The stamps of the slots: twice the ticket plus one of the element a slot holds or held,
+     * plus one while a thread writes the slot, and zero for a slot never written.
+     */
+    private final AtomicLongArray stamps;
+
+    /** Capacity of the queue */
+    private final int maxElements;
+
+    /** Whether only one thread produces */
+    private final boolean singleProducer;
+
+    /** The next ticket to claim */
+    private final Sequence tail = new Sequence();
+
+    /** The next ticket to consume */
+    private final Sequence head = new Sequence();
+
+    /**
+     * Constructor that creates a multiple producer queue with the default size of 32.
+     */
+    public ConcurrentCircularFifoQueue() {
+        this(32);
+    }
+
+    /**
+     * Constructor that creates a multiple producer queue with the specified size.
+     *
+     * @param size  the size of the queue (cannot be changed)
+     * @throws IllegalArgumentException  if the size is &lt; 1
+     */
+    public ConcurrentCircularFifoQueue(final int size) {
+        this(size, false);
+    }
+
+    /**
+     * Constructor that creates a queue with the specified size and producer mode.
+     *
+     * @param size  the size of the queue (cannot be changed)
+     * @param singleProducer  true if only one thread will ever add elements
+     * @throws IllegalArgumentException  if the size is &lt; 1
+     */
+    public ConcurrentCircularFifoQueue(final int size, final boolean singleProducer) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("The size must be greater than 0");
+        }
+        this.elements = new AtomicReferenceArray<>(size);
+        this.stamps = new AtomicLongArray(size);
+        this.maxElements = size;
+        this.singleProducer = singleProducer;
+    }
+
+    /**
+     * Gets the slot index of a ticket.
+     *
+     * @param sequence  the ticket
+     * @return the slot index
+     */
+    private int index(final long sequence) {
+        return (int) (sequence % maxElements);
+    }
+
+    /**
+     * Gets the stamp of a slot holding the element of a ticket.
+     *
+     * @param sequence  the ticket
+     * @return the stamp
+     */
+    private static long stamp(final long sequence) {
+        return sequence + 1 << 1;
+    }
+
+    /**
+     * Gets the ticket of a stamp.
+     *
+     * @param stamp  the stamp
+     * @return the ticket, -1 for a slot never written
+     */
+    private static long sequenceOf(final long stamp) {
+        return (stamp >>> 1) - 1;
+    }
+
+    /**
+     * Tests whether a stamp marks a slot that a thread is writing.
+     *
+     * @param stamp  the stamp
+     * @return true if the slot is busy
+     */
+    private static boolean isBusy(final long stamp) {
+        return (stamp & 1) != 0;
+    }
+
+    /**
+     * Returns the number of elements stored in the queue.
+     * <p>
+     * Elements being published by a producer are included.
+     *
+     * @return this queue's size
+     */
+    @Override
+    public int size() {
+        final long consumed = head.get();
+        final long claimed = tail.get();
+        return (int) Math.max(0, Math.min(maxElements, claimed - consumed));
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A {@code ConcurrentCircularFifoQueue} can never be full, thus this returns always
+     * {@code false}.
+     *
+     * @return always returns {@code false}
+     */
+    @Override
+    public boolean isFull() {
+        return false;
+    }
+
+    /**
+     * Gets the maximum size of the collection (the bound).
+     *
+     * @return the maximum number of elements the collection can hold
+     */
+    @Override
+    public int maxSize() {
+        return maxElements;
+    }
+
+    /**
+     * Tests whether this queue was created for a single producer thread.
+     *
+     * @return true if only one thread may add elements
+     */
+    public boolean isSingleProducer() {
+        return singleProducer;
+    }
+
+    /**
+     * Adds the given element to this queue. If the queue is full, the least recently added
+     * element is discarded so that a new element can be inserted.
+     *
+     * @param element  the element to add
+     * @return true, always
+     * @throws NullPointerException  if the given element is null
+     */
+    @Override
+    public boolean offer(final E element) {
+        Objects.requireNonNull(element, "element");
+        if (singleProducer) {
+            final long sequence = tail.get();
+            publish(sequence, element);
+            tail.lazySet(sequence + 1);
+        } else {
+            publish(tail.getAndAdd(1), element);
+        }
+        return true;
+    }
+
+    /**
+     * Adds all the given elements to this queue, claiming their tickets at once.
+     * If the queue overflows, the least recently added elements are discarded.
+     *
+     * @param coll  the elements to add
+     * @return the number of elements added
+     * @throws NullPointerException  if the collection or any of its elements is null
+     */
+    public int offerAll(final Collection<? extends E> coll) {
+        final Object[] array = coll.toArray();
+        for (final Object element : array) {
+            Objects.requireNonNull(element, "element");
+        }
+        final int count = array.length;
+        if (count == 0) {
+            return 0;
+        }
+        // elements that would be overwritten by this same batch are never stored
+        final int first = Math.max(0, count - maxElements);
+        if (singleProducer) {
+            final long base = tail.get();
+            for (int i = first; i < count; i++) {
+                publish(base + i, element(array[i]));
+            }
+            tail.lazySet(base + count);
+        } else {
+            final long base = tail.getAndAdd(count);
+            for (int i = first; i < count; i++) {
+                publish(base + i, element(array[i]));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Publishes an element for a claimed ticket, waiting while another thread
+     * writes the slot. A producer that was overtaken by a later lap drops its element.
+     *
+     * @param sequence  the claimed ticket
+     * @param element  the element
+     */
+    private void publish(final long sequence, final E element) {
+        final int index = index(sequence);
+        for (;;) {
+            final long current = stamps.get(index);
+            if (sequenceOf(current) > sequence) {
+                return;
+            }
+            if (!isBusy(current) && stamps.compareAndSet(index, current, stamp(sequence) | 1)) {
+                elements.lazySet(index, element);
+                stamps.lazySet(index, stamp(sequence));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Takes the element out of a published slot, unless a producer has written
+     * the slot since its stamp was read.
+     *
+     * @param index  the slot index
+     * @param stamp  the stamp read for the element
+     * @return the element, or null if the slot changed
+     */
+    private E consume(final int index, final long stamp) {
+        if (!stamps.compareAndSet(index, stamp, stamp | 1)) {
+            return null;
+        }
+        final E element = elements.get(index);
+        elements.lazySet(index, null);
+        stamps.lazySet(index, stamp);
+        return element;
+    }
+
+    /**
+     * Casts an element taken from an array.
+     *
+     * @param obj  the element
+     * @return the element
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> E element(final Object obj) {
+        return (E) obj;
+    }
+
+    /**
+     * Finds the oldest published element, skipping any that producers overwrote.
+     *
+     * @param consume  true to remove the element from its slot
+     * @return the element, or null if none is available
+     */
+    private E take(final boolean consume) {
+        long sequence = head.get();
+        try {
+            for (;;) {
+                final int index = index(sequence);
+                final long stamp = stamps.get(index);
+                final long published = sequenceOf(stamp);
+                if (published < sequence || published == sequence && isBusy(stamp)) {
+                    return null;
+                }
+                if (published == sequence) {
+                    if (!consume) {
+                        final E element = elements.get(index);
+                        if (stamps.get(index) == stamp) {
+                            return element;
+                        }
+                        continue;
+                    }
+                    final E element = consume(index, stamp);
+                    if (element != null) {
+                        sequence++;
+                        return element;
+                    }
+                    // overwritten while taking it, retry as lapped
+                    continue;
+                }
+                // lapped by the producers, skip to the oldest element still held
+                sequence = Math.max(sequence + 1, tail.get() - maxElements);
+            }
+        } finally {
+            if (sequence != head.get()) {
+                head.lazySet(sequence);
+            }
+        }
+    }
+
+    @Override
+    public E poll() {
+        return take(true);
+    }
+
+    @Override
+    public E peek() {
+        return take(false);
+    }
+
+    /**
+     * Removes all available elements from this queue and adds them to the given collection.
+     *
+     * @param coll  the collection to transfer elements into
+     * @return the number of elements transferred
+     * @throws NullPointerException if the collection is null
+     * @throws IllegalArgumentException if the collection is this queue
+     */
+    public int drainTo(final Collection<? super E> coll) {
+        return drainTo(coll, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes at most the given number of available elements from this queue
+     * and adds them to the given collection, advancing the consumer counter once.
+     *
+     * @param coll  the collection to transfer elements into
+     * @param limit  the maximum number of elements to transfer
+     * @return the number of elements transferred
+     * @throws NullPointerException if the collection is null
+     * @throws IllegalArgumentException if the collection is this queue
+     */
+    public int drainTo(final Collection<? super E> coll, final int limit) {
+        Objects.requireNonNull(coll, "coll");
+        if (coll == this) {
+            throw new IllegalArgumentException("Cannot drain a queue into itself");
+        }
+        final long start = head.get();
+        long sequence = start;
+        int count = 0;
+        while (count < limit) {
+            final int index = index(sequence);
+            final long stamp = stamps.get(index);
+            final long published = sequenceOf(stamp);
+            if (published < sequence || published == sequence && isBusy(stamp)) {
+                break;
+            }
+            if (published == sequence) {
+                final E element = consume(index, stamp);
+                if (element != null) {
+                    coll.add(element);
+                    count++;
+                    sequence++;
+                }
+                continue;
+            }
+            sequence = Math.max(sequence + 1, tail.get() - maxElements);
+        }
+        if (sequence != start) {
+            head.lazySet(sequence);
+        }
+        return count;
+    }
+
+    /**
+     * Clears this queue by consuming every available element.
+     */
+    @Override
+    public void clear() {
+        while (poll() != null) {
+            // consume
+        }
+    }
+
+    /**
+     * Returns a weakly consistent iterator over a snapshot of this queue's elements.
+     * The iterator does not support removal.
+     *
+     * @return an iterator over this queue's elements
+     */
+    @Override
+    public Iterator<E> iterator() {
+        final long end = tail.get();
+        final long start = Math.max(head.get(), end - maxElements);
+        final List<E> snapshot = new ArrayList<>((int) Math.max(0, end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            final int index = index(sequence);
+            final long stamp = stamps.get(index);
+            if (stamp == stamp(sequence)) {
+                final E element = elements.get(index);
+                if (element != null && stamps.get(index) == stamp) {
+                    snapshot.add(element);
+                }
+            }
+        }
+        return Collections.unmodifiableList(snapshot).iterator();
+    }
+
+}
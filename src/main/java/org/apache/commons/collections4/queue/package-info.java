@@ -20,6 +20,7 @@
  * The following implementations are provided in the package:
  * <ul>
  *   <li>CircularFifoQueue - implements a queue with a fixed size that discards oldest when full
+ *   <li>ConcurrentCircularFifoQueue - a lock-free variant of CircularFifoQueue for a single consumer thread
  * </ul>
  * <p>
  * The following decorators are provided in the package:
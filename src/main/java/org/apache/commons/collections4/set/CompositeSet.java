@@ -20,14 +20,23 @@ import java.io.Serializable;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.function.Predicate;
 
+import org.apache.commons.collections4.BoundedCollection;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.bloomfilter.BloomFilter;
+import org.apache.commons.collections4.bloomfilter.EnhancedDoubleHasher;
+import org.apache.commons.collections4.bloomfilter.Hasher;
+import org.apache.commons.collections4.bloomfilter.IndexProducer;
+import org.apache.commons.collections4.bloomfilter.Shape;
+import org.apache.commons.collections4.bloomfilter.SimpleBloomFilter;
 import org.apache.commons.collections4.iterators.EmptyIterator;
 import org.apache.commons.collections4.iterators.IteratorChain;
 import org.apache.commons.collections4.list.UnmodifiableList;
@@ -46,6 +55,11 @@ import org.apache.commons.collections4.list.UnmodifiableList;
  * See <a href="https://issues.apache.org/jira/browse/COLLECTIONS-424">COLLECTIONS-424</a>
  * for more details.
  * </p>
+ * <p>
+ * {@link #enableMembershipSummaries(Shape)} keeps a Bloom filter of each
+ * composited set, so that {@code contains} and {@code remove} skip the sets
+ * which cannot contain the object.
+ * </p>
  *
  * @param <E> the type of the elements in this set
  * @since 3.0
@@ -61,6 +75,12 @@ public class CompositeSet<E> implements Set<E>, Serializable {
     /** Sets in the composite */
     private final List<Set<E>> all = new ArrayList<>();
 
+    /** Shape of the membership summaries, null if they are disabled */
+    private transient Shape summaryShape;
+
+    /** Bloom filters of each set in the composite, null if disabled */
+    private transient List<BloomFilter> summaries;
+
     /**
      * Creates an empty CompositeSet.
      */
@@ -128,8 +148,9 @@ public class CompositeSet<E> implements Set<E>, Serializable {
      */
     @Override
     public boolean contains(final Object obj) {
-        for (final Set<E> item : all) {
-            if (item.contains(obj)) {
+        final IndexProducer indices = summaryIndices(obj);
+        for (int i = 0; i < all.size(); i++) {
+            if (mayContain(i, indices) && all.get(i).contains(obj)) {
                 return true;
             }
         }
@@ -219,7 +240,10 @@ public class CompositeSet<E> implements Set<E>, Serializable {
             throw new UnsupportedOperationException(
                 "add() is not supported on CompositeSet without a SetMutator strategy");
         }
-        return mutator.add(this, all, obj);
+        final int[] sizes = setSizes();
+        final boolean changed = mutator.add(this, all, obj);
+        updateSummaries(Collections.singleton(obj), sizes);
+        return changed;
     }
 
     /**
@@ -231,8 +255,10 @@ public class CompositeSet<E> implements Set<E>, Serializable {
      */
     @Override
     public boolean remove(final Object obj) {
-        for (final Set<E> set : getSets()) {
-            if (set.contains(obj)) {
+        final IndexProducer indices = summaryIndices(obj);
+        for (int i = 0; i < all.size(); i++) {
+            final Set<E> set = all.get(i);
+            if (mayContain(i, indices) && set.contains(obj)) {
                 return set.remove(obj);
             }
         }
@@ -278,7 +304,10 @@ public class CompositeSet<E> implements Set<E>, Serializable {
             throw new UnsupportedOperationException(
                 "addAll() is not supported on CompositeSet without a SetMutator strategy");
         }
-        return mutator.addAll(this, all, coll);
+        final int[] sizes = setSizes();
+        final boolean changed = mutator.addAll(this, all, coll);
+        updateSummaries(coll, sizes);
+        return changed;
     }
 
     /**
@@ -348,6 +377,163 @@ public class CompositeSet<E> implements Set<E>, Serializable {
         for (final Collection<E> coll : all) {
             coll.clear();
         }
+        if (summaries != null) {
+            summaries.stream().filter(Objects::nonNull).forEach(BloomFilter::clear);
+        }
+    }
+
+    /**
+     * Enables a Bloom filter summary of each set in this composite.
+     * <p>
+     * Once enabled, {@code contains} and {@code remove} only probe the sets
+     * whose summary may contain the object. All summaries share the given
+     * shape, which should be sized for the largest set.
+     * </p>
+     * <p>
+     * The summaries are updated when objects are added through {@code add},
+     * {@code addAll} or collision resolution: the objects are recorded in each
+     * set that contains them afterwards. Only sets whose size changed are asked,
+     * and every {@link BoundedCollection}, since it may evict an element for each
+     * element it gains. Sets must therefore not gain elements other than through
+     * this CompositeSet, nor replace elements without changing size unless they
+     * are a {@code BoundedCollection}, otherwise {@link #rebuildMembershipSummaries()}
+     * must be called. Removed objects stay in the summaries until they are
+     * rebuilt, which only costs unnecessary probes. The summaries are not serialized.
+     * </p>
+     * <p>
+     * Summaries are keyed on {@code hashCode()}, so they are only correct for
+     * sets that compare elements with {@code equals} and {@code hashCode}. A
+     * {@link SortedSet} with a comparator is not summarized and is always
+     * probed. Sets with other notions of equality, such as identity, must not
+     * be composited while summaries are enabled.
+     * </p>
+     *
+     * @param shape  the shape of the summaries
+     * @throws NullPointerException if the shape is null
+     * @since 4.5
+     */
+    public void enableMembershipSummaries(final Shape shape) {
+        this.summaryShape = Objects.requireNonNull(shape, "shape");
+        rebuildMembershipSummaries();
+    }
+
+    /**
+     * Disables the summaries, so that every set is probed again.
+     *
+     * @since 4.5
+     */
+    public void disableMembershipSummaries() {
+        summaryShape = null;
+        summaries = null;
+    }
+
+    /**
+     * Rebuilds the summaries from the current elements of the sets.
+     * <p>
+     * This drops objects that have been removed and picks up changes made to
+     * the sets directly. It does nothing if the summaries are disabled.
+     * </p>
+     *
+     * @since 4.5
+     */
+    public void rebuildMembershipSummaries() {
+        if (summaryShape == null) {
+            return;
+        }
+        final List<BloomFilter> filters = new ArrayList<>(all.size());
+        for (final Set<E> set : all) {
+            filters.add(summarize(set));
+        }
+        summaries = filters;
+    }
+
+    /**
+     * Creates the summary of a set.
+     *
+     * @param set  the set to summarize
+     * @return the Bloom filter of its elements, or null if the set does not use hash codes for equality
+     */
+    private BloomFilter summarize(final Set<E> set) {
+        if (set instanceof SortedSet && ((SortedSet<E>) set).comparator() != null) {
+            return null;
+        }
+        final BloomFilter filter = new SimpleBloomFilter(summaryShape);
+        for (final E e : set) {
+            filter.merge(EnhancedDoubleHasher.fromHashCode(e));
+        }
+        return filter;
+    }
+
+    /**
+     * Gets the summary indices of an object.
+     *
+     * @param obj  the object
+     * @return the indices, or null if the summaries are disabled
+     */
+    private IndexProducer summaryIndices(final Object obj) {
+        return summaries == null ? null : EnhancedDoubleHasher.fromHashCode(obj).indices(summaryShape);
+    }
+
+    /**
+     * Tests whether a set may contain an object, according to its summary.
+     *
+     * @param index  the index of the set
+     * @param indices  the summary indices of the object, or null if the summaries are disabled
+     * @return false if the set certainly does not contain the object
+     */
+    private boolean mayContain(final int index, final IndexProducer indices) {
+        return indices == null || summaries.get(index) == null || summaries.get(index).contains(indices);
+    }
+
+    /**
+     * Gets the sizes of the sets before a mutation.
+     *
+     * @return the sizes, or null if the summaries are disabled
+     */
+    private int[] setSizes() {
+        if (summaries == null) {
+            return null;
+        }
+        final int[] sizes = new int[all.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = all.get(i).size();
+        }
+        return sizes;
+    }
+
+    /**
+     * Records objects in the summaries of the sets that contain them after a mutation.
+     * <p>
+     * Only the sets whose size changed, and bounded collections, which may evict an
+     * element for each element they gain, are asked, and only for objects not already
+     * in their summary.
+     * </p>
+     *
+     * @param objects  the objects that may have been added
+     * @param sizes  the sizes of the sets before the mutation, or null if the summaries were disabled
+     */
+    private void updateSummaries(final Collection<?> objects, final int[] sizes) {
+        if (summaries == null || sizes == null) {
+            return;
+        }
+        if (summaries.size() != all.size() || sizes.length != all.size()) {
+            // the mutator changed the list of sets itself
+            rebuildMembershipSummaries();
+            return;
+        }
+        for (int i = 0; i < all.size(); i++) {
+            final Set<E> set = all.get(i);
+            final BloomFilter summary = summaries.get(i);
+            if (summary == null || sizes[i] == set.size() && !(set instanceof BoundedCollection)) {
+                continue;
+            }
+            for (final Object obj : objects) {
+                final Hasher hasher = EnhancedDoubleHasher.fromHashCode(obj);
+                if (!summary.contains(hasher) && set.contains(obj)) {
+                    summary.merge(hasher);
+                }
+            }
+        }
     }
 
     /**
@@ -377,7 +563,9 @@ public class CompositeSet<E> implements Set<E>, Serializable {
                         throw new UnsupportedOperationException(
                                 "Collision adding composited set with no SetMutator set");
                     }
+                    final int[] sizes = setSizes();
                     getMutator().resolveCollision(this, existingSet, set, intersects);
+                    updateSummaries(intersects, sizes);
                     if (!CollectionUtils.intersection(existingSet, set).isEmpty()) {
                         throw new IllegalArgumentException(
                                 "Attempt to add illegal entry unresolved by SetMutator.resolveCollision()");
@@ -385,6 +573,9 @@ public class CompositeSet<E> implements Set<E>, Serializable {
                 }
             }
             all.add(set);
+            if (summaries != null) {
+                summaries.add(summarize(set));
+            }
         }
     }
 
@@ -418,7 +609,13 @@ public class CompositeSet<E> implements Set<E>, Serializable {
      * @param set  set to be removed
      */
     public void removeComposited(final Set<E> set) {
-        all.remove(set);
+        final int index = all.indexOf(set);
+        if (index >= 0) {
+            all.remove(index);
+            if (summaries != null) {
+                summaries.remove(index);
+            }
+        }
     }
 
     /**
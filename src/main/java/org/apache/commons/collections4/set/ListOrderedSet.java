@@ -46,6 +46,12 @@ import org.apache.commons.collections4.list.UnmodifiableList;
  * {@code List} view of the set can be obtained via {@code asList()}.
  * </p>
  * <p>
+ * {@code remove(Object)} and {@code indexOf(Object)} cost as much as on the
+ * order list, which is linear for the default {@code ArrayList}. Pass a
+ * {@link org.apache.commons.collections4.list.HashIndexedList HashIndexedList}
+ * to {@link #listOrderedSet(Set, List)} to make them sublinear.
+ * </p>
+ * <p>
  * This class cannot implement the {@code List} interface directly as
  * various interface methods (notably equals/hashCode) are incompatible with a
  * set.
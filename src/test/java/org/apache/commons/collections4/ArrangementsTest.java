@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for {@link Arrangements}.
+ */
+public class ArrangementsTest {
+
+    private static final List<Character> ABCD = Arrays.asList('A', 'B', 'C', 'D');
+
+    private static String join(final List<Character> list) {
+        return list.stream().map(String::valueOf).collect(Collectors.joining());
+    }
+
+    private static <E> void assertRanks(final Arrangements<E> arrangements) {
+        long rank = 0;
+        for (final List<E> arrangement : arrangements) {
+            assertEquals(arrangements.get(rank), arrangement);
+            assertEquals(rank, arrangements.rank(arrangements.unrank(rank)));
+            rank++;
+        }
+        assertEquals(arrangements.size(), rank);
+    }
+
+    @Test
+    public void testPermutations() {
+        final Arrangements<Character> permutations = Arrangements.permutations(ABCD);
+        assertEquals(24, permutations.size());
+        assertTrue(permutations.isOrdered());
+        assertEquals("ABCD", join(permutations.get(0)));
+        assertEquals("ABDC", join(permutations.get(1)));
+        assertEquals("DCBA", join(permutations.get(23)));
+        assertArrayEquals(new int[] {1, 3, 0, 2}, permutations.unrank(permutations.rank(new int[] {1, 3, 0, 2})));
+        assertEquals(new HashSet<>(CollectionUtils.permutations(ABCD)), new HashSet<>(permutations.stream().collect(Collectors.toList())));
+        assertRanks(permutations);
+
+        assertEquals(1, Arrangements.permutations(Collections.emptyList()).size());
+        assertEquals(Collections.emptyList(), Arrangements.permutations(Collections.emptyList()).get(0));
+        assertEquals(2432902008176640000L, Arrangements.permutations(Collections.nCopies(20, 'x')).size());
+        assertThrows(IllegalArgumentException.class, () -> Arrangements.permutations(Collections.nCopies(21, 'x')));
+    }
+
+    @Test
+    public void testKPermutations() {
+        final Arrangements<Character> permutations = Arrangements.permutations(ABCD, 2);
+        assertEquals(12, permutations.size());
+        assertEquals(Arrays.asList("AB", "AC", "AD", "BA", "BC", "BD", "CA", "CB", "CD", "DA", "DB", "DC"),
+                permutations.stream().map(ArrangementsTest::join).collect(Collectors.toList()));
+        assertRanks(permutations);
+        assertRanks(Arrangements.permutations(Arrays.asList(1, 2, 3, 4, 5, 6), 4));
+        assertEquals(1, Arrangements.permutations(ABCD, 0).size());
+        assertThrows(IllegalArgumentException.class, () -> Arrangements.permutations(ABCD, 5));
+        assertThrows(IllegalArgumentException.class, () -> permutations.rank(new int[] {1, 1}));
+        assertThrows(IllegalArgumentException.class, () -> permutations.rank(new int[] {1}));
+    }
+
+    @Test
+    public void testCombinations() {
+        final Arrangements<Character> combinations = Arrangements.combinations(ABCD, 2);
+        assertEquals(6, combinations.size());
+        assertFalse(combinations.isOrdered());
+        assertEquals(Arrays.asList("AB", "AC", "AD", "BC", "BD", "CD"),
+                combinations.stream().map(ArrangementsTest::join).collect(Collectors.toList()));
+        assertRanks(combinations);
+        assertRanks(Arrangements.combinations(Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8), 5));
+        assertEquals(1, Arrangements.combinations(ABCD, 4).size());
+        assertEquals(1, Arrangements.combinations(ABCD, 0).size());
+        assertEquals(8250291250200L, Arrangements.combinations(Collections.nCopies(1000, 'x'), 5).size());
+        final Arrangements<Character> large = Arrangements.combinations(Collections.nCopies(1000, 'x'), 4);
+        assertArrayEquals(new int[] {3, 4, 998, 999}, large.unrank(large.rank(new int[] {3, 4, 998, 999})));
+        assertThrows(IllegalArgumentException.class, () -> combinations.rank(new int[] {2, 1}));
+        assertThrows(IndexOutOfBoundsException.class, () -> combinations.get(6));
+        assertThrows(IndexOutOfBoundsException.class, () -> combinations.get(-1));
+    }
+
+    @Test
+    public void testSpliterator() {
+        final Arrangements<Integer> permutations = Arrangements.permutations(Arrays.asList(1, 2, 3, 4, 5, 6, 7));
+        final Spliterator<List<Integer>> spliterator = permutations.spliterator();
+        assertEquals(5040, spliterator.getExactSizeIfKnown());
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SUBSIZED));
+        // split after consuming a few elements, the prefix continues where the spliterator stopped
+        final List<List<Integer>> all = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(spliterator.tryAdvance(all::add));
+        }
+        final Spliterator<List<Integer>> prefix = spliterator.trySplit();
+        assertNotNull(prefix);
+        assertEquals(5037 / 2, prefix.estimateSize());
+        prefix.forEachRemaining(all::add);
+        spliterator.forEachRemaining(all::add);
+        assertEquals(permutations.stream().collect(Collectors.toList()), all);
+
+        final Spliterator<List<Integer>> range = permutations.spliterator(100, 101);
+        assertNull(range.trySplit());
+        assertTrue(range.tryAdvance(p -> assertEquals(permutations.get(100), p)));
+        assertFalse(range.tryAdvance(p -> { }));
+        assertThrows(IndexOutOfBoundsException.class, () -> permutations.spliterator(0, 5041));
+
+        assertEquals(permutations.stream().mapToLong(p -> p.get(0) * 7 + p.get(6)).sum(),
+                permutations.parallelStream().mapToLong(p -> p.get(0) * 7 + p.get(6)).sum());
+        assertEquals(permutations.size(), permutations.parallelStream().distinct().count());
+    }
+
+}
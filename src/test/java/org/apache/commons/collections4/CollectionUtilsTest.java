@@ -42,6 +42,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.Random;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
@@ -1583,6 +1584,47 @@ public class CollectionUtilsTest extends MockTestCase {
         assertThrows(NullPointerException.class, () -> CollectionUtils.isProperSubCollection(list, null));
     }
 
+    @Test
+    public void testCardinalityOperationsMatchBags() {
+        final Random random = new Random(32);
+        for (int round = 0; round < 20; round++) {
+            final List<Integer> a = new ArrayList<>();
+            final List<Integer> b = new ArrayList<>();
+            final int range = 1 + random.nextInt(200);
+            for (int i = random.nextInt(2000); i > 0; i--) {
+                a.add(random.nextInt(10) == 0 ? null : random.nextInt(range));
+            }
+            for (int i = random.nextInt(2000); i > 0; i--) {
+                b.add(random.nextInt(10) == 0 ? null : random.nextInt(range));
+            }
+            final HashBag<Integer> bagA = new HashBag<>(a);
+            final HashBag<Integer> bagB = new HashBag<>(b);
+            final HashBag<Integer> union = new HashBag<>();
+            final HashBag<Integer> intersection = new HashBag<>();
+            final HashBag<Integer> disjunction = new HashBag<>();
+            final Set<Integer> all = new HashSet<>(a);
+            all.addAll(b);
+            for (final Integer obj : all) {
+                union.add(obj, Math.max(bagA.getCount(obj), bagB.getCount(obj)));
+                intersection.add(obj, Math.min(bagA.getCount(obj), bagB.getCount(obj)));
+                disjunction.add(obj, Math.abs(bagA.getCount(obj) - bagB.getCount(obj)));
+            }
+            assertEquals(union, new HashBag<>(CollectionUtils.union(a, b)));
+            assertEquals(intersection, new HashBag<>(CollectionUtils.intersection(a, b)));
+            assertEquals(disjunction, new HashBag<>(CollectionUtils.disjunction(a, b)));
+            assertEquals(bagA.containsAll(bagB) && bagB.containsAll(bagA) && a.size() == b.size(),
+                    CollectionUtils.isEqualCollection(a, b));
+            final List<Integer> shuffled = new ArrayList<>(a);
+            Collections.shuffle(shuffled, random);
+            assertTrue(CollectionUtils.isEqualCollection(a, shuffled));
+            assertTrue(CollectionUtils.isSubCollection(intersection, a));
+            assertTrue(CollectionUtils.isSubCollection(a, union));
+            if (!disjunction.isEmpty()) {
+                assertFalse(CollectionUtils.isSubCollection(union, intersection));
+            }
+        }
+    }
+
     @Test
     public void testIsSubCollection() {
         assertFalse(CollectionUtils.isSubCollection(collectionA, collectionC));
@@ -2155,6 +2197,13 @@ public class CollectionUtilsTest extends MockTestCase {
         assertNull(freq2.get(1));
     }
 
+    @Test
+    public void testSubtractKeepsOrderAndNulls() {
+        final Collection<String> col = CollectionUtils.subtract(Arrays.asList("a", null, "b", "a", null),
+                Arrays.asList(null, "a", "c"));
+        assertEquals(Arrays.asList("b", "a", null), col);
+    }
+
     @Test
     public void testSubtractNullColl1() {
         final Collection<String> list = new ArrayList<>(1);
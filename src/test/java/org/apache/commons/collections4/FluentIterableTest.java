@@ -32,7 +32,9 @@ import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Spliterator;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -431,6 +433,126 @@ public class FluentIterableTest {
         assertFalse(iterator.hasNext());
     }
 
+    @Test
+    public void spliterator() {
+        final FluentIterable<Integer> chained = FluentIterable.of(iterableEven).append(iterableOdd).append(iterableA);
+        Spliterator<Integer> spliterator = chained.spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(22, spliterator.getExactSizeIfKnown());
+        // splits at the chain boundaries first
+        final Spliterator<Integer> prefix = spliterator.trySplit();
+        assertEquals(12, prefix.getExactSizeIfKnown());
+        assertEquals(10, spliterator.getExactSizeIfKnown());
+        final List<Integer> elements = new ArrayList<>();
+        prefix.forEachRemaining(elements::add);
+        spliterator.forEachRemaining(elements::add);
+        assertEquals(chained.toList(), elements);
+
+        spliterator = chained.transform(i -> i * 2).spliterator();
+        assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(22, spliterator.getExactSizeIfKnown());
+
+        spliterator = chained.filter(i -> i % 2 == 0).spliterator();
+        assertFalse(spliterator.hasCharacteristics(Spliterator.SIZED));
+        assertNotNull(spliterator.trySplit());
+
+        assertEquals(12, FluentIterable.of(iterableEven).zip(iterableOdd).spliterator().getExactSizeIfKnown());
+        assertEquals(-1, FluentIterable.of(iterableEven).zip(FluentIterable.of(iterableOdd).filter(i -> true))
+                .spliterator().getExactSizeIfKnown());
+    }
+
+    @Test
+    public void spliteratorCreatesEachPartOnce() {
+        final AtomicInteger created = new AtomicInteger();
+        final List<Integer> part = Arrays.asList(1, 2, 3);
+        final Iterable<Integer> counting = new Iterable<Integer>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                return part.iterator();
+            }
+
+            @Override
+            public Spliterator<Integer> spliterator() {
+                created.incrementAndGet();
+                return part.spliterator();
+            }
+        };
+        final Spliterator<Integer> spliterator = IterableUtils.chainedIterable(
+                counting, counting, counting, counting, counting, counting, counting, counting).spliterator();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(24, spliterator.estimateSize());
+            assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED));
+        }
+        final Spliterator<Integer> prefix = spliterator.trySplit();
+        assertEquals(12, prefix.estimateSize());
+        assertEquals(12, spliterator.estimateSize());
+        final List<Integer> elements = new ArrayList<>();
+        prefix.forEachRemaining(elements::add);
+        spliterator.forEachRemaining(elements::add);
+        assertEquals(24, elements.size());
+        assertEquals(8, created.get());
+    }
+
+    @Test
+    public void stream() {
+        final FluentIterable<Integer> chain = FluentIterable.of(iterableA)
+                .append(iterableEven)
+                .collate(iterableOdd)
+                .filter(i -> i > 2)
+                .transform(i -> i + 1);
+        assertEquals(chain.toList(), chain.stream().collect(Collectors.toList()));
+        assertEquals(chain.toList(), chain.parallelStream().collect(Collectors.toList()));
+
+        final List<Integer> large = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            large.add(i);
+        }
+        final FluentIterable<Long> parallel = FluentIterable.of(large)
+                .append(large)
+                .filter(i -> i % 3 == 0)
+                .transform(Integer::longValue);
+        assertEquals(parallel.stream().mapToLong(Long::longValue).sum(),
+                parallel.parallelStream().mapToLong(Long::longValue).sum());
+        assertEquals(0, FluentIterable.empty().stream().count());
+    }
+
+    @Test
+    public void fusedTerminalOperations() {
+        final FluentIterable<Integer> chain = FluentIterable.of(iterableA)
+                .append(iterableEven)
+                .filter(i -> i % 2 == 0)
+                .transform(i -> i * 10)
+                .skip(2)
+                .limit(5);
+        final List<Integer> expected = new ArrayList<>();
+        chain.iterator().forEachRemaining(expected::add);
+        assertEquals(Arrays.asList(40, 40, 40, 40, 20), expected);
+        assertEquals(expected, chain.toList());
+        assertEquals(expected.size(), chain.size());
+        final List<Integer> copy = new ArrayList<>();
+        chain.copyInto(copy);
+        assertEquals(expected, copy);
+        final List<Integer> visited = new ArrayList<>();
+        chain.forEach((Closure<Integer>) visited::add);
+        assertEquals(expected, visited);
+        assertTrue(chain.anyMatch(i -> i == 20));
+        assertFalse(chain.allMatch(i -> i == 40));
+
+        final Spliterator<Integer> limited = FluentIterable.of(iterableA).limit(3).spliterator();
+        assertEquals(3, limited.getExactSizeIfKnown());
+        final Spliterator<Integer> skipped = FluentIterable.of(iterableA).skip(3).spliterator();
+        assertEquals(7, skipped.getExactSizeIfKnown());
+        assertEquals(0, FluentIterable.of(iterableA).skip(20).size());
+
+        // anyMatch and allMatch stop at the first decisive element
+        final AtomicInteger calls = new AtomicInteger();
+        assertTrue(FluentIterable.of(iterableA).anyMatch(i -> calls.incrementAndGet() > 0 && i == 2));
+        assertEquals(2, calls.get());
+        calls.set(0);
+        assertFalse(FluentIterable.of(iterableA).allMatch(i -> calls.incrementAndGet() > 0 && i == 1));
+        assertEquals(2, calls.get());
+    }
+
     @Test
     public void get() {
         assertEquals(2, FluentIterable.of(iterableEven).get(0).intValue());
@@ -17,6 +17,7 @@
 package org.apache.commons.collections4;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
@@ -25,12 +26,14 @@ import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 
 import org.apache.commons.collections4.functors.EqualPredicate;
 import org.apache.commons.collections4.list.PredicatedList;
@@ -314,6 +317,93 @@ public class ListUtilsTest {
         assertEquals(0, lcs.length());
     }
 
+    @Test
+    public void testLongestCommonSubsequenceOfArrays() {
+        assertThrows(NullPointerException.class, () -> ListUtils.longestCommonSubsequence((int[]) null, new int[0]));
+        assertThrows(NullPointerException.class, () -> ListUtils.longestCommonSubsequence(new long[0], null));
+        assertThrows(NullPointerException.class, () -> ListUtils.longestCommonSubsequenceLength("A", null));
+
+        assertArrayEquals(new int[] {2, 3, 5}, ListUtils.longestCommonSubsequence(new int[] {1, 2, 3, 4, 5}, new int[] {2, 3, 7, 5}));
+        assertArrayEquals(new long[] {Long.MIN_VALUE, Long.MAX_VALUE},
+                ListUtils.longestCommonSubsequence(new long[] {0, Long.MIN_VALUE, 1, Long.MAX_VALUE}, new long[] {Long.MIN_VALUE, Long.MAX_VALUE, 0}));
+        assertEquals(0, ListUtils.longestCommonSubsequence(new int[0], new int[] {1}).length);
+        assertEquals(3, ListUtils.longestCommonSubsequenceLength(new int[] {1, 2, 3, 4, 5}, new int[] {2, 3, 7, 5}));
+        assertEquals(5, ListUtils.longestCommonSubsequenceLength("BANANA", "ANANAS"));
+        assertEquals(0, ListUtils.longestCommonSubsequenceLength("", "ZORRO"));
+    }
+
+    @Test
+    public void testLongestCommonSubsequenceMatchesDynamicProgramming() {
+        final Random random = new Random(42);
+        // lengths around the 64 and 128 bit word boundaries and alphabets of different sizes
+        final int[] lengths = {0, 1, 5, 63, 64, 65, 127, 128, 129, 300};
+        for (final int lengthA : lengths) {
+            for (final int lengthB : lengths) {
+                for (final int alphabet : new int[] {2, 4, 26, 1000}) {
+                    final int[] arrayA = random.ints(lengthA, 0, alphabet).toArray();
+                    final int[] arrayB = random.ints(lengthB, 0, alphabet).toArray();
+                    final int expected = lcsLength(arrayA, arrayB);
+                    assertEquals(expected, ListUtils.longestCommonSubsequenceLength(arrayA, arrayB));
+                    assertEquals(expected, ListUtils.longestCommonSubsequenceLength(arrayB, arrayA));
+                    final int[] lcs = ListUtils.longestCommonSubsequence(arrayA, arrayB);
+                    assertEquals(expected, lcs.length);
+                    assertTrue(isSubsequence(lcs, arrayA));
+                    assertTrue(isSubsequence(lcs, arrayB));
+
+                    final StringBuilder stringA = new StringBuilder();
+                    final StringBuilder stringB = new StringBuilder();
+                    Arrays.stream(arrayA).forEach(i -> stringA.append((char) ('a' + i)));
+                    Arrays.stream(arrayB).forEach(i -> stringB.append((char) ('a' + i)));
+                    final String string = ListUtils.longestCommonSubsequence(stringA, stringB);
+                    assertEquals(expected, string.length());
+                    assertEquals(ListUtils.longestCommonSubsequence(
+                            new CharSequenceList(stringA), new CharSequenceList(stringB)).size(), expected);
+                }
+            }
+        }
+    }
+
+    /**
+     * A CharSequence as list of characters.
+     */
+    private static final class CharSequenceList extends AbstractList<Character> {
+        private final CharSequence sequence;
+
+        CharSequenceList(final CharSequence sequence) {
+            this.sequence = sequence;
+        }
+
+        @Override
+        public Character get(final int index) {
+            return sequence.charAt(index);
+        }
+
+        @Override
+        public int size() {
+            return sequence.length();
+        }
+    }
+
+    private static int lcsLength(final int[] a, final int[] b) {
+        final int[][] table = new int[a.length + 1][b.length + 1];
+        for (int i = 1; i <= a.length; i++) {
+            for (int j = 1; j <= b.length; j++) {
+                table[i][j] = a[i - 1] == b[j - 1] ? table[i - 1][j - 1] + 1 : Math.max(table[i - 1][j], table[i][j - 1]);
+            }
+        }
+        return table[a.length][b.length];
+    }
+
+    private static boolean isSubsequence(final int[] subsequence, final int[] sequence) {
+        int i = 0;
+        for (int j = 0; j < sequence.length && i < subsequence.length; j++) {
+            if (subsequence[i] == sequence[j]) {
+                i++;
+            }
+        }
+        return i == subsequence.length;
+    }
+
     @Test
     @SuppressWarnings("boxing") // OK in test code
     public void testPartition() {
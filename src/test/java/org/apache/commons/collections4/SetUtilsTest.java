@@ -25,10 +25,15 @@ import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.collections4.SetUtils.SetView;
 import org.apache.commons.collections4.set.PredicatedSet;
@@ -219,6 +224,107 @@ public class SetUtilsTest {
         );
     }
 
+    @Test
+    public void testIntersectionIteratesSmallerSet() {
+        final Set<Integer> large = new HashSet<Integer>(setA) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public Iterator<Integer> iterator() {
+                throw new AssertionError("iterated the larger set");
+            }
+        };
+        for (int i = 100; i < 200; i++) {
+            large.add(i);
+        }
+        assertEquals(3, SetUtils.intersection(large, setB).size());
+        assertEquals(3, SetUtils.intersection(setB, large).size());
+        assertFalse(SetUtils.intersection(large, setB).isEmpty());
+    }
+
+    @Test
+    public void testMemoize() {
+        final SetView<Integer> view = SetUtils.union(SetUtils.intersection(setA, setB), SetUtils.hashSet(9));
+        final SetView<Integer> memoized = view.memoize();
+        assertSame(memoized, memoized.memoize());
+        assertEquals(4, memoized.size());
+        assertEquals(SetUtils.hashSet(3, 4, 5, 9), memoized.toSet());
+
+        setB.remove(3);
+        assertEquals(3, view.size());
+        assertEquals(4, memoized.size());
+        assertTrue(memoized.contains(3));
+        memoized.invalidate();
+        assertEquals(3, memoized.size());
+        assertFalse(memoized.contains(3));
+        assertEquals(view, memoized);
+    }
+
+    @Test
+    public void testMemoizeNested() {
+        final Set<Integer> a = SetUtils.hashSet(1, 2);
+        final Set<Integer> b = SetUtils.hashSet(3);
+        final Set<Integer> c = SetUtils.hashSet(1, 3, 4);
+        final SetView<Integer> innerUnion = SetUtils.union(a, b).memoize();
+        final SetView<Integer> outer = SetUtils.intersection(innerUnion, c).memoize();
+        assertEquals(SetUtils.hashSet(1, 3), outer.toSet());
+
+        a.add(4);
+        assertEquals(SetUtils.hashSet(1, 3), outer.toSet());
+        outer.invalidate();
+        assertEquals(SetUtils.hashSet(1, 3, 4), outer.toSet());
+        assertTrue(innerUnion.contains(4));
+
+        // each composite view passes the call on to its view arguments
+        final SetView<Integer> memoizedA = SetUtils.union(a, SetUtils.<Integer>emptySet()).memoize();
+        final SetView<Integer> difference = SetUtils.difference(memoizedA, b);
+        final SetView<Integer> disjunction = SetUtils.disjunction(b, difference);
+        assertTrue(disjunction.contains(2));
+        a.remove(2);
+        assertTrue(disjunction.contains(2));
+        disjunction.invalidate();
+        assertFalse(disjunction.contains(2));
+    }
+
+    @Test
+    public void testSortedMerge() {
+        final TreeSet<Integer> sortedA = new TreeSet<>(Comparator.reverseOrder());
+        final TreeSet<Integer> sortedB = new TreeSet<>(Comparator.reverseOrder());
+        for (int i = 0; i < 40; i++) {
+            sortedA.add(i * 2);
+            sortedB.add(i * 3);
+        }
+        assertSortedViews(sortedA, sortedB);
+        // a small set against a large one probes instead of merging
+        assertSortedViews(new TreeSet<>(sortedA.headSet(70)), sortedB);
+        assertSortedViews(sortedA, new TreeSet<>(sortedB.headSet(100)));
+
+        assertSortedViews(new TreeSet<>(new HashSet<>(sortedA)), new TreeSet<>(new HashSet<>(sortedB)));
+    }
+
+    private static void assertSortedViews(final TreeSet<Integer> sortedA, final TreeSet<Integer> sortedB) {
+        final Set<Integer> hashA = new HashSet<>(sortedA);
+        final Set<Integer> hashB = new HashSet<>(sortedB);
+        assertSortedView(SetUtils.union(hashA, hashB), SetUtils.union(sortedA, sortedB), sortedA.comparator());
+        assertSortedView(SetUtils.intersection(hashA, hashB), SetUtils.intersection(sortedA, sortedB),
+                sortedA.comparator());
+        assertSortedView(SetUtils.difference(hashA, hashB), SetUtils.difference(sortedA, sortedB),
+                sortedA.comparator());
+        assertSortedView(SetUtils.difference(hashB, hashA), SetUtils.difference(sortedB, sortedA),
+                sortedA.comparator());
+        assertSortedView(SetUtils.disjunction(hashA, hashB), SetUtils.disjunction(sortedA, sortedB),
+                sortedA.comparator());
+    }
+
+    private static void assertSortedView(final Set<Integer> expected, final SetView<Integer> actual,
+            final Comparator<? super Integer> comparator) {
+        final List<Integer> sorted = new ArrayList<>(expected);
+        sorted.sort(comparator);
+        assertEquals(sorted, new ArrayList<>(actual));
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected.isEmpty(), actual.isEmpty());
+    }
+
     @Test
     public void testUnmodifiableSet() {
         final Set<?> set1 = SetUtils.unmodifiableSet();
@@ -16,9 +16,22 @@
  */
 package org.apache.commons.collections4.bidimap;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SortedMap;
 import java.util.TreeMap;
 
 import org.apache.commons.collections4.BidiMap;
+import org.junit.jupiter.api.Test;
 
 /**
  * JUnit tests.
@@ -67,6 +80,128 @@ public class TreeBidiMapTest<K extends Comparable<K>, V extends Comparable<V>> e
         return "4";
     }
 
+    @Test
+    public void testBulkBuildMatchesIncrementalInsertion() {
+        final Random random = new Random(39);
+        for (final int size : new int[] {2, 3, 7, 8, 100, 1000}) {
+            final Map<Integer, String> source = new LinkedHashMap<>();
+            while (source.size() < size) {
+                final int key = random.nextInt(10 * size);
+                source.put(key, "v" + (10 * size - key));
+            }
+            final TreeBidiMap<Integer, String> incremental = new TreeBidiMap<>();
+            source.forEach(incremental::put);
+            final TreeBidiMap<Integer, String> bulk = new TreeBidiMap<>(source);
+            final TreeBidiMap<Integer, String> sorted = new TreeBidiMap<>(new TreeMap<>(source));
+            assertEquals(incremental, bulk);
+            assertEquals(incremental, sorted);
+            assertEquals(new ArrayList<>(incremental.keySet()), new ArrayList<>(bulk.keySet()));
+            assertEquals(new ArrayList<>(incremental.values()), new ArrayList<>(bulk.values()));
+            assertEquals(new ArrayList<>(incremental.inverseBidiMap().keySet()),
+                    new ArrayList<>(bulk.inverseBidiMap().keySet()));
+            // the built trees keep working as red-black trees
+            for (final Integer key : source.keySet()) {
+                if (key % 3 == 0) {
+                    incremental.remove(key);
+                    bulk.remove(key);
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                incremental.put(-i, "w" + i);
+                bulk.put(-i, "w" + i);
+            }
+            assertEquals(incremental, bulk);
+            assertEquals(new ArrayList<>(incremental.values()), new ArrayList<>(bulk.values()));
+        }
+    }
+
+    @Test
+    public void testBulkBuildFallsBackOnDuplicateValues() {
+        final Map<Integer, String> source = new LinkedHashMap<>();
+        source.put(1, "a");
+        source.put(2, "b");
+        source.put(3, "a");
+        final TreeBidiMap<Integer, String> map = new TreeBidiMap<>(source);
+        assertEquals(2, map.size());
+        assertEquals(Integer.valueOf(3), map.getKey("a"));
+        assertNull(map.get(1));
+        assertEquals(map, new TreeBidiMap<Integer, String>() { {
+                source.forEach(this::put);
+            } });
+        source.put(4, null);
+        assertThrows(NullPointerException.class, () -> new TreeBidiMap<>(source));
+    }
+
+    @Test
+    public void testRangeViewsMatchTreeMap() {
+        final TreeMap<Integer, Integer> byKey = new TreeMap<>();
+        final TreeMap<Integer, Integer> byValue = new TreeMap<>();
+        final TreeBidiMap<Integer, Integer> map = new TreeBidiMap<>();
+        for (int i = 0; i < 50; i++) {
+            final int value = i * 7 % 50;
+            map.put(i, value);
+            byKey.put(i, value);
+            byValue.put(value, i);
+        }
+        for (int from = -2; from < 53; from += 5) {
+            for (int to = from; to < 55; to += 4) {
+                assertEquals(byKey.subMap(from, to), map.subMap(from, to));
+                assertEquals(new ArrayList<>(byKey.subMap(from, to).entrySet()),
+                        new ArrayList<>(map.subMap(from, to).entrySet()));
+                assertEquals(new ArrayList<>(byValue.subMap(from, to).entrySet()),
+                        new ArrayList<>(map.subMapByValue(from, to).entrySet()));
+                assertEquals(byKey.subMap(from, to).size(), map.subMap(from, to).size());
+            }
+            assertEquals(byKey.headMap(from), map.headMap(from));
+            assertEquals(byKey.tailMap(from), map.tailMap(from));
+            assertEquals(byValue.headMap(from), map.headMapByValue(from));
+            assertEquals(byValue.tailMap(from), map.tailMapByValue(from));
+        }
+        final SortedMap<Integer, Integer> view = map.subMap(10, 20);
+        assertEquals(Integer.valueOf(10), view.firstKey());
+        assertEquals(Integer.valueOf(19), view.lastKey());
+        assertEquals(byKey.subMap(12, 15), view.subMap(12, 15));
+        assertEquals(byKey.subMap(10, 20).tailMap(15), view.tailMap(15));
+        assertNull(view.get(20));
+        assertFalse(view.containsKey(9));
+        assertThrows(IllegalArgumentException.class, () -> view.subMap(5, 15));
+        assertThrows(IllegalArgumentException.class, () -> view.put(25, 100));
+        assertThrows(IllegalArgumentException.class, () -> map.subMap(5, 4));
+    }
+
+    @Test
+    public void testRangeViewModification() {
+        final TreeBidiMap<Integer, String> map = new TreeBidiMap<>();
+        for (int i = 0; i < 20; i++) {
+            map.put(i, "v" + (char) ('a' + 19 - i));
+        }
+        final SortedMap<Integer, String> view = map.subMap(5, 10);
+        for (final Iterator<Map.Entry<Integer, String>> it = view.entrySet().iterator(); it.hasNext();) {
+            if (it.next().getKey() % 2 == 0) {
+                it.remove();
+            }
+        }
+        assertEquals(18, map.size());
+        assertEquals("[5, 7, 9]", view.keySet().toString());
+        assertEquals("vm", view.remove(7));
+        assertNull(view.remove(12));
+        assertEquals(17, map.size());
+        view.put(6, "vz");
+        assertEquals(Integer.valueOf(6), map.getKey("vz"));
+
+        final SortedMap<String, Integer> byValue = map.headMapByValue("vm");
+        final List<String> values = new ArrayList<>(byValue.keySet());
+        assertEquals("va", values.get(0));
+        byValue.keySet().clear();
+        assertEquals(map.size(), map.tailMapByValue("vm").size());
+        assertEquals("vo", map.inverseBidiMap().firstKey());
+
+        final Iterator<Integer> it = map.tailMap(0).keySet().iterator();
+        it.next();
+        map.put(100, "x");
+        assertThrows(java.util.ConcurrentModificationException.class, it::next);
+    }
+
 //    public void testCreate() throws Exception {
 //        resetEmpty();
 //        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/data/test/TreeBidiMap.emptyCollection.version4.obj");
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bloomfilter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the {@link BlockedBloomFilter}.
+ */
+public class BlockedBloomFilterTest {
+
+    @Test
+    public void testShapeMustBeWholeBlocks() {
+        assertThrows(IllegalArgumentException.class, () -> new BlockedBloomFilter(Shape.fromKM(3, 1000)));
+        assertEquals(1024, new BlockedBloomFilter(Shape.fromKM(3, 1024)).getShape().getNumberOfBits());
+    }
+
+    @Test
+    public void testItemBitsShareOneBlock() {
+        final Shape shape = Shape.fromKM(8, 512 * 64);
+        for (int i = 0; i < 100; i++) {
+            final BlockedBloomFilter filter = new BlockedBloomFilter(shape);
+            final Hasher hasher = MurmurHash3.hasher("item-" + i);
+            filter.merge(hasher);
+            assertTrue(filter.contains(hasher));
+            final int[] indices = filter.asIndexArray();
+            assertTrue(indices.length > 0 && indices.length <= shape.getNumberOfHashFunctions());
+            assertEquals(indices[0] / BlockedBloomFilter.BLOCK_BITS,
+                indices[indices.length - 1] / BlockedBloomFilter.BLOCK_BITS);
+            assertEquals(indices.length, filter.cardinality());
+        }
+    }
+
+    @Test
+    public void testFalsePositiveRateMatchesShapeMath() {
+        final int items = 20000;
+        final Shape shape = BlockedBloomFilter.fromNP(items, 0.01);
+        assertEquals(0, shape.getNumberOfBits() % BlockedBloomFilter.BLOCK_BITS);
+        final double expected = BlockedBloomFilter.getProbability(shape, items);
+        assertTrue(expected <= 0.01);
+        // blocking costs accuracy against a standard filter of the same shape
+        assertTrue(expected > shape.getProbability(items));
+        // and one block fewer misses the target
+        assertTrue(BlockedBloomFilter.getProbability(
+            Shape.fromKM(shape.getNumberOfHashFunctions(), shape.getNumberOfBits() - BlockedBloomFilter.BLOCK_BITS),
+            items) > 0.01);
+
+        final BlockedBloomFilter filter = new BlockedBloomFilter(shape);
+        for (int i = 0; i < items; i++) {
+            filter.merge(MurmurHash3.hasher("key-" + i));
+        }
+        for (int i = 0; i < items; i++) {
+            assertTrue(filter.contains(MurmurHash3.hasher("key-" + i)));
+        }
+        final int probes = 200000;
+        int falsePositives = 0;
+        for (int i = items; i < items + probes; i++) {
+            if (filter.contains(MurmurHash3.hasher("key-" + i))) {
+                falsePositives++;
+            }
+        }
+        final double measured = (double) falsePositives / probes;
+        assertTrue(measured > expected * 0.7 && measured < expected * 1.3,
+            "measured " + measured + " expected " + expected);
+    }
+
+    @Test
+    public void testProbabilityOfEmptyFilter() {
+        assertEquals(0.0, BlockedBloomFilter.getProbability(Shape.fromKM(5, 1024), 0));
+        assertThrows(IllegalArgumentException.class, () -> BlockedBloomFilter.getProbability(Shape.fromKM(5, 1024), -1));
+        assertThrows(IllegalArgumentException.class, () -> BlockedBloomFilter.fromNP(0, 0.1));
+        assertThrows(IllegalArgumentException.class, () -> BlockedBloomFilter.fromNP(10, 1.0));
+    }
+
+    @Test
+    public void testBitVectorOperations() {
+        final Shape shape = Shape.fromKM(6, 2048);
+        final BlockedBloomFilter first = new BlockedBloomFilter(shape);
+        final BlockedBloomFilter second = new BlockedBloomFilter(shape);
+        first.merge(MurmurHash3.hasher("first"));
+        second.merge(MurmurHash3.hasher("second"));
+
+        final BlockedBloomFilter union = first.copy();
+        union.merge(second);
+        assertTrue(union.contains(MurmurHash3.hasher("first")));
+        assertTrue(union.contains(MurmurHash3.hasher("second")));
+        assertTrue(union.contains(first));
+        assertFalse(first.contains(union));
+        assertEquals(SetOperations.orCardinality(first, second), union.cardinality());
+        assertEquals(1.0, SetOperations.cosineSimilarity(first, first.copy()));
+
+        final SimpleBloomFilter simple = new SimpleBloomFilter(shape);
+        simple.merge((BitMapProducer) union);
+        assertArrayEquals(union.asBitMapArray(), simple.asBitMapArray());
+        final BlockedBloomFilter fromIndices = new BlockedBloomFilter(shape);
+        fromIndices.merge((IndexProducer) union);
+        assertArrayEquals(union.asBitMapArray(), fromIndices.asBitMapArray());
+        assertThrows(IllegalArgumentException.class, () -> fromIndices.merge(IndexProducer.fromIndexArray(2048)));
+
+        union.clear();
+        assertEquals(0, union.cardinality());
+        assertFalse(union.contains(MurmurHash3.hasher("first")));
+    }
+}
@@ -0,0 +1,409 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bloomfilter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the {@link BloomFilterCodec}.
+ */
+public class BloomFilterCodecTest {
+
+    private static final Shape SHAPE = Shape.fromKM(7, 1024);
+
+    /**
+     * A filter of another library, producing its indices in descending order and each twice.
+     */
+    private static final class UnorderedBloomFilter implements BloomFilter {
+        private final SimpleBloomFilter bits;
+
+        UnorderedBloomFilter(final SimpleBloomFilter bits) {
+            this.bits = bits;
+        }
+
+        @Override
+        public boolean forEachIndex(final IntPredicate predicate) {
+            final int[] indices = bits.asIndexArray();
+            for (int i = indices.length - 1; i >= 0; i--) {
+                if (!predicate.test(indices[i]) || !predicate.test(indices[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean forEachBitMap(final LongPredicate predicate) {
+            return bits.forEachBitMap(predicate);
+        }
+
+        @Override
+        public BloomFilter copy() {
+            return new UnorderedBloomFilter(bits.copy());
+        }
+
+        @Override
+        public int characteristics() {
+            return SPARSE;
+        }
+
+        @Override
+        public Shape getShape() {
+            return bits.getShape();
+        }
+
+        @Override
+        public void clear() {
+            bits.clear();
+        }
+
+        @Override
+        public boolean contains(final IndexProducer indexProducer) {
+            return bits.contains(indexProducer);
+        }
+
+        @Override
+        public boolean merge(final IndexProducer indexProducer) {
+            return bits.merge(indexProducer);
+        }
+
+        @Override
+        public boolean merge(final BitMapProducer bitMapProducer) {
+            return bits.merge(bitMapProducer);
+        }
+
+        @Override
+        public int cardinality() {
+            return bits.cardinality();
+        }
+    }
+
+    /**
+     * A counting filter of another library, producing its cells in descending order of index and
+     * split into cells of one.
+     */
+    private static final class UnorderedCountingBloomFilter implements CountingBloomFilter {
+        private final ArrayCountingBloomFilter counts;
+
+        UnorderedCountingBloomFilter(final ArrayCountingBloomFilter counts) {
+            this.counts = counts;
+        }
+
+        @Override
+        public boolean forEachCell(final CellConsumer consumer) {
+            final int[] cells = new int[getShape().getNumberOfBits()];
+            counts.forEachCell((idx, value) -> {
+                cells[idx] = value;
+                return true;
+            });
+            for (int i = cells.length - 1; i >= 0; i--) {
+                for (int j = 0; j < cells[i]; j++) {
+                    if (!consumer.test(i, 1)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public boolean forEachBitMap(final LongPredicate predicate) {
+            return counts.forEachBitMap(predicate);
+        }
+
+        @Override
+        public CountingBloomFilter copy() {
+            return new UnorderedCountingBloomFilter(counts.copy());
+        }
+
+        @Override
+        public int characteristics() {
+            return 0;
+        }
+
+        @Override
+        public Shape getShape() {
+            return counts.getShape();
+        }
+
+        @Override
+        public void clear() {
+            counts.clear();
+        }
+
+        @Override
+        public boolean contains(final IndexProducer indexProducer) {
+            return counts.contains(indexProducer);
+        }
+
+        @Override
+        public int cardinality() {
+            return counts.cardinality();
+        }
+
+        @Override
+        public boolean isValid() {
+            return counts.isValid();
+        }
+
+        @Override
+        public int getMaxCell() {
+            return counts.getMaxCell();
+        }
+
+        @Override
+        public int getMaxInsert(final CellProducer cellProducer) {
+            return counts.getMaxInsert(cellProducer);
+        }
+
+        @Override
+        public boolean add(final CellProducer other) {
+            return counts.add(other);
+        }
+
+        @Override
+        public boolean subtract(final CellProducer other) {
+            return counts.subtract(other);
+        }
+    }
+
+    private static <T extends BloomFilter> T fill(final T filter, final int items, final long seed) {
+        final Random random = new Random(seed);
+        for (int i = 0; i < items; i++) {
+            filter.merge(new EnhancedDoubleHasher(random.nextLong(), random.nextLong()));
+        }
+        return filter;
+    }
+
+    private static byte[] write(final BloomFilter filter) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BloomFilterCodec.write(filter, new DataOutputStream(bytes));
+        return bytes.toByteArray();
+    }
+
+    private static BloomFilter read(final byte[] bytes) throws IOException {
+        return BloomFilterCodec.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    private static void assertSameContent(final BloomFilter expected, final BloomFilter actual) {
+        assertEquals(expected.getClass(), actual.getClass());
+        assertEquals(expected.getShape(), actual.getShape());
+        assertArrayEquals(expected.asBitMapArray(), actual.asBitMapArray());
+        if (expected instanceof CountingBloomFilter) {
+            assertEquals(cells((CountingBloomFilter) expected), cells((CountingBloomFilter) actual));
+        }
+    }
+
+    private static String cells(final CountingBloomFilter filter) {
+        final StringBuilder sb = new StringBuilder();
+        filter.forEachCell((i, v) -> {
+            sb.append(i).append('=').append(v).append(' ');
+            return true;
+        });
+        return sb.toString();
+    }
+
+    private static void assertRoundTrip(final BloomFilter filter) throws IOException {
+        assertSameContent(filter, read(write(filter)));
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        for (final int items : new int[] {0, 1, 10, 200}) {
+            assertRoundTrip(fill(new SimpleBloomFilter(SHAPE), items, items));
+            assertRoundTrip(fill(new SparseBloomFilter(SHAPE), items, items));
+            assertRoundTrip(fill(new ArrayCountingBloomFilter(SHAPE), items, items));
+            assertRoundTrip(fill(new PackedCountingBloomFilter(SHAPE, 4), items, items));
+            assertRoundTrip(fill(new PackedCountingBloomFilter(SHAPE, 8), items, items));
+            assertRoundTrip(fill(new BlockedBloomFilter(SHAPE), items, items));
+        }
+    }
+
+    @Test
+    public void testRoundTripPartialBitMap() throws IOException {
+        final Shape shape = Shape.fromKM(3, 100);
+        final SimpleBloomFilter filter = new SimpleBloomFilter(shape);
+        filter.merge(IndexProducer.fromIndexArray(0, 63, 64, 99));
+        assertRoundTrip(filter);
+        final SparseBloomFilter sparse = new SparseBloomFilter(shape);
+        sparse.merge(IndexProducer.fromIndexArray(99));
+        assertRoundTrip(sparse);
+    }
+
+    @Test
+    public void testBlockedFilterKeepsMembership() throws IOException {
+        final BlockedBloomFilter filter = fill(new BlockedBloomFilter(SHAPE), 50, 3);
+        final BloomFilter read = read(write(filter));
+        final Random random = new Random(3);
+        for (int i = 0; i < 50; i++) {
+            assertTrue(read.contains(new EnhancedDoubleHasher(random.nextLong(), random.nextLong())));
+        }
+    }
+
+    @Test
+    public void testOtherFilters() throws IOException {
+        final LayeredBloomFilter layered = new LayeredBloomFilter(SHAPE, 0.5);
+        fill(layered, 100, 5);
+        final BloomFilter read = read(write(layered));
+        assertInstanceOf(SimpleBloomFilter.class, read);
+        assertArrayEquals(layered.asBitMapArray(), read.asBitMapArray());
+    }
+
+    @Test
+    public void testUnorderedFilters() throws IOException {
+        final Shape shape = Shape.fromKM(3, 1 << 16);
+        final SimpleBloomFilter bits = fill(new SimpleBloomFilter(shape), 10, 11);
+        final BloomFilter read = read(write(new UnorderedBloomFilter(bits)));
+        assertInstanceOf(SparseBloomFilter.class, read);
+        assertArrayEquals(bits.asBitMapArray(), read.asBitMapArray());
+
+        final ArrayCountingBloomFilter counts = fill(new ArrayCountingBloomFilter(SHAPE), 200, 12);
+        assertSameContent(counts, read(write(new UnorderedCountingBloomFilter(counts))));
+    }
+
+    @Test
+    public void testEncodingSize() throws IOException {
+        final Shape shape = Shape.fromKM(3, 1 << 20);
+        final SparseBloomFilter sparse = fill(new SparseBloomFilter(shape), 10, 1);
+        // sparse: 30 gaps of up to three bytes each, far below the 128 KiB of bit maps
+        assertTrue(write(sparse).length < 23 + 100);
+
+        final SimpleBloomFilter full = new SimpleBloomFilter(shape);
+        full.merge(BitMapProducer.fromBitMapArray(fillArray(BitMap.numberOfBitMaps(shape.getNumberOfBits()))));
+        assertEquals(23 + (shape.getNumberOfBits() >> 3), write(full).length);
+        assertRoundTrip(full);
+    }
+
+    private static long[] fillArray(final int length) {
+        final long[] result = new long[length];
+        Arrays.fill(result, -1L);
+        return result;
+    }
+
+    @Test
+    public void testChannel() throws IOException {
+        final BloomFilter[] filters = {
+            fill(new SimpleBloomFilter(SHAPE), 300, 1),
+            fill(new SparseBloomFilter(SHAPE), 3, 2),
+            fill(new ArrayCountingBloomFilter(SHAPE), 40, 3),
+            fill(new PackedCountingBloomFilter(Shape.fromKM(5, 100_000), 4), 5000, 4),
+        };
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final WritableByteChannel out = Channels.newChannel(bytes);
+        for (final BloomFilter filter : filters) {
+            BloomFilterCodec.write(filter, out);
+        }
+        final byte[] data = bytes.toByteArray();
+        final ReadableByteChannel in = Channels.newChannel(new ByteArrayInputStream(data));
+        for (final BloomFilter filter : filters) {
+            assertSameContent(filter, BloomFilterCodec.read(in));
+        }
+        // the DataOutput and channel forms are the same bytes
+        final ByteArrayOutputStream direct = new ByteArrayOutputStream();
+        for (final BloomFilter filter : filters) {
+            direct.write(write(filter));
+        }
+        assertArrayEquals(direct.toByteArray(), data);
+        assertThrows(IOException.class, () -> BloomFilterCodec.read(in));
+    }
+
+    @Test
+    public void testShape() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BloomFilterCodec.writeShape(SHAPE, new DataOutputStream(bytes));
+        assertEquals(8, bytes.size());
+        assertEquals(SHAPE, BloomFilterCodec.readShape(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))));
+        final byte[] invalid = new byte[8];
+        assertThrows(IOException.class, () -> BloomFilterCodec.readShape(new DataInputStream(new ByteArrayInputStream(invalid))));
+    }
+
+    @Test
+    public void testInvalidCountingFilter() {
+        final ArrayCountingBloomFilter filter = new ArrayCountingBloomFilter(SHAPE);
+        filter.subtract(CellProducer.from(IndexProducer.fromIndexArray(1)));
+        assertFalse(filter.isValid());
+        assertThrows(IllegalArgumentException.class, () -> write(filter));
+    }
+
+    @Test
+    public void testMalformed() throws IOException {
+        final byte[] valid = write(fill(new ArrayCountingBloomFilter(SHAPE), 20, 9));
+
+        final byte[] magic = valid.clone();
+        magic[0] ^= 1;
+        assertThrows(IOException.class, () -> read(magic));
+
+        final byte[] version = valid.clone();
+        version[4] = 2;
+        assertThrows(IOException.class, () -> read(version));
+
+        final byte[] type = valid.clone();
+        type[5] = 99;
+        assertThrows(IOException.class, () -> read(type));
+
+        // a counting type with a bit encoding
+        final byte[] encoding = valid.clone();
+        encoding[6] = 1;
+        assertThrows(IOException.class, () -> read(encoding));
+
+        // shorter and longer declared lengths than the payload
+        final byte[] shorter = valid.clone();
+        shorter[22]--;
+        assertThrows(IOException.class, () -> read(shorter));
+        final byte[] longer = valid.clone();
+        longer[22]++;
+        assertThrows(IOException.class, () -> read(longer));
+
+        assertThrows(IOException.class, () -> read(Arrays.copyOf(valid, valid.length - 1)));
+        assertThrows(IOException.class, () -> BloomFilterCodec.read(
+                Channels.newChannel(new ByteArrayInputStream(Arrays.copyOf(valid, valid.length - 1)))));
+        assertThrows(IOException.class, () -> BloomFilterCodec.read(
+                Channels.newChannel(new ByteArrayInputStream(Arrays.copyOf(valid, 10)))));
+    }
+
+    @Test
+    public void testIndexBeyondShape() throws IOException {
+        final Shape small = Shape.fromKM(1, 10);
+        final SparseBloomFilter filter = new SparseBloomFilter(small);
+        filter.merge(IndexProducer.fromIndexArray(9));
+        final byte[] bytes = write(filter);
+        // header, count of one, gap of nine
+        assertEquals(25, bytes.length);
+        bytes[24] = 10;
+        assertThrows(IOException.class, () -> read(bytes));
+    }
+}
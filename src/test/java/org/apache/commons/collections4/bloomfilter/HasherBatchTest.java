@@ -0,0 +1,203 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bloomfilter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link HasherBatch}.
+ */
+public class HasherBatchTest {
+
+    private static final Shape SHAPE = Shape.fromKM(7, 20000);
+
+    private static void assertSameContent(final BloomFilter expected, final BloomFilter actual) {
+        assertArrayEquals(expected.asBitMapArray(), actual.asBitMapArray());
+        if (expected instanceof CountingBloomFilter) {
+            assertArrayEquals(cells((CountingBloomFilter) expected), cells((CountingBloomFilter) actual));
+        }
+    }
+
+    private static int[] cells(final CountingBloomFilter filter) {
+        final int[] cells = new int[filter.getShape().getNumberOfBits()];
+        filter.forEachCell((i, v) -> {
+            cells[i] = v;
+            return true;
+        });
+        return cells;
+    }
+
+    private static void assertBatchMatchesSingleItems(final Function<Shape, BloomFilter> factory) {
+        assertBatchMatchesSingleItems(SHAPE, factory);
+    }
+
+    private static void assertBatchMatchesSingleItems(final Shape shape, final Function<Shape, BloomFilter> factory) {
+        final Random random = new Random(45);
+        final int items = 3000;
+        final long[] initial = new long[items];
+        final long[] increment = new long[items];
+        final List<Hasher> hashers = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            initial[i] = random.nextLong();
+            increment[i] = random.nextLong();
+            // mix in a hasher the batch cannot hash itself
+            hashers.add(i % 3 == 0 ? new IncrementingHasher(initial[i] & 0xffff, 1 + (increment[i] & 0xff))
+                    : new EnhancedDoubleHasher(initial[i], increment[i]));
+        }
+        final HasherBatch batch = new HasherBatch(shape);
+
+        final BloomFilter expected = factory.apply(shape);
+        final BloomFilter actual = factory.apply(shape);
+        for (int i = 0; i < items / 2; i++) {
+            expected.merge(new EnhancedDoubleHasher(initial[i], increment[i]));
+        }
+        assertTrue(batch.mergeAll(actual, Arrays.copyOf(initial, items / 2),
+                Arrays.copyOf(increment, items / 2)));
+        assertSameContent(expected, actual);
+        assertEquals(expected.cardinality(), actual.cardinality());
+
+        final BitSet answers = batch.contains(actual, initial, increment, null);
+        for (int i = 0; i < items; i++) {
+            assertEquals(actual.contains(new EnhancedDoubleHasher(initial[i], increment[i])), answers.get(i));
+        }
+        assertTrue(batch.containsAll(actual, Arrays.copyOf(initial, items / 2),
+                Arrays.copyOf(increment, items / 2)));
+        assertFalse(batch.containsAll(actual, initial, increment));
+
+        final BloomFilter expectedHashers = factory.apply(shape);
+        final BloomFilter actualHashers = factory.apply(shape);
+        hashers.forEach(expectedHashers::merge);
+        batch.mergeAll(actualHashers, hashers);
+        assertSameContent(expectedHashers, actualHashers);
+        assertTrue(batch.containsAll(actualHashers, hashers));
+        assertFalse(batch.containsAll(actual, hashers));
+    }
+
+    @Test
+    public void testSimpleBloomFilter() {
+        assertBatchMatchesSingleItems(SimpleBloomFilter::new);
+    }
+
+    @Test
+    public void testSparseBloomFilter() {
+        assertBatchMatchesSingleItems(SparseBloomFilter::new);
+    }
+
+    @Test
+    public void testOtherBloomFilter() {
+        assertBatchMatchesSingleItems(ArrayCountingBloomFilter::new);
+    }
+
+    @Test
+    public void testBlockedBloomFilter() {
+        final Shape shape = Shape.fromKM(7, 40 * BlockedBloomFilter.BLOCK_BITS);
+        assertBatchMatchesSingleItems(shape, BlockedBloomFilter::new);
+
+        final Random random = new Random(47);
+        final List<Hasher> hashers = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            hashers.add(new EnhancedDoubleHasher(random.nextLong(), random.nextLong()));
+        }
+        final HasherBatch batch = new HasherBatch(shape);
+        final BlockedBloomFilter merged = new BlockedBloomFilter(shape);
+        batch.mergeAll(merged, hashers);
+        hashers.forEach(h -> assertTrue(merged.contains(h)));
+        final BlockedBloomFilter single = new BlockedBloomFilter(shape);
+        hashers.forEach(single::merge);
+        assertTrue(batch.containsAll(single, hashers));
+    }
+
+    @Test
+    public void testUnknownBloomFilter() {
+        // the layers place the bits of a hasher differently from its indices
+        final Shape shape = Shape.fromKM(7, 40 * BlockedBloomFilter.BLOCK_BITS);
+        assertBatchMatchesSingleItems(shape, s -> new LayeredBloomFilter(s, 0.3, Integer.MAX_VALUE, null,
+                Clock.systemUTC(), BlockedBloomFilter::new));
+    }
+
+    @Test
+    public void testCountingBloomFilterCountsSharedCells() {
+        // few bits, so many items share cells
+        final Shape shape = Shape.fromKM(3, 64);
+        final Random random = new Random(3);
+        final long[] initial = random.longs(200).toArray();
+        final long[] increment = random.longs(200).toArray();
+        for (final Function<Shape, CountingBloomFilter> factory : Arrays.<Function<Shape, CountingBloomFilter>>asList(
+                ArrayCountingBloomFilter::new, s -> new PackedCountingBloomFilter(s, 8))) {
+            final CountingBloomFilter expected = factory.apply(shape);
+            final CountingBloomFilter actual = factory.apply(shape);
+            for (int i = 0; i < initial.length; i++) {
+                expected.merge(new EnhancedDoubleHasher(initial[i], increment[i]));
+            }
+            new HasherBatch(shape).mergeAll(actual, initial, increment);
+            assertSameContent(expected, actual);
+            for (int i = 0; i < initial.length; i++) {
+                actual.remove(new EnhancedDoubleHasher(initial[i], increment[i]));
+            }
+            assertEquals(0, actual.cardinality());
+            assertTrue(actual.isValid());
+        }
+    }
+
+    @Test
+    public void testResultBitSetIsReused() {
+        final HasherBatch batch = new HasherBatch(SHAPE);
+        final BloomFilter filter = new SimpleBloomFilter(SHAPE);
+        filter.merge(new EnhancedDoubleHasher(1, 2));
+        final BitSet result = new BitSet();
+        result.set(1);
+        result.set(5);
+        assertEquals(result, batch.contains(filter, new long[] {1, 3}, new long[] {2, 4}, result));
+        assertTrue(result.get(0));
+        assertFalse(result.get(1));
+        assertTrue(result.get(5));
+    }
+
+    @Test
+    public void testFillIndicesMatchesIndices() {
+        for (final Shape shape : new Shape[] {Shape.fromKM(5, 1000), Shape.fromKM(17, 7)}) {
+            final EnhancedDoubleHasher hasher = new EnhancedDoubleHasher(-7, 12345);
+            final int[] output = new int[shape.getNumberOfHashFunctions() + 1];
+            EnhancedDoubleHasher.fillIndices(hasher.getInitial(), hasher.getIncrement(), shape, output, 1);
+            assertArrayEquals(hasher.indices(shape).asIndexArray(),
+                    Arrays.copyOfRange(output, 1, output.length));
+        }
+    }
+
+    @Test
+    public void testShapeAndLengthChecks() {
+        final HasherBatch batch = new HasherBatch(SHAPE);
+        assertThrows(IllegalArgumentException.class,
+            () -> batch.mergeAll(new SimpleBloomFilter(Shape.fromKM(7, 100)), new long[0], new long[0]));
+        assertThrows(IllegalArgumentException.class,
+            () -> batch.containsAll(new SimpleBloomFilter(SHAPE), new long[1], new long[2]));
+    }
+}
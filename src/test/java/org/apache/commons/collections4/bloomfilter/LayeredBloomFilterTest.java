@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bloomfilter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the {@link LayeredBloomFilter}.
+ */
+public class LayeredBloomFilterTest {
+
+    /**
+     * A clock moved by the test.
+     */
+    private static final class TestClock extends Clock {
+        long millis;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+
+    private static Hasher item(final int i) {
+        return MurmurHash3.hasher("item-" + i);
+    }
+
+    @Test
+    public void testGrowsToKeepFalsePositiveRate() {
+        final Shape shape = Shape.fromNP(1000, 0.01);
+        final LayeredBloomFilter layered = new LayeredBloomFilter(shape, 0.5);
+        final SimpleBloomFilter single = new SimpleBloomFilter(shape);
+        final int items = 20000;
+        for (int i = 0; i < items; i++) {
+            layered.merge(item(i));
+            single.merge(item(i));
+        }
+        assertEquals((items + layered.getItemsPerLayer() - 1) / layered.getItemsPerLayer(), layered.getDepth());
+        for (int i = 0; i < items; i++) {
+            assertTrue(layered.contains(item(i)));
+        }
+        int layeredFalse = 0;
+        int singleFalse = 0;
+        for (int i = items; i < items + 20000; i++) {
+            if (layered.contains(item(i))) {
+                layeredFalse++;
+            }
+            if (single.contains(item(i))) {
+                singleFalse++;
+            }
+        }
+        // the single filter is saturated, the layers stay near the planned rate times the depth
+        assertTrue(singleFalse > 19000, "single " + singleFalse);
+        assertTrue(layeredFalse < 20000 * 0.01 * layered.getDepth(), "layered " + layeredFalse);
+        assertTrue(layered.estimateN() > items * 0.9 && layered.estimateN() < items * 1.1);
+    }
+
+    @Test
+    public void testExpiryByCount() {
+        final Shape shape = Shape.fromKM(5, 2048);
+        final LayeredBloomFilter layered = new LayeredBloomFilter(shape, 0.3, 3, null);
+        final int perLayer = layered.getItemsPerLayer();
+        for (int i = 0; i < perLayer * 5; i++) {
+            layered.merge(item(i));
+        }
+        assertEquals(3, layered.getDepth());
+        for (int i = perLayer * 2; i < perLayer * 5; i++) {
+            assertTrue(layered.contains(item(i)));
+        }
+        int remembered = 0;
+        for (int i = 0; i < perLayer * 2; i++) {
+            if (layered.contains(item(i))) {
+                remembered++;
+            }
+        }
+        assertTrue(remembered < perLayer / 4, "remembered " + remembered);
+    }
+
+    @Test
+    public void testExpiryByAge() {
+        final TestClock clock = new TestClock();
+        final LayeredBloomFilter layered = new LayeredBloomFilter(Shape.fromKM(5, 4096), 0.5, Integer.MAX_VALUE,
+                Duration.ofMillis(100), clock, SimpleBloomFilter::new);
+        layered.merge(item(1));
+        clock.millis = 50;
+        layered.merge(item(2));
+        assertEquals(1, layered.getDepth());
+        // the first layer closes at its maximum age and is kept for another
+        clock.millis = 100;
+        layered.merge(item(3));
+        assertEquals(2, layered.getDepth());
+        clock.millis = 199;
+        assertTrue(layered.contains(item(1)));
+        assertTrue(layered.contains(item(3)));
+        clock.millis = 200;
+        assertFalse(layered.contains(item(1)));
+        assertFalse(layered.contains(item(2)));
+        assertTrue(layered.contains(item(3)));
+        // the empty layer started at 200 is closed at 400 and replaced
+        clock.millis = 400;
+        layered.cleanup();
+        assertFalse(layered.contains(item(3)));
+        assertEquals(2, layered.getDepth());
+    }
+
+    @Test
+    public void testBitMapViewIsUnionOfLayers() {
+        final Shape shape = Shape.fromKM(3, 128);
+        final LayeredBloomFilter layered = new LayeredBloomFilter(shape, 0.5);
+        layered.merge(IndexProducer.fromIndexArray(1, 2, 3));
+        layered.next();
+        layered.merge(IndexProducer.fromIndexArray(3, 64, 100));
+        assertEquals(2, layered.getDepth());
+        assertArrayEquals(new int[] {1, 2, 3, 64, 100}, layered.asIndexArray());
+        assertEquals(5, layered.cardinality());
+        assertTrue(layered.contains(IndexProducer.fromIndexArray(64, 100)));
+        // no single layer holds both
+        assertFalse(layered.contains(IndexProducer.fromIndexArray(1, 100)));
+        assertEquals(5, SetOperations.orCardinality(layered, new SimpleBloomFilter(shape)));
+
+        final LayeredBloomFilter copy = layered.copy();
+        layered.clear();
+        assertEquals(1, layered.getDepth());
+        assertEquals(0, layered.cardinality());
+        assertEquals(2, copy.getDepth());
+        assertEquals(5, copy.cardinality());
+    }
+
+    @Test
+    public void testFillTriggerForIndexMerges() {
+        final Shape shape = Shape.fromKM(3, 100);
+        final LayeredBloomFilter layered = new LayeredBloomFilter(shape, 0.25);
+        final int[] indices = new int[30];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        layered.merge(IndexProducer.fromIndexArray(indices));
+        assertEquals(1, layered.getDepth());
+        layered.merge(IndexProducer.fromIndexArray(50));
+        assertEquals(2, layered.getDepth());
+    }
+
+    @Test
+    public void testBlockedLayersAndValidation() {
+        final Shape shape = Shape.fromKM(4, 1024);
+        final LayeredBloomFilter layered = new LayeredBloomFilter(shape, 0.5, 2, null, Clock.systemUTC(),
+                BlockedBloomFilter::new);
+        layered.merge(item(7));
+        assertTrue(layered.contains(item(7)));
+        assertThrows(IllegalArgumentException.class, () -> new LayeredBloomFilter(shape, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new LayeredBloomFilter(shape, 0.5, 0, null));
+        assertThrows(IllegalArgumentException.class, () -> new LayeredBloomFilter(shape, 0.5, 2, Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> new LayeredBloomFilter(shape, 0.5, 2, null,
+                Clock.systemUTC(), s -> new SimpleBloomFilter(Shape.fromKM(4, 64))));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bloomfilter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests the {@link MurmurHash3}.
+ */
+public class MurmurHash3Test {
+
+    @Test
+    public void testReferenceValues() {
+        assertArrayEquals(new long[] {0, 0}, MurmurHash3.hash128(new byte[0]));
+        assertArrayEquals(new long[] {0xcbd8a7b341bd9b02L, 0x5b1e906a48ae1d19L},
+            MurmurHash3.hash128("hello".getBytes(StandardCharsets.US_ASCII)));
+        assertArrayEquals(new long[] {0xe34bbc7bbc071b6cL, 0x7a433ca9c49a9347L},
+            MurmurHash3.hash128("The quick brown fox jumps over the lazy dog".getBytes(StandardCharsets.US_ASCII)));
+        final byte[] bytes = new byte[31];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+        assertArrayEquals(new long[] {0x053dd3e1a32cd094L, 0x9ee59aefb4005490L}, MurmurHash3.hash128(bytes));
+    }
+
+    @Test
+    public void testSourcesAgree() {
+        final Random random = new Random(46);
+        for (int length = 0; length < 80; length++) {
+            final byte[] padded = new byte[length + 7];
+            random.nextBytes(padded);
+            final byte[] data = new byte[length];
+            System.arraycopy(padded, 3, data, 0, length);
+            final long[] expected = MurmurHash3.hash128(data);
+            assertArrayEquals(expected, MurmurHash3.hash128(padded, 3, length));
+
+            final ByteBuffer heap = ByteBuffer.wrap(padded, 3, length);
+            assertArrayEquals(expected, MurmurHash3.hash128(heap));
+            assertEquals(3, heap.position());
+
+            final ByteBuffer direct = ByteBuffer.allocateDirect(length + 2).order(ByteOrder.BIG_ENDIAN);
+            direct.position(2);
+            direct.put(data);
+            direct.position(2);
+            assertArrayEquals(expected, MurmurHash3.hash128(direct));
+            assertEquals(2, direct.position());
+            assertEquals(ByteOrder.BIG_ENDIAN, direct.order());
+
+            final EnhancedDoubleHasher hasher = MurmurHash3.hasher(direct);
+            assertEquals(expected[0], hasher.getInitial());
+            assertEquals(expected[1], hasher.getIncrement());
+        }
+    }
+
+    @Test
+    public void testCharSequenceHashesUtf16LittleEndian() {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            final String text = builder.toString();
+            assertArrayEquals(MurmurHash3.hash128(text.getBytes(StandardCharsets.UTF_16LE)), MurmurHash3.hash128(text));
+            assertArrayEquals(MurmurHash3.hash128(text), MurmurHash3.hash128(builder));
+            builder.append((char) ('a' + i * 1013 % 20000));
+        }
+        final EnhancedDoubleHasher hasher = MurmurHash3.hasher("été");
+        assertEquals(MurmurHash3.hash128("été")[0], hasher.getInitial());
+    }
+
+    @Test
+    public void testFalsePositiveRate() {
+        final Shape shape = Shape.fromNP(10000, 0.01);
+        final BloomFilter filter = new SimpleBloomFilter(shape);
+        for (int i = 0; i < 10000; i++) {
+            filter.merge(MurmurHash3.hasher("key-" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 10000; i < 110000; i++) {
+            if (filter.contains(MurmurHash3.hasher("key-" + i))) {
+                falsePositives++;
+            }
+        }
+        // 1% expected; allow generous slack for a fixed sample
+        assertTrue(falsePositives < 1500, "false positives: " + falsePositives);
+    }
+
+    @Test
+    public void testRangeChecks() {
+        assertThrows(IndexOutOfBoundsException.class, () -> MurmurHash3.hash128(new byte[4], 2, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> MurmurHash3.hasher(new byte[4], -1, 1));
+        assertThrows(NullPointerException.class, () -> MurmurHash3.hash128((CharSequence) null));
+        assertEquals("data", assertThrows(NullPointerException.class,
+            () -> MurmurHash3.hash128(null, 0, 0)).getMessage());
+        assertEquals("data", assertThrows(NullPointerException.class,
+            () -> MurmurHash3.hasher(null, 0, 0)).getMessage());
+    }
+}
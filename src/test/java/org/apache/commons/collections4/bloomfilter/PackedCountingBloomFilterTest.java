@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.bloomfilter;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests for the {@link PackedCountingBloomFilter}.
+ */
+public class PackedCountingBloomFilterTest extends AbstractCountingBloomFilterTest<PackedCountingBloomFilter> {
+
+    @Override
+    protected PackedCountingBloomFilter createEmptyFilter(final Shape shape) {
+        return new PackedCountingBloomFilter(shape, 4);
+    }
+
+    @Test
+    public void testConstructor() {
+        final Shape shape = getTestShape();
+        assertThrows(NullPointerException.class, () -> new PackedCountingBloomFilter(null, 4));
+        assertThrows(IllegalArgumentException.class, () -> new PackedCountingBloomFilter(shape, 2));
+        assertThrows(IllegalArgumentException.class, () -> new PackedCountingBloomFilter(shape, 16));
+        assertEquals(4, new PackedCountingBloomFilter(shape, 4).getBitsPerCell());
+        assertEquals(15, new PackedCountingBloomFilter(shape, 4).getMaxCell());
+        assertEquals(8, new PackedCountingBloomFilter(shape, 8).getBitsPerCell());
+        assertEquals(255, new PackedCountingBloomFilter(shape, 8).getMaxCell());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {4, 8})
+    public void testSaturation(final int bits) {
+        final Shape shape = Shape.fromKM(1, 100);
+        final PackedCountingBloomFilter bf = new PackedCountingBloomFilter(shape, bits);
+        final int max = bf.getMaxCell();
+        assertTrue(bf.add(CellProducer.from(IndexProducer.fromIndexArray(5, 6))));
+        assertTrue(bf.add((CellProducer) c -> c.test(5, max - 1)));
+        assertEquals(max, cellAt(bf, 5));
+        assertTrue(bf.isValid());
+
+        // saturate cell 5, the neighbouring cells are untouched
+        assertFalse(bf.add((CellProducer) c -> c.test(5, 3)));
+        assertFalse(bf.isValid());
+        assertEquals(max, cellAt(bf, 5));
+        assertEquals(1, cellAt(bf, 6));
+        assertEquals(0, cellAt(bf, 4));
+
+        // a saturated cell is never decremented so it cannot become a false negative
+        bf.subtract((CellProducer) c -> c.test(5, max));
+        assertEquals(max, cellAt(bf, 5));
+        assertTrue(bf.contains(IndexProducer.fromIndexArray(5)));
+
+        // underflow clamps at zero
+        bf.subtract((CellProducer) c -> c.test(6, 2));
+        assertEquals(0, cellAt(bf, 6));
+        assertEquals(1, bf.cardinality());
+        assertFalse(bf.isValid());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {4, 8})
+    public void testAgainstArrayCountingBloomFilter(final int bits) {
+        final Random random = new Random(bits);
+        // a partial last bit map and a partial last word
+        final Shape shape = Shape.fromKM(5, 1000 + bits + 3);
+        final PackedCountingBloomFilter packed = new PackedCountingBloomFilter(shape, bits);
+        final ArrayCountingBloomFilter array = new ArrayCountingBloomFilter(shape);
+        final List<Hasher> added = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            if (i % 3 == 2) {
+                final Hasher hasher = added.remove(random.nextInt(added.size()));
+                assertEquals(array.remove(hasher), packed.remove(hasher));
+            } else {
+                final Hasher hasher = new EnhancedDoubleHasher(random.nextLong(), random.nextLong());
+                added.add(hasher);
+                assertEquals(array.merge(hasher), packed.merge(hasher));
+            }
+            assertTrue(packed.isValid());
+        }
+        assertEquals(array.cardinality(), packed.cardinality());
+        assertArrayEquals(array.asBitMapArray(), packed.asBitMapArray());
+        assertArrayEquals(array.asIndexArray(), packed.asIndexArray());
+        final int[] expected = new int[shape.getNumberOfBits()];
+        array.forEachCell((i, v) -> {
+            expected[i] = v;
+            return true;
+        });
+        final int[] actual = new int[shape.getNumberOfBits()];
+        packed.forEachCell((i, v) -> {
+            actual[i] = v;
+            return true;
+        });
+        assertArrayEquals(expected, actual);
+    }
+
+    private static int cellAt(final CountingBloomFilter bf, final int index) {
+        final int[] value = {0};
+        bf.forEachCell((i, v) -> {
+            if (i == index) {
+                value[0] = v;
+            }
+            return true;
+        });
+        return value[0];
+    }
+}
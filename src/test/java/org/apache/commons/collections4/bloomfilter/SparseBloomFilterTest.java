@@ -17,9 +17,13 @@
 package org.apache.commons.collections4.bloomfilter;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.Test;
 
 /**
@@ -89,4 +93,53 @@ public class SparseBloomFilterTest extends AbstractBloomFilterTest<SparseBloomFi
         bf1.merge(bf2);
         assertTrue(bf2.forEachBitMapPair(bf1, (x, y) -> x == y));
     }
+
+    @Test
+    public void testSortedMergeMatchesSimpleBloomFilter() {
+        final Shape shape = Shape.fromKM(3, 4096);
+        final Random random = new Random(44);
+        for (int round = 0; round < 50; round++) {
+            final SparseBloomFilter sparse = new SparseBloomFilter(shape);
+            final SimpleBloomFilter simple = new SimpleBloomFilter(shape);
+            for (int merge = 0; merge < 5; merge++) {
+                // alternate tiny and large batches to exercise galloping in both directions
+                final int[] values = new int[merge % 2 == 0 ? 1 + random.nextInt(3) : 1 + random.nextInt(300)];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = random.nextInt(shape.getNumberOfBits());
+                }
+                final SparseBloomFilter other = new SparseBloomFilter(shape);
+                other.merge(IndexProducer.fromIndexArray(values));
+                if (merge == 2) {
+                    sparse.merge(other);
+                } else {
+                    sparse.merge(IndexProducer.fromIndexArray(values));
+                }
+                simple.merge(IndexProducer.fromIndexArray(values));
+                assertTrue(sparse.contains(other));
+            }
+            assertArrayEquals(simple.asBitMapArray(), sparse.asBitMapArray());
+            assertArrayEquals(simple.asIndexArray(), sparse.asIndexArray());
+            assertEquals(simple.cardinality(), sparse.cardinality());
+            final SparseBloomFilter probe = new SparseBloomFilter(shape);
+            probe.merge(IndexProducer.fromIndexArray(random.nextInt(shape.getNumberOfBits())));
+            assertEquals(simple.contains(probe), sparse.contains(probe));
+        }
+    }
+
+    @Test
+    public void testCompact() {
+        final Shape shape = Shape.fromKM(3, 256);
+        final SparseBloomFilter bf = new SparseBloomFilter(shape);
+        bf.merge(IndexProducer.fromIndexArray(1, 5, 200));
+        assertSame(bf, bf.compact());
+        final int[] values = new int[shape.getNumberOfBits() / 2];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i * 2;
+        }
+        bf.merge(IndexProducer.fromIndexArray(values));
+        final BloomFilter dense = bf.compact();
+        assertTrue(dense instanceof SimpleBloomFilter);
+        assertArrayEquals(bf.asBitMapArray(), dense.asBitMapArray());
+        assertEquals(bf.cardinality(), dense.cardinality());
+    }
 }
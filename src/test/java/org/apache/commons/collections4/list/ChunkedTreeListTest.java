@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.list;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link ChunkedTreeList}.
+ * <p>
+ * The list under test uses the smallest node capacities so that the generic
+ * list tests split and merge leaves and branches.
+ * </p>
+ */
+public class ChunkedTreeListTest<E> extends AbstractListTest<E> {
+
+    public ChunkedTreeListTest() {
+        super(ChunkedTreeListTest.class.getSimpleName());
+    }
+
+    @Override
+    public ChunkedTreeList<E> makeObject() {
+        return new ChunkedTreeList<>(4, 4);
+    }
+
+    @Test
+    public void testConstructorArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ChunkedTreeList<>(3));
+        assertThrows(IllegalArgumentException.class, () -> new ChunkedTreeList<>(8, 2));
+    }
+
+    @Test
+    public void testCopyConstructor() {
+        final List<Integer> source = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            source.add(i);
+        }
+        final ChunkedTreeList<Integer> list = new ChunkedTreeList<>(source);
+        assertEquals(source, list);
+        assertEquals(source.size(), list.size());
+        assertEquals(5000, list.get(5000).intValue());
+        assertEquals(source, Arrays.asList(list.toArray()));
+    }
+
+    @Test
+    public void testRandomOperationsMatchArrayList() {
+        final Random random = new Random(7);
+        final List<Integer> expected = new ArrayList<>();
+        final ChunkedTreeList<Integer> list = new ChunkedTreeList<>(4, 4);
+        for (int round = 0; round < 20000; round++) {
+            final int op = random.nextInt(10);
+            if (op < 5 || expected.isEmpty()) {
+                final int index = random.nextInt(expected.size() + 1);
+                expected.add(index, round);
+                list.add(index, round);
+            } else if (op < 8) {
+                final int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), list.remove(index));
+            } else if (op < 9) {
+                final int index = random.nextInt(expected.size());
+                assertEquals(expected.set(index, -round), list.set(index, -round));
+            } else {
+                final int index = random.nextInt(expected.size() + 1);
+                final List<Integer> added = Collections.nCopies(random.nextInt(3) == 0 && expected.size() < 300 ? expected.size() + 5 : 3, round);
+                expected.addAll(index, added);
+                list.addAll(index, added);
+            }
+            assertEquals(expected.size(), list.size());
+        }
+        assertEquals(expected, list);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), list.get(i));
+        }
+        final ListIterator<Integer> it = list.listIterator(list.size());
+        for (int i = expected.size() - 1; i >= 0; i--) {
+            assertEquals(expected.get(i), it.previous());
+        }
+        while (!list.isEmpty()) {
+            final int index = random.nextInt(list.size());
+            assertEquals(expected.remove(index), list.remove(index));
+        }
+        assertEquals(expected, list);
+    }
+
+    @Test
+    public void testIteratorModification() {
+        final ChunkedTreeList<Integer> list = new ChunkedTreeList<>(4, 4);
+        for (int i = 0; i < 100; i++) {
+            list.add(i);
+        }
+        final ListIterator<Integer> it = list.listIterator();
+        while (it.hasNext()) {
+            final int value = it.next();
+            if (value % 2 == 0) {
+                it.remove();
+            } else {
+                it.set(-value);
+                it.add(value);
+            }
+        }
+        assertEquals(100, list.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(-(2 * i + 1), list.get(2 * i).intValue());
+            assertEquals(2 * i + 1, list.get(2 * i + 1).intValue());
+        }
+    }
+
+    @Test
+    public void testIndexOfAndLastIndexOf() {
+        final ChunkedTreeList<Integer> list = new ChunkedTreeList<>(4, 4);
+        for (int i = 0; i < 50; i++) {
+            list.add(i % 10);
+        }
+        assertEquals(3, list.indexOf(3));
+        assertEquals(43, list.lastIndexOf(3));
+        assertEquals(-1, list.indexOf(10));
+        assertEquals(-1, list.lastIndexOf(10));
+    }
+
+}
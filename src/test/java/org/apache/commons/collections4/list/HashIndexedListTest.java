@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.list;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.collections4.set.ListOrderedSet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Extension of {@link AbstractListTest} for exercising the {@link HashIndexedList}
+ * implementation.
+ */
+public class HashIndexedListTest<E> extends AbstractListTest<E> {
+
+    public HashIndexedListTest() {
+        super(HashIndexedListTest.class.getSimpleName());
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.5";
+    }
+
+    @Override
+    public HashIndexedList<E> makeObject() {
+        return new HashIndexedList<>();
+    }
+
+    @Test
+    public void testMatchesArrayList() {
+        final Random random = new Random(43);
+        final List<Integer> expected = new ArrayList<>();
+        final HashIndexedList<Integer> list = new HashIndexedList<>();
+        for (int i = 0; i < 20000; i++) {
+            final Integer value = random.nextInt(500);
+            final int op = random.nextInt(10);
+            if (op < 4) {
+                expected.add(value);
+                list.add(value);
+            } else if (op == 4) {
+                final int index = random.nextInt(expected.size() + 1);
+                expected.add(index, value);
+                list.add(index, value);
+            } else if (op == 5 && !expected.isEmpty()) {
+                final int index = random.nextInt(expected.size());
+                assertEquals(expected.remove(index), list.remove(index));
+            } else if (op == 6) {
+                assertEquals(expected.remove(value), list.remove(value));
+            } else if (op == 7 && !expected.isEmpty()) {
+                final int index = random.nextInt(expected.size());
+                assertEquals(expected.set(index, value), list.set(index, value));
+            } else if (op == 8) {
+                assertEquals(expected.indexOf(value), list.indexOf(value));
+                assertEquals(expected.lastIndexOf(value), list.lastIndexOf(value));
+                assertEquals(expected.contains(value), list.contains(value));
+            } else if (!expected.isEmpty()) {
+                final int index = random.nextInt(expected.size());
+                assertEquals(expected.get(index), list.get(index));
+            }
+            assertEquals(expected.size(), list.size());
+        }
+        assertEquals(expected, list);
+        final Iterator<Integer> it = list.iterator();
+        while (it.hasNext()) {
+            if (it.next() % 3 == 0) {
+                it.remove();
+            }
+        }
+        expected.removeIf(value -> value % 3 == 0);
+        assertEquals(expected, list);
+        for (int value = 0; value < 500; value++) {
+            assertEquals(expected.indexOf(value), list.indexOf(value));
+        }
+        assertTrue(list.retainAll(Arrays.asList(1, 2, 4, 5, 7)));
+        expected.retainAll(Arrays.asList(1, 2, 4, 5, 7));
+        assertEquals(expected, list);
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(list));
+    }
+
+    @Test
+    public void testDecoratedBySetUniqueList() {
+        final SetUniqueList<Integer> queue = SetUniqueList.setUniqueList(new HashIndexedList<>());
+        for (int i = 0; i < 1000; i++) {
+            queue.add(i);
+            queue.add(i / 2);
+        }
+        assertEquals(1000, queue.size());
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(queue.remove((Object) i));
+        }
+        assertEquals(500, queue.size());
+        assertEquals(7, queue.indexOf(15));
+        assertFalse(queue.contains(14));
+        assertEquals(15, (int) queue.set(7, 1));
+        assertEquals(3, (int) queue.get(0));
+        assertEquals(1, (int) queue.get(6));
+        assertEquals(-1, queue.indexOf(15));
+        assertEquals(499, queue.size());
+        assertEquals(new HashSet<>(queue), queue.asSet());
+    }
+
+    @Test
+    public void testDecoratedByListOrderedSet() {
+        final ListOrderedSet<Integer> set = ListOrderedSet.listOrderedSet(new HashSet<>(), new HashIndexedList<>());
+        for (int i = 0; i < 1000; i++) {
+            set.add(i);
+        }
+        for (int i = 999; i >= 0; i -= 3) {
+            assertTrue(set.remove((Object) i));
+        }
+        assertEquals(666, set.size());
+        assertEquals(Integer.valueOf(2), set.get(1));
+        assertEquals(665, set.indexOf(998));
+        assertEquals(Arrays.asList(997, 998), set.asList().subList(664, 666));
+    }
+
+//    public void testCreate() throws Exception {
+//        resetEmpty();
+//        writeExternalFormToDisk((java.io.Serializable) getCollection(), "src/test/resources/org/apache/commons/collections4/data/test/HashIndexedList.emptyCollection.version4.5.obj");
+//        resetFull();
+//        writeExternalFormToDisk((java.io.Serializable) getCollection(), "src/test/resources/org/apache/commons/collections4/data/test/HashIndexedList.fullCollection.version4.5.obj");
+//    }
+
+}
@@ -19,10 +19,14 @@ package org.apache.commons.collections4.list;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Random;
 
 import org.junit.jupiter.api.Test;
 
@@ -332,4 +336,91 @@ public class TreeListTest<E> extends AbstractListTest<E> {
         }
     }
 
+    private static void assertSameInBothDirections(final List<Integer> expected, final TreeList<Integer> actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected, new ArrayList<>(actual));
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i));
+        }
+        final ListIterator<Integer> it = actual.listIterator(actual.size());
+        for (int i = expected.size() - 1; i >= 0; i--) {
+            assertEquals(expected.get(i), it.previous());
+        }
+        assertFalse(it.hasPrevious());
+    }
+
+    @Test
+    public void testSplitAtAndConcat() {
+        final Random random = new Random(31);
+        for (int size = 0; size < 70; size++) {
+            for (int index = 0; index <= size; index++) {
+                final List<Integer> expected = new ArrayList<>();
+                for (int i = 0; i < size; i++) {
+                    expected.add(i);
+                }
+                final TreeList<Integer> head = new TreeList<>(expected);
+                final TreeList<Integer> tail = head.splitAt(index);
+                assertSameInBothDirections(expected.subList(0, index), head);
+                assertSameInBothDirections(expected.subList(index, size), tail);
+
+                // both halves must remain valid trees
+                final int insert = random.nextInt(tail.size() + 1);
+                tail.add(insert, -1);
+                tail.remove(insert);
+                head.concat(tail);
+                assertTrue(tail.isEmpty());
+                assertSameInBothDirections(expected, head);
+            }
+        }
+        final TreeList<Integer> list = new TreeList<>();
+        assertThrows(IllegalArgumentException.class, () -> list.concat(list));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.splitAt(1));
+    }
+
+    @Test
+    public void testRandomSplitConcatAndInsert() {
+        final Random random = new Random(17);
+        final List<Integer> expected = new ArrayList<>();
+        final TreeList<Integer> list = new TreeList<>();
+        for (int round = 0; round < 2000; round++) {
+            switch (random.nextInt(4)) {
+            case 0: {
+                final int index = random.nextInt(expected.size() + 1);
+                final List<Integer> added = Collections.nCopies(random.nextInt(50), round);
+                expected.addAll(index, added);
+                list.addAll(index, added);
+                break;
+            }
+            case 1: {
+                // move a random range to the end
+                final int from = random.nextInt(expected.size() + 1);
+                final int to = from + random.nextInt(expected.size() - from + 1);
+                final TreeList<Integer> range = list.splitAt(from);
+                final TreeList<Integer> rest = range.splitAt(to - from);
+                list.concat(rest);
+                list.concat(range);
+                final List<Integer> moved = new ArrayList<>(expected.subList(0, from));
+                moved.addAll(expected.subList(to, expected.size()));
+                moved.addAll(expected.subList(from, to));
+                expected.clear();
+                expected.addAll(moved);
+                break;
+            }
+            case 2:
+                if (!expected.isEmpty()) {
+                    final int index = random.nextInt(expected.size());
+                    assertEquals(expected.remove(index), list.remove(index));
+                }
+                break;
+            default: {
+                final int index = random.nextInt(expected.size() + 1);
+                expected.add(index, -round);
+                list.add(index, -round);
+                break;
+            }
+            }
+        }
+        assertSameInBothDirections(expected, list);
+    }
+
 }
@@ -22,9 +22,13 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
+import org.apache.commons.collections4.bloomfilter.Shape;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -230,6 +234,133 @@ public class CompositeMapTest<K, V> extends AbstractIterableMapTest<K, V> {
         assertTrue(pass);
     }
 
+    @Test
+    public void testMembershipSummariesSkipLayers() {
+        final int[] probes = new int[1];
+        final CompositeMap<Integer, String> map = new CompositeMap<>();
+        for (int layer = 0; layer < 12; layer++) {
+            final Map<Integer, String> snapshot = new HashMap<Integer, String>() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                public boolean containsKey(final Object key) {
+                    probes[0]++;
+                    return super.containsKey(key);
+                }
+            };
+            for (int i = 0; i < 100; i++) {
+                snapshot.put(layer * 1000 + i, "s" + layer);
+            }
+            map.addComposited(snapshot);
+        }
+        final Map<Integer, String> overlay = new HashMap<>();
+        map.addComposited(overlay);
+        map.setMutator(new OverlayMutator<>());
+        map.enableMembershipSummaries(Shape.fromNP(100, 0.001));
+
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(map.containsKey(-1 - i));
+        }
+        assertTrue(probes[0] < 100, "probes: " + probes[0]);
+        probes[0] = 0;
+        assertEquals("s7", map.get(7005));
+        assertTrue(probes[0] < 6, "probes: " + probes[0]);
+
+        // keys added through the mutator are recorded in the overlay summary,
+        // without probing the layers that did not change
+        probes[0] = 0;
+        map.put(-5, "o");
+        map.putAll(Collections.singletonMap(-6, "p"));
+        assertEquals(0, probes[0]);
+        assertEquals("o", map.get(-5));
+        assertEquals("p", map.get(-6));
+        assertEquals("s3", map.remove(3050));
+        assertFalse(map.containsKey(3050));
+
+        // direct changes need a rebuild
+        overlay.put(-7, "q");
+        map.rebuildMembershipSummaries();
+        assertEquals("q", map.get(-7));
+
+        // summaries follow added and removed layers
+        final Map<Integer, String> extra = new HashMap<>();
+        extra.put(-8, "r");
+        map.addComposited(extra);
+        assertEquals("r", map.get(-8));
+        map.removeComposited(overlay);
+        assertFalse(map.containsKey(-5));
+        assertEquals("r", map.get(-8));
+        assertEquals("s11", map.get(11099));
+
+        map.disableMembershipSummaries();
+        probes[0] = 0;
+        assertFalse(map.containsKey(-1));
+        assertEquals(12, probes[0]);
+    }
+
+    @Test
+    public void testMembershipSummariesWithEvictingMap() {
+        final LRUMap<Integer, String> lru = new LRUMap<>(2);
+        lru.put(1, "a");
+        lru.put(2, "b");
+        final CompositeMap<Integer, String> map = new CompositeMap<>(lru, new HashMap<>());
+        map.setMutator(new OverlayMutator<>());
+        map.enableMembershipSummaries(Shape.fromNP(100, 0.001));
+
+        // the size of the LRUMap does not change when it evicts 1 for 3
+        map.put(3, "c");
+        assertTrue(lru.containsKey(3));
+        assertTrue(map.containsKey(3));
+        assertEquals("c", map.get(3));
+        map.putAll(Collections.singletonMap(4, "d"));
+        assertEquals("d", map.get(4));
+        assertFalse(map.containsKey(2));
+    }
+
+    @Test
+    public void testMembershipSummariesSkipComparatorAndIdentityMaps() {
+        final Map<String, String> sorted = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        sorted.put("foo", "1");
+        final String key = new String("id");
+        final Map<String, String> identity = new IdentityHashMap<>();
+        identity.put(key, "2");
+        final CompositeMap<String, String> map = new CompositeMap<>(sorted, identity);
+        map.setMutator(new OverlayMutator<>());
+        assertEquals("1", map.get("FOO"));
+        map.enableMembershipSummaries(Shape.fromNP(100, 0.001));
+        assertEquals("1", map.get("FOO"));
+        assertTrue(map.containsKey("Foo"));
+        assertEquals("2", map.get(key));
+        map.put("Bar", "3");
+        assertEquals("3", map.get("BAR"));
+        map.clear();
+        assertFalse(map.containsKey("foo"));
+    }
+
+    /**
+     * Puts new mappings into the last composited map.
+     */
+    private static final class OverlayMutator<K, V> implements CompositeMap.MapMutator<K, V> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void resolveCollision(final CompositeMap<K, V> composite, final Map<K, V> existing,
+                final Map<K, V> added, final Collection<K> intersect) {
+            throw new IllegalArgumentException();
+        }
+
+        @Override
+        public V put(final CompositeMap<K, V> map, final Map<K, V>[] composited, final K key, final V value) {
+            return composited[composited.length - 1].put(key, value);
+        }
+
+        @Override
+        public void putAll(final CompositeMap<K, V> map, final Map<K, V>[] composited,
+                final Map<? extends K, ? extends V> mapToAdd) {
+            composited[composited.length - 1].putAll(mapToAdd);
+        }
+    }
+
     @Override
     public String getCompatibilityVersion() {
         return "4";
@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import org.apache.commons.collections4.MapIterator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class FlatNMapTest<K, V> extends AbstractIterableMapTest<K, V> {
+
+    /**
+     * A key whose hash code is chosen by the test.
+     */
+    private static final class Key {
+        private final int id;
+        private final int hash;
+
+        Key(final int id, final int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof Key && ((Key) obj).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return "Key" + id;
+        }
+    }
+
+    public FlatNMapTest() {
+        super(FlatNMapTest.class.getSimpleName());
+    }
+
+    @Override
+    public FlatNMap<K, V> makeObject() {
+        return new FlatNMap<>(32);
+    }
+
+    @Override
+    public boolean isFailFastExpected() {
+        return false;
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.5";
+    }
+
+    @Test
+    public void testConstructorArguments() {
+        assertEquals(8, new FlatNMap<>().flatSize());
+        assertEquals(64, new FlatNMap<>(64).flatSize());
+        assertThrows(IllegalArgumentException.class, () -> new FlatNMap<>(0));
+        assertThrows(IllegalArgumentException.class, () -> new FlatNMap<>(65));
+        assertThrows(NullPointerException.class, () -> new FlatNMap<>(null));
+    }
+
+    @Test
+    public void testSwitchToDelegateAndBack() {
+        final FlatNMap<Integer, String> map = new FlatNMap<>();
+        for (int i = 0; i < 8; i++) {
+            map.put(i, "v" + i);
+        }
+        assertTrue(map.mapIterator() instanceof FlatNMap.FlatMapIterator);
+        map.put(8, "v8");
+        assertFalse(map.mapIterator() instanceof FlatNMap.FlatMapIterator);
+        assertEquals(9, map.size());
+        for (int i = 0; i < 9; i++) {
+            assertEquals("v" + i, map.get(i));
+        }
+        map.clear();
+        map.put(1, "one");
+        assertTrue(map.mapIterator() instanceof FlatNMap.FlatMapIterator);
+        assertEquals("{1=one}", map.toString());
+    }
+
+    @Test
+    public void testCollidingTags() {
+        final FlatNMap<Key, Integer> map = new FlatNMap<>(16);
+        final Map<Key, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 16; i++) {
+            // every other key shares one hash code, the rest share a tag but not a hash
+            final Key key = new Key(i, i % 2 == 0 ? 42 : 42 + (i << 25));
+            assertNull(map.put(key, i));
+            expected.put(key, i);
+        }
+        map.put(null, -1);
+        expected.put(null, -1);
+        assertEquals(expected, map);
+        assertEquals(expected.hashCode(), map.hashCode());
+        for (int i = 0; i < 16; i++) {
+            assertEquals(i, map.get(new Key(i, 0 == i % 2 ? 42 : 42 + (i << 25))).intValue());
+            assertFalse(map.containsKey(new Key(i + 100, 42)));
+        }
+        assertEquals(-1, map.get(null).intValue());
+    }
+
+    @Test
+    public void testRandomOperations() {
+        final Random random = new Random(30);
+        final FlatNMap<Integer, Integer> map = new FlatNMap<>(12);
+        final Map<Integer, Integer> expected = new HashMap<>();
+        for (int step = 0; step < 20000; step++) {
+            final Integer key = random.nextInt(14);
+            switch (random.nextInt(5)) {
+            case 0:
+                assertEquals(expected.remove(key), map.remove(key));
+                break;
+            case 1:
+                assertEquals(expected.containsKey(key), map.containsKey(key));
+                break;
+            case 2:
+                if (random.nextInt(50) == 0) {
+                    expected.clear();
+                    map.clear();
+                }
+                break;
+            default:
+                assertEquals(expected.put(key, step), map.put(key, step));
+                break;
+            }
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected.get(key), map.get(key));
+        }
+        assertEquals(expected, map);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testIteratorRemoveVisitsEveryEntry() {
+        final FlatNMap<K, V> map = new FlatNMap<>(16);
+        for (int i = 0; i < 10; i++) {
+            map.put((K) Integer.valueOf(i), (V) Integer.valueOf(i));
+        }
+        int visited = 0;
+        for (final MapIterator<K, V> it = map.mapIterator(); it.hasNext();) {
+            final Integer key = (Integer) it.next();
+            assertEquals(key, it.getValue());
+            visited++;
+            if (key % 3 == 0) {
+                it.remove();
+            }
+        }
+        assertEquals(10, visited);
+        assertEquals(6, map.size());
+        visited = 0;
+        for (final Iterator<Map.Entry<K, V>> it = map.entrySet().iterator(); it.hasNext();) {
+            final Map.Entry<K, V> entry = it.next();
+            visited++;
+            if ((Integer) entry.getKey() % 2 == 0) {
+                it.remove();
+                assertThrows(IllegalStateException.class, entry::getValue);
+            }
+        }
+        assertEquals(6, visited);
+        assertEquals(3, map.size());
+        for (final Object key : map.keySet()) {
+            assertTrue((Integer) key % 2 != 0 && (Integer) key % 3 != 0);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testEntryFollowsMovedKey() {
+        final FlatNMap<K, V> map = new FlatNMap<>();
+        map.put((K) "a", (V) "1");
+        map.put((K) "b", (V) "2");
+        map.put((K) "c", (V) "3");
+        Map.Entry<K, V> last = null;
+        for (final Map.Entry<K, V> entry : map.entrySet()) {
+            last = entry;
+        }
+        final Object key = last.getKey();
+        map.remove(map.keySet().iterator().next());
+        assertEquals(map.get(key), last.getValue());
+        last.setValue((V) "x");
+        assertEquals("x", map.get(key));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testCloneAndSerialization() throws Exception {
+        final FlatNMap<K, V> map = new FlatNMap<>(16);
+        for (int i = 0; i < 12; i++) {
+            map.put((K) Integer.valueOf(i), (V) ("v" + i));
+        }
+        final FlatNMap<K, V> cloned = map.clone();
+        map.put((K) Integer.valueOf(0), (V) "changed");
+        assertEquals("v0", cloned.get(0));
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(map);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            final FlatNMap<K, V> read = (FlatNMap<K, V>) in.readObject();
+            assertEquals(map, read);
+            assertEquals(16, read.flatSize());
+            assertTrue(read.mapIterator() instanceof FlatNMap.FlatMapIterator);
+        }
+    }
+
+//    public void testCreate() throws Exception {
+//        resetEmpty();
+//        writeExternalFormToDisk(
+//            (java.io.Serializable) map,
+//            "src/test/resources/org/apache/commons/collections4/data/test/FlatNMap.emptyCollection.version4.5.obj");
+//        resetFull();
+//        writeExternalFormToDisk(
+//            (java.io.Serializable) map,
+//            "src/test/resources/org/apache/commons/collections4/data/test/FlatNMap.fullCollection.version4.5.obj");
+//    }
+
+}
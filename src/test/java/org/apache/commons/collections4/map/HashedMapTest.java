@@ -17,7 +17,20 @@
 package org.apache.commons.collections4.map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
 
 import org.junit.jupiter.api.Test;
 
@@ -71,6 +84,143 @@ public class HashedMapTest<K, V> extends AbstractIterableMapTest<K, V> {
         assertEquals(96, map.threshold);
     }
 
+    @Test
+    public void testParallelPutAll() {
+        final Map<Integer, Integer> input = new LinkedHashMap<>();
+        for (int i = 0; i < 100_000; i++) {
+            input.put(i * 7, i);
+        }
+        final HashedMap<Integer, Integer> map = new HashedMap<>();
+        final Map<Integer, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, -i);
+            expected.put(i, -i);
+        }
+        map.put(null, 1);
+        expected.put(null, 1);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            map.putAll(input, pool);
+        } finally {
+            pool.shutdown();
+        }
+        expected.putAll(input);
+        assertEquals(expected, map);
+        assertEquals(expected.size(), map.size());
+        for (final Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testBulkMerge() {
+        final Map<String, Integer> input = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            input.put("k" + i, i % 3);
+        }
+        final BiFunction<Integer, Integer, Integer> sum = (a, b) -> a + b == 0 ? null : a + b;
+        final Map<String, Integer> expected = new HashMap<>();
+        final HashedMap<String, Integer> sequential = new HashedMap<>();
+        final HashedMap<String, Integer> parallel = new HashedMap<>();
+        for (int i = 0; i < 50_000; i += 2) {
+            expected.put("k" + i, i % 3 == 0 ? 0 : 1);
+        }
+        expected.put("absent", null);
+        sequential.putAll(expected);
+        parallel.putAll(expected);
+        input.forEach((k, v) -> expected.merge(k, v, sum));
+
+        sequential.merge(input, sum);
+        assertEquals(expected, sequential);
+        final ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            parallel.merge(input, sum, pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(expected, parallel);
+        assertEquals(expected.size(), parallel.size());
+
+        final Map<String, Integer> withNull = new HashMap<>();
+        withNull.put("x", null);
+        assertThrows(NullPointerException.class, () -> sequential.merge(withNull, sum));
+        assertThrows(NullPointerException.class, () -> sequential.merge(input, null));
+    }
+
+    @Test
+    public void testBulkOperationsFallBackForLinkedMaps() {
+        final Map<Integer, Integer> input = new LinkedHashMap<>();
+        for (int i = 10_000; i > 0; i--) {
+            input.put(i, i);
+        }
+        final LinkedMap<Integer, Integer> linked = new LinkedMap<>();
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            linked.putAll(input, pool);
+            linked.merge(input, Integer::sum, pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(input.keySet().iterator().next(), linked.firstKey());
+        assertEquals(Integer.valueOf(2), linked.get((Object) 1));
+    }
+
+    @Test
+    public void testBulkOperationsUseOverriddenPutInSubclasses() {
+        final HashedMap<String, String> lowerCase = new HashedMap<String, String>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public String put(final String key, final String value) {
+                return super.put(key.toLowerCase(Locale.ROOT), value);
+            }
+        };
+        final Map<String, String> input = new HashMap<>();
+        input.put("KEY", "value");
+        lowerCase.putAll(input);
+        assertEquals(Collections.singleton("key"), lowerCase.keySet());
+        final ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            input.put("OTHER", "value");
+            lowerCase.putAll(input, pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(new HashSet<>(Arrays.asList("key", "other")), lowerCase.keySet());
+    }
+
+    @Test
+    public void testComputeMethodsMatchHashMap() {
+        final HashedMap<String, Integer> map = new HashedMap<>();
+        final Map<String, Integer> expected = new HashMap<>();
+        for (final Map<String, Integer> m : Arrays.asList(map, expected)) {
+            m.put("a", 1);
+            m.put("n", null);
+            m.put(null, 0);
+            assertEquals(1, m.computeIfAbsent("a", k -> 5));
+            assertEquals(6, m.computeIfAbsent("n", k -> 6));
+            assertNull(m.computeIfAbsent("x", k -> null));
+            assertEquals(7, m.computeIfAbsent("b", k -> 7));
+            assertEquals(2, m.computeIfPresent("a", (k, v) -> v + 1));
+            assertNull(m.computeIfPresent("zz", (k, v) -> 1));
+            assertNull(m.computeIfPresent("b", (k, v) -> null));
+            assertEquals(10, m.compute(null, (k, v) -> v + 10));
+            assertEquals(3, m.compute("c", (k, v) -> v == null ? 3 : v));
+            assertNull(m.compute("c", (k, v) -> null));
+            assertEquals(4, m.merge("a", 2, Integer::sum));
+            assertEquals(9, m.merge("d", 9, Integer::sum));
+            assertNull(m.merge("d", 9, (a, b) -> null));
+            assertNull(m.putIfAbsent("e", 1));
+            assertEquals(1, m.putIfAbsent("e", 2));
+            assertEquals(-1, m.getOrDefault("zz", -1));
+            assertEquals(4, m.getOrDefault("a", -1));
+        }
+        assertEquals(expected, map);
+        assertThrows(NullPointerException.class, () -> map.merge("a", null, Integer::sum));
+        assertThrows(NullPointerException.class, () -> map.computeIfAbsent("a", null));
+        assertThrows(ConcurrentModificationException.class, () -> map.computeIfAbsent("new", k -> map.put("other", 1)));
+    }
+
 //    public void testCreate() throws Exception {
 //        resetEmpty();
 //        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/data/test/HashedMap.emptyCollection.version4.obj");
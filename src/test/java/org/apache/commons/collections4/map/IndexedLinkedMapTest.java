@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit tests.
+ */
+public class IndexedLinkedMapTest<K, V> extends LinkedMapTest<K, V> {
+
+    @Override
+    public IndexedLinkedMap<K, V> makeObject() {
+        return new IndexedLinkedMap<>();
+    }
+
+    @Override
+    public IndexedLinkedMap<K, V> makeFullMap() {
+        return (IndexedLinkedMap<K, V>) super.makeFullMap();
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.5";
+    }
+
+    @Test
+    public void testIndexedOperationsMatchInsertionOrder() {
+        final Random random = new Random(42);
+        final IndexedLinkedMap<Integer, Integer> map = new IndexedLinkedMap<>();
+        final List<Integer> order = new ArrayList<>();
+        for (int round = 0; round < 20_000; round++) {
+            final int key = random.nextInt(2_000);
+            switch (random.nextInt(4)) {
+            case 0:
+            case 1:
+                if (map.put(key, round) == null) {
+                    order.add(key);
+                }
+                break;
+            case 2:
+                map.remove((Object) key);
+                order.remove((Integer) key);
+                break;
+            default:
+                if (!order.isEmpty()) {
+                    final int index = random.nextInt(order.size());
+                    assertEquals(order.remove(index), map.get(index));
+                    map.remove(index);
+                }
+                break;
+            }
+            if (round % 97 == 0) {
+                assertEquals(order.size(), map.size());
+                for (int i = 0; i < order.size(); i++) {
+                    assertEquals(order.get(i), map.get(i));
+                    assertEquals(i, map.indexOf(order.get(i)));
+                }
+                assertEquals(order, map.asList());
+            }
+        }
+        assertEquals(-1, map.indexOf(-1));
+        final IndexedLinkedMap<Integer, Integer> clone = map.clone();
+        map.clear();
+        assertEquals(order, clone.asList());
+        map.put(5, 5);
+        assertEquals(0, map.indexOf(5));
+        assertEquals(Integer.valueOf(5), map.get(0));
+    }
+
+//    public void testCreate() throws Exception {
+//        resetEmpty();
+//        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/org/apache/commons/collections4/data/test/IndexedLinkedMap.emptyCollection.version4.5.obj");
+//        resetFull();
+//        writeExternalFormToDisk((java.io.Serializable) map, "src/test/resources/org/apache/commons/collections4/data/test/IndexedLinkedMap.fullCollection.version4.5.obj");
+//    }
+
+}
@@ -27,6 +27,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -71,6 +72,39 @@ public class LRUMapTest<K, V> extends AbstractOrderedMapTest<K, V> {
         return (LRUMap<K, V>) super.getMap();
     }
 
+    @Test
+    public void testComputeMethodsUpdateRecency() {
+        final List<String> evicted = new ArrayList<>();
+        final LRUMap<String, Integer> map = new LRUMap<String, Integer>(3) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeLRU(final LinkEntry<String, Integer> entry) {
+                evicted.add(entry.getKey());
+                return true;
+            }
+        };
+        map.put("a", 1);
+        map.put("b", 2);
+        map.put("c", 3);
+        // a hit moves the entry to the most recently used position
+        assertEquals(1, map.computeIfAbsent("a", k -> 0));
+        assertEquals("a", map.lastKey());
+        assertEquals(2, map.getOrDefault("b", 0));
+        assertEquals("b", map.lastKey());
+        // a miss on a full map evicts the least recently used entry
+        assertEquals(4, map.computeIfAbsent("d", k -> 4));
+        assertEquals(Arrays.asList("c"), evicted);
+        assertEquals(Arrays.asList("a", "b", "d"), new ArrayList<>(map.keySet()));
+        assertEquals(11, map.merge("a", 10, Integer::sum));
+        assertEquals("a", map.lastKey());
+        assertEquals(12, map.compute("b", (k, v) -> v + 10));
+        assertEquals("b", map.lastKey());
+        assertNull(map.compute("d", (k, v) -> null));
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<>(map.keySet()));
+        assertEquals(2, map.size());
+    }
+
     @Test
     public void testCtors() {
         assertAll(
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.collections4.IterableMap;
+import org.apache.commons.collections4.Unmodifiable;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Extension of {@link AbstractMapTest} for exercising the
+ * {@link UnmodifiableFlatMap} implementation.
+ */
+public class UnmodifiableFlatMapTest<K, V> extends AbstractIterableMapTest<K, V> {
+
+    public UnmodifiableFlatMapTest() {
+        super(UnmodifiableFlatMapTest.class.getSimpleName());
+    }
+
+    @Override
+    public IterableMap<K, V> makeObject() {
+        return new UnmodifiableFlatMap<>(new HashMap<>());
+    }
+
+    @Override
+    public boolean isPutChangeSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isPutAddSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isRemoveSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isSetValueSupported() {
+        return false;
+    }
+
+    @Override
+    public IterableMap<K, V> makeFullMap() {
+        final Map<K, V> m = new HashMap<>();
+        addSampleMappings(m);
+        return new UnmodifiableFlatMap<>(m);
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.5";
+    }
+
+    @Test
+    public void testUnmodifiable() {
+        assertTrue(makeObject() instanceof Unmodifiable);
+        assertTrue(makeFullMap() instanceof Unmodifiable);
+        assertTrue(makeFullMap().mapIterator() instanceof Unmodifiable);
+        assertThrows(NullPointerException.class, () -> new UnmodifiableFlatMap<>(null));
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        final Map<Integer, String> source = new HashMap<>();
+        for (int i = 0; i < 40; i++) {
+            source.put(i, "v" + i);
+        }
+        final UnmodifiableFlatMap<Integer, String> map = new UnmodifiableFlatMap<>(source);
+        source.clear();
+        assertEquals(40, map.size());
+        for (int i = 0; i < 40; i++) {
+            assertEquals("v" + i, map.get(i));
+        }
+        assertEquals(map, new FlatNMap<>(map));
+    }
+
+    @Test
+    public void testCopyWhenSizeIsStale() {
+        // like a concurrent map that gains entries after reporting its size
+        final Map<Integer, String> source = new HashMap<Integer, String>() {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            public int size() {
+                return 1;
+            }
+        };
+        for (int i = 0; i < 10; i++) {
+            source.put(i, "v" + i);
+        }
+        final UnmodifiableFlatMap<Integer, String> map = new UnmodifiableFlatMap<>(source);
+        assertEquals(10, map.size());
+        for (int i = 0; i < 10; i++) {
+            assertEquals("v" + i, map.get(i));
+        }
+    }
+
+//    public void testCreate() throws Exception {
+//        resetEmpty();
+//        writeExternalFormToDisk(
+//            (java.io.Serializable) map,
+//            "src/test/resources/org/apache/commons/collections4/data/test/UnmodifiableFlatMap.emptyCollection.version4.5.obj");
+//        resetFull();
+//        writeExternalFormToDisk(
+//            (java.io.Serializable) map,
+//            "src/test/resources/org/apache/commons/collections4/data/test/UnmodifiableFlatMap.fullCollection.version4.5.obj");
+//    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.multiset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.commons.collections4.MultiSet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Extension of {@link AbstractMultiSetTest} for exercising the
+ * {@link ConcurrentHashMultiSet} implementation.
+ */
+public class ConcurrentHashMultiSetTest<T> extends AbstractMultiSetTest<T> {
+
+    public ConcurrentHashMultiSetTest() {
+        super(ConcurrentHashMultiSetTest.class.getSimpleName());
+    }
+
+    @Override
+    public MultiSet<T> makeObject() {
+        return new ConcurrentHashMultiSet<>();
+    }
+
+    @Override
+    public boolean isNullSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isFailFastSupported() {
+        return false;
+    }
+
+    @Override
+    public String getCompatibilityVersion() {
+        return "4.5";
+    }
+
+    @Override
+    protected int getIterationBehaviour() {
+        return UNORDERED;
+    }
+
+    /**
+     * The views are weakly consistent, so modification during iteration is allowed.
+     */
+    @Test
+    @Override
+    @SuppressWarnings("unchecked")
+    public void testMultiSetIteratorFail() {
+        final MultiSet<T> multiset = makeObject();
+        multiset.add((T) "A");
+        multiset.add((T) "A");
+        multiset.add((T) "B");
+        final Iterator<T> it = multiset.iterator();
+        it.next();
+        multiset.remove("A");
+        it.next();
+        assertEquals(2, multiset.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testAddNull() {
+        final MultiSet<T> multiset = makeObject();
+        assertThrows(NullPointerException.class, () -> multiset.add(null));
+        assertThrows(NullPointerException.class, () -> multiset.add(null, 2));
+        assertThrows(NullPointerException.class, () -> multiset.setCount(null, 2));
+        assertEquals(0, multiset.getCount(null));
+        assertEquals(0, multiset.remove(null, 1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSetCount() {
+        final MultiSet<T> multiset = makeObject();
+        assertEquals(0, multiset.setCount((T) "A", 5));
+        assertEquals(5, multiset.setCount((T) "A", 2));
+        assertEquals(2, multiset.size());
+        assertEquals(2, multiset.setCount((T) "A", 0));
+        assertEquals(0, multiset.size());
+        assertEquals(0, multiset.uniqueSet().size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testConcurrentAddAndRemove() throws InterruptedException {
+        final MultiSet<T> multiset = makeObject();
+        final int threads = 8;
+        final int rounds = 20000;
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final boolean remover = t % 2 == 1;
+            final Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < rounds; i++) {
+                    final T key = (T) ("k" + i % 4);
+                    multiset.add(key, 2);
+                    if (remover) {
+                        multiset.remove(key, 2);
+                    }
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        start.countDown();
+        for (final Thread worker : workers) {
+            worker.join();
+        }
+        final int expected = threads / 2 * rounds * 2;
+        assertEquals(expected, multiset.size());
+        int total = 0;
+        for (final MultiSet.Entry<T> entry : multiset.entrySet()) {
+            total += entry.getCount();
+        }
+        assertEquals(expected, total);
+        assertEquals(expected / 4, multiset.getCount("k0"));
+    }
+
+//    public void testCreate() throws Exception {
+//        MultiSet<T> multiset = makeObject();
+//        writeExternalFormToDisk((java.io.Serializable) multiset, "src/test/resources/data/test/ConcurrentHashMultiSet.emptyCollection.version4.5.obj");
+//        multiset = makeFullCollection();
+//        writeExternalFormToDisk((java.io.Serializable) multiset, "src/test/resources/data/test/ConcurrentHashMultiSet.fullCollection.version4.5.obj");
+//    }
+
+}
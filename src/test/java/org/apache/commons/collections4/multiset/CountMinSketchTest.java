@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.multiset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests {@link CountMinSketch}.
+ */
+public class CountMinSketchTest {
+
+    @Test
+    public void testConstructorArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch<>(0, 16));
+        assertThrows(IllegalArgumentException.class, () -> new CountMinSketch<>(4, 0));
+        assertThrows(IllegalArgumentException.class, () -> CountMinSketch.fromErrorBounds(0, 0.1));
+        assertThrows(IllegalArgumentException.class, () -> CountMinSketch.fromErrorBounds(0.1, 1));
+        final CountMinSketch<String> sketch = new CountMinSketch<>(3, 100);
+        assertEquals(3, sketch.getDepth());
+        assertEquals(128, sketch.getWidth());
+        final CountMinSketch<String> sized = CountMinSketch.fromErrorBounds(0.001, 0.01);
+        assertEquals(5, sized.getDepth());
+        assertEquals(4096, sized.getWidth());
+    }
+
+    @Test
+    public void testAddAndEstimate() {
+        final CountMinSketch<String> sketch = new CountMinSketch<>(4, 1024);
+        assertEquals(0, sketch.getCount("A"));
+        sketch.add("A");
+        sketch.add("A", 4);
+        sketch.add("B", 0);
+        assertEquals(5, sketch.getCount("A"));
+        assertEquals(0, sketch.getCount("B"));
+        assertEquals(0, sketch.getCount(null));
+        assertEquals(5, sketch.size());
+        assertThrows(NullPointerException.class, () -> sketch.add(null));
+        assertThrows(IllegalArgumentException.class, () -> sketch.add("A", -1));
+        sketch.clear();
+        assertEquals(0, sketch.getCount("A"));
+        assertEquals(0, sketch.size());
+    }
+
+    @Test
+    public void testErrorBound() {
+        final double epsilon = 0.01;
+        final CountMinSketch<Integer> sketch = CountMinSketch.fromErrorBounds(epsilon, 0.001);
+        final Map<Integer, Integer> exact = new HashMap<>();
+        final Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            final int key = (int) Math.abs(random.nextGaussian() * 1000);
+            sketch.add(key);
+            exact.merge(key, 1, Integer::sum);
+        }
+        final long bound = (long) (epsilon * sketch.size());
+        for (final Map.Entry<Integer, Integer> entry : exact.entrySet()) {
+            final long estimate = sketch.getCount(entry.getKey());
+            assertTrue(estimate >= entry.getValue());
+            assertTrue(estimate - entry.getValue() <= bound);
+        }
+    }
+
+    @Test
+    public void testEqualHashCodesShareCounters() {
+        final CountMinSketch<String> sketch = new CountMinSketch<>(5, 1024);
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        sketch.add("Aa", 3);
+        assertEquals(3, sketch.getCount("BB"));
+    }
+
+}
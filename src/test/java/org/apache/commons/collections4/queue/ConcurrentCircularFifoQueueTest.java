@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.commons.collections4.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests {@link ConcurrentCircularFifoQueue}.
+ */
+public class ConcurrentCircularFifoQueueTest {
+
+    @Test
+    public void testConstructorArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentCircularFifoQueue<>(0));
+        final ConcurrentCircularFifoQueue<String> queue = new ConcurrentCircularFifoQueue<>();
+        assertEquals(32, queue.maxSize());
+        assertFalse(queue.isFull());
+        assertFalse(queue.isSingleProducer());
+        assertTrue(new ConcurrentCircularFifoQueue<>(4, true).isSingleProducer());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testOverwritesOldest(final boolean singleProducer) {
+        final ConcurrentCircularFifoQueue<Integer> queue = new ConcurrentCircularFifoQueue<>(3, singleProducer);
+        assertNull(queue.peek());
+        assertNull(queue.poll());
+        assertThrows(NoSuchElementException.class, queue::remove);
+        assertThrows(NullPointerException.class, () -> queue.add(null));
+        for (int i = 0; i < 5; i++) {
+            queue.add(i);
+        }
+        assertEquals(3, queue.size());
+        assertEquals(Arrays.asList(2, 3, 4), new ArrayList<>(queue));
+        assertEquals(2, queue.peek().intValue());
+        assertEquals(2, queue.poll().intValue());
+        queue.add(5);
+        queue.add(6);
+        assertEquals(Arrays.asList(4, 5, 6), new ArrayList<>(queue));
+        assertEquals(4, queue.remove().intValue());
+        queue.clear();
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testOfferAllAndDrainTo(final boolean singleProducer) {
+        final ConcurrentCircularFifoQueue<Integer> queue = new ConcurrentCircularFifoQueue<>(4, singleProducer);
+        assertEquals(0, queue.offerAll(Collections.emptyList()));
+        assertEquals(2, queue.offerAll(Arrays.asList(0, 1)));
+        assertEquals(6, queue.offerAll(Arrays.asList(2, 3, 4, 5, 6, 7)));
+        assertThrows(NullPointerException.class, () -> queue.offerAll(Arrays.asList(8, null)));
+        final List<Integer> drained = new ArrayList<>();
+        assertEquals(3, queue.drainTo(drained, 3));
+        assertEquals(Arrays.asList(4, 5, 6), drained);
+        queue.add(8);
+        assertEquals(2, queue.drainTo(drained));
+        assertEquals(Arrays.asList(4, 5, 6, 7, 8), drained);
+        assertEquals(0, queue.drainTo(drained));
+        assertThrows(IllegalArgumentException.class, () -> queue.drainTo(queue));
+    }
+
+    @Test
+    public void testMultipleProducersWithoutOverflow() throws InterruptedException {
+        final int producers = 4;
+        final int perProducer = 20000;
+        final ConcurrentCircularFifoQueue<Integer> queue =
+                new ConcurrentCircularFifoQueue<>(producers * perProducer);
+        final List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int base = p * perProducer;
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    queue.offer(base + i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        final Set<Integer> seen = new HashSet<>();
+        final int[] last = new int[producers];
+        Arrays.fill(last, -1);
+        while (seen.size() < producers * perProducer) {
+            final Integer value = queue.poll();
+            if (value == null) {
+                Thread.yield();
+                continue;
+            }
+            assertTrue(seen.add(value), "duplicate " + value);
+            final int producer = value / perProducer;
+            assertTrue(value > last[producer], "out of order " + value);
+            last[producer] = value;
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(queue.poll());
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testConsumerLappedByProducers(final boolean singleProducer) throws InterruptedException {
+        final int producers = singleProducer ? 1 : 4;
+        final int perProducer = 50000;
+        final ConcurrentCircularFifoQueue<Integer> queue = new ConcurrentCircularFifoQueue<>(16, singleProducer);
+        final AtomicInteger running = new AtomicInteger(producers);
+        for (int p = 0; p < producers; p++) {
+            final int base = p * perProducer;
+            new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    if (i % 100 == 0) {
+                        queue.offerAll(Arrays.asList(base + i, base + i + 1));
+                        i++;
+                    } else {
+                        queue.offer(base + i);
+                    }
+                }
+                running.decrementAndGet();
+            }).start();
+        }
+        final Set<Integer> seen = new HashSet<>();
+        final int[] last = new int[producers];
+        Arrays.fill(last, -1);
+        final List<Integer> batch = new ArrayList<>();
+        while (running.get() > 0 || !queue.isEmpty()) {
+            batch.clear();
+            if (queue.drainTo(batch, 8) == 0) {
+                Thread.yield();
+            }
+            for (final Integer value : batch) {
+                assertTrue(seen.add(value), "duplicate " + value);
+                final int producer = value / perProducer;
+                assertTrue(value > last[producer], "out of order " + value);
+                last[producer] = value;
+            }
+        }
+        assertTrue(queue.size() <= queue.maxSize());
+    }
+
+}
@@ -21,11 +21,16 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.TreeSet;
 
+import org.apache.commons.collections4.BoundedCollection;
+import org.apache.commons.collections4.bloomfilter.Shape;
 import org.apache.commons.collections4.set.CompositeSet.SetMutator;
 import org.junit.jupiter.api.Test;
 
@@ -199,6 +204,122 @@ public class CompositeSetTest<E> extends AbstractSetTest<E> {
         return UNORDERED;
     }
 
+    @Test
+    public void testMembershipSummaries() {
+        final int[] probes = new int[1];
+        final CompositeSet<Integer> set = new CompositeSet<>();
+        for (int layer = 0; layer < 10; layer++) {
+            final Set<Integer> snapshot = new HashSet<Integer>() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                public boolean contains(final Object obj) {
+                    probes[0]++;
+                    return super.contains(obj);
+                }
+            };
+            for (int i = 0; i < 50; i++) {
+                snapshot.add(layer * 1000 + i);
+            }
+            set.addComposited(snapshot);
+        }
+        final Set<Integer> overlay = new HashSet<>();
+        set.addComposited(overlay);
+        set.setMutator(new EmptySetMutator<>(overlay));
+        set.enableMembershipSummaries(Shape.fromNP(50, 0.001));
+
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(set.contains(-1 - i));
+        }
+        assertTrue(probes[0] < 100, "probes: " + probes[0]);
+        assertTrue(set.contains(9049));
+
+        // the snapshots did not change, so adding does not probe them
+        probes[0] = 0;
+        assertTrue(set.add(-1));
+        assertTrue(set.addAll(Arrays.asList(-2, -3)));
+        assertEquals(0, probes[0]);
+        assertTrue(set.contains(-1));
+        assertTrue(set.containsAll(Arrays.asList(-1, -2, -3, 5, 4004)));
+        assertTrue(set.remove(4004));
+        assertFalse(set.contains(4004));
+
+        set.removeComposited(overlay);
+        assertFalse(set.contains(-2));
+        assertTrue(set.contains(3003));
+        set.clear();
+        probes[0] = 0;
+        assertFalse(set.contains(3003));
+        assertEquals(0, probes[0]);
+        set.disableMembershipSummaries();
+        assertFalse(set.contains(3003));
+        assertEquals(10, probes[0]);
+    }
+
+    /**
+     * Keeps the most recently added elements.
+     */
+    private static final class EvictingSet<E> extends LinkedHashSet<E> implements BoundedCollection<E> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        EvictingSet(final int maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public boolean add(final E e) {
+            if (!contains(e) && size() == maxSize) {
+                remove(iterator().next());
+            }
+            return super.add(e);
+        }
+
+        @Override
+        public boolean isFull() {
+            return size() == maxSize;
+        }
+
+        @Override
+        public int maxSize() {
+            return maxSize;
+        }
+    }
+
+    @Test
+    public void testMembershipSummariesWithEvictingSet() {
+        final EvictingSet<Integer> bounded = new EvictingSet<>(2);
+        bounded.add(1);
+        bounded.add(2);
+        final CompositeSet<Integer> set = new CompositeSet<>(new HashSet<>(Arrays.asList(10, 11)), bounded);
+        set.setMutator(new EmptySetMutator<>(bounded));
+        set.enableMembershipSummaries(Shape.fromNP(50, 0.001));
+
+        // the size of the bounded set does not change when it evicts 1 for 3
+        assertTrue(set.add(3));
+        assertTrue(bounded.contains(3));
+        assertTrue(set.contains(3));
+        assertTrue(set.addAll(Arrays.asList(4)));
+        assertTrue(set.contains(4));
+        assertFalse(set.contains(2));
+    }
+
+    @Test
+    public void testMembershipSummariesSkipComparatorSets() {
+        final Set<String> sorted = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        sorted.add("foo");
+        final CompositeSet<String> set = new CompositeSet<>(new HashSet<>(Arrays.asList("bar")), sorted);
+        set.setMutator(new EmptySetMutator<>(sorted));
+        set.enableMembershipSummaries(Shape.fromNP(50, 0.001));
+        assertTrue(set.contains("FOO"));
+        assertTrue(set.add("Baz"));
+        assertTrue(set.contains("BAZ"));
+        assertTrue(set.contains("bar"));
+        set.clear();
+        assertFalse(set.contains("foo"));
+    }
+
 //    public void testCreate() throws Exception {
 //        resetEmpty();
 //        writeExternalFormToDisk((java.io.Serializable) getCollection(), "src/test/resources/data/test/CompositeSet.emptyCollection.version4.obj");